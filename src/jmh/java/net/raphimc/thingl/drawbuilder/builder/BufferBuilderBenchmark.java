@@ -0,0 +1,90 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.drawbuilder.builder;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferBuilderBenchmark {
+
+    @Param({"1024", "65536"})
+    private int count;
+
+    private BufferBuilder bufferBuilder;
+
+    @Setup
+    public void setup() {
+        this.bufferBuilder = new BufferBuilder(this.count * 3 * Float.BYTES);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.bufferBuilder.free();
+    }
+
+    @Benchmark
+    public long putFloat() {
+        final BufferBuilder bufferBuilder = this.bufferBuilder;
+        bufferBuilder.reset();
+        for (int i = 0; i < this.count; i++) {
+            bufferBuilder.putFloat(i);
+        }
+        return bufferBuilder.getCursorAddress();
+    }
+
+    @Benchmark
+    public long putInt() {
+        final BufferBuilder bufferBuilder = this.bufferBuilder;
+        bufferBuilder.reset();
+        for (int i = 0; i < this.count; i++) {
+            bufferBuilder.putInt(i);
+        }
+        return bufferBuilder.getCursorAddress();
+    }
+
+    @Benchmark
+    public long putVector3f() {
+        final BufferBuilder bufferBuilder = this.bufferBuilder;
+        bufferBuilder.reset();
+        for (int i = 0; i < this.count; i++) {
+            bufferBuilder.putVector3f(i, i + 1, i + 2);
+        }
+        return bufferBuilder.getCursorAddress();
+    }
+
+    @Benchmark
+    public long putFloatGrowing() {
+        final BufferBuilder bufferBuilder = new BufferBuilder(1024);
+        try {
+            for (int i = 0; i < this.count; i++) {
+                bufferBuilder.putFloat(i);
+            }
+            return bufferBuilder.getCursorAddress();
+        } finally {
+            bufferBuilder.free();
+        }
+    }
+
+}
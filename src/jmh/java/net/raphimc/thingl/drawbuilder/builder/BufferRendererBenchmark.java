@@ -0,0 +1,95 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.drawbuilder.builder;
+
+import net.raphimc.thingl.drawbuilder.BuiltinDrawBatches;
+import net.raphimc.thingl.drawbuilder.DrawBatch;
+import net.raphimc.thingl.drawbuilder.DrawMode;
+import net.raphimc.thingl.drawbuilder.databuilder.holder.VertexDataHolder;
+import net.raphimc.thingl.drawbuilder.drawbatchdataholder.DrawBatchDataHolder;
+import net.raphimc.thingl.util.BufferUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the CPU side of {@link BufferRenderer#prepareBuffer(DrawBatch, DrawBatchDataHolder, boolean)}.<br>
+ * Uses a non-quad draw batch, so no ThinGL instance or GL context is required.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferRendererBenchmark {
+
+    private static final DrawBatch DRAW_BATCH = new DrawBatch.Builder()
+            .program(() -> null)
+            .drawMode(DrawMode.TRIANGLES)
+            .vertexDataLayout(BuiltinDrawBatches.POSITION_COLOR_LAYOUT)
+            .build();
+
+    @Param({"64", "256"})
+    private int gridSize;
+
+    @Param({"false", "true"})
+    private boolean optimizeMesh;
+
+    private BufferBuilder vertexBufferBuilder;
+    private DrawBatchDataHolder drawBatchDataHolder;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        this.vertexBufferBuilder = new BufferBuilder(this.gridSize * this.gridSize * 6 * BuiltinDrawBatches.POSITION_COLOR_LAYOUT.getSize());
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        this.vertexBufferBuilder.reset();
+        this.drawBatchDataHolder = new DrawBatchDataHolder(() -> this.vertexBufferBuilder, BufferBuilder::reset);
+        final VertexDataHolder vertexDataHolder = this.drawBatchDataHolder.getVertexDataHolder();
+        for (int y = 0; y < this.gridSize; y++) {
+            for (int x = 0; x < this.gridSize; x++) {
+                final int color = (x * 31 + y * 17) | 0xFF000000;
+                vertexDataHolder.putVector3f(x, y, 0F).putColor(color).endVertex();
+                vertexDataHolder.putVector3f(x, y + 1, 0F).putColor(color).endVertex();
+                vertexDataHolder.putVector3f(x + 1, y + 1, 0F).putColor(color).endVertex();
+                vertexDataHolder.putVector3f(x + 1, y + 1, 0F).putColor(color).endVertex();
+                vertexDataHolder.putVector3f(x + 1, y, 0F).putColor(color).endVertex();
+                vertexDataHolder.putVector3f(x, y, 0F).putColor(color).endVertex();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+        this.vertexBufferBuilder.free();
+    }
+
+    @Benchmark
+    public PreparedBuffer prepareBuffer() {
+        final PreparedBuffer preparedBuffer = BufferRenderer.prepareBuffer(DRAW_BATCH, this.drawBatchDataHolder, this.optimizeMesh);
+        if (preparedBuffer.indexBuffer() != null) { // PreparedBuffer#free requires a ThinGL instance
+            BufferUtil.memFree(preparedBuffer.indexBuffer().buffer());
+        }
+        preparedBuffer.drawBatchDataHolder().free();
+        return preparedBuffer;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.drawbuilder.databuilder.holder;
+
+import net.raphimc.thingl.drawbuilder.builder.BufferBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VertexDataHolderBenchmark {
+
+    @Param({"1024", "65536"})
+    private int vertexCount;
+
+    private BufferBuilder bufferBuilder;
+
+    @Setup
+    public void setup() {
+        this.bufferBuilder = new BufferBuilder(this.vertexCount * (3 * Float.BYTES + Integer.BYTES));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.bufferBuilder.free();
+    }
+
+    @Benchmark
+    public int endVertex() {
+        this.bufferBuilder.reset();
+        final VertexDataHolder vertexDataHolder = new VertexDataHolder(this.bufferBuilder);
+        for (int i = 0; i < this.vertexCount; i++) {
+            vertexDataHolder.putVector3f(i, i, 0F).putColor(0xFFFFFFFF).endVertex();
+        }
+        return vertexDataHolder.getVertexCount();
+    }
+
+}
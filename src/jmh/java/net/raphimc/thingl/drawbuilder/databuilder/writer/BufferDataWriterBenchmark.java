@@ -0,0 +1,71 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.drawbuilder.databuilder.writer;
+
+import net.raphimc.thingl.drawbuilder.builder.BufferBuilder;
+import net.raphimc.thingl.drawbuilder.databuilder.holder.VertexDataHolder;
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BufferDataWriterBenchmark {
+
+    private static final int VERTEX_COUNT = 16384;
+
+    @Param({"identity", "translation", "affine", "perspective"})
+    private String matrixType;
+
+    private BufferBuilder bufferBuilder;
+    private Matrix4f positionMatrix;
+
+    @Setup
+    public void setup() {
+        this.bufferBuilder = new BufferBuilder(VERTEX_COUNT * 3 * Float.BYTES);
+        this.positionMatrix = switch (this.matrixType) {
+            case "identity" -> new Matrix4f();
+            case "translation" -> new Matrix4f().translation(10F, 20F, 30F);
+            case "affine" -> new Matrix4f().translation(10F, 20F, 30F).rotateXYZ(0.1F, 0.2F, 0.3F).scale(2F);
+            case "perspective" -> new Matrix4f().perspective((float) Math.toRadians(70), 16F / 9F, 0.1F, 1000F).translate(0F, 0F, -5F);
+            default -> throw new IllegalArgumentException("Unknown matrix type: " + this.matrixType);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.bufferBuilder.free();
+    }
+
+    @Benchmark
+    public int putVector3fMatrix() {
+        this.bufferBuilder.reset();
+        final VertexDataHolder vertexDataHolder = new VertexDataHolder(this.bufferBuilder);
+        final Matrix4f positionMatrix = this.positionMatrix;
+        for (int i = 0; i < VERTEX_COUNT; i++) {
+            vertexDataHolder.putVector3f(positionMatrix, i, i * 0.5F, 1F).endVertex();
+        }
+        return vertexDataHolder.getVertexCount();
+    }
+
+}
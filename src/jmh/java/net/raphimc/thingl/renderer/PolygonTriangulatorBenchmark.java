@@ -0,0 +1,65 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.renderer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolygonTriangulatorBenchmark {
+
+    @Param({"16", "1024"})
+    private int pointCount;
+
+    private final PolygonTriangulator triangulator = new PolygonTriangulator();
+    private float[] convexPoints;
+    private float[] concavePoints;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(0);
+        this.convexPoints = new float[this.pointCount * 2];
+        this.concavePoints = new float[this.pointCount * 2];
+        for (int i = 0; i < this.pointCount; i++) {
+            final double angle = (i + random.nextDouble() * 0.9D) / this.pointCount * Math.PI * 2D;
+            final double radius = 50D + random.nextDouble() * 50D;
+            this.convexPoints[i * 2] = (float) (Math.cos(angle) * 100D);
+            this.convexPoints[i * 2 + 1] = (float) (Math.sin(angle) * 100D);
+            this.concavePoints[i * 2] = (float) (Math.cos(angle) * radius);
+            this.concavePoints[i * 2 + 1] = (float) (Math.sin(angle) * radius);
+        }
+    }
+
+    @Benchmark
+    public int convex() {
+        return this.triangulator.triangulate(this.convexPoints, this.pointCount);
+    }
+
+    @Benchmark
+    public int concave() {
+        return this.triangulator.triangulate(this.concavePoints, this.pointCount);
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.renderer;
+
+import net.raphimc.thingl.drawbuilder.builder.BufferBuilder;
+import net.raphimc.thingl.drawbuilder.databuilder.holder.VertexDataHolder;
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitivesBenchmark {
+
+    private static final int CIRCLE_COUNT = 20000;
+
+    @Param({"4", "64"})
+    private float radius;
+
+    private final Matrix4f positionMatrix = new Matrix4f();
+    private BufferBuilder bufferBuilder;
+
+    @Setup
+    public void setup() {
+        this.bufferBuilder = new BufferBuilder(CIRCLE_COUNT * 64 * (3 * Float.BYTES + Integer.BYTES));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.bufferBuilder.free();
+    }
+
+    @Benchmark
+    public int filledCircles() {
+        this.bufferBuilder.reset();
+        final VertexDataHolder vertexDataHolder = new VertexDataHolder(this.bufferBuilder);
+        for (int i = 0; i < CIRCLE_COUNT; i++) {
+            Primitives._filledCircle(this.positionMatrix, vertexDataHolder, i, i, 0F, this.radius, 0F, 360F, 0xFFFFFFFF);
+        }
+        return vertexDataHolder.getVertexCount();
+    }
+
+    @Benchmark
+    public int outlinedCircles() {
+        this.bufferBuilder.reset();
+        final VertexDataHolder vertexDataHolder = new VertexDataHolder(this.bufferBuilder);
+        for (int i = 0; i < CIRCLE_COUNT; i++) {
+            Primitives._outlinedCircle(this.positionMatrix, vertexDataHolder, i, i, 0F, this.radius, 1F, 0F, 360F, 0xFFFFFFFF);
+        }
+        return vertexDataHolder.getVertexCount();
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArenaMemoryAllocatorBenchmark {
+
+    private static final long ARENA_SIZE = 256L * 1024 * 1024;
+
+    @Param({"256", "4096"})
+    private int liveAllocations;
+
+    private long[] sizes;
+    private long[] addresses;
+    private ArenaMemoryAllocator allocator;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        final SplittableRandom random = new SplittableRandom(1337);
+        this.sizes = new long[this.liveAllocations];
+        this.addresses = new long[this.liveAllocations];
+        for (int i = 0; i < this.sizes.length; i++) {
+            this.sizes[i] = 64 + random.nextInt(64 * 1024);
+        }
+
+        this.allocator = new ArenaMemoryAllocator(0, ARENA_SIZE);
+        for (int i = 0; i < this.addresses.length; i++) {
+            this.addresses[i] = this.allocator.alloc(this.sizes[i]);
+        }
+        // Free every other allocation to create a fragmented arena
+        for (int i = 0; i < this.addresses.length; i += 2) {
+            this.allocator.free(this.addresses[i]);
+            this.addresses[i] = -1;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public long allocFree() {
+        final long address = this.allocator.alloc(this.sizes[this.sizes.length / 2]);
+        this.allocator.free(address);
+        return address;
+    }
+
+    @Benchmark
+    public long churn() {
+        long checksum = 0;
+        for (int i = 0; i < this.addresses.length; i += 2) {
+            this.addresses[i] = this.allocator.alloc(this.sizes[i]);
+            checksum += this.addresses[i];
+        }
+        for (int i = 0; i < this.addresses.length; i += 2) {
+            this.allocator.free(this.addresses[i]);
+            this.addresses[i] = -1;
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    public long getUsedMemory() {
+        return this.allocator.getUsedMemory();
+    }
+
+}
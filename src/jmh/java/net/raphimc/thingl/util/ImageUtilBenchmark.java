@@ -0,0 +1,96 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ImageUtilBenchmark {
+
+    @Param({"64", "3840"})
+    private int size;
+
+    @Param({"true", "false"})
+    private boolean vectorized;
+
+    private int width;
+    private int height;
+    private ByteBuffer monochromePixels;
+    private ByteBuffer grayscalePixels;
+    private ByteBuffer colorPixels;
+    private ByteBuffer paddedColorPixels;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ImageUtil.setVectorized(this.vectorized);
+        this.width = this.size;
+        this.height = this.size == 3840 ? 2160 : this.size;
+
+        final SplittableRandom random = new SplittableRandom(1337);
+        this.monochromePixels = randomPixels(random, (this.width + 7) / 8 * this.height);
+        this.grayscalePixels = randomPixels(random, this.width * this.height);
+        this.colorPixels = randomPixels(random, this.width * this.height * Integer.BYTES);
+        this.paddedColorPixels = randomPixels(random, (this.width + 16) * this.height * Integer.BYTES);
+    }
+
+    @Benchmark
+    public ByteBuffer packTightly() {
+        return ImageUtil.packTightly(this.paddedColorPixels, this.width, this.height, Integer.BYTES, (this.width + 16) * Integer.BYTES, false, false);
+    }
+
+    @Benchmark
+    public ByteBuffer convertMonochromeToGrayscale() {
+        return ImageUtil.convertMonochromeToGrayscale(this.monochromePixels, this.width, this.height, false, false);
+    }
+
+    @Benchmark
+    public ByteBuffer convertGrayscaleToColor() {
+        return ImageUtil.convertGrayscaleToColor(this.grayscalePixels, this.width, this.height, 3, false, false);
+    }
+
+    @Benchmark
+    public ByteBuffer convertColorToGrayscale() {
+        return ImageUtil.convertColorToGrayscale(this.colorPixels, this.width, this.height, 3, false, false);
+    }
+
+    @Benchmark
+    public ByteBuffer revertPreMultipliedAlphaBGRA() {
+        return ImageUtil.revertPreMultipliedAlphaBGRA(this.colorPixels, false, false);
+    }
+
+    @Benchmark
+    public ByteBuffer thresholdGrayscale() {
+        return ImageUtil.thresholdGrayscale(this.grayscalePixels, 128, false, false);
+    }
+
+    private static ByteBuffer randomPixels(final SplittableRandom random, final int size) {
+        final byte[] pixels = new byte[size];
+        random.nextBytes(pixels);
+        return ByteBuffer.wrap(pixels);
+    }
+
+}
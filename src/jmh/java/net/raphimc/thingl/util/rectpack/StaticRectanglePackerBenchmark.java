@@ -0,0 +1,67 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.util.rectpack;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StaticRectanglePackerBenchmark {
+
+    private static final int ATLAS_SIZE = 2048;
+    private static final int GLYPH_COUNT = 4096;
+
+    private int[] widths;
+    private int[] heights;
+
+    @Setup
+    public void setup() {
+        final SplittableRandom random = new SplittableRandom(1337);
+        this.widths = new int[GLYPH_COUNT];
+        this.heights = new int[GLYPH_COUNT];
+        for (int i = 0; i < GLYPH_COUNT; i++) {
+            this.widths[i] = 6 + random.nextInt(26);
+            this.heights[i] = 10 + random.nextInt(22);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GLYPH_COUNT)
+    public int pack() {
+        final StaticRectanglePacker packer = new StaticRectanglePacker(ATLAS_SIZE, ATLAS_SIZE);
+        try {
+            int packed = 0;
+            for (int i = 0; i < GLYPH_COUNT; i++) {
+                if (packer.pack(this.widths[i], this.heights[i]) != null) {
+                    packed++;
+                }
+            }
+            return packed;
+        } finally {
+            packer.free();
+        }
+    }
+
+}
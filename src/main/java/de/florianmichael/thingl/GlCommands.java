@@ -19,20 +19,49 @@ package de.florianmichael.thingl;
 
 import de.florianmichael.thingl.encoder.AppleCommandEncoder;
 import de.florianmichael.thingl.encoder.GlCommandEncoder;
+import de.florianmichael.thingl.encoder.RecordingCommandEncoder;
 import net.raphimc.thingl.ThinGL;
 
 public class GlCommands {
 
+    /**
+     * System property to record all commands. "headless" emulates the commands without a GL context, "passthrough" forwards them to the platform encoder.
+     */
+    public static final String RECORDING_PROPERTY = "thingl.glcommands.recording";
+
+    /**
+     * System property to cross-check the binding cache of the Apple command encoder against glGetInteger after every cached read. Slow, only meant for debugging.
+     */
+    public static final String VALIDATE_BINDINGS_PROPERTY = "thingl.glcommands.validateBindings";
+
     private static final GlCommandEncoder instance;
+    private static final AppleCommandEncoder appleInstance;
     private static final boolean apple;
 
     static {
         apple = System.getProperty("os.name").toLowerCase().contains("mac");
-        if (apple) {
-            instance = new AppleCommandEncoder();
-            ThinGL.LOGGER.warn("macOS detected, using limited features. Some features may not work as expected.");
+        final String recording = System.getProperty(RECORDING_PROPERTY, "");
+        if (recording.equals("headless")) {
+            instance = new RecordingCommandEncoder();
+            appleInstance = null;
+            ThinGL.LOGGER.warn("Using headless GL command recording. No GL commands will reach the driver through GlCommands.");
         } else {
-            instance = new GlCommandEncoder() {};
+            final GlCommandEncoder platformInstance;
+            if (apple) {
+                appleInstance = new AppleCommandEncoder();
+                platformInstance = appleInstance;
+                ThinGL.LOGGER.warn("macOS detected, using limited features. Some features may not work as expected.");
+            } else {
+                appleInstance = null;
+                platformInstance = new GlCommandEncoder() {};
+            }
+            if (recording.equals("passthrough")) {
+                instance = new RecordingCommandEncoder(platformInstance);
+            } else if (recording.isEmpty()) {
+                instance = platformInstance;
+            } else {
+                throw new IllegalArgumentException("Unknown " + RECORDING_PROPERTY + " value: " + recording);
+            }
         }
     }
 
@@ -40,6 +69,20 @@ public class GlCommands {
         return instance;
     }
 
+    /**
+     * @return The Apple command encoder if it is in use, null otherwise
+     */
+    public static AppleCommandEncoder getApple() {
+        return appleInstance;
+    }
+
+    /**
+     * @return The recording command encoder if recording is enabled, null otherwise
+     */
+    public static RecordingCommandEncoder getRecorder() {
+        return instance instanceof RecordingCommandEncoder recorder ? recorder : null;
+    }
+
     public static boolean isApple() {
         return apple;
     }
@@ -0,0 +1,236 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.florianmichael.thingl.encoder;
+
+import org.lwjgl.opengl.GL41C;
+
+import java.util.Arrays;
+
+/**
+ * Shadow table of the bindings touched by the {@link AppleCommandEncoder}. Avoids synchronous glGetInteger round trips when emulating DSA commands.<br>
+ * Each slot stores the value currently bound in the context and the value the outside world expects to be bound. A value of -1 means unknown and is learned with a single glGetInteger.<br>
+ * Scratch bindings (copy buffers, array buffer, framebuffers, vertex array, active texture and the scratch texture unit) are restored by {@link #restore()}, which every emulated command calls before returning.
+ */
+final class AppleBindingCache {
+
+    static final int COPY_READ_BUFFER = 0;
+    static final int COPY_WRITE_BUFFER = 1;
+    static final int ARRAY_BUFFER = 2;
+    static final int READ_FRAMEBUFFER = 3;
+    static final int DRAW_FRAMEBUFFER = 4;
+    static final int VERTEX_ARRAY = 5;
+    static final int ACTIVE_TEXTURE = 6;
+    private static final int TEXTURE_SLOTS_START = 7;
+
+    static final int[] TEXTURE_TARGETS = {GL41C.GL_TEXTURE_1D, GL41C.GL_TEXTURE_2D, GL41C.GL_TEXTURE_2D_MULTISAMPLE, GL41C.GL_TEXTURE_CUBE_MAP, GL41C.GL_TEXTURE_3D};
+    private static final int[] TEXTURE_BINDINGS = {GL41C.GL_TEXTURE_BINDING_1D, GL41C.GL_TEXTURE_BINDING_2D, GL41C.GL_TEXTURE_BINDING_2D_MULTISAMPLE, GL41C.GL_TEXTURE_BINDING_CUBE_MAP, GL41C.GL_TEXTURE_BINDING_3D};
+    private static final int UNKNOWN = -1;
+
+    private final boolean validate;
+    private final int scratchTextureUnit;
+    private final int[] current;
+    private final int[] expected;
+    private boolean scratchBound;
+
+    AppleBindingCache(final boolean validate) {
+        this.validate = validate;
+        final int textureUnits = GL41C.glGetInteger(GL41C.GL_MAX_COMBINED_TEXTURE_IMAGE_UNITS);
+        this.scratchTextureUnit = textureUnits - 1;
+        this.current = new int[TEXTURE_SLOTS_START + textureUnits * TEXTURE_TARGETS.length];
+        this.expected = new int[this.current.length];
+        this.invalidate();
+    }
+
+    static int textureTargetIndex(final int target) {
+        for (int i = 0; i < TEXTURE_TARGETS.length; i++) {
+            if (TEXTURE_TARGETS[i] == target) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported texture target: " + target);
+    }
+
+    int textureSlot(final int unit, final int target) {
+        return TEXTURE_SLOTS_START + unit * TEXTURE_TARGETS.length + textureTargetIndex(target);
+    }
+
+    int scratchTextureSlot(final int target) {
+        return this.textureSlot(this.scratchTextureUnit, target);
+    }
+
+    /**
+     * Binds a texture to the scratch texture unit and makes that unit active, so texture edits don't disturb the units used for rendering.
+     */
+    void bindScratchTexture(final int target, final int texture) {
+        this.bindScratch(this.scratchTextureSlot(target), texture);
+        this.bindScratch(ACTIVE_TEXTURE, GL41C.GL_TEXTURE0 + this.scratchTextureUnit);
+    }
+
+    /**
+     * @return The value currently bound to the slot. Only queries the context the first time the slot is used after an invalidation.
+     */
+    int get(final int slot) {
+        int value = this.current[slot];
+        if (value == UNKNOWN) {
+            value = this.query(slot);
+            this.current[slot] = value;
+            if (this.expected[slot] == UNKNOWN) {
+                this.expected[slot] = value;
+            }
+        } else if (this.validate) {
+            this.validate(slot);
+        }
+        return value;
+    }
+
+    /**
+     * Binds a value to a slot without changing what the outside world expects. The expected value is restored in {@link #restore()}.
+     */
+    void bindScratch(final int slot, final int value) {
+        if (this.get(slot) != value) {
+            this.apply(slot, value);
+            this.current[slot] = value;
+            this.scratchBound = true;
+        }
+    }
+
+    /**
+     * Binds a value to a slot and makes it the new expected value (e.g. glBindTextureUnit).
+     */
+    void bindPersistent(final int slot, final int value) {
+        if (this.current[slot] != value) {
+            this.apply(slot, value);
+            this.current[slot] = value;
+        } else if (this.validate) {
+            this.validate(slot);
+        }
+        this.expected[slot] = value;
+    }
+
+    /**
+     * Records a binding that was changed outside the encoder.
+     */
+    void notifyBound(final int slot, final int value) {
+        this.current[slot] = value;
+        this.expected[slot] = value;
+    }
+
+    void onBufferDeleted(final int buffer) {
+        this.onObjectDeleted(COPY_READ_BUFFER, ARRAY_BUFFER, buffer);
+    }
+
+    void onFramebufferDeleted(final int framebuffer) {
+        this.onObjectDeleted(READ_FRAMEBUFFER, DRAW_FRAMEBUFFER, framebuffer);
+    }
+
+    void onVertexArrayDeleted(final int vertexArray) {
+        this.onObjectDeleted(VERTEX_ARRAY, VERTEX_ARRAY, vertexArray);
+    }
+
+    void onTextureDeleted(final int texture) {
+        this.onObjectDeleted(TEXTURE_SLOTS_START, this.current.length - 1, texture);
+    }
+
+    /**
+     * Rebinds the expected value of every slot changed by {@link #bindScratch(int, int)}. Returns immediately if no scratch binding was changed since the last call.
+     */
+    void restore() {
+        if (!this.scratchBound) {
+            return;
+        }
+        for (int slot = this.current.length - 1; slot >= 0; slot--) { // Texture slots first, they change the active texture
+            final int value = this.current[slot];
+            final int expectedValue = this.expected[slot];
+            if (value != UNKNOWN && expectedValue != UNKNOWN && value != expectedValue) {
+                this.apply(slot, expectedValue);
+                this.current[slot] = expectedValue;
+            }
+        }
+        this.scratchBound = false;
+    }
+
+    void invalidate() {
+        Arrays.fill(this.current, UNKNOWN);
+        Arrays.fill(this.expected, UNKNOWN);
+        this.scratchBound = false;
+    }
+
+    void validateAll() {
+        for (int slot = 0; slot < this.current.length; slot++) {
+            if (this.current[slot] != UNKNOWN) {
+                this.validate(slot);
+            }
+        }
+    }
+
+    /**
+     * Deleting a bound object reverts the binding to 0 (Only for the current context, but that's the only one tracked here).
+     */
+    private void onObjectDeleted(final int fromSlot, final int toSlot, final int name) {
+        for (int slot = fromSlot; slot <= toSlot; slot++) {
+            if (this.current[slot] == name) {
+                this.current[slot] = 0;
+            }
+            if (this.expected[slot] == name) {
+                this.expected[slot] = 0;
+            }
+        }
+    }
+
+    private void validate(final int slot) {
+        final int actual = this.query(slot);
+        if (actual != this.current[slot]) {
+            throw new IllegalStateException("Binding cache out of sync for slot " + slot + ": expected " + this.current[slot] + " but context has " + actual + ". Was the binding changed outside of ThinGL without invalidating the cache?");
+        }
+    }
+
+    private int query(final int slot) {
+        return switch (slot) {
+            case COPY_READ_BUFFER -> GL41C.glGetInteger(GL41C.GL_COPY_READ_BUFFER);
+            case COPY_WRITE_BUFFER -> GL41C.glGetInteger(GL41C.GL_COPY_WRITE_BUFFER);
+            case ARRAY_BUFFER -> GL41C.glGetInteger(GL41C.GL_ARRAY_BUFFER_BINDING);
+            case READ_FRAMEBUFFER -> GL41C.glGetInteger(GL41C.GL_READ_FRAMEBUFFER_BINDING);
+            case DRAW_FRAMEBUFFER -> GL41C.glGetInteger(GL41C.GL_DRAW_FRAMEBUFFER_BINDING);
+            case VERTEX_ARRAY -> GL41C.glGetInteger(GL41C.GL_VERTEX_ARRAY_BINDING);
+            case ACTIVE_TEXTURE -> GL41C.glGetInteger(GL41C.GL_ACTIVE_TEXTURE);
+            default -> {
+                final int textureSlot = slot - TEXTURE_SLOTS_START;
+                this.bindScratch(ACTIVE_TEXTURE, GL41C.GL_TEXTURE0 + textureSlot / TEXTURE_TARGETS.length);
+                yield GL41C.glGetInteger(TEXTURE_BINDINGS[textureSlot % TEXTURE_TARGETS.length]);
+            }
+        };
+    }
+
+    private void apply(final int slot, final int value) {
+        switch (slot) {
+            case COPY_READ_BUFFER -> GL41C.glBindBuffer(GL41C.GL_COPY_READ_BUFFER, value);
+            case COPY_WRITE_BUFFER -> GL41C.glBindBuffer(GL41C.GL_COPY_WRITE_BUFFER, value);
+            case ARRAY_BUFFER -> GL41C.glBindBuffer(GL41C.GL_ARRAY_BUFFER, value);
+            case READ_FRAMEBUFFER -> GL41C.glBindFramebuffer(GL41C.GL_READ_FRAMEBUFFER, value);
+            case DRAW_FRAMEBUFFER -> GL41C.glBindFramebuffer(GL41C.GL_DRAW_FRAMEBUFFER, value);
+            case VERTEX_ARRAY -> GL41C.glBindVertexArray(value);
+            case ACTIVE_TEXTURE -> GL41C.glActiveTexture(value);
+            default -> {
+                final int textureSlot = slot - TEXTURE_SLOTS_START;
+                this.bindScratch(ACTIVE_TEXTURE, GL41C.GL_TEXTURE0 + textureSlot / TEXTURE_TARGETS.length);
+                GL41C.glBindTexture(TEXTURE_TARGETS[textureSlot % TEXTURE_TARGETS.length], value);
+            }
+        }
+    }
+
+}
@@ -21,11 +21,13 @@ import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import de.florianmichael.thingl.GlCommands;
 import net.raphimc.thingl.drawbuilder.DrawMode;
 import net.raphimc.thingl.drawbuilder.builder.BuiltBuffer;
 import net.raphimc.thingl.drawbuilder.builder.command.DrawArraysCommand;
 import net.raphimc.thingl.drawbuilder.builder.command.DrawCommand;
 import net.raphimc.thingl.drawbuilder.builder.command.DrawElementsCommand;
+import net.raphimc.thingl.drawbuilder.vertex.DataType;
 import net.raphimc.thingl.resource.vertexarray.VertexArray;
 import org.lwjgl.opengl.GL41C;
 import org.lwjgl.opengl.GL43C;
@@ -38,17 +40,10 @@ import java.util.Set;
 
 public final class AppleCommandEncoder implements GlCommandEncoder {
 
-    private static final Int2IntMap TEXTURE_QUERY_TARGETS = new Int2IntOpenHashMap();
     private static final Int2IntMap FORMATS = new Int2IntOpenHashMap();
     private static final Int2IntMap TYPES = new Int2IntOpenHashMap();
 
     static {
-        TEXTURE_QUERY_TARGETS.put(GL41C.GL_TEXTURE_1D, GL41C.GL_TEXTURE_BINDING_1D);
-        TEXTURE_QUERY_TARGETS.put(GL41C.GL_TEXTURE_2D, GL41C.GL_TEXTURE_BINDING_2D);
-        TEXTURE_QUERY_TARGETS.put(GL41C.GL_TEXTURE_2D_MULTISAMPLE, GL41C.GL_TEXTURE_BINDING_2D_MULTISAMPLE);
-        TEXTURE_QUERY_TARGETS.put(GL41C.GL_TEXTURE_CUBE_MAP, GL41C.GL_TEXTURE_BINDING_CUBE_MAP);
-        TEXTURE_QUERY_TARGETS.put(GL41C.GL_TEXTURE_3D, GL41C.GL_TEXTURE_BINDING_3D);
-
         FORMATS.put(GL41C.GL_RGBA8, GL41C.GL_RGBA);
         FORMATS.put(GL41C.GL_RGB8, GL41C.GL_RGB);
         FORMATS.put(GL41C.GL_RG8, GL41C.GL_RG);
@@ -74,6 +69,8 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
 
     private final Int2IntMap textureTargets = new Int2IntOpenHashMap();
     private final Int2ObjectMap<VAOState> vertexArrayStates = new Int2ObjectOpenHashMap<>();
+    private final ThreadLocal<AppleBindingCache> bindingCaches = ThreadLocal.withInitial(() -> new AppleBindingCache(Boolean.getBoolean(GlCommands.VALIDATE_BINDINGS_PROPERTY)));
+    private final ThreadLocal<int[]> copyFramebuffers = ThreadLocal.withInitial(() -> new int[2]); // Framebuffers aren't shared between contexts
 
     @Override
     public int glCreateBuffers() {
@@ -85,6 +82,18 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
         return GL41C.glGenFramebuffers();
     }
 
+    @Override
+    public void glDeleteBuffers(int buffer) {
+        GL41C.glDeleteBuffers(buffer);
+        bindings().onBufferDeleted(buffer);
+    }
+
+    @Override
+    public void glDeleteFramebuffers(int framebuffer) {
+        GL41C.glDeleteFramebuffers(framebuffer);
+        bindings().onFramebufferDeleted(framebuffer);
+    }
+
     @Override
     public int glCreateVertexArrays() {
         final int vertexArrayObject = GL41C.glGenVertexArrays();
@@ -99,13 +108,14 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
 
     @Override
     public int glCreateQueries(int target) {
-        throw new UnsupportedOperationException();
+        return GL41C.glGenQueries(); // The query object is created on first use (glBeginQuery / glQueryCounter)
     }
 
     @Override
     public void glDeleteVertexArrays(int array) {
         GL41C.glDeleteVertexArrays(array);
         vertexArrayStates.remove(array);
+        bindings().onVertexArrayDeleted(array);
     }
 
     @Override
@@ -119,6 +129,7 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
     public void glDeleteTextures(int texture) {
         GL41C.glDeleteTextures(texture);
         textureTargets.remove(texture);
+        bindings().onTextureDeleted(texture);
     }
 
     @Override
@@ -148,26 +159,26 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
 
     @Override
     public void glNamedBufferSubData(int buffer, long offset, ByteBuffer data) {
-        final int prevBuffer = GL41C.glGetInteger(GL41C.GL_COPY_WRITE_BUFFER);
-        GL41C.glBindBuffer(GL41C.GL_COPY_WRITE_BUFFER, buffer);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.COPY_WRITE_BUFFER, buffer);
         GL41C.glBufferSubData(GL41C.GL_COPY_WRITE_BUFFER, offset, data);
-        GL41C.glBindBuffer(GL41C.GL_COPY_WRITE_BUFFER, prevBuffer);
+        bindings.restore();
     }
 
     @Override
     public void glNamedBufferData(int buffer, long size, int usage) {
-        final int prevBuffer = GL41C.glGetInteger(GL41C.GL_COPY_WRITE_BUFFER);
-        GL41C.glBindBuffer(GL41C.GL_COPY_WRITE_BUFFER, buffer);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.COPY_WRITE_BUFFER, buffer);
         GL41C.glBufferData(GL41C.GL_COPY_WRITE_BUFFER, size, usage);
-        GL41C.glBindBuffer(GL41C.GL_COPY_WRITE_BUFFER, prevBuffer);
+        bindings.restore();
     }
 
     @Override
     public void glNamedBufferData(int buffer, ByteBuffer data, int usage) {
-        final int prevBuffer = GL41C.glGetInteger(GL41C.GL_COPY_WRITE_BUFFER);
-        GL41C.glBindBuffer(GL41C.GL_COPY_WRITE_BUFFER, buffer);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.COPY_WRITE_BUFFER, buffer);
         GL41C.glBufferData(GL41C.GL_COPY_WRITE_BUFFER, data, usage);
-        GL41C.glBindBuffer(GL41C.GL_COPY_WRITE_BUFFER, prevBuffer);
+        bindings.restore();
     }
 
     @Override
@@ -177,12 +188,11 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
 
     @Override
     public int glGetNamedBufferParameteri(int buffer, int pname) {
-        final int prevBuffer = GL41C.glGetInteger(GL41C.GL_COPY_READ_BUFFER);
-        GL41C.glBindBuffer(GL41C.GL_COPY_READ_BUFFER, buffer);
-        final int[] params = new int[1];
-        GL41C.glGetBufferParameteriv(GL41C.GL_COPY_READ_BUFFER, pname, params);
-        GL41C.glBindBuffer(GL41C.GL_COPY_READ_BUFFER, prevBuffer);
-        return params[0];
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.COPY_READ_BUFFER, buffer);
+        final int value = GL41C.glGetBufferParameteri(GL41C.GL_COPY_READ_BUFFER, pname);
+        bindings.restore();
+        return value;
     }
 
     @Override
@@ -202,75 +212,71 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
 
     @Override
     public long glGetNamedBufferParameteri64(int buffer, int pname) {
-        final int prevBuffer = GL41C.glGetInteger(GL41C.GL_COPY_READ_BUFFER);
-        GL41C.glBindBuffer(GL41C.GL_COPY_READ_BUFFER, buffer);
-        final long[] params = new long[1];
-        GL41C.glGetBufferParameteri64v(GL41C.GL_COPY_READ_BUFFER, pname, params);
-        GL41C.glBindBuffer(GL41C.GL_COPY_READ_BUFFER, prevBuffer);
-        return params[0];
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.COPY_READ_BUFFER, buffer);
+        final long value = GL41C.glGetBufferParameteri64(GL41C.GL_COPY_READ_BUFFER, pname);
+        bindings.restore();
+        return value;
     }
 
     @Override
     public void glCopyNamedBufferSubData(int readBuffer, int writeBuffer, long readOffset, long writeOffset, long size) {
-        final int prevReadBuffer = GL41C.glGetInteger(GL41C.GL_COPY_READ_BUFFER);
-        final int prevWriteBuffer = GL41C.glGetInteger(GL41C.GL_COPY_WRITE_BUFFER);
-        GL41C.glBindBuffer(GL41C.GL_COPY_READ_BUFFER, readBuffer);
-        GL41C.glBindBuffer(GL41C.GL_COPY_WRITE_BUFFER, writeBuffer);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.COPY_READ_BUFFER, readBuffer);
+        bindings.bindScratch(AppleBindingCache.COPY_WRITE_BUFFER, writeBuffer);
         GL41C.glCopyBufferSubData(GL41C.GL_COPY_READ_BUFFER, GL41C.GL_COPY_WRITE_BUFFER, readOffset, writeOffset, size);
-        GL41C.glBindBuffer(GL41C.GL_COPY_READ_BUFFER, prevReadBuffer);
-        GL41C.glBindBuffer(GL41C.GL_COPY_WRITE_BUFFER, prevWriteBuffer);
+        bindings.restore();
     }
 
     @Override
     public int glCheckNamedFramebufferStatus(int framebuffer, int target) {
-        final int prevFramebuffer = GL41C.glGetInteger(GL41C.GL_DRAW_FRAMEBUFFER_BINDING);
-        GL41C.glBindFramebuffer(target, framebuffer);
-        final int status = GL41C.glCheckFramebufferStatus(target);
-        GL41C.glBindFramebuffer(target, prevFramebuffer);
+        final boolean read = target == GL41C.GL_READ_FRAMEBUFFER; // GL_FRAMEBUFFER is equivalent to GL_DRAW_FRAMEBUFFER
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(read ? AppleBindingCache.READ_FRAMEBUFFER : AppleBindingCache.DRAW_FRAMEBUFFER, framebuffer);
+        final int status = GL41C.glCheckFramebufferStatus(read ? GL41C.GL_READ_FRAMEBUFFER : GL41C.GL_DRAW_FRAMEBUFFER);
+        bindings.restore();
         return status;
     }
 
     @Override
     public void glClearNamedFramebufferfv(int framebuffer, int buffer, int drawbuffer, float[] value) {
-        final int prevFramebuffer = GL41C.glGetInteger(GL41C.GL_DRAW_FRAMEBUFFER_BINDING);
-        GL41C.glBindFramebuffer(GL41C.GL_FRAMEBUFFER, framebuffer);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.DRAW_FRAMEBUFFER, framebuffer);
         GL41C.glClearBufferfv(buffer, drawbuffer, value);
-        GL41C.glBindFramebuffer(GL41C.GL_FRAMEBUFFER, prevFramebuffer);
+        bindings.restore();
     }
 
     @Override
     public void glClearNamedFramebufferfi(int framebuffer, int buffer, int drawbuffer, float depth, int stencil) {
-        final int prevFramebuffer = GL41C.glGetInteger(GL41C.GL_DRAW_FRAMEBUFFER_BINDING);
-        GL41C.glBindFramebuffer(GL41C.GL_FRAMEBUFFER, framebuffer);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.DRAW_FRAMEBUFFER, framebuffer);
         GL41C.glClearBufferfi(buffer, drawbuffer, depth, stencil);
-        GL41C.glBindFramebuffer(GL41C.GL_FRAMEBUFFER, prevFramebuffer);
+        bindings.restore();
     }
 
     @Override
     public void glClearNamedFramebufferiv(int framebuffer, int buffer, int drawbuffer, int[] value) {
-        final int prevFramebuffer = GL41C.glGetInteger(GL41C.GL_DRAW_FRAMEBUFFER_BINDING);
-        GL41C.glBindFramebuffer(GL41C.GL_FRAMEBUFFER, framebuffer);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.DRAW_FRAMEBUFFER, framebuffer);
         GL41C.glClearBufferiv(buffer, drawbuffer, value);
-        GL41C.glBindFramebuffer(GL41C.GL_FRAMEBUFFER, prevFramebuffer);
+        bindings.restore();
     }
 
     @Override
     public void glBlitNamedFramebuffer(int readFramebuffer, int drawFramebuffer, int srcX0, int srcY0, int srcX1, int srcY1, int dstX0, int dstY0, int dstX1, int dstY1, int mask, int filter) {
-        final int prevReadFramebuffer = GL41C.glGetInteger(GL41C.GL_READ_FRAMEBUFFER_BINDING);
-        final int prevDrawFramebuffer = GL41C.glGetInteger(GL41C.GL_DRAW_FRAMEBUFFER_BINDING);
-        GL41C.glBindFramebuffer(GL41C.GL_READ_FRAMEBUFFER, readFramebuffer);
-        GL41C.glBindFramebuffer(GL41C.GL_DRAW_FRAMEBUFFER, drawFramebuffer);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.READ_FRAMEBUFFER, readFramebuffer);
+        bindings.bindScratch(AppleBindingCache.DRAW_FRAMEBUFFER, drawFramebuffer);
         GL41C.glBlitFramebuffer(srcX0, srcY0, srcX1, srcY1, dstX0, dstY0, dstX1, dstY1, mask, filter);
-        GL41C.glBindFramebuffer(GL41C.GL_READ_FRAMEBUFFER, prevReadFramebuffer);
-        GL41C.glBindFramebuffer(GL41C.GL_DRAW_FRAMEBUFFER, prevDrawFramebuffer);
+        bindings.restore();
     }
 
     @Override
     public void glNamedFramebufferTexture(int framebuffer, int attachment, int texture, int level) {
-        final int prevFramebuffer = GL41C.glGetInteger(GL41C.GL_DRAW_FRAMEBUFFER_BINDING);
-        GL41C.glBindFramebuffer(GL41C.GL_FRAMEBUFFER, framebuffer);
-        GL41C.glFramebufferTexture2D(GL41C.GL_FRAMEBUFFER, attachment, getTextureTarget(texture), texture, level);
-        GL41C.glBindFramebuffer(GL41C.GL_FRAMEBUFFER, prevFramebuffer);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.READ_FRAMEBUFFER, framebuffer);
+        GL41C.glFramebufferTexture2D(GL41C.GL_READ_FRAMEBUFFER, attachment, getTextureTarget(texture), texture, level);
+        bindings.restore();
     }
 
     @Override
@@ -280,11 +286,11 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
 
     @Override
     public int glGetNamedFramebufferAttachmentParameteri(int framebuffer, int attachment, int pname) {
-        final int prevFramebuffer = GL41C.glGetInteger(GL41C.GL_DRAW_FRAMEBUFFER_BINDING);
-        GL41C.glBindFramebuffer(GL41C.GL_FRAMEBUFFER, framebuffer);
-        final int param = GL41C.glGetFramebufferAttachmentParameteri(GL41C.GL_FRAMEBUFFER, attachment, pname);
-        GL41C.glBindFramebuffer(GL41C.GL_FRAMEBUFFER, prevFramebuffer);
-        return param;
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.READ_FRAMEBUFFER, framebuffer);
+        final int value = GL41C.glGetFramebufferAttachmentParameteri(GL41C.GL_READ_FRAMEBUFFER, attachment, pname);
+        bindings.restore();
+        return value;
     }
 
     @Override
@@ -304,55 +310,60 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
 
     @Override
     public void glBindTextureUnit(int unit, int texture) {
-        final int prevTexture = GL41C.glGetInteger(GL41C.GL_ACTIVE_TEXTURE);
-        GL41C.glActiveTexture(GL41C.GL_TEXTURE0 + unit);
+        final AppleBindingCache bindings = bindings();
         if (texture == 0) {
-            unbindAllTextureTargets();
+            unbindAllTextureTargets(bindings, unit);
         } else {
-            GL41C.glBindTexture(getTextureTarget(texture), texture);
+            bindings.bindPersistent(bindings.textureSlot(unit, getTextureTarget(texture)), texture);
         }
-        GL41C.glActiveTexture(prevTexture);
     }
 
     @Override
     public void glBindTextures(int first, int[] textures) {
-        final int prevTexture = GL41C.glGetInteger(GL41C.GL_ACTIVE_TEXTURE);
+        final AppleBindingCache bindings = bindings();
         for (int i = 0; i < textures.length; i++) {
-            GL41C.glActiveTexture(GL41C.GL_TEXTURE0 + first + i);
             if (textures[i] == 0) {
-                unbindAllTextureTargets();
+                unbindAllTextureTargets(bindings, first + i);
             } else {
-                GL41C.glBindTexture(getTextureTarget(textures[i]), textures[i]);
+                bindings.bindPersistent(bindings.textureSlot(first + i, getTextureTarget(textures[i])), textures[i]);
             }
         }
-        GL41C.glActiveTexture(prevTexture);
     }
 
     @Override
     public void glTextureStorage2DMultisample(int texture, int samples, int internalformat, int width, int height, boolean fixedsamplelocations) {
         final int target = getOrThrowTextureTarget(texture);
-        final int prevTexture = GL41C.glGetInteger(TEXTURE_QUERY_TARGETS.get(target));
-        GL41C.glBindTexture(target, texture);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratchTexture(target, texture);
         GL41C.glTexImage2DMultisample(target, samples, internalformat, width, height, fixedsamplelocations);
-        GL41C.glBindTexture(target, prevTexture);
+        bindings.restore();
     }
 
     @Override
     public void glTextureStorage2D(int texture, int levels, int internalformat, int width, int height) {
         final int target = getOrThrowTextureTarget(texture);
-        final int prevTexture = GL41C.glGetInteger(TEXTURE_QUERY_TARGETS.get(target));
-        GL41C.glBindTexture(target, texture);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratchTexture(target, texture);
         GL41C.glTexImage2D(target, 0, internalformat, width, height, 0, FORMATS.get(internalformat), TYPES.get(internalformat), (ByteBuffer) null);
-        GL41C.glBindTexture(target, prevTexture);
+        bindings.restore();
     }
 
     @Override
     public void glTextureSubImage2D(int texture, int level, int xoffset, int yoffset, int width, int height, int format, int type, ByteBuffer pixels) {
         final int target = getOrThrowTextureTarget(texture);
-        final int prevTexture = GL41C.glGetInteger(TEXTURE_QUERY_TARGETS.get(target));
-        GL41C.glBindTexture(target, texture);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratchTexture(target, texture);
         GL41C.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
-        GL41C.glBindTexture(target, prevTexture);
+        bindings.restore();
+    }
+
+    @Override
+    public void glTextureSubImage2D(int texture, int level, int xoffset, int yoffset, int width, int height, int format, int type, long pixels) {
+        final int target = getOrThrowTextureTarget(texture);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratchTexture(target, texture);
+        GL41C.glTexSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+        bindings.restore();
     }
 
     @Override
@@ -423,19 +434,19 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
     @Override
     public void glTextureParameteri(int texture, int pname, int param) {
         final int target = getOrThrowTextureTarget(texture);
-        final int prevTexture = GL41C.glGetInteger(TEXTURE_QUERY_TARGETS.get(target));
-        GL41C.glBindTexture(target, texture);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratchTexture(target, texture);
         GL41C.glTexParameteri(target, pname, param);
-        GL41C.glBindTexture(target, prevTexture);
+        bindings.restore();
     }
 
     @Override
     public int glGetTextureLevelParameteri(int texture, int level, int pname) {
         final int target = getOrThrowTextureTarget(texture);
-        final int prevTexture = GL41C.glGetInteger(TEXTURE_QUERY_TARGETS.get(target));
-        GL41C.glBindTexture(target, texture);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratchTexture(target, texture);
         final int param = GL41C.glGetTexLevelParameteri(target, level, pname);
-        GL41C.glBindTexture(target, prevTexture);
+        bindings.restore();
         return param;
     }
 
@@ -446,10 +457,10 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
         }
 
         final int target = getOrThrowTextureTarget(texture);
-        final int prevTexture = GL41C.glGetInteger(TEXTURE_QUERY_TARGETS.get(target));
-        GL41C.glBindTexture(target, texture);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratchTexture(target, texture);
         final int param = GL41C.glGetTexParameteri(target, pname);
-        GL41C.glBindTexture(target, prevTexture);
+        bindings.restore();
         return param;
     }
 
@@ -477,25 +488,24 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
     public void glVertexArrayVertexBuffer(int vaobj, int bindingindex, int buffer, long offset, int stride) {
         VAOState state = vertexArrayStates.get(vaobj);
         state.vertexBindings.put(bindingindex, new VertexBinding(buffer, offset, stride));
-        final int prevVertexArray = GL41C.glGetInteger(GL41C.GL_VERTEX_ARRAY_BINDING);
-        bindVAO(vaobj);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.VERTEX_ARRAY, vaobj);
 
         for (Map.Entry<Integer, VertexAttrib> entry : state.attributes.entrySet()) {
             if (entry.getValue().bindingIndex == bindingindex) {
                 tryApplyAttribPointer(vaobj, entry.getKey());
             }
         }
-        GL41C.glBindVertexArray(prevVertexArray);
+        bindings.restore();
     }
 
     @Override
     public void glVertexArrayElementBuffer(int vaobj, int buffer) {
-        final int prevVertexArray = GL41C.glGetInteger(GL41C.GL_VERTEX_ARRAY_BINDING);
-        bindVAO(vaobj);
         vertexArrayStates.get(vaobj).elementArrayBuffer = buffer;
-        GL41C.glBindVertexArray(vaobj);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.VERTEX_ARRAY, vaobj);
         GL41C.glBindBuffer(GL41C.GL_ELEMENT_ARRAY_BUFFER, buffer);
-        GL41C.glBindVertexArray(prevVertexArray);
+        bindings.restore();
     }
 
     @Override
@@ -534,23 +544,23 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
     @Override
     public void glEnableVertexArrayAttrib(int vaobj, int index) {
         vertexArrayStates.get(vaobj).enabledAttributes.add(index);
-        final int prevVertexArray = GL41C.glGetInteger(GL41C.GL_VERTEX_ARRAY_BINDING);
-        bindVAO(vaobj);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.VERTEX_ARRAY, vaobj);
         GL41C.glEnableVertexAttribArray(index);
-        GL41C.glBindVertexArray(prevVertexArray);
+        bindings.restore();
     }
 
     @Override
     public void glVertexArrayBindingDivisor(int vaobj, int bindingindex, int divisor) {
         vertexArrayStates.get(vaobj).divisors.put(bindingindex, divisor);
-        final int prevVertexArray = GL41C.glGetInteger(GL41C.GL_VERTEX_ARRAY_BINDING);
-        bindVAO(vaobj);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.VERTEX_ARRAY, vaobj);
         for (Map.Entry<Integer, VertexAttrib> entry : vertexArrayStates.get(vaobj).attributes.entrySet()) {
             if (entry.getValue().bindingIndex == bindingindex) {
                 GL41C.glVertexAttribDivisor(entry.getKey(), divisor);
             }
         }
-        GL41C.glBindVertexArray(prevVertexArray);
+        bindings.restore();
     }
 
     @Override
@@ -577,9 +587,35 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * OpenGL 4.1 has no glCopyImageSubData, so 2D color textures are copied with a framebuffer blit instead.
+     */
     @Override
     public void glCopyImageSubData(int srcName, int srcTarget, int srcLevel, int srcX, int srcY, int srcZ, int dstName, int dstTarget, int dstLevel, int dstX, int dstY, int dstZ, int srcWidth, int srcHeight, int srcDepth) {
-        throw new UnsupportedOperationException();
+        if (srcTarget != GL41C.GL_TEXTURE_2D || dstTarget != GL41C.GL_TEXTURE_2D || srcZ != 0 || dstZ != 0 || srcDepth != 1) {
+            throw new UnsupportedOperationException("Only 2D texture copies are supported");
+        }
+
+        final int[] copyFramebuffers = this.copyFramebuffers.get();
+        if (copyFramebuffers[0] == 0) {
+            copyFramebuffers[0] = GL41C.glGenFramebuffers();
+            copyFramebuffers[1] = GL41C.glGenFramebuffers();
+        }
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.READ_FRAMEBUFFER, copyFramebuffers[0]);
+        GL41C.glFramebufferTexture2D(GL41C.GL_READ_FRAMEBUFFER, GL41C.GL_COLOR_ATTACHMENT0, GL41C.GL_TEXTURE_2D, srcName, srcLevel);
+        bindings.bindScratch(AppleBindingCache.DRAW_FRAMEBUFFER, copyFramebuffers[1]);
+        GL41C.glFramebufferTexture2D(GL41C.GL_DRAW_FRAMEBUFFER, GL41C.GL_COLOR_ATTACHMENT0, GL41C.GL_TEXTURE_2D, dstName, dstLevel);
+        final boolean scissorTest = GL41C.glIsEnabled(GL41C.GL_SCISSOR_TEST); // Unlike glCopyImageSubData, blits are affected by the scissor test
+        if (scissorTest) {
+            GL41C.glDisable(GL41C.GL_SCISSOR_TEST);
+        }
+        GL41C.glBlitFramebuffer(srcX, srcY, srcX + srcWidth, srcY + srcHeight, dstX, dstY, dstX + srcWidth, dstY + srcHeight, GL41C.GL_COLOR_BUFFER_BIT, GL41C.GL_NEAREST);
+        if (scissorTest) {
+            GL41C.glEnable(GL41C.GL_SCISSOR_TEST);
+        }
+        GL41C.glFramebufferTexture2D(GL41C.GL_DRAW_FRAMEBUFFER, GL41C.GL_COLOR_ATTACHMENT0, GL41C.GL_TEXTURE_2D, 0, 0);
+        bindings.restore();
     }
 
     @Override
@@ -611,23 +647,17 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
         final VertexArray vertexArray = builtBuffer.vertexArray();
         final List<DrawCommand> drawCommands = builtBuffer.drawCommands();
 
+        final int indexSize = vertexArray.getIndexBuffer() != null ? DataType.fromGlType(vertexArray.getIndexType()).getSize() : 0;
+
         for (DrawCommand drawCommand : drawCommands) {
             if (drawCommand instanceof DrawElementsCommand drawElementsCommand) {
-                vertexArray.drawElements(drawMode, drawElementsCommand.vertexCount(), drawElementsCommand.firstIndex(), drawElementsCommand.instanceCount(), drawElementsCommand.baseVertex(), drawElementsCommand.baseInstance());
+                vertexArray.drawElements(drawMode, drawElementsCommand.vertexCount(), drawElementsCommand.firstIndex() * indexSize, drawElementsCommand.instanceCount(), drawElementsCommand.baseVertex(), drawElementsCommand.baseInstance()); // firstIndex is an index, not a byte offset
             } else if (drawCommand instanceof DrawArraysCommand drawArraysCommand) {
                 vertexArray.drawArrays(drawMode, drawArraysCommand.vertexCount(), drawArraysCommand.firstVertex(), drawArraysCommand.instanceCount(), drawArraysCommand.baseInstance());
             }
         }
     }
 
-    private void bindVAO(int vao) {
-        GL41C.glBindVertexArray(vao);
-        int elementBuffer = vertexArrayStates.get(vao).elementArrayBuffer;
-        if (elementBuffer != 0) {
-            GL41C.glBindBuffer(GL41C.GL_ELEMENT_ARRAY_BUFFER, elementBuffer);
-        }
-    }
-
     private void tryApplyAttribPointer(int vaobj, int attribindex) {
         VAOState state = vertexArrayStates.get(vaobj);
         VertexAttrib attrib = state.getAttrib(attribindex);
@@ -636,9 +666,9 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
         if (binding == null) return; // No buffer bound
         if (!attrib.isFullyDefined()) return; // Missing format or binding
 
-        final int prevVertexArray = GL41C.glGetInteger(GL41C.GL_VERTEX_ARRAY_BINDING);
-        bindVAO(vaobj);
-        GL41C.glBindBuffer(GL41C.GL_ARRAY_BUFFER, binding.buffer);
+        final AppleBindingCache bindings = bindings();
+        bindings.bindScratch(AppleBindingCache.VERTEX_ARRAY, vaobj);
+        bindings.bindScratch(AppleBindingCache.ARRAY_BUFFER, binding.buffer);
 
         if (attrib.format != null) {
             GL41C.glVertexAttribPointer(
@@ -670,12 +700,12 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
         if (state.enabledAttributes.contains(attribindex)) {
             GL41C.glEnableVertexAttribArray(attribindex);
         }
-        GL41C.glBindVertexArray(prevVertexArray);
+        bindings.restore();
     }
 
-    private void unbindAllTextureTargets() {
-        for (final Integer textureTarget : TEXTURE_QUERY_TARGETS.keySet()) {
-            GL41C.glBindTexture(textureTarget, 0);
+    private void unbindAllTextureTargets(final AppleBindingCache bindings, final int unit) {
+        for (final int textureTarget : AppleBindingCache.TEXTURE_TARGETS) {
+            bindings.bindPersistent(bindings.textureSlot(unit, textureTarget), 0);
         }
     }
 
@@ -699,6 +729,45 @@ public final class AppleCommandEncoder implements GlCommandEncoder {
         return textureTargets;
     }
 
+    /**
+     * Restores the scratch bindings changed by the DSA emulation and invalidates the binding cache of the current context.<br>
+     * Every emulated command already restores its scratch bindings before returning, so the restore is a no-op unless a command threw.
+     * Called at the end of every frame, so bindings changed outside of ThinGL are queried again in the next frame.
+     */
+    public void restoreBindings() {
+        final AppleBindingCache bindings = bindings();
+        bindings.restore();
+        bindings.invalidate();
+    }
+
+    /**
+     * Invalidates the binding cache of the current context. Call this after GL bindings were changed outside of ThinGL.
+     */
+    public void invalidateBindings() {
+        bindings().invalidate();
+    }
+
+    /**
+     * Cross-checks all known bindings of the current context against glGetInteger.
+     *
+     * @throws IllegalStateException If a binding is out of sync
+     */
+    public void validateBindings() {
+        bindings().validateAll();
+    }
+
+    public void notifyVertexArrayBound(final int vertexArray) {
+        bindings().notifyBound(AppleBindingCache.VERTEX_ARRAY, vertexArray);
+    }
+
+    public void notifyDrawFramebufferBound(final int framebuffer) {
+        bindings().notifyBound(AppleBindingCache.DRAW_FRAMEBUFFER, framebuffer);
+    }
+
+    private AppleBindingCache bindings() {
+        return bindingCaches.get();
+    }
+
     private static class VAOState {
 
         Int2ObjectMap<VertexBinding> vertexBindings = new Int2ObjectOpenHashMap<>();
@@ -17,12 +17,14 @@
  */
 package de.florianmichael.thingl.encoder;
 
-import org.lwjgl.opengl.GL45C;
+import org.lwjgl.opengl.*;
 
 import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 
 /**
- * Wrapper interface for GL 4.2+ commands that are not available on Apple software. The methods below are a 1:1 of their GL class equivalents.
+ * Wrapper interface for GL 4.2+ commands that are not available on Apple software. The methods below are a 1:1 of their GL class equivalents.<br>
+ * The core commands further down are wrapped as well, so every GL call made by ThinGL goes through the encoder and can be recorded or emulated.
  */
 public interface GlCommandEncoder {
 
@@ -30,10 +32,18 @@ public interface GlCommandEncoder {
         return GL45C.glCreateBuffers();
     }
 
+    default void glDeleteBuffers(int buffer) {
+        GL15C.glDeleteBuffers(buffer);
+    }
+
     default int glCreateFramebuffers() {
         return GL45C.glCreateFramebuffers();
     }
 
+    default void glDeleteFramebuffers(int framebuffer) {
+        GL30C.glDeleteFramebuffers(framebuffer);
+    }
+
     default int glCreateVertexArrays() {
         return GL45C.glCreateVertexArrays();
     }
@@ -182,6 +192,10 @@ public interface GlCommandEncoder {
         GL45C.glTextureSubImage2D(texture, level, xoffset, yoffset, width, height, format, type, pixels);
     }
 
+    default void glTextureSubImage2D(int texture, int level, int xoffset, int yoffset, int width, int height, int format, int type, long pixels) {
+        GL45C.glTextureSubImage2D(texture, level, xoffset, yoffset, width, height, format, type, pixels);
+    }
+
     default void glTextureSubImage3D(int texture, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int type, ByteBuffer pixels) {
         GL45C.glTextureSubImage3D(texture, level, xoffset, yoffset, zoffset, width, height, depth, format, type, pixels);
     }
@@ -334,4 +348,437 @@ public interface GlCommandEncoder {
         GL45C.glObjectLabel(identifier, name, label);
     }
 
-}
\ No newline at end of file
+    // === Context ===
+
+    /**
+     * @return The LWJGL capabilities of the current context or null if there is no GL context (Headless)
+     */
+    default GLCapabilities getCapabilities() {
+        return GL.getCapabilities();
+    }
+
+    default String glGetString(int name) {
+        return GL11C.glGetString(name);
+    }
+
+    default int glGetInteger(int pname) {
+        return GL11C.glGetInteger(pname);
+    }
+
+    default void glGetIntegerv(int pname, int[] params) {
+        GL11C.glGetIntegerv(pname, params);
+    }
+
+    default float glGetFloat(int pname) {
+        return GL11C.glGetFloat(pname);
+    }
+
+    default boolean glGetBoolean(int pname) {
+        return GL11C.glGetBoolean(pname);
+    }
+
+    default void glDebugMessageControl(int source, int type, int severity, int[] ids, boolean enabled) {
+        GL43C.glDebugMessageControl(source, type, severity, ids, enabled);
+    }
+
+    default void glDebugMessageControl(int source, int type, int severity, int id, boolean enabled) {
+        GL43C.glDebugMessageControl(source, type, severity, id, enabled);
+    }
+
+    default void glMaxShaderCompilerThreadsKHR(int count) {
+        KHRParallelShaderCompile.glMaxShaderCompilerThreadsKHR(count);
+    }
+
+    default void glMaxShaderCompilerThreadsARB(int count) {
+        ARBParallelShaderCompile.glMaxShaderCompilerThreadsARB(count);
+    }
+
+    // === State ===
+
+    default boolean glIsEnabled(int cap) {
+        return GL11C.glIsEnabled(cap);
+    }
+
+    default void glEnable(int cap) {
+        GL11C.glEnable(cap);
+    }
+
+    default void glDisable(int cap) {
+        GL11C.glDisable(cap);
+    }
+
+    default void glBlendFunc(int sfactor, int dfactor) {
+        GL11C.glBlendFunc(sfactor, dfactor);
+    }
+
+    default void glBlendFuncSeparate(int sfactorRGB, int dfactorRGB, int sfactorAlpha, int dfactorAlpha) {
+        GL14C.glBlendFuncSeparate(sfactorRGB, dfactorRGB, sfactorAlpha, dfactorAlpha);
+    }
+
+    default void glBlendEquation(int mode) {
+        GL14C.glBlendEquation(mode);
+    }
+
+    default void glDepthFunc(int func) {
+        GL11C.glDepthFunc(func);
+    }
+
+    default void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        GL11C.glColorMask(red, green, blue, alpha);
+    }
+
+    default void glDepthMask(boolean flag) {
+        GL11C.glDepthMask(flag);
+    }
+
+    default void glStencilMask(int mask) {
+        GL11C.glStencilMask(mask);
+    }
+
+    default void glStencilMaskSeparate(int face, int mask) {
+        GL20C.glStencilMaskSeparate(face, mask);
+    }
+
+    default void glStencilFunc(int func, int ref, int mask) {
+        GL11C.glStencilFunc(func, ref, mask);
+    }
+
+    default void glStencilOp(int sfail, int dpfail, int dppass) {
+        GL11C.glStencilOp(sfail, dpfail, dppass);
+    }
+
+    default void glScissor(int x, int y, int width, int height) {
+        GL11C.glScissor(x, y, width, height);
+    }
+
+    default void glViewport(int x, int y, int w, int h) {
+        GL11C.glViewport(x, y, w, h);
+    }
+
+    default void glCullFace(int mode) {
+        GL11C.glCullFace(mode);
+    }
+
+    default void glFrontFace(int dir) {
+        GL11C.glFrontFace(dir);
+    }
+
+    default void glLogicOp(int op) {
+        GL11C.glLogicOp(op);
+    }
+
+    default void glPolygonOffset(float factor, float units) {
+        GL11C.glPolygonOffset(factor, units);
+    }
+
+    default void glPixelStorei(int pname, int param) {
+        GL11C.glPixelStorei(pname, param);
+    }
+
+    default void glHint(int target, int hint) {
+        GL11C.glHint(target, hint);
+    }
+
+    default void glCoverageModulationNV(int components) {
+        NVFramebufferMixedSamples.glCoverageModulationNV(components);
+    }
+
+    default void glRasterSamplesEXT(int samples, boolean fixedsamplelocations) {
+        NVFramebufferMixedSamples.glRasterSamplesEXT(samples, fixedsamplelocations);
+    }
+
+    // === Bindings ===
+
+    default void glUseProgram(int program) {
+        GL20C.glUseProgram(program);
+    }
+
+    default void glBindVertexArray(int array) {
+        GL30C.glBindVertexArray(array);
+    }
+
+    default void glBindFramebuffer(int target, int framebuffer) {
+        GL30C.glBindFramebuffer(target, framebuffer);
+    }
+
+    default void glBindBuffer(int target, int buffer) {
+        GL15C.glBindBuffer(target, buffer);
+    }
+
+    default void glBindBufferBase(int target, int index, int buffer) {
+        GL30C.glBindBufferBase(target, index, buffer);
+    }
+
+    default void glBindSampler(int unit, int sampler) {
+        GL33C.glBindSampler(unit, sampler);
+    }
+
+    default void nglBindSamplers(int first, int count, long samplers) {
+        GL44C.nglBindSamplers(first, count, samplers);
+    }
+
+    default void glClearBufferiv(int buffer, int drawbuffer, int[] value) {
+        GL30C.glClearBufferiv(buffer, drawbuffer, value);
+    }
+
+    // === Object queries ===
+
+    default boolean glIsBuffer(int buffer) {
+        return GL15C.glIsBuffer(buffer);
+    }
+
+    default boolean glIsTexture(int texture) {
+        return GL11C.glIsTexture(texture);
+    }
+
+    default boolean glIsFramebuffer(int framebuffer) {
+        return GL30C.glIsFramebuffer(framebuffer);
+    }
+
+    default boolean glIsRenderbuffer(int renderbuffer) {
+        return GL30C.glIsRenderbuffer(renderbuffer);
+    }
+
+    default void glDeleteRenderbuffers(int renderbuffer) {
+        GL30C.glDeleteRenderbuffers(renderbuffer);
+    }
+
+    default boolean glIsVertexArray(int array) {
+        return GL30C.glIsVertexArray(array);
+    }
+
+    // === Queries ===
+
+    default boolean glIsQuery(int id) {
+        return GL15C.glIsQuery(id);
+    }
+
+    default void glBeginQuery(int target, int id) {
+        GL15C.glBeginQuery(target, id);
+    }
+
+    default void glEndQuery(int target) {
+        GL15C.glEndQuery(target);
+    }
+
+    default void glQueryCounter(int id, int target) {
+        GL33C.glQueryCounter(id, target);
+    }
+
+    default int glGetQueryObjecti(int id, int pname) {
+        return GL15C.glGetQueryObjecti(id, pname);
+    }
+
+    default long glGetQueryObjecti64(int id, int pname) {
+        return GL33C.glGetQueryObjecti64(id, pname);
+    }
+
+    default void glDeleteQueries(int id) {
+        GL15C.glDeleteQueries(id);
+    }
+
+    // === Sync ===
+
+    default long glFenceSync(int condition, int flags) {
+        return GL32C.glFenceSync(condition, flags);
+    }
+
+    default boolean glIsSync(long sync) {
+        return GL32C.glIsSync(sync);
+    }
+
+    default int glGetSynci(long sync, int pname, IntBuffer length) {
+        return GL32C.glGetSynci(sync, pname, length);
+    }
+
+    default int glClientWaitSync(long sync, int flags, long timeout) {
+        return GL32C.glClientWaitSync(sync, flags, timeout);
+    }
+
+    default void glWaitSync(long sync, int flags, long timeout) {
+        GL32C.glWaitSync(sync, flags, timeout);
+    }
+
+    default void glDeleteSync(long sync) {
+        GL32C.glDeleteSync(sync);
+    }
+
+    // === Shaders ===
+
+    default int glCreateShader(int type) {
+        return GL20C.glCreateShader(type);
+    }
+
+    default boolean glIsShader(int shader) {
+        return GL20C.glIsShader(shader);
+    }
+
+    default void glShaderSource(int shader, CharSequence string) {
+        GL20C.glShaderSource(shader, string);
+    }
+
+    default String glGetShaderSource(int shader) {
+        return GL20C.glGetShaderSource(shader);
+    }
+
+    default void glCompileShader(int shader) {
+        GL20C.glCompileShader(shader);
+    }
+
+    default int glGetShaderi(int shader, int pname) {
+        return GL20C.glGetShaderi(shader, pname);
+    }
+
+    default String glGetShaderInfoLog(int shader) {
+        return GL20C.glGetShaderInfoLog(shader);
+    }
+
+    default void glDeleteShader(int shader) {
+        GL20C.glDeleteShader(shader);
+    }
+
+    // === Programs ===
+
+    default int glCreateProgram() {
+        return GL20C.glCreateProgram();
+    }
+
+    default boolean glIsProgram(int program) {
+        return GL20C.glIsProgram(program);
+    }
+
+    default void glAttachShader(int program, int shader) {
+        GL20C.glAttachShader(program, shader);
+    }
+
+    default void glDetachShader(int program, int shader) {
+        GL20C.glDetachShader(program, shader);
+    }
+
+    default void glGetAttachedShaders(int program, int[] count, int[] shaders) {
+        GL20C.glGetAttachedShaders(program, count, shaders);
+    }
+
+    default void glLinkProgram(int program) {
+        GL20C.glLinkProgram(program);
+    }
+
+    default void glValidateProgram(int program) {
+        GL20C.glValidateProgram(program);
+    }
+
+    default int glGetProgrami(int program, int pname) {
+        return GL20C.glGetProgrami(program, pname);
+    }
+
+    default String glGetProgramInfoLog(int program) {
+        return GL20C.glGetProgramInfoLog(program);
+    }
+
+    default void glProgramParameteri(int program, int pname, int value) {
+        GL41C.glProgramParameteri(program, pname, value);
+    }
+
+    default void glProgramBinary(int program, int binaryFormat, ByteBuffer binary) {
+        GL41C.glProgramBinary(program, binaryFormat, binary);
+    }
+
+    default void glGetProgramBinary(int program, IntBuffer length, IntBuffer binaryFormat, ByteBuffer binary) {
+        GL41C.glGetProgramBinary(program, length, binaryFormat, binary);
+    }
+
+    default void glUniformBlockBinding(int program, int uniformBlockIndex, int uniformBlockBinding) {
+        GL31C.glUniformBlockBinding(program, uniformBlockIndex, uniformBlockBinding);
+    }
+
+    default void glDeleteProgram(int program) {
+        GL20C.glDeleteProgram(program);
+    }
+
+    // === Uniforms ===
+
+    default int glGetUniformLocation(int program, CharSequence name) {
+        return GL20C.glGetUniformLocation(program, name);
+    }
+
+    default int glGetUniformIndices(int program, CharSequence uniformName) {
+        return GL31C.glGetUniformIndices(program, uniformName);
+    }
+
+    default int glGetActiveUniformsi(int program, int uniformIndex, int pname) {
+        return GL31C.glGetActiveUniformsi(program, uniformIndex, pname);
+    }
+
+    default void glProgramUniform1i(int program, int location, int x) {
+        GL41C.glProgramUniform1i(program, location, x);
+    }
+
+    default void glProgramUniform1iv(int program, int location, int[] value) {
+        GL41C.glProgramUniform1iv(program, location, value);
+    }
+
+    default void glProgramUniform1f(int program, int location, float x) {
+        GL41C.glProgramUniform1f(program, location, x);
+    }
+
+    default void glProgramUniform2f(int program, int location, float x, float y) {
+        GL41C.glProgramUniform2f(program, location, x, y);
+    }
+
+    default void glProgramUniform3f(int program, int location, float x, float y, float z) {
+        GL41C.glProgramUniform3f(program, location, x, y, z);
+    }
+
+    default void glProgramUniform4f(int program, int location, float x, float y, float z, float w) {
+        GL41C.glProgramUniform4f(program, location, x, y, z, w);
+    }
+
+    default void glProgramUniformMatrix3fv(int program, int location, boolean transpose, float[] value) {
+        GL41C.glProgramUniformMatrix3fv(program, location, transpose, value);
+    }
+
+    default void glProgramUniformMatrix4fv(int program, int location, boolean transpose, float[] value) {
+        GL41C.glProgramUniformMatrix4fv(program, location, transpose, value);
+    }
+
+    // === Draws ===
+
+    default void glDrawArrays(int mode, int first, int count) {
+        GL11C.glDrawArrays(mode, first, count);
+    }
+
+    default void glDrawElements(int mode, int count, int type, long indices) {
+        GL11C.glDrawElements(mode, count, type, indices);
+    }
+
+    default void glDrawArraysIndirect(int mode, long indirect) {
+        GL40C.glDrawArraysIndirect(mode, indirect);
+    }
+
+    default void glDrawElementsIndirect(int mode, int type, long indirect) {
+        GL40C.glDrawElementsIndirect(mode, type, indirect);
+    }
+
+    // === Bindless textures ===
+
+    default long glGetTextureHandleARB(int texture) {
+        return ARBBindlessTexture.glGetTextureHandleARB(texture);
+    }
+
+    default long glGetTextureSamplerHandleARB(int texture, int sampler) {
+        return ARBBindlessTexture.glGetTextureSamplerHandleARB(texture, sampler);
+    }
+
+    default boolean glIsTextureHandleResidentARB(long handle) {
+        return ARBBindlessTexture.glIsTextureHandleResidentARB(handle);
+    }
+
+    default void glMakeTextureHandleResidentARB(long handle) {
+        ARBBindlessTexture.glMakeTextureHandleResidentARB(handle);
+    }
+
+    default void glMakeTextureHandleNonResidentARB(long handle) {
+        ARBBindlessTexture.glMakeTextureHandleNonResidentARB(handle);
+    }
+
+}
@@ -0,0 +1,2700 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.florianmichael.thingl.encoder;
+
+import it.unimi.dsi.fastutil.ints.*;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.lwjgl.opengl.*;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * Command encoder which records every call into a compact ring log of command ids and up to {@value #LOGGED_ARGUMENTS} leading arguments.<br>
+ * Without a delegate the encoder runs headless: Object names, buffer storage (backed by off-heap memory), texture/framebuffer/vertex array state, fixed function state, shaders, programs, queries, syncs and draw calls are emulated, so no GL context is required.<br>
+ * Emulated shaders always compile and programs always link. Every uniform name resolves to a location, uniform and shader storage blocks are not emulated.
+ * Program binaries use a single emulated format, so the program binary cache can store and load them.<br>
+ * With a delegate every call is forwarded after being recorded, which allows counting GL calls per frame on real hardware.<br>
+ * Only calls going through {@link de.florianmichael.thingl.GlCommands} are seen by this encoder.
+ */
+public final class RecordingCommandEncoder implements GlCommandEncoder {
+
+    public static final int LOGGED_ARGUMENTS = 4;
+    private static final int DEFAULT_LOG_CAPACITY = 1 << 16;
+    private static final int EMULATED_PROGRAM_BINARY_FORMAT = 0x54474542; // TGEB
+    private static final int EMULATED_PROGRAM_BINARY = 0x4C494E4B; // LINK
+
+    private final GlCommandEncoder delegate;
+    private final int logMask;
+    private final Command[] logCommands;
+    private final long[] logArguments;
+    private long logWriteIndex;
+    private long logStartIndex;
+
+    private final long[] callCounts = new long[Command.values().length];
+    private long totalCallCount;
+    private long drawCallCount;
+    private long drawnElementCount;
+
+    private int lastObjectName;
+    private final Int2ObjectMap<BufferStorage> buffers = new Int2ObjectOpenHashMap<>();
+    private final Int2ObjectMap<TextureState> textures = new Int2ObjectOpenHashMap<>();
+    private final Int2ObjectMap<RenderbufferState> renderbuffers = new Int2ObjectOpenHashMap<>();
+    private final Int2ObjectMap<Int2IntMap> framebufferAttachments = new Int2ObjectOpenHashMap<>();
+    private final Int2ObjectMap<VertexArrayState> vertexArrays = new Int2ObjectOpenHashMap<>();
+    private final Int2IntMap textureUnits = new Int2IntOpenHashMap();
+    private final Int2IntMap imageUnits = new Int2IntOpenHashMap();
+    private final Int2ObjectMap<String> objectLabels = new Int2ObjectOpenHashMap<>();
+    private final Int2IntMap integerState = new Int2IntOpenHashMap();
+    private final IntSet enabledCapabilities = new IntOpenHashSet();
+    private final int[] viewport = new int[4];
+    private final int[] scissorBox = new int[4];
+    private final int[] colorWriteMask = {GL11C.GL_TRUE, GL11C.GL_TRUE, GL11C.GL_TRUE, GL11C.GL_TRUE};
+    private boolean depthWriteMask = true;
+    private float polygonOffsetFactor;
+    private float polygonOffsetUnits;
+    private final Int2ObjectMap<ShaderState> shaders = new Int2ObjectOpenHashMap<>();
+    private final Int2ObjectMap<ProgramState> programs = new Int2ObjectOpenHashMap<>();
+    private final Int2IntMap queryTargets = new Int2IntOpenHashMap();
+    private final Int2LongMap queryResults = new Int2LongOpenHashMap();
+    private long lastSync;
+    private final Long2LongMap syncConditions = new Long2LongOpenHashMap();
+    private final LongSet residentTextureHandles = new LongOpenHashSet();
+
+    public RecordingCommandEncoder() {
+        this(null, DEFAULT_LOG_CAPACITY);
+    }
+
+    public RecordingCommandEncoder(final GlCommandEncoder delegate) {
+        this(delegate, DEFAULT_LOG_CAPACITY);
+    }
+
+    public RecordingCommandEncoder(final GlCommandEncoder delegate, final int logCapacity) {
+        if (logCapacity <= 0 || Integer.bitCount(logCapacity) != 1) {
+            throw new IllegalArgumentException("Log capacity must be a power of two");
+        }
+        this.delegate = delegate;
+        this.logMask = logCapacity - 1;
+        this.logCommands = new Command[logCapacity];
+        this.logArguments = new long[logCapacity * LOGGED_ARGUMENTS];
+        this.resetState();
+    }
+
+    // === Objects ===
+
+    @Override
+    public int glCreateBuffers() {
+        this.record(Command.CREATE_BUFFERS);
+        if (this.delegate != null) {
+            return this.delegate.glCreateBuffers();
+        }
+        final int name = this.nextObjectName();
+        this.buffers.put(name, new BufferStorage());
+        return name;
+    }
+
+    @Override
+    public void glDeleteBuffers(int buffer) {
+        this.record(Command.DELETE_BUFFERS, buffer);
+        if (this.delegate != null) {
+            this.delegate.glDeleteBuffers(buffer);
+            return;
+        }
+        final BufferStorage storage = this.buffers.remove(buffer);
+        if (storage != null) {
+            storage.free();
+        }
+        this.objectLabels.remove(buffer);
+    }
+
+    @Override
+    public int glCreateFramebuffers() {
+        this.record(Command.CREATE_FRAMEBUFFERS);
+        if (this.delegate != null) {
+            return this.delegate.glCreateFramebuffers();
+        }
+        final int name = this.nextObjectName();
+        this.framebufferAttachments.put(name, new Int2IntOpenHashMap());
+        return name;
+    }
+
+    @Override
+    public void glDeleteFramebuffers(int framebuffer) {
+        this.record(Command.DELETE_FRAMEBUFFERS, framebuffer);
+        if (this.delegate != null) {
+            this.delegate.glDeleteFramebuffers(framebuffer);
+            return;
+        }
+        this.framebufferAttachments.remove(framebuffer);
+        this.objectLabels.remove(framebuffer);
+    }
+
+    @Override
+    public int glCreateVertexArrays() {
+        this.record(Command.CREATE_VERTEX_ARRAYS);
+        if (this.delegate != null) {
+            return this.delegate.glCreateVertexArrays();
+        }
+        final int name = this.nextObjectName();
+        this.vertexArrays.put(name, new VertexArrayState());
+        return name;
+    }
+
+    @Override
+    public int glCreateRenderbuffers() {
+        this.record(Command.CREATE_RENDERBUFFERS);
+        if (this.delegate != null) {
+            return this.delegate.glCreateRenderbuffers();
+        }
+        final int name = this.nextObjectName();
+        this.renderbuffers.put(name, new RenderbufferState());
+        return name;
+    }
+
+    @Override
+    public int glCreateQueries(int target) {
+        this.record(Command.CREATE_QUERIES, target);
+        if (this.delegate != null) {
+            return this.delegate.glCreateQueries(target);
+        }
+        final int name = this.nextObjectName();
+        this.queryTargets.put(name, target);
+        return name;
+    }
+
+    @Override
+    public void glDeleteVertexArrays(int array) {
+        this.record(Command.DELETE_VERTEX_ARRAYS, array);
+        if (this.delegate != null) {
+            this.delegate.glDeleteVertexArrays(array);
+            return;
+        }
+        this.vertexArrays.remove(array);
+        this.objectLabels.remove(array);
+    }
+
+    @Override
+    public int glCreateTextures(int target) {
+        this.record(Command.CREATE_TEXTURES, target);
+        if (this.delegate != null) {
+            return this.delegate.glCreateTextures(target);
+        }
+        final int name = this.nextObjectName();
+        this.textures.put(name, new TextureState(target));
+        return name;
+    }
+
+    @Override
+    public void glDeleteTextures(int texture) {
+        this.record(Command.DELETE_TEXTURES, texture);
+        if (this.delegate != null) {
+            this.delegate.glDeleteTextures(texture);
+            return;
+        }
+        this.textures.remove(texture);
+        this.objectLabels.remove(texture);
+        for (LongIterator iterator = this.residentTextureHandles.iterator(); iterator.hasNext(); ) { // Deleting a texture deletes all of its handles, including the ones paired with samplers
+            if ((int) iterator.nextLong() == texture) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // === Buffers ===
+
+    @Override
+    public boolean glUnmapNamedBuffer(int buffer) {
+        this.record(Command.UNMAP_NAMED_BUFFER, buffer);
+        if (this.delegate != null) {
+            return this.delegate.glUnmapNamedBuffer(buffer);
+        }
+        final BufferStorage storage = this.getBuffer(buffer);
+        if (!storage.mapped) {
+            throw new IllegalStateException("Buffer " + buffer + " is not mapped");
+        }
+        storage.mapped = false;
+        storage.mapAccess = 0;
+        storage.mapOffset = 0;
+        storage.mapLength = 0;
+        return true;
+    }
+
+    @Override
+    public void glNamedBufferStorage(int buffer, long size, int flags) {
+        this.record(Command.NAMED_BUFFER_STORAGE, buffer, size, flags);
+        if (this.delegate != null) {
+            this.delegate.glNamedBufferStorage(buffer, size, flags);
+            return;
+        }
+        final BufferStorage storage = this.getBuffer(buffer);
+        if (storage.immutable) {
+            throw new IllegalStateException("Buffer " + buffer + " already has immutable storage");
+        }
+        storage.allocate(size);
+        storage.immutable = true;
+        storage.storageFlags = flags;
+    }
+
+    @Override
+    public void glNamedBufferStorage(int buffer, ByteBuffer data, int flags) {
+        this.record(Command.NAMED_BUFFER_STORAGE, buffer, data.remaining(), flags);
+        if (this.delegate != null) {
+            this.delegate.glNamedBufferStorage(buffer, data, flags);
+            return;
+        }
+        final BufferStorage storage = this.getBuffer(buffer);
+        if (storage.immutable) {
+            throw new IllegalStateException("Buffer " + buffer + " already has immutable storage");
+        }
+        storage.allocate(data.remaining());
+        storage.immutable = true;
+        storage.storageFlags = flags;
+        MemoryUtil.memCopy(MemoryUtil.memAddress(data), storage.address, data.remaining());
+    }
+
+    @Override
+    public void glNamedRenderbufferStorageMultisample(int renderbuffer, int samples, int internalformat, int width, int height) {
+        this.record(Command.NAMED_RENDERBUFFER_STORAGE, renderbuffer, internalformat, width, height);
+        if (this.delegate != null) {
+            this.delegate.glNamedRenderbufferStorageMultisample(renderbuffer, samples, internalformat, width, height);
+            return;
+        }
+        this.getRenderbuffer(renderbuffer).set(samples, internalformat, width, height);
+    }
+
+    @Override
+    public void glNamedRenderbufferStorage(int renderbuffer, int internalformat, int width, int height) {
+        this.record(Command.NAMED_RENDERBUFFER_STORAGE, renderbuffer, internalformat, width, height);
+        if (this.delegate != null) {
+            this.delegate.glNamedRenderbufferStorage(renderbuffer, internalformat, width, height);
+            return;
+        }
+        this.getRenderbuffer(renderbuffer).set(0, internalformat, width, height);
+    }
+
+    @Override
+    public void glNamedBufferSubData(int buffer, long offset, ByteBuffer data) {
+        this.record(Command.NAMED_BUFFER_SUB_DATA, buffer, offset, data.remaining());
+        if (this.delegate != null) {
+            this.delegate.glNamedBufferSubData(buffer, offset, data);
+            return;
+        }
+        final BufferStorage storage = this.getBuffer(buffer);
+        storage.checkRange(offset, data.remaining());
+        MemoryUtil.memCopy(MemoryUtil.memAddress(data), storage.address + offset, data.remaining());
+    }
+
+    @Override
+    public void glNamedBufferData(int buffer, long size, int usage) {
+        this.record(Command.NAMED_BUFFER_DATA, buffer, size, usage);
+        if (this.delegate != null) {
+            this.delegate.glNamedBufferData(buffer, size, usage);
+            return;
+        }
+        final BufferStorage storage = this.getBuffer(buffer);
+        if (storage.immutable) {
+            throw new IllegalStateException("Buffer " + buffer + " has immutable storage");
+        }
+        storage.allocate(size);
+        storage.usage = usage;
+    }
+
+    @Override
+    public void glNamedBufferData(int buffer, ByteBuffer data, int usage) {
+        this.record(Command.NAMED_BUFFER_DATA, buffer, data.remaining(), usage);
+        if (this.delegate != null) {
+            this.delegate.glNamedBufferData(buffer, data, usage);
+            return;
+        }
+        final BufferStorage storage = this.getBuffer(buffer);
+        if (storage.immutable) {
+            throw new IllegalStateException("Buffer " + buffer + " has immutable storage");
+        }
+        storage.allocate(data.remaining());
+        storage.usage = usage;
+        MemoryUtil.memCopy(MemoryUtil.memAddress(data), storage.address, data.remaining());
+    }
+
+    @Override
+    public void glGetNamedBufferSubData(int buffer, long offset, ByteBuffer data) {
+        this.record(Command.GET_NAMED_BUFFER_SUB_DATA, buffer, offset, data.remaining());
+        if (this.delegate != null) {
+            this.delegate.glGetNamedBufferSubData(buffer, offset, data);
+            return;
+        }
+        final BufferStorage storage = this.getBuffer(buffer);
+        storage.checkRange(offset, data.remaining());
+        MemoryUtil.memCopy(storage.address + offset, MemoryUtil.memAddress(data), data.remaining());
+    }
+
+    @Override
+    public int glGetNamedBufferParameteri(int buffer, int pname) {
+        this.record(Command.GET_NAMED_BUFFER_PARAMETER, buffer, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetNamedBufferParameteri(buffer, pname);
+        }
+        return (int) this.getBuffer(buffer).getParameter(pname);
+    }
+
+    @Override
+    public ByteBuffer glMapNamedBuffer(int buffer, int access) {
+        this.record(Command.MAP_NAMED_BUFFER, buffer, access);
+        if (this.delegate != null) {
+            return this.delegate.glMapNamedBuffer(buffer, access);
+        }
+        final BufferStorage storage = this.getBuffer(buffer);
+        return storage.map(0, storage.size, switch (access) {
+            case GL15C.GL_READ_ONLY -> GL30C.GL_MAP_READ_BIT;
+            case GL15C.GL_WRITE_ONLY -> GL30C.GL_MAP_WRITE_BIT;
+            default -> GL30C.GL_MAP_READ_BIT | GL30C.GL_MAP_WRITE_BIT;
+        });
+    }
+
+    @Override
+    public ByteBuffer glMapNamedBufferRange(int buffer, long offset, long length, int access) {
+        this.record(Command.MAP_NAMED_BUFFER_RANGE, buffer, offset, length, access);
+        if (this.delegate != null) {
+            return this.delegate.glMapNamedBufferRange(buffer, offset, length, access);
+        }
+        return this.getBuffer(buffer).map(offset, length, access);
+    }
+
+    @Override
+    public void glFlushMappedNamedBufferRange(int buffer, long offset, long length) {
+        this.record(Command.FLUSH_MAPPED_NAMED_BUFFER_RANGE, buffer, offset, length);
+        if (this.delegate != null) {
+            this.delegate.glFlushMappedNamedBufferRange(buffer, offset, length);
+            return;
+        }
+        final BufferStorage storage = this.getBuffer(buffer);
+        if (!storage.mapped || offset < 0 || length < 0 || offset + length > storage.mapLength) {
+            throw new IllegalArgumentException("Flush range is outside of the mapped range of buffer " + buffer);
+        }
+    }
+
+    @Override
+    public long glGetNamedBufferParameteri64(int buffer, int pname) {
+        this.record(Command.GET_NAMED_BUFFER_PARAMETER, buffer, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetNamedBufferParameteri64(buffer, pname);
+        }
+        return this.getBuffer(buffer).getParameter(pname);
+    }
+
+    @Override
+    public void glCopyNamedBufferSubData(int readBuffer, int writeBuffer, long readOffset, long writeOffset, long size) {
+        this.record(Command.COPY_NAMED_BUFFER_SUB_DATA, readBuffer, writeBuffer, readOffset, writeOffset);
+        if (this.delegate != null) {
+            this.delegate.glCopyNamedBufferSubData(readBuffer, writeBuffer, readOffset, writeOffset, size);
+            return;
+        }
+        final BufferStorage readStorage = this.getBuffer(readBuffer);
+        final BufferStorage writeStorage = this.getBuffer(writeBuffer);
+        readStorage.checkRange(readOffset, size);
+        writeStorage.checkRange(writeOffset, size);
+        MemoryUtil.memCopy(readStorage.address + readOffset, writeStorage.address + writeOffset, size);
+    }
+
+    // === Framebuffers ===
+
+    @Override
+    public int glCheckNamedFramebufferStatus(int framebuffer, int target) {
+        this.record(Command.CHECK_NAMED_FRAMEBUFFER_STATUS, framebuffer, target);
+        if (this.delegate != null) {
+            return this.delegate.glCheckNamedFramebufferStatus(framebuffer, target);
+        }
+        return GL30C.GL_FRAMEBUFFER_COMPLETE;
+    }
+
+    @Override
+    public void glClearNamedFramebufferfv(int framebuffer, int buffer, int drawbuffer, float[] value) {
+        this.record(Command.CLEAR_NAMED_FRAMEBUFFER, framebuffer, buffer, drawbuffer);
+        if (this.delegate != null) {
+            this.delegate.glClearNamedFramebufferfv(framebuffer, buffer, drawbuffer, value);
+        }
+    }
+
+    @Override
+    public void glClearNamedFramebufferfi(int framebuffer, int buffer, int drawbuffer, float depth, int stencil) {
+        this.record(Command.CLEAR_NAMED_FRAMEBUFFER, framebuffer, buffer, drawbuffer);
+        if (this.delegate != null) {
+            this.delegate.glClearNamedFramebufferfi(framebuffer, buffer, drawbuffer, depth, stencil);
+        }
+    }
+
+    @Override
+    public void glClearNamedFramebufferiv(int framebuffer, int buffer, int drawbuffer, int[] value) {
+        this.record(Command.CLEAR_NAMED_FRAMEBUFFER, framebuffer, buffer, drawbuffer);
+        if (this.delegate != null) {
+            this.delegate.glClearNamedFramebufferiv(framebuffer, buffer, drawbuffer, value);
+        }
+    }
+
+    @Override
+    public void glBlitNamedFramebuffer(int readFramebuffer, int drawFramebuffer, int srcX0, int srcY0, int srcX1, int srcY1, int dstX0, int dstY0, int dstX1, int dstY1, int mask, int filter) {
+        this.record(Command.BLIT_NAMED_FRAMEBUFFER, readFramebuffer, drawFramebuffer, mask, filter);
+        if (this.delegate != null) {
+            this.delegate.glBlitNamedFramebuffer(readFramebuffer, drawFramebuffer, srcX0, srcY0, srcX1, srcY1, dstX0, dstY0, dstX1, dstY1, mask, filter);
+        }
+    }
+
+    @Override
+    public void glNamedFramebufferTexture(int framebuffer, int attachment, int texture, int level) {
+        this.record(Command.NAMED_FRAMEBUFFER_TEXTURE, framebuffer, attachment, texture, level);
+        if (this.delegate != null) {
+            this.delegate.glNamedFramebufferTexture(framebuffer, attachment, texture, level);
+            return;
+        }
+        this.setFramebufferAttachment(framebuffer, attachment, texture);
+    }
+
+    @Override
+    public void glInvalidateNamedFramebufferData(int framebuffer, int[] attachments) {
+        this.record(Command.INVALIDATE_NAMED_FRAMEBUFFER_DATA, framebuffer, attachments.length);
+        if (this.delegate != null) {
+            this.delegate.glInvalidateNamedFramebufferData(framebuffer, attachments);
+        }
+    }
+
+    @Override
+    public int glGetNamedFramebufferAttachmentParameteri(int framebuffer, int attachment, int pname) {
+        this.record(Command.GET_NAMED_FRAMEBUFFER_ATTACHMENT_PARAMETER, framebuffer, attachment, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetNamedFramebufferAttachmentParameteri(framebuffer, attachment, pname);
+        }
+        final Int2IntMap attachments = this.framebufferAttachments.get(framebuffer);
+        if (attachments == null) {
+            throw new IllegalArgumentException("Unknown framebuffer: " + framebuffer);
+        }
+        final int attachmentName = attachments.get(attachment);
+        return switch (pname) {
+            case GL30C.GL_FRAMEBUFFER_ATTACHMENT_OBJECT_NAME -> attachmentName;
+            case GL30C.GL_FRAMEBUFFER_ATTACHMENT_OBJECT_TYPE -> {
+                if (attachmentName == 0) {
+                    yield GL11C.GL_NONE;
+                } else if (this.renderbuffers.containsKey(attachmentName)) {
+                    yield GL30C.GL_RENDERBUFFER;
+                } else {
+                    yield GL11C.GL_TEXTURE;
+                }
+            }
+            default -> throw new IllegalArgumentException("Unsupported framebuffer attachment parameter: " + pname);
+        };
+    }
+
+    @Override
+    public int glGetNamedRenderbufferParameteri(int renderbuffer, int pname) {
+        this.record(Command.GET_NAMED_RENDERBUFFER_PARAMETER, renderbuffer, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetNamedRenderbufferParameteri(renderbuffer, pname);
+        }
+        final RenderbufferState state = this.getRenderbuffer(renderbuffer);
+        return switch (pname) {
+            case GL30C.GL_RENDERBUFFER_WIDTH -> state.width;
+            case GL30C.GL_RENDERBUFFER_HEIGHT -> state.height;
+            case GL30C.GL_RENDERBUFFER_INTERNAL_FORMAT -> state.internalFormat;
+            case GL30C.GL_RENDERBUFFER_SAMPLES -> state.samples;
+            default -> throw new IllegalArgumentException("Unsupported renderbuffer parameter: " + pname);
+        };
+    }
+
+    @Override
+    public void glNamedFramebufferRenderbuffer(int framebuffer, int attachment, int renderbuffertarget, int renderbuffer) {
+        this.record(Command.NAMED_FRAMEBUFFER_RENDERBUFFER, framebuffer, attachment, renderbuffer);
+        if (this.delegate != null) {
+            this.delegate.glNamedFramebufferRenderbuffer(framebuffer, attachment, renderbuffertarget, renderbuffer);
+            return;
+        }
+        this.setFramebufferAttachment(framebuffer, attachment, renderbuffer);
+    }
+
+    // === Textures ===
+
+    @Override
+    public void glGenerateTextureMipmap(int texture) {
+        this.record(Command.GENERATE_TEXTURE_MIPMAP, texture);
+        if (this.delegate != null) {
+            this.delegate.glGenerateTextureMipmap(texture);
+        }
+    }
+
+    @Override
+    public void glBindTextureUnit(int unit, int texture) {
+        this.record(Command.BIND_TEXTURE_UNIT, unit, texture);
+        if (this.delegate != null) {
+            this.delegate.glBindTextureUnit(unit, texture);
+            return;
+        }
+        this.textureUnits.put(unit, texture);
+    }
+
+    @Override
+    public void glBindTextures(int first, int[] textures) {
+        this.record(Command.BIND_TEXTURES, first, textures != null ? textures.length : 0);
+        if (this.delegate != null) {
+            this.delegate.glBindTextures(first, textures);
+            return;
+        }
+        if (textures == null) {
+            this.textureUnits.clear();
+        } else {
+            for (int i = 0; i < textures.length; i++) {
+                this.textureUnits.put(first + i, textures[i]);
+            }
+        }
+    }
+
+    @Override
+    public void glTextureStorage2DMultisample(int texture, int samples, int internalformat, int width, int height, boolean fixedsamplelocations) {
+        this.record(Command.TEXTURE_STORAGE, texture, internalformat, width, height);
+        if (this.delegate != null) {
+            this.delegate.glTextureStorage2DMultisample(texture, samples, internalformat, width, height, fixedsamplelocations);
+            return;
+        }
+        this.getTexture(texture).setStorage(1, samples, internalformat, width, height, 1);
+    }
+
+    @Override
+    public void glTextureStorage2D(int texture, int levels, int internalformat, int width, int height) {
+        this.record(Command.TEXTURE_STORAGE, texture, internalformat, width, height);
+        if (this.delegate != null) {
+            this.delegate.glTextureStorage2D(texture, levels, internalformat, width, height);
+            return;
+        }
+        this.getTexture(texture).setStorage(levels, 0, internalformat, width, height, 1);
+    }
+
+    @Override
+    public void glTextureSubImage2D(int texture, int level, int xoffset, int yoffset, int width, int height, int format, int type, ByteBuffer pixels) {
+        this.record(Command.TEXTURE_SUB_IMAGE, texture, level, width, height);
+        if (this.delegate != null) {
+            this.delegate.glTextureSubImage2D(texture, level, xoffset, yoffset, width, height, format, type, pixels);
+        }
+    }
+
+    @Override
+    public void glTextureSubImage2D(int texture, int level, int xoffset, int yoffset, int width, int height, int format, int type, long pixels) {
+        this.record(Command.TEXTURE_SUB_IMAGE, texture, level, width, height);
+        if (this.delegate != null) {
+            this.delegate.glTextureSubImage2D(texture, level, xoffset, yoffset, width, height, format, type, pixels);
+        }
+    }
+
+    @Override
+    public void glTextureSubImage3D(int texture, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int type, ByteBuffer pixels) {
+        this.record(Command.TEXTURE_SUB_IMAGE, texture, level, width, height);
+        if (this.delegate != null) {
+            this.delegate.glTextureSubImage3D(texture, level, xoffset, yoffset, zoffset, width, height, depth, format, type, pixels);
+        }
+    }
+
+    @Override
+    public void glTextureSubImage1D(int texture, int level, int xoffset, int width, int format, int type, ByteBuffer pixels) {
+        this.record(Command.TEXTURE_SUB_IMAGE, texture, level, width, 1);
+        if (this.delegate != null) {
+            this.delegate.glTextureSubImage1D(texture, level, xoffset, width, format, type, pixels);
+        }
+    }
+
+    @Override
+    public void glGetTextureSubImage(int texture, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int type, ByteBuffer pixels) {
+        this.record(Command.GET_TEXTURE_SUB_IMAGE, texture, level, width, height);
+        if (this.delegate != null) {
+            this.delegate.glGetTextureSubImage(texture, level, xoffset, yoffset, zoffset, width, height, depth, format, type, pixels);
+            return;
+        }
+        MemoryUtil.memSet(pixels, 0); // Texel data is not emulated
+    }
+
+    @Override
+    public void glClearTexImage(int texture, int level, int format, int type, float[] data) {
+        this.record(Command.CLEAR_TEX_IMAGE, texture, level, format, type);
+        if (this.delegate != null) {
+            this.delegate.glClearTexImage(texture, level, format, type, data);
+        }
+    }
+
+    @Override
+    public void glClearTexImage(int texture, int level, int format, int type, ByteBuffer data) {
+        this.record(Command.CLEAR_TEX_IMAGE, texture, level, format, type);
+        if (this.delegate != null) {
+            this.delegate.glClearTexImage(texture, level, format, type, data);
+        }
+    }
+
+    @Override
+    public void glClearTexSubImage(int texture, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int type, float[] data) {
+        this.record(Command.CLEAR_TEX_SUB_IMAGE, texture, level, width, height);
+        if (this.delegate != null) {
+            this.delegate.glClearTexSubImage(texture, level, xoffset, yoffset, zoffset, width, height, depth, format, type, data);
+        }
+    }
+
+    @Override
+    public void glClearTexSubImage(int texture, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth, int format, int type, ByteBuffer data) {
+        this.record(Command.CLEAR_TEX_SUB_IMAGE, texture, level, width, height);
+        if (this.delegate != null) {
+            this.delegate.glClearTexSubImage(texture, level, xoffset, yoffset, zoffset, width, height, depth, format, type, data);
+        }
+    }
+
+    @Override
+    public float glGetTextureParameterf(int texture, int pname) {
+        this.record(Command.GET_TEXTURE_PARAMETER, texture, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetTextureParameterf(texture, pname);
+        }
+        return Float.intBitsToFloat(this.getTexture(texture).getParameter(pname));
+    }
+
+    @Override
+    public void glTextureParameterf(int texture, int pname, float param) {
+        this.record(Command.TEXTURE_PARAMETER, texture, pname, Float.floatToRawIntBits(param));
+        if (this.delegate != null) {
+            this.delegate.glTextureParameterf(texture, pname, param);
+            return;
+        }
+        this.getTexture(texture).parameters.put(pname, Float.floatToRawIntBits(param));
+    }
+
+    @Override
+    public void glGetTextureParameteriv(int texture, int pname, int[] params) {
+        this.record(Command.GET_TEXTURE_PARAMETER, texture, pname);
+        if (this.delegate != null) {
+            this.delegate.glGetTextureParameteriv(texture, pname, params);
+            return;
+        }
+        params[0] = this.getTexture(texture).getParameter(pname);
+    }
+
+    @Override
+    public void glTextureParameteriv(int texture, int pname, int[] params) {
+        this.record(Command.TEXTURE_PARAMETER, texture, pname, params[0]);
+        if (this.delegate != null) {
+            this.delegate.glTextureParameteriv(texture, pname, params);
+            return;
+        }
+        this.getTexture(texture).parameters.put(pname, params[0]);
+    }
+
+    @Override
+    public void glGetTextureParameterfv(int texture, int pname, float[] params) {
+        this.record(Command.GET_TEXTURE_PARAMETER, texture, pname);
+        if (this.delegate != null) {
+            this.delegate.glGetTextureParameterfv(texture, pname, params);
+            return;
+        }
+        params[0] = Float.intBitsToFloat(this.getTexture(texture).getParameter(pname));
+    }
+
+    @Override
+    public void glTextureParameterfv(int texture, int pname, float[] params) {
+        this.record(Command.TEXTURE_PARAMETER, texture, pname, Float.floatToRawIntBits(params[0]));
+        if (this.delegate != null) {
+            this.delegate.glTextureParameterfv(texture, pname, params);
+            return;
+        }
+        this.getTexture(texture).parameters.put(pname, Float.floatToRawIntBits(params[0]));
+    }
+
+    @Override
+    public void glTextureParameteri(int texture, int pname, int param) {
+        this.record(Command.TEXTURE_PARAMETER, texture, pname, param);
+        if (this.delegate != null) {
+            this.delegate.glTextureParameteri(texture, pname, param);
+            return;
+        }
+        this.getTexture(texture).parameters.put(pname, param);
+    }
+
+    @Override
+    public int glGetTextureLevelParameteri(int texture, int level, int pname) {
+        this.record(Command.GET_TEXTURE_LEVEL_PARAMETER, texture, level, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetTextureLevelParameteri(texture, level, pname);
+        }
+        final TextureState state = this.getTexture(texture);
+        return switch (pname) {
+            case GL11C.GL_TEXTURE_WIDTH -> Math.max(1, state.width >> level);
+            case GL11C.GL_TEXTURE_HEIGHT -> Math.max(1, state.height >> level);
+            case GL12C.GL_TEXTURE_DEPTH -> state.depth;
+            case GL11C.GL_TEXTURE_INTERNAL_FORMAT -> state.internalFormat;
+            case GL32C.GL_TEXTURE_SAMPLES -> state.samples;
+            default -> throw new IllegalArgumentException("Unsupported texture level parameter: " + pname);
+        };
+    }
+
+    @Override
+    public int glGetTextureParameteri(int texture, int pname) {
+        this.record(Command.GET_TEXTURE_PARAMETER, texture, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetTextureParameteri(texture, pname);
+        }
+        return this.getTexture(texture).getParameter(pname);
+    }
+
+    @Override
+    public void glTextureBuffer(int texture, int internalformat, int buffer) {
+        this.record(Command.TEXTURE_BUFFER, texture, internalformat, buffer);
+        if (this.delegate != null) {
+            this.delegate.glTextureBuffer(texture, internalformat, buffer);
+            return;
+        }
+        final TextureState state = this.getTexture(texture);
+        state.internalFormat = internalformat;
+        state.buffer = buffer;
+    }
+
+    @Override
+    public void glTextureStorage3D(int texture, int levels, int internalformat, int width, int height, int depth) {
+        this.record(Command.TEXTURE_STORAGE, texture, internalformat, width, height);
+        if (this.delegate != null) {
+            this.delegate.glTextureStorage3D(texture, levels, internalformat, width, height, depth);
+            return;
+        }
+        this.getTexture(texture).setStorage(levels, 0, internalformat, width, height, depth);
+    }
+
+    @Override
+    public void glTextureStorage3DMultisample(int texture, int samples, int internalformat, int width, int height, int depth, boolean fixedsamplelocations) {
+        this.record(Command.TEXTURE_STORAGE, texture, internalformat, width, height);
+        if (this.delegate != null) {
+            this.delegate.glTextureStorage3DMultisample(texture, samples, internalformat, width, height, depth, fixedsamplelocations);
+            return;
+        }
+        this.getTexture(texture).setStorage(1, samples, internalformat, width, height, depth);
+    }
+
+    @Override
+    public void glTextureStorage1D(int texture, int levels, int internalformat, int width) {
+        this.record(Command.TEXTURE_STORAGE, texture, internalformat, width, 1);
+        if (this.delegate != null) {
+            this.delegate.glTextureStorage1D(texture, levels, internalformat, width);
+            return;
+        }
+        this.getTexture(texture).setStorage(levels, 0, internalformat, width, 1, 1);
+    }
+
+    // === Vertex arrays ===
+
+    @Override
+    public void glVertexArrayVertexBuffer(int vaobj, int bindingindex, int buffer, long offset, int stride) {
+        this.record(Command.VERTEX_ARRAY_VERTEX_BUFFER, vaobj, bindingindex, buffer, offset);
+        if (this.delegate != null) {
+            this.delegate.glVertexArrayVertexBuffer(vaobj, bindingindex, buffer, offset, stride);
+            return;
+        }
+        this.getVertexArray(vaobj).vertexBuffers.put(bindingindex, buffer);
+    }
+
+    @Override
+    public void glVertexArrayElementBuffer(int vaobj, int buffer) {
+        this.record(Command.VERTEX_ARRAY_ELEMENT_BUFFER, vaobj, buffer);
+        if (this.delegate != null) {
+            this.delegate.glVertexArrayElementBuffer(vaobj, buffer);
+            return;
+        }
+        this.getVertexArray(vaobj).elementBuffer = buffer;
+    }
+
+    @Override
+    public void glVertexArrayAttribFormat(int vaobj, int attribindex, int size, int type, boolean normalized, int relativeoffset) {
+        this.record(Command.VERTEX_ARRAY_ATTRIB_FORMAT, vaobj, attribindex, size, type);
+        if (this.delegate != null) {
+            this.delegate.glVertexArrayAttribFormat(vaobj, attribindex, size, type, normalized, relativeoffset);
+        }
+    }
+
+    @Override
+    public void glVertexArrayAttribIFormat(int vaobj, int attribindex, int size, int type, int relativeoffset) {
+        this.record(Command.VERTEX_ARRAY_ATTRIB_FORMAT, vaobj, attribindex, size, type);
+        if (this.delegate != null) {
+            this.delegate.glVertexArrayAttribIFormat(vaobj, attribindex, size, type, relativeoffset);
+        }
+    }
+
+    @Override
+    public void glVertexArrayAttribLFormat(int vaobj, int attribindex, int size, int type, int relativeoffset) {
+        this.record(Command.VERTEX_ARRAY_ATTRIB_FORMAT, vaobj, attribindex, size, type);
+        if (this.delegate != null) {
+            this.delegate.glVertexArrayAttribLFormat(vaobj, attribindex, size, type, relativeoffset);
+        }
+    }
+
+    @Override
+    public void glVertexArrayAttribBinding(int vaobj, int attribindex, int bindingindex) {
+        this.record(Command.VERTEX_ARRAY_ATTRIB_BINDING, vaobj, attribindex, bindingindex);
+        if (this.delegate != null) {
+            this.delegate.glVertexArrayAttribBinding(vaobj, attribindex, bindingindex);
+        }
+    }
+
+    @Override
+    public void glEnableVertexArrayAttrib(int vaobj, int index) {
+        this.record(Command.ENABLE_VERTEX_ARRAY_ATTRIB, vaobj, index);
+        if (this.delegate != null) {
+            this.delegate.glEnableVertexArrayAttrib(vaobj, index);
+        }
+    }
+
+    @Override
+    public void glVertexArrayBindingDivisor(int vaobj, int bindingindex, int divisor) {
+        this.record(Command.VERTEX_ARRAY_BINDING_DIVISOR, vaobj, bindingindex, divisor);
+        if (this.delegate != null) {
+            this.delegate.glVertexArrayBindingDivisor(vaobj, bindingindex, divisor);
+        }
+    }
+
+    // === Draws ===
+
+    @Override
+    public void glDrawArraysInstancedBaseInstance(int mode, int first, int count, int primcount, int baseinstance) {
+        this.record(Command.DRAW_ARRAYS, mode, first, count, primcount);
+        this.drawCallCount++;
+        this.drawnElementCount += (long) count * primcount;
+        if (this.delegate != null) {
+            this.delegate.glDrawArraysInstancedBaseInstance(mode, first, count, primcount, baseinstance);
+        }
+    }
+
+    @Override
+    public void glDrawElementsInstancedBaseVertexBaseInstance(int mode, int count, int type, long indices, int primcount, int basevertex, int baseinstance) {
+        this.record(Command.DRAW_ELEMENTS, mode, count, indices, primcount);
+        this.drawCallCount++;
+        this.drawnElementCount += (long) count * primcount;
+        if (this.delegate != null) {
+            this.delegate.glDrawElementsInstancedBaseVertexBaseInstance(mode, count, type, indices, primcount, basevertex, baseinstance);
+        }
+    }
+
+    @Override
+    public void glMultiDrawArraysIndirect(int mode, long indirect, int drawcount, int stride) {
+        this.record(Command.MULTI_DRAW_ARRAYS_INDIRECT, mode, indirect, drawcount, stride);
+        this.drawCallCount += drawcount;
+        if (this.delegate != null) {
+            this.delegate.glMultiDrawArraysIndirect(mode, indirect, drawcount, stride);
+        }
+    }
+
+    @Override
+    public void glMultiDrawElementsIndirect(int mode, int type, long indirect, int drawcount, int stride) {
+        this.record(Command.MULTI_DRAW_ELEMENTS_INDIRECT, mode, indirect, drawcount, stride);
+        this.drawCallCount += drawcount;
+        if (this.delegate != null) {
+            this.delegate.glMultiDrawElementsIndirect(mode, type, indirect, drawcount, stride);
+        }
+    }
+
+    // === Misc ===
+
+    @Override
+    public void glCopyImageSubData(int srcName, int srcTarget, int srcLevel, int srcX, int srcY, int srcZ, int dstName, int dstTarget, int dstLevel, int dstX, int dstY, int dstZ, int srcWidth, int srcHeight, int srcDepth) {
+        this.record(Command.COPY_IMAGE_SUB_DATA, srcName, dstName, srcWidth, srcHeight);
+        if (this.delegate != null) {
+            this.delegate.glCopyImageSubData(srcName, srcTarget, srcLevel, srcX, srcY, srcZ, dstName, dstTarget, dstLevel, dstX, dstY, dstZ, srcWidth, srcHeight, srcDepth);
+        }
+    }
+
+    @Override
+    public int glGetProgramResourceIndex(int program, int programInterface, CharSequence name) {
+        this.record(Command.GET_PROGRAM_RESOURCE_INDEX, program, programInterface, name.length());
+        if (this.delegate != null) {
+            return this.delegate.glGetProgramResourceIndex(program, programInterface, name);
+        }
+        return GL31C.GL_INVALID_INDEX; // Blocks are not emulated
+    }
+
+    @Override
+    public void glBindImageTexture(int unit, int texture, int level, boolean layered, int layer, int access, int format) {
+        this.record(Command.BIND_IMAGE_TEXTURE, unit, texture, access, format);
+        if (this.delegate != null) {
+            this.delegate.glBindImageTexture(unit, texture, level, layered, layer, access, format);
+            return;
+        }
+        this.imageUnits.put(unit, texture);
+    }
+
+    @Override
+    public void glShaderStorageBlockBinding(int program, int storageBlockIndex, int storageBlockBinding) {
+        this.record(Command.SHADER_STORAGE_BLOCK_BINDING, program, storageBlockIndex, storageBlockBinding);
+        if (this.delegate != null) {
+            this.delegate.glShaderStorageBlockBinding(program, storageBlockIndex, storageBlockBinding);
+        }
+    }
+
+    @Override
+    public String glGetObjectLabel(int identifier, int name) {
+        this.record(Command.GET_OBJECT_LABEL, identifier, name);
+        if (this.delegate != null) {
+            return this.delegate.glGetObjectLabel(identifier, name);
+        }
+        return this.objectLabels.getOrDefault(name, "");
+    }
+
+    @Override
+    public void glObjectLabel(int identifier, int name, CharSequence label) {
+        this.record(Command.OBJECT_LABEL, identifier, name, label.length());
+        if (this.delegate != null) {
+            this.delegate.glObjectLabel(identifier, name, label);
+            return;
+        }
+        this.objectLabels.put(name, label.toString());
+    }
+
+    // === Context ===
+
+    @Override
+    public GLCapabilities getCapabilities() {
+        if (this.delegate != null) {
+            return this.delegate.getCapabilities();
+        }
+        return null;
+    }
+
+    @Override
+    public String glGetString(int name) {
+        this.record(Command.GET_STRING, name);
+        if (this.delegate != null) {
+            return this.delegate.glGetString(name);
+        }
+        return switch (name) {
+            case GL11C.GL_VENDOR -> "ThinGL";
+            case GL11C.GL_RENDERER -> "Headless command recorder";
+            case GL11C.GL_VERSION -> "4.5.0 Headless";
+            case GL20C.GL_SHADING_LANGUAGE_VERSION -> "4.50";
+            default -> null;
+        };
+    }
+
+    @Override
+    public int glGetInteger(int pname) {
+        this.record(Command.GET_INTEGER, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetInteger(pname);
+        }
+        return this.getInteger(pname);
+    }
+
+    @Override
+    public void glGetIntegerv(int pname, int[] params) {
+        this.record(Command.GET_INTEGER, pname, params.length);
+        if (this.delegate != null) {
+            this.delegate.glGetIntegerv(pname, params);
+            return;
+        }
+        switch (pname) {
+            case GL11C.GL_VIEWPORT -> System.arraycopy(this.viewport, 0, params, 0, 4);
+            case GL11C.GL_SCISSOR_BOX -> System.arraycopy(this.scissorBox, 0, params, 0, 4);
+            case GL11C.GL_COLOR_WRITEMASK -> System.arraycopy(this.colorWriteMask, 0, params, 0, 4);
+            default -> params[0] = this.getInteger(pname);
+        }
+    }
+
+    @Override
+    public float glGetFloat(int pname) {
+        this.record(Command.GET_FLOAT, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetFloat(pname);
+        }
+        return switch (pname) {
+            case GL11C.GL_POLYGON_OFFSET_FACTOR -> this.polygonOffsetFactor;
+            case GL11C.GL_POLYGON_OFFSET_UNITS -> this.polygonOffsetUnits;
+            default -> this.getInteger(pname);
+        };
+    }
+
+    @Override
+    public boolean glGetBoolean(int pname) {
+        this.record(Command.GET_BOOLEAN, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetBoolean(pname);
+        }
+        if (pname == GL11C.GL_DEPTH_WRITEMASK) {
+            return this.depthWriteMask;
+        }
+        return this.getInteger(pname) != GL11C.GL_FALSE;
+    }
+
+    @Override
+    public void glDebugMessageControl(int source, int type, int severity, int[] ids, boolean enabled) {
+        this.record(Command.DEBUG_MESSAGE_CONTROL, source, type, severity, bits(enabled));
+        if (this.delegate != null) {
+            this.delegate.glDebugMessageControl(source, type, severity, ids, enabled);
+        }
+    }
+
+    @Override
+    public void glDebugMessageControl(int source, int type, int severity, int id, boolean enabled) {
+        this.record(Command.DEBUG_MESSAGE_CONTROL, source, type, severity, bits(enabled));
+        if (this.delegate != null) {
+            this.delegate.glDebugMessageControl(source, type, severity, id, enabled);
+        }
+    }
+
+    @Override
+    public void glMaxShaderCompilerThreadsKHR(int count) {
+        this.record(Command.MAX_SHADER_COMPILER_THREADS, count);
+        if (this.delegate != null) {
+            this.delegate.glMaxShaderCompilerThreadsKHR(count);
+        }
+    }
+
+    @Override
+    public void glMaxShaderCompilerThreadsARB(int count) {
+        this.record(Command.MAX_SHADER_COMPILER_THREADS, count);
+        if (this.delegate != null) {
+            this.delegate.glMaxShaderCompilerThreadsARB(count);
+        }
+    }
+
+    // === State ===
+
+    @Override
+    public boolean glIsEnabled(int cap) {
+        this.record(Command.IS_ENABLED, cap);
+        if (this.delegate != null) {
+            return this.delegate.glIsEnabled(cap);
+        }
+        return this.enabledCapabilities.contains(cap);
+    }
+
+    @Override
+    public void glEnable(int cap) {
+        this.record(Command.ENABLE, cap);
+        if (this.delegate != null) {
+            this.delegate.glEnable(cap);
+            return;
+        }
+        this.enabledCapabilities.add(cap);
+    }
+
+    @Override
+    public void glDisable(int cap) {
+        this.record(Command.DISABLE, cap);
+        if (this.delegate != null) {
+            this.delegate.glDisable(cap);
+            return;
+        }
+        this.enabledCapabilities.remove(cap);
+    }
+
+    @Override
+    public void glBlendFunc(int sfactor, int dfactor) {
+        this.record(Command.BLEND_FUNC, sfactor, dfactor, sfactor, dfactor);
+        if (this.delegate != null) {
+            this.delegate.glBlendFunc(sfactor, dfactor);
+            return;
+        }
+        this.setBlendFunc(sfactor, dfactor, sfactor, dfactor);
+    }
+
+    @Override
+    public void glBlendFuncSeparate(int sfactorRGB, int dfactorRGB, int sfactorAlpha, int dfactorAlpha) {
+        this.record(Command.BLEND_FUNC, sfactorRGB, dfactorRGB, sfactorAlpha, dfactorAlpha);
+        if (this.delegate != null) {
+            this.delegate.glBlendFuncSeparate(sfactorRGB, dfactorRGB, sfactorAlpha, dfactorAlpha);
+            return;
+        }
+        this.setBlendFunc(sfactorRGB, dfactorRGB, sfactorAlpha, dfactorAlpha);
+    }
+
+    @Override
+    public void glBlendEquation(int mode) {
+        this.record(Command.BLEND_EQUATION, mode);
+        if (this.delegate != null) {
+            this.delegate.glBlendEquation(mode);
+            return;
+        }
+        this.integerState.put(GL14C.GL_BLEND_EQUATION, mode);
+    }
+
+    @Override
+    public void glDepthFunc(int func) {
+        this.record(Command.DEPTH_FUNC, func);
+        if (this.delegate != null) {
+            this.delegate.glDepthFunc(func);
+            return;
+        }
+        this.integerState.put(GL11C.GL_DEPTH_FUNC, func);
+    }
+
+    @Override
+    public void glColorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        this.record(Command.COLOR_MASK, bits(red), bits(green), bits(blue), bits(alpha));
+        if (this.delegate != null) {
+            this.delegate.glColorMask(red, green, blue, alpha);
+            return;
+        }
+        this.colorWriteMask[0] = (int) bits(red);
+        this.colorWriteMask[1] = (int) bits(green);
+        this.colorWriteMask[2] = (int) bits(blue);
+        this.colorWriteMask[3] = (int) bits(alpha);
+    }
+
+    @Override
+    public void glDepthMask(boolean flag) {
+        this.record(Command.DEPTH_MASK, bits(flag));
+        if (this.delegate != null) {
+            this.delegate.glDepthMask(flag);
+            return;
+        }
+        this.depthWriteMask = flag;
+    }
+
+    @Override
+    public void glStencilMask(int mask) {
+        this.record(Command.STENCIL_MASK, GL11C.GL_FRONT_AND_BACK, mask);
+        if (this.delegate != null) {
+            this.delegate.glStencilMask(mask);
+            return;
+        }
+        this.integerState.put(GL11C.GL_STENCIL_WRITEMASK, mask);
+        this.integerState.put(GL20C.GL_STENCIL_BACK_WRITEMASK, mask);
+    }
+
+    @Override
+    public void glStencilMaskSeparate(int face, int mask) {
+        this.record(Command.STENCIL_MASK, face, mask);
+        if (this.delegate != null) {
+            this.delegate.glStencilMaskSeparate(face, mask);
+            return;
+        }
+        if (face != GL11C.GL_BACK) {
+            this.integerState.put(GL11C.GL_STENCIL_WRITEMASK, mask);
+        }
+        if (face != GL11C.GL_FRONT) {
+            this.integerState.put(GL20C.GL_STENCIL_BACK_WRITEMASK, mask);
+        }
+    }
+
+    @Override
+    public void glStencilFunc(int func, int ref, int mask) {
+        this.record(Command.STENCIL_FUNC, func, ref, mask);
+        if (this.delegate != null) {
+            this.delegate.glStencilFunc(func, ref, mask);
+            return;
+        }
+        this.integerState.put(GL11C.GL_STENCIL_FUNC, func);
+        this.integerState.put(GL11C.GL_STENCIL_REF, ref);
+        this.integerState.put(GL11C.GL_STENCIL_VALUE_MASK, mask);
+    }
+
+    @Override
+    public void glStencilOp(int sfail, int dpfail, int dppass) {
+        this.record(Command.STENCIL_OP, sfail, dpfail, dppass);
+        if (this.delegate != null) {
+            this.delegate.glStencilOp(sfail, dpfail, dppass);
+            return;
+        }
+        this.integerState.put(GL11C.GL_STENCIL_FAIL, sfail);
+        this.integerState.put(GL11C.GL_STENCIL_PASS_DEPTH_FAIL, dpfail);
+        this.integerState.put(GL11C.GL_STENCIL_PASS_DEPTH_PASS, dppass);
+    }
+
+    @Override
+    public void glScissor(int x, int y, int width, int height) {
+        this.record(Command.SCISSOR, x, y, width, height);
+        if (this.delegate != null) {
+            this.delegate.glScissor(x, y, width, height);
+            return;
+        }
+        this.scissorBox[0] = x;
+        this.scissorBox[1] = y;
+        this.scissorBox[2] = width;
+        this.scissorBox[3] = height;
+    }
+
+    @Override
+    public void glViewport(int x, int y, int w, int h) {
+        this.record(Command.VIEWPORT, x, y, w, h);
+        if (this.delegate != null) {
+            this.delegate.glViewport(x, y, w, h);
+            return;
+        }
+        this.viewport[0] = x;
+        this.viewport[1] = y;
+        this.viewport[2] = w;
+        this.viewport[3] = h;
+    }
+
+    @Override
+    public void glCullFace(int mode) {
+        this.record(Command.CULL_FACE, mode);
+        if (this.delegate != null) {
+            this.delegate.glCullFace(mode);
+            return;
+        }
+        this.integerState.put(GL11C.GL_CULL_FACE_MODE, mode);
+    }
+
+    @Override
+    public void glFrontFace(int dir) {
+        this.record(Command.FRONT_FACE, dir);
+        if (this.delegate != null) {
+            this.delegate.glFrontFace(dir);
+            return;
+        }
+        this.integerState.put(GL11C.GL_FRONT_FACE, dir);
+    }
+
+    @Override
+    public void glLogicOp(int op) {
+        this.record(Command.LOGIC_OP, op);
+        if (this.delegate != null) {
+            this.delegate.glLogicOp(op);
+            return;
+        }
+        this.integerState.put(GL11C.GL_LOGIC_OP_MODE, op);
+    }
+
+    @Override
+    public void glPolygonOffset(float factor, float units) {
+        this.record(Command.POLYGON_OFFSET, bits(factor), bits(units));
+        if (this.delegate != null) {
+            this.delegate.glPolygonOffset(factor, units);
+            return;
+        }
+        this.polygonOffsetFactor = factor;
+        this.polygonOffsetUnits = units;
+    }
+
+    @Override
+    public void glPixelStorei(int pname, int param) {
+        this.record(Command.PIXEL_STORE, pname, param);
+        if (this.delegate != null) {
+            this.delegate.glPixelStorei(pname, param);
+            return;
+        }
+        this.integerState.put(pname, param);
+    }
+
+    @Override
+    public void glHint(int target, int hint) {
+        this.record(Command.HINT, target, hint);
+        if (this.delegate != null) {
+            this.delegate.glHint(target, hint);
+            return;
+        }
+        this.integerState.put(target, hint);
+    }
+
+    @Override
+    public void glCoverageModulationNV(int components) {
+        this.record(Command.COVERAGE_MODULATION, components);
+        if (this.delegate != null) {
+            this.delegate.glCoverageModulationNV(components);
+        }
+    }
+
+    @Override
+    public void glRasterSamplesEXT(int samples, boolean fixedsamplelocations) {
+        this.record(Command.RASTER_SAMPLES, samples, bits(fixedsamplelocations));
+        if (this.delegate != null) {
+            this.delegate.glRasterSamplesEXT(samples, fixedsamplelocations);
+        }
+    }
+
+    // === Bindings ===
+
+    @Override
+    public void glUseProgram(int program) {
+        this.record(Command.USE_PROGRAM, program);
+        if (this.delegate != null) {
+            this.delegate.glUseProgram(program);
+            return;
+        }
+        if (program != 0) {
+            this.getProgram(program);
+        }
+        this.integerState.put(GL20C.GL_CURRENT_PROGRAM, program);
+    }
+
+    @Override
+    public void glBindVertexArray(int array) {
+        this.record(Command.BIND_VERTEX_ARRAY, array);
+        if (this.delegate != null) {
+            this.delegate.glBindVertexArray(array);
+            return;
+        }
+        if (array != 0) {
+            this.getVertexArray(array);
+        }
+        this.integerState.put(GL30C.GL_VERTEX_ARRAY_BINDING, array);
+    }
+
+    @Override
+    public void glBindFramebuffer(int target, int framebuffer) {
+        this.record(Command.BIND_FRAMEBUFFER, target, framebuffer);
+        if (this.delegate != null) {
+            this.delegate.glBindFramebuffer(target, framebuffer);
+            return;
+        }
+        if (framebuffer != 0 && !this.framebufferAttachments.containsKey(framebuffer)) {
+            throw new IllegalArgumentException("Unknown framebuffer: " + framebuffer);
+        }
+        if (target != GL30C.GL_READ_FRAMEBUFFER) {
+            this.integerState.put(GL30C.GL_DRAW_FRAMEBUFFER_BINDING, framebuffer);
+        }
+        if (target != GL30C.GL_DRAW_FRAMEBUFFER) {
+            this.integerState.put(GL30C.GL_READ_FRAMEBUFFER_BINDING, framebuffer);
+        }
+    }
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+        this.record(Command.BIND_BUFFER, target, buffer);
+        if (this.delegate != null) {
+            this.delegate.glBindBuffer(target, buffer);
+            return;
+        }
+        if (buffer != 0) {
+            this.getBuffer(buffer);
+        }
+        if (target == GL15C.GL_ELEMENT_ARRAY_BUFFER) {
+            final int vertexArray = this.integerState.get(GL30C.GL_VERTEX_ARRAY_BINDING);
+            if (vertexArray != 0) {
+                this.getVertexArray(vertexArray).elementBuffer = buffer;
+            }
+        } else {
+            this.integerState.put(getBufferBindingParameter(target), buffer);
+        }
+    }
+
+    @Override
+    public void glBindBufferBase(int target, int index, int buffer) {
+        this.record(Command.BIND_BUFFER_BASE, target, index, buffer);
+        if (this.delegate != null) {
+            this.delegate.glBindBufferBase(target, index, buffer);
+            return;
+        }
+        if (buffer != 0) {
+            this.getBuffer(buffer);
+        }
+        this.integerState.put(getBufferBindingParameter(target), buffer);
+    }
+
+    @Override
+    public void glBindSampler(int unit, int sampler) {
+        this.record(Command.BIND_SAMPLERS, unit, 1, sampler);
+        if (this.delegate != null) {
+            this.delegate.glBindSampler(unit, sampler);
+        }
+    }
+
+    @Override
+    public void nglBindSamplers(int first, int count, long samplers) {
+        this.record(Command.BIND_SAMPLERS, first, count, samplers);
+        if (this.delegate != null) {
+            this.delegate.nglBindSamplers(first, count, samplers);
+        }
+    }
+
+    @Override
+    public void glClearBufferiv(int buffer, int drawbuffer, int[] value) {
+        this.record(Command.CLEAR_BUFFER, buffer, drawbuffer, value.length);
+        if (this.delegate != null) {
+            this.delegate.glClearBufferiv(buffer, drawbuffer, value);
+        }
+    }
+
+    // === Object queries ===
+
+    @Override
+    public boolean glIsBuffer(int buffer) {
+        this.record(Command.IS_OBJECT, GL43C.GL_BUFFER, buffer);
+        if (this.delegate != null) {
+            return this.delegate.glIsBuffer(buffer);
+        }
+        return this.buffers.containsKey(buffer);
+    }
+
+    @Override
+    public boolean glIsTexture(int texture) {
+        this.record(Command.IS_OBJECT, GL11C.GL_TEXTURE, texture);
+        if (this.delegate != null) {
+            return this.delegate.glIsTexture(texture);
+        }
+        return this.textures.containsKey(texture);
+    }
+
+    @Override
+    public boolean glIsFramebuffer(int framebuffer) {
+        this.record(Command.IS_OBJECT, GL30C.GL_FRAMEBUFFER, framebuffer);
+        if (this.delegate != null) {
+            return this.delegate.glIsFramebuffer(framebuffer);
+        }
+        return this.framebufferAttachments.containsKey(framebuffer);
+    }
+
+    @Override
+    public boolean glIsRenderbuffer(int renderbuffer) {
+        this.record(Command.IS_OBJECT, GL30C.GL_RENDERBUFFER, renderbuffer);
+        if (this.delegate != null) {
+            return this.delegate.glIsRenderbuffer(renderbuffer);
+        }
+        return this.renderbuffers.containsKey(renderbuffer);
+    }
+
+    @Override
+    public void glDeleteRenderbuffers(int renderbuffer) {
+        this.record(Command.DELETE_RENDERBUFFERS, renderbuffer);
+        if (this.delegate != null) {
+            this.delegate.glDeleteRenderbuffers(renderbuffer);
+            return;
+        }
+        this.renderbuffers.remove(renderbuffer);
+        this.objectLabels.remove(renderbuffer);
+    }
+
+    @Override
+    public boolean glIsVertexArray(int array) {
+        this.record(Command.IS_OBJECT, GL43C.GL_VERTEX_ARRAY, array);
+        if (this.delegate != null) {
+            return this.delegate.glIsVertexArray(array);
+        }
+        return this.vertexArrays.containsKey(array);
+    }
+
+    // === Queries ===
+
+    @Override
+    public boolean glIsQuery(int id) {
+        this.record(Command.IS_OBJECT, GL43C.GL_QUERY, id);
+        if (this.delegate != null) {
+            return this.delegate.glIsQuery(id);
+        }
+        return this.queryTargets.containsKey(id);
+    }
+
+    @Override
+    public void glBeginQuery(int target, int id) {
+        this.record(Command.BEGIN_QUERY, target, id);
+        if (this.delegate != null) {
+            this.delegate.glBeginQuery(target, id);
+            return;
+        }
+        this.queryResults.put(id, 0L);
+    }
+
+    @Override
+    public void glEndQuery(int target) {
+        this.record(Command.END_QUERY, target);
+        if (this.delegate != null) {
+            this.delegate.glEndQuery(target);
+        }
+    }
+
+    @Override
+    public void glQueryCounter(int id, int target) {
+        this.record(Command.QUERY_COUNTER, id, target);
+        if (this.delegate != null) {
+            this.delegate.glQueryCounter(id, target);
+            return;
+        }
+        this.queryResults.put(id, System.nanoTime());
+    }
+
+    @Override
+    public int glGetQueryObjecti(int id, int pname) {
+        this.record(Command.GET_QUERY_OBJECT, id, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetQueryObjecti(id, pname);
+        }
+        return (int) this.getQueryObject(id, pname);
+    }
+
+    @Override
+    public long glGetQueryObjecti64(int id, int pname) {
+        this.record(Command.GET_QUERY_OBJECT, id, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetQueryObjecti64(id, pname);
+        }
+        return this.getQueryObject(id, pname);
+    }
+
+    @Override
+    public void glDeleteQueries(int id) {
+        this.record(Command.DELETE_QUERIES, id);
+        if (this.delegate != null) {
+            this.delegate.glDeleteQueries(id);
+            return;
+        }
+        this.queryTargets.remove(id);
+        this.queryResults.remove(id);
+        this.objectLabels.remove(id);
+    }
+
+    // === Sync ===
+
+    @Override
+    public long glFenceSync(int condition, int flags) {
+        this.record(Command.FENCE_SYNC, condition, flags);
+        if (this.delegate != null) {
+            return this.delegate.glFenceSync(condition, flags);
+        }
+        final long sync = ++this.lastSync;
+        this.syncConditions.put(sync, condition);
+        return sync;
+    }
+
+    @Override
+    public boolean glIsSync(long sync) {
+        this.record(Command.IS_OBJECT, GL32C.GL_SYNC_FENCE, sync);
+        if (this.delegate != null) {
+            return this.delegate.glIsSync(sync);
+        }
+        return this.syncConditions.containsKey(sync);
+    }
+
+    @Override
+    public int glGetSynci(long sync, int pname, IntBuffer length) {
+        this.record(Command.GET_SYNC, sync, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetSynci(sync, pname, length);
+        }
+        if (!this.syncConditions.containsKey(sync)) {
+            throw new IllegalArgumentException("Unknown sync: " + sync);
+        }
+        if (length != null) {
+            length.put(length.position(), 1);
+        }
+        return switch (pname) {
+            case GL32C.GL_OBJECT_TYPE -> GL32C.GL_SYNC_FENCE;
+            case GL32C.GL_SYNC_STATUS -> GL32C.GL_SIGNALED; // Emulated commands complete immediately
+            case GL32C.GL_SYNC_CONDITION -> (int) this.syncConditions.get(sync);
+            case GL32C.GL_SYNC_FLAGS -> 0;
+            default -> throw new IllegalArgumentException("Unsupported sync parameter: " + pname);
+        };
+    }
+
+    @Override
+    public int glClientWaitSync(long sync, int flags, long timeout) {
+        this.record(Command.CLIENT_WAIT_SYNC, sync, flags, timeout);
+        if (this.delegate != null) {
+            return this.delegate.glClientWaitSync(sync, flags, timeout);
+        }
+        return GL32C.GL_ALREADY_SIGNALED;
+    }
+
+    @Override
+    public void glWaitSync(long sync, int flags, long timeout) {
+        this.record(Command.WAIT_SYNC, sync, flags, timeout);
+        if (this.delegate != null) {
+            this.delegate.glWaitSync(sync, flags, timeout);
+        }
+    }
+
+    @Override
+    public void glDeleteSync(long sync) {
+        this.record(Command.DELETE_SYNC, sync);
+        if (this.delegate != null) {
+            this.delegate.glDeleteSync(sync);
+            return;
+        }
+        this.syncConditions.remove(sync);
+    }
+
+    // === Shaders ===
+
+    @Override
+    public int glCreateShader(int type) {
+        this.record(Command.CREATE_SHADER, type);
+        if (this.delegate != null) {
+            return this.delegate.glCreateShader(type);
+        }
+        final int name = this.nextObjectName();
+        this.shaders.put(name, new ShaderState(type));
+        return name;
+    }
+
+    @Override
+    public boolean glIsShader(int shader) {
+        this.record(Command.IS_OBJECT, GL43C.GL_SHADER, shader);
+        if (this.delegate != null) {
+            return this.delegate.glIsShader(shader);
+        }
+        return this.shaders.containsKey(shader);
+    }
+
+    @Override
+    public void glShaderSource(int shader, CharSequence string) {
+        this.record(Command.SHADER_SOURCE, shader, string.length());
+        if (this.delegate != null) {
+            this.delegate.glShaderSource(shader, string);
+            return;
+        }
+        this.getShader(shader).source = string.toString();
+    }
+
+    @Override
+    public String glGetShaderSource(int shader) {
+        this.record(Command.GET_SHADER_SOURCE, shader);
+        if (this.delegate != null) {
+            return this.delegate.glGetShaderSource(shader);
+        }
+        return this.getShader(shader).source;
+    }
+
+    @Override
+    public void glCompileShader(int shader) {
+        this.record(Command.COMPILE_SHADER, shader);
+        if (this.delegate != null) {
+            this.delegate.glCompileShader(shader);
+            return;
+        }
+        this.getShader(shader).compiled = true;
+    }
+
+    @Override
+    public int glGetShaderi(int shader, int pname) {
+        this.record(Command.GET_SHADER, shader, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetShaderi(shader, pname);
+        }
+        final ShaderState state = this.getShader(shader);
+        return switch (pname) {
+            case GL20C.GL_SHADER_TYPE -> state.type;
+            case GL20C.GL_COMPILE_STATUS -> state.compiled ? GL11C.GL_TRUE : GL11C.GL_FALSE;
+            case GL20C.GL_DELETE_STATUS, GL20C.GL_INFO_LOG_LENGTH -> 0;
+            case GL20C.GL_SHADER_SOURCE_LENGTH -> state.source.length() + 1;
+            case KHRParallelShaderCompile.GL_COMPLETION_STATUS_KHR -> GL11C.GL_TRUE;
+            default -> throw new IllegalArgumentException("Unsupported shader parameter: " + pname);
+        };
+    }
+
+    @Override
+    public String glGetShaderInfoLog(int shader) {
+        this.record(Command.GET_SHADER_INFO_LOG, shader);
+        if (this.delegate != null) {
+            return this.delegate.glGetShaderInfoLog(shader);
+        }
+        this.getShader(shader);
+        return "";
+    }
+
+    @Override
+    public void glDeleteShader(int shader) {
+        this.record(Command.DELETE_SHADER, shader);
+        if (this.delegate != null) {
+            this.delegate.glDeleteShader(shader);
+            return;
+        }
+        this.shaders.remove(shader);
+        this.objectLabels.remove(shader);
+    }
+
+    // === Programs ===
+
+    @Override
+    public int glCreateProgram() {
+        this.record(Command.CREATE_PROGRAM);
+        if (this.delegate != null) {
+            return this.delegate.glCreateProgram();
+        }
+        final int name = this.nextObjectName();
+        this.programs.put(name, new ProgramState());
+        return name;
+    }
+
+    @Override
+    public boolean glIsProgram(int program) {
+        this.record(Command.IS_OBJECT, GL43C.GL_PROGRAM, program);
+        if (this.delegate != null) {
+            return this.delegate.glIsProgram(program);
+        }
+        return this.programs.containsKey(program);
+    }
+
+    @Override
+    public void glAttachShader(int program, int shader) {
+        this.record(Command.ATTACH_SHADER, program, shader);
+        if (this.delegate != null) {
+            this.delegate.glAttachShader(program, shader);
+            return;
+        }
+        this.getShader(shader);
+        final ProgramState state = this.getProgram(program);
+        if (state.shaders.contains(shader)) {
+            throw new IllegalStateException("Shader " + shader + " is already attached to program " + program);
+        }
+        state.shaders.add(shader);
+    }
+
+    @Override
+    public void glDetachShader(int program, int shader) {
+        this.record(Command.DETACH_SHADER, program, shader);
+        if (this.delegate != null) {
+            this.delegate.glDetachShader(program, shader);
+            return;
+        }
+        this.getProgram(program).shaders.rem(shader);
+    }
+
+    @Override
+    public void glGetAttachedShaders(int program, int[] count, int[] shaders) {
+        this.record(Command.GET_ATTACHED_SHADERS, program, shaders.length);
+        if (this.delegate != null) {
+            this.delegate.glGetAttachedShaders(program, count, shaders);
+            return;
+        }
+        final IntList attachedShaders = this.getProgram(program).shaders;
+        final int written = Math.min(shaders.length, attachedShaders.size());
+        attachedShaders.getElements(0, shaders, 0, written);
+        if (count != null) {
+            count[0] = written;
+        }
+    }
+
+    @Override
+    public void glLinkProgram(int program) {
+        this.record(Command.LINK_PROGRAM, program);
+        if (this.delegate != null) {
+            this.delegate.glLinkProgram(program);
+            return;
+        }
+        final ProgramState state = this.getProgram(program);
+        for (int i = 0; i < state.shaders.size(); i++) {
+            if (!this.getShader(state.shaders.getInt(i)).compiled) {
+                state.linked = false;
+                return;
+            }
+        }
+        state.linked = true;
+    }
+
+    @Override
+    public void glValidateProgram(int program) {
+        this.record(Command.VALIDATE_PROGRAM, program);
+        if (this.delegate != null) {
+            this.delegate.glValidateProgram(program);
+            return;
+        }
+        final ProgramState state = this.getProgram(program);
+        state.validated = state.linked;
+    }
+
+    @Override
+    public int glGetProgrami(int program, int pname) {
+        this.record(Command.GET_PROGRAM, program, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetProgrami(program, pname);
+        }
+        final ProgramState state = this.getProgram(program);
+        return switch (pname) {
+            case GL20C.GL_LINK_STATUS -> state.linked ? GL11C.GL_TRUE : GL11C.GL_FALSE;
+            case GL20C.GL_VALIDATE_STATUS -> state.validated ? GL11C.GL_TRUE : GL11C.GL_FALSE;
+            case GL20C.GL_ATTACHED_SHADERS -> state.shaders.size();
+            case GL20C.GL_ACTIVE_UNIFORMS -> state.uniformLocations.size();
+            case GL41C.GL_PROGRAM_BINARY_LENGTH -> state.linked ? Integer.BYTES : 0;
+            case GL20C.GL_DELETE_STATUS, GL20C.GL_INFO_LOG_LENGTH -> 0;
+            case KHRParallelShaderCompile.GL_COMPLETION_STATUS_KHR -> GL11C.GL_TRUE;
+            default -> throw new IllegalArgumentException("Unsupported program parameter: " + pname);
+        };
+    }
+
+    @Override
+    public String glGetProgramInfoLog(int program) {
+        this.record(Command.GET_PROGRAM_INFO_LOG, program);
+        if (this.delegate != null) {
+            return this.delegate.glGetProgramInfoLog(program);
+        }
+        this.getProgram(program);
+        return "";
+    }
+
+    @Override
+    public void glProgramParameteri(int program, int pname, int value) {
+        this.record(Command.PROGRAM_PARAMETER, program, pname, value);
+        if (this.delegate != null) {
+            this.delegate.glProgramParameteri(program, pname, value);
+        }
+    }
+
+    @Override
+    public void glProgramBinary(int program, int binaryFormat, ByteBuffer binary) {
+        this.record(Command.PROGRAM_BINARY, program, binaryFormat, binary.remaining());
+        if (this.delegate != null) {
+            this.delegate.glProgramBinary(program, binaryFormat, binary);
+            return;
+        }
+        this.getProgram(program).linked = binaryFormat == EMULATED_PROGRAM_BINARY_FORMAT && binary.remaining() == Integer.BYTES && binary.getInt(binary.position()) == EMULATED_PROGRAM_BINARY;
+    }
+
+    @Override
+    public void glGetProgramBinary(int program, IntBuffer length, IntBuffer binaryFormat, ByteBuffer binary) {
+        this.record(Command.GET_PROGRAM_BINARY, program, binary.remaining());
+        if (this.delegate != null) {
+            this.delegate.glGetProgramBinary(program, length, binaryFormat, binary);
+            return;
+        }
+        final int written = this.getProgram(program).linked && binary.remaining() >= Integer.BYTES ? Integer.BYTES : 0;
+        if (written != 0) {
+            binary.putInt(binary.position(), EMULATED_PROGRAM_BINARY);
+        }
+        if (length != null) {
+            length.put(length.position(), written);
+        }
+        binaryFormat.put(binaryFormat.position(), EMULATED_PROGRAM_BINARY_FORMAT);
+    }
+
+    @Override
+    public void glUniformBlockBinding(int program, int uniformBlockIndex, int uniformBlockBinding) {
+        this.record(Command.UNIFORM_BLOCK_BINDING, program, uniformBlockIndex, uniformBlockBinding);
+        if (this.delegate != null) {
+            this.delegate.glUniformBlockBinding(program, uniformBlockIndex, uniformBlockBinding);
+        }
+    }
+
+    @Override
+    public void glDeleteProgram(int program) {
+        this.record(Command.DELETE_PROGRAM, program);
+        if (this.delegate != null) {
+            this.delegate.glDeleteProgram(program);
+            return;
+        }
+        this.programs.remove(program);
+        this.objectLabels.remove(program);
+        if (this.integerState.get(GL20C.GL_CURRENT_PROGRAM) == program) {
+            this.integerState.put(GL20C.GL_CURRENT_PROGRAM, 0);
+        }
+    }
+
+    // === Uniforms ===
+
+    @Override
+    public int glGetUniformLocation(int program, CharSequence name) {
+        this.record(Command.GET_UNIFORM_LOCATION, program, name.length());
+        if (this.delegate != null) {
+            return this.delegate.glGetUniformLocation(program, name);
+        }
+        final Object2IntMap<String> uniformLocations = this.getProgram(program).uniformLocations;
+        final String uniformName = name.toString();
+        int location = uniformLocations.getInt(uniformName);
+        if (location == -1) {
+            location = uniformLocations.size();
+            uniformLocations.put(uniformName, location);
+        }
+        return location;
+    }
+
+    @Override
+    public int glGetUniformIndices(int program, CharSequence uniformName) {
+        this.record(Command.GET_UNIFORM_INDICES, program, uniformName.length());
+        if (this.delegate != null) {
+            return this.delegate.glGetUniformIndices(program, uniformName);
+        }
+        this.getProgram(program);
+        return GL31C.GL_INVALID_INDEX; // Uniform types are not emulated
+    }
+
+    @Override
+    public int glGetActiveUniformsi(int program, int uniformIndex, int pname) {
+        this.record(Command.GET_ACTIVE_UNIFORMS, program, uniformIndex, pname);
+        if (this.delegate != null) {
+            return this.delegate.glGetActiveUniformsi(program, uniformIndex, pname);
+        }
+        throw new IllegalArgumentException("Unknown uniform index: " + uniformIndex);
+    }
+
+    @Override
+    public void glProgramUniform1i(int program, int location, int x) {
+        this.record(Command.PROGRAM_UNIFORM, program, location, 1, x);
+        if (this.delegate != null) {
+            this.delegate.glProgramUniform1i(program, location, x);
+        }
+    }
+
+    @Override
+    public void glProgramUniform1iv(int program, int location, int[] value) {
+        this.record(Command.PROGRAM_UNIFORM, program, location, value.length, value.length != 0 ? value[0] : 0);
+        if (this.delegate != null) {
+            this.delegate.glProgramUniform1iv(program, location, value);
+        }
+    }
+
+    @Override
+    public void glProgramUniform1f(int program, int location, float x) {
+        this.record(Command.PROGRAM_UNIFORM, program, location, 1, bits(x));
+        if (this.delegate != null) {
+            this.delegate.glProgramUniform1f(program, location, x);
+        }
+    }
+
+    @Override
+    public void glProgramUniform2f(int program, int location, float x, float y) {
+        this.record(Command.PROGRAM_UNIFORM, program, location, 2, bits(x));
+        if (this.delegate != null) {
+            this.delegate.glProgramUniform2f(program, location, x, y);
+        }
+    }
+
+    @Override
+    public void glProgramUniform3f(int program, int location, float x, float y, float z) {
+        this.record(Command.PROGRAM_UNIFORM, program, location, 3, bits(x));
+        if (this.delegate != null) {
+            this.delegate.glProgramUniform3f(program, location, x, y, z);
+        }
+    }
+
+    @Override
+    public void glProgramUniform4f(int program, int location, float x, float y, float z, float w) {
+        this.record(Command.PROGRAM_UNIFORM, program, location, 4, bits(x));
+        if (this.delegate != null) {
+            this.delegate.glProgramUniform4f(program, location, x, y, z, w);
+        }
+    }
+
+    @Override
+    public void glProgramUniformMatrix3fv(int program, int location, boolean transpose, float[] value) {
+        this.record(Command.PROGRAM_UNIFORM_MATRIX, program, location, 3 * 3, value.length);
+        if (this.delegate != null) {
+            this.delegate.glProgramUniformMatrix3fv(program, location, transpose, value);
+        }
+    }
+
+    @Override
+    public void glProgramUniformMatrix4fv(int program, int location, boolean transpose, float[] value) {
+        this.record(Command.PROGRAM_UNIFORM_MATRIX, program, location, 4 * 4, value.length);
+        if (this.delegate != null) {
+            this.delegate.glProgramUniformMatrix4fv(program, location, transpose, value);
+        }
+    }
+
+    // === Non-instanced draws ===
+
+    @Override
+    public void glDrawArrays(int mode, int first, int count) {
+        this.record(Command.DRAW_ARRAYS, mode, first, count, 1);
+        this.drawCallCount++;
+        this.drawnElementCount += count;
+        if (this.delegate != null) {
+            this.delegate.glDrawArrays(mode, first, count);
+        }
+    }
+
+    @Override
+    public void glDrawElements(int mode, int count, int type, long indices) {
+        this.record(Command.DRAW_ELEMENTS, mode, count, indices, 1);
+        this.drawCallCount++;
+        this.drawnElementCount += count;
+        if (this.delegate != null) {
+            this.delegate.glDrawElements(mode, count, type, indices);
+        }
+    }
+
+    @Override
+    public void glDrawArraysIndirect(int mode, long indirect) {
+        this.record(Command.DRAW_ARRAYS_INDIRECT, mode, indirect);
+        this.drawCallCount++;
+        if (this.delegate != null) {
+            this.delegate.glDrawArraysIndirect(mode, indirect);
+        }
+    }
+
+    @Override
+    public void glDrawElementsIndirect(int mode, int type, long indirect) {
+        this.record(Command.DRAW_ELEMENTS_INDIRECT, mode, indirect);
+        this.drawCallCount++;
+        if (this.delegate != null) {
+            this.delegate.glDrawElementsIndirect(mode, type, indirect);
+        }
+    }
+
+    // === Bindless textures ===
+
+    @Override
+    public long glGetTextureHandleARB(int texture) {
+        this.record(Command.GET_TEXTURE_HANDLE, texture);
+        if (this.delegate != null) {
+            return this.delegate.glGetTextureHandleARB(texture);
+        }
+        this.getTexture(texture);
+        return emulatedTextureHandle(texture);
+    }
+
+    @Override
+    public long glGetTextureSamplerHandleARB(int texture, int sampler) {
+        this.record(Command.GET_TEXTURE_SAMPLER_HANDLE, texture, sampler);
+        if (this.delegate != null) {
+            return this.delegate.glGetTextureSamplerHandleARB(texture, sampler);
+        }
+        this.getTexture(texture);
+        return emulatedTextureHandle(texture) | (long) sampler << 33;
+    }
+
+    @Override
+    public boolean glIsTextureHandleResidentARB(long handle) {
+        this.record(Command.IS_TEXTURE_HANDLE_RESIDENT, handle);
+        if (this.delegate != null) {
+            return this.delegate.glIsTextureHandleResidentARB(handle);
+        }
+        return this.residentTextureHandles.contains(handle);
+    }
+
+    @Override
+    public void glMakeTextureHandleResidentARB(long handle) {
+        this.record(Command.MAKE_TEXTURE_HANDLE_RESIDENT, handle);
+        if (this.delegate != null) {
+            this.delegate.glMakeTextureHandleResidentARB(handle);
+            return;
+        }
+        if (!this.residentTextureHandles.add(handle)) {
+            throw new IllegalStateException("Texture handle " + handle + " is already resident");
+        }
+    }
+
+    @Override
+    public void glMakeTextureHandleNonResidentARB(long handle) {
+        this.record(Command.MAKE_TEXTURE_HANDLE_NON_RESIDENT, handle);
+        if (this.delegate != null) {
+            this.delegate.glMakeTextureHandleNonResidentARB(handle);
+            return;
+        }
+        if (!this.residentTextureHandles.remove(handle)) {
+            throw new IllegalStateException("Texture handle " + handle + " is not resident");
+        }
+    }
+
+    // === Recording ===
+
+    public long getTotalCallCount() {
+        return this.totalCallCount;
+    }
+
+    public long getCallCount(final Command command) {
+        return this.callCounts[command.ordinal()];
+    }
+
+    public long getDrawCallCount() {
+        return this.drawCallCount;
+    }
+
+    /**
+     * @return The number of vertices (or indices) submitted by non-indirect draw calls times their instance count
+     */
+    public long getDrawnElementCount() {
+        return this.drawnElementCount;
+    }
+
+    /**
+     * Resets all call and draw counters. Call this at the start of a frame to get per-frame metrics.
+     */
+    public void resetCounters() {
+        Arrays.fill(this.callCounts, 0L);
+        this.totalCallCount = 0;
+        this.drawCallCount = 0;
+        this.drawnElementCount = 0;
+    }
+
+    public int getLogCapacity() {
+        return this.logCommands.length;
+    }
+
+    public int getLogSize() {
+        return (int) Math.min(this.logWriteIndex - this.logStartIndex, this.logCommands.length);
+    }
+
+    /**
+     * @param index The index of the entry, 0 being the oldest entry still present in the log
+     * @return The command of the log entry
+     */
+    public Command getLogCommand(final int index) {
+        return this.logCommands[this.getLogSlot(index)];
+    }
+
+    /**
+     * @param index         The index of the entry, 0 being the oldest entry still present in the log
+     * @param argumentIndex The index of the argument (Must be smaller than {@value #LOGGED_ARGUMENTS})
+     * @return The argument of the log entry. Floats are stored as raw int bits, buffers and arrays as their length
+     */
+    public long getLogArgument(final int index, final int argumentIndex) {
+        if (argumentIndex < 0 || argumentIndex >= LOGGED_ARGUMENTS) {
+            throw new IndexOutOfBoundsException("Argument index out of bounds: " + argumentIndex);
+        }
+        return this.logArguments[this.getLogSlot(index) * LOGGED_ARGUMENTS + argumentIndex];
+    }
+
+    public void clearLog() {
+        this.logStartIndex = this.logWriteIndex;
+    }
+
+    public String dumpLog() {
+        final StringBuilder builder = new StringBuilder();
+        final int size = this.getLogSize();
+        for (int i = 0; i < size; i++) {
+            builder.append(this.getLogCommand(i).name());
+            for (int j = 0; j < LOGGED_ARGUMENTS; j++) {
+                builder.append(' ').append(this.getLogArgument(i, j));
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    // === Emulated state ===
+
+    public GlCommandEncoder getDelegate() {
+        return this.delegate;
+    }
+
+    public boolean isHeadless() {
+        return this.delegate == null;
+    }
+
+    /**
+     * @param buffer The buffer name
+     * @return The address of the emulated buffer storage or 0 if the buffer has no storage yet
+     */
+    public long getBufferAddress(final int buffer) {
+        return this.getBuffer(buffer).address;
+    }
+
+    public int getBoundTexture(final int unit) {
+        return this.textureUnits.get(unit);
+    }
+
+    public int getBoundImageTexture(final int unit) {
+        return this.imageUnits.get(unit);
+    }
+
+    public int getVertexArrayElementBuffer(final int vertexArray) {
+        return this.getVertexArray(vertexArray).elementBuffer;
+    }
+
+    public int getVertexArrayVertexBuffer(final int vertexArray, final int bindingIndex) {
+        return this.getVertexArray(vertexArray).vertexBuffers.get(bindingIndex);
+    }
+
+    public long getAllocatedBufferMemory() {
+        long size = 0;
+        for (BufferStorage storage : this.buffers.values()) {
+            size += storage.size;
+        }
+        return size;
+    }
+
+    /**
+     * Frees all emulated buffer storage. The encoder can't be used for headless emulation afterwards.
+     */
+    public void free() {
+        for (BufferStorage storage : this.buffers.values()) {
+            storage.free();
+        }
+        this.buffers.clear();
+        this.textures.clear();
+        this.renderbuffers.clear();
+        this.framebufferAttachments.clear();
+        this.vertexArrays.clear();
+        this.textureUnits.clear();
+        this.imageUnits.clear();
+        this.objectLabels.clear();
+        this.shaders.clear();
+        this.programs.clear();
+        this.queryTargets.clear();
+        this.queryResults.clear();
+        this.syncConditions.clear();
+        this.residentTextureHandles.clear();
+        this.resetState();
+    }
+
+    private void resetState() {
+        this.integerState.clear();
+        this.integerState.put(GL30C.GL_MAX_SAMPLES, 8);
+        this.integerState.put(GL30C.GL_MAX_COLOR_ATTACHMENTS, 8);
+        this.integerState.put(GL30C.GL_MAX_ARRAY_TEXTURE_LAYERS, 2048);
+        this.integerState.put(GL20C.GL_MAX_TEXTURE_IMAGE_UNITS, 32);
+        this.integerState.put(GL41C.GL_NUM_PROGRAM_BINARY_FORMATS, 1);
+        this.integerState.put(GL41C.GL_PROGRAM_BINARY_FORMATS, EMULATED_PROGRAM_BINARY_FORMAT);
+        this.integerState.put(GL14C.GL_BLEND_SRC_RGB, GL11C.GL_ONE);
+        this.integerState.put(GL14C.GL_BLEND_SRC_ALPHA, GL11C.GL_ONE);
+        this.integerState.put(GL14C.GL_BLEND_DST_RGB, GL11C.GL_ZERO);
+        this.integerState.put(GL14C.GL_BLEND_DST_ALPHA, GL11C.GL_ZERO);
+        this.integerState.put(GL14C.GL_BLEND_EQUATION, GL14C.GL_FUNC_ADD);
+        this.integerState.put(GL11C.GL_DEPTH_FUNC, GL11C.GL_LESS);
+        this.integerState.put(GL11C.GL_STENCIL_WRITEMASK, -1);
+        this.integerState.put(GL20C.GL_STENCIL_BACK_WRITEMASK, -1);
+        this.integerState.put(GL11C.GL_CULL_FACE_MODE, GL11C.GL_BACK);
+        this.integerState.put(GL11C.GL_FRONT_FACE, GL11C.GL_CCW);
+        this.integerState.put(GL11C.GL_LOGIC_OP_MODE, GL11C.GL_COPY);
+        this.integerState.put(GL11C.GL_PACK_ALIGNMENT, 4);
+        this.integerState.put(GL11C.GL_UNPACK_ALIGNMENT, 4);
+        this.enabledCapabilities.clear();
+        this.enabledCapabilities.add(GL11C.GL_DITHER);
+        this.enabledCapabilities.add(GL13C.GL_MULTISAMPLE);
+        Arrays.fill(this.viewport, 0);
+        Arrays.fill(this.scissorBox, 0);
+        Arrays.fill(this.colorWriteMask, GL11C.GL_TRUE);
+        this.depthWriteMask = true;
+        this.polygonOffsetFactor = 0F;
+        this.polygonOffsetUnits = 0F;
+    }
+
+    private void record(final Command command) {
+        this.record(command, 0L, 0L, 0L, 0L);
+    }
+
+    private void record(final Command command, final long arg0) {
+        this.record(command, arg0, 0L, 0L, 0L);
+    }
+
+    private void record(final Command command, final long arg0, final long arg1) {
+        this.record(command, arg0, arg1, 0L, 0L);
+    }
+
+    private void record(final Command command, final long arg0, final long arg1, final long arg2) {
+        this.record(command, arg0, arg1, arg2, 0L);
+    }
+
+    private void record(final Command command, final long arg0, final long arg1, final long arg2, final long arg3) {
+        final int slot = (int) (this.logWriteIndex++ & this.logMask);
+        this.logCommands[slot] = command;
+        final int argumentsIndex = slot * LOGGED_ARGUMENTS;
+        this.logArguments[argumentsIndex] = arg0;
+        this.logArguments[argumentsIndex + 1] = arg1;
+        this.logArguments[argumentsIndex + 2] = arg2;
+        this.logArguments[argumentsIndex + 3] = arg3;
+        this.callCounts[command.ordinal()]++;
+        this.totalCallCount++;
+    }
+
+    private int getLogSlot(final int index) {
+        final int size = this.getLogSize();
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Log index out of bounds: " + index);
+        }
+        return (int) ((this.logWriteIndex - size + index) & this.logMask);
+    }
+
+    private int nextObjectName() {
+        return ++this.lastObjectName;
+    }
+
+    private BufferStorage getBuffer(final int buffer) {
+        final BufferStorage storage = this.buffers.get(buffer);
+        if (storage == null) {
+            throw new IllegalArgumentException("Unknown buffer: " + buffer);
+        }
+        return storage;
+    }
+
+    private TextureState getTexture(final int texture) {
+        final TextureState state = this.textures.get(texture);
+        if (state == null) {
+            throw new IllegalArgumentException("Unknown texture: " + texture);
+        }
+        return state;
+    }
+
+    private RenderbufferState getRenderbuffer(final int renderbuffer) {
+        final RenderbufferState state = this.renderbuffers.get(renderbuffer);
+        if (state == null) {
+            throw new IllegalArgumentException("Unknown renderbuffer: " + renderbuffer);
+        }
+        return state;
+    }
+
+    private VertexArrayState getVertexArray(final int vertexArray) {
+        final VertexArrayState state = this.vertexArrays.get(vertexArray);
+        if (state == null) {
+            throw new IllegalArgumentException("Unknown vertex array: " + vertexArray);
+        }
+        return state;
+    }
+
+    private ShaderState getShader(final int shader) {
+        final ShaderState state = this.shaders.get(shader);
+        if (state == null) {
+            throw new IllegalArgumentException("Unknown shader: " + shader);
+        }
+        return state;
+    }
+
+    private ProgramState getProgram(final int program) {
+        final ProgramState state = this.programs.get(program);
+        if (state == null) {
+            throw new IllegalArgumentException("Unknown program: " + program);
+        }
+        return state;
+    }
+
+    private int getInteger(final int pname) {
+        if (pname == GL15C.GL_ELEMENT_ARRAY_BUFFER_BINDING) {
+            final int vertexArray = this.integerState.get(GL30C.GL_VERTEX_ARRAY_BINDING);
+            return vertexArray != 0 ? this.getVertexArray(vertexArray).elementBuffer : 0;
+        }
+        return this.integerState.get(pname);
+    }
+
+    private void setBlendFunc(final int srcRGB, final int dstRGB, final int srcAlpha, final int dstAlpha) {
+        this.integerState.put(GL14C.GL_BLEND_SRC_RGB, srcRGB);
+        this.integerState.put(GL14C.GL_BLEND_DST_RGB, dstRGB);
+        this.integerState.put(GL14C.GL_BLEND_SRC_ALPHA, srcAlpha);
+        this.integerState.put(GL14C.GL_BLEND_DST_ALPHA, dstAlpha);
+    }
+
+    private long getQueryObject(final int id, final int pname) {
+        if (!this.queryTargets.containsKey(id)) {
+            throw new IllegalArgumentException("Unknown query: " + id);
+        }
+        return switch (pname) {
+            case GL15C.GL_QUERY_RESULT_AVAILABLE -> GL11C.GL_TRUE; // Emulated commands complete immediately
+            case GL15C.GL_QUERY_RESULT, GL44C.GL_QUERY_RESULT_NO_WAIT -> this.queryResults.get(id);
+            case GL45C.GL_QUERY_TARGET -> this.queryTargets.get(id);
+            default -> throw new IllegalArgumentException("Unsupported query parameter: " + pname);
+        };
+    }
+
+    private static int getBufferBindingParameter(final int target) {
+        return switch (target) {
+            case GL15C.GL_ARRAY_BUFFER -> GL15C.GL_ARRAY_BUFFER_BINDING;
+            case GL15C.GL_ELEMENT_ARRAY_BUFFER -> GL15C.GL_ELEMENT_ARRAY_BUFFER_BINDING;
+            case GL21C.GL_PIXEL_PACK_BUFFER -> GL21C.GL_PIXEL_PACK_BUFFER_BINDING;
+            case GL21C.GL_PIXEL_UNPACK_BUFFER -> GL21C.GL_PIXEL_UNPACK_BUFFER_BINDING;
+            case GL31C.GL_UNIFORM_BUFFER -> GL31C.GL_UNIFORM_BUFFER_BINDING;
+            case GL40C.GL_DRAW_INDIRECT_BUFFER -> GL40C.GL_DRAW_INDIRECT_BUFFER_BINDING;
+            case GL43C.GL_SHADER_STORAGE_BUFFER -> GL43C.GL_SHADER_STORAGE_BUFFER_BINDING;
+            default -> target; // The binding of the copy buffer targets is queried with the target itself
+        };
+    }
+
+    private static long emulatedTextureHandle(final int texture) {
+        return 1L << 32 | texture;
+    }
+
+    private static long bits(final float f) {
+        return Float.floatToRawIntBits(f);
+    }
+
+    private static long bits(final boolean b) {
+        return b ? GL11C.GL_TRUE : GL11C.GL_FALSE;
+    }
+
+    private void setFramebufferAttachment(final int framebuffer, final int attachment, final int name) {
+        final Int2IntMap attachments = this.framebufferAttachments.get(framebuffer);
+        if (attachments == null) {
+            throw new IllegalArgumentException("Unknown framebuffer: " + framebuffer);
+        }
+        if (name == 0) {
+            attachments.remove(attachment);
+        } else {
+            attachments.put(attachment, name);
+        }
+    }
+
+    public enum Command {
+
+        CREATE_BUFFERS,
+        DELETE_BUFFERS,
+        CREATE_FRAMEBUFFERS,
+        DELETE_FRAMEBUFFERS,
+        CREATE_VERTEX_ARRAYS,
+        CREATE_RENDERBUFFERS,
+        CREATE_QUERIES,
+        DELETE_VERTEX_ARRAYS,
+        CREATE_TEXTURES,
+        DELETE_TEXTURES,
+        UNMAP_NAMED_BUFFER,
+        NAMED_BUFFER_STORAGE,
+        NAMED_RENDERBUFFER_STORAGE,
+        NAMED_BUFFER_SUB_DATA,
+        NAMED_BUFFER_DATA,
+        GET_NAMED_BUFFER_SUB_DATA,
+        GET_NAMED_BUFFER_PARAMETER,
+        MAP_NAMED_BUFFER,
+        MAP_NAMED_BUFFER_RANGE,
+        FLUSH_MAPPED_NAMED_BUFFER_RANGE,
+        COPY_NAMED_BUFFER_SUB_DATA,
+        CHECK_NAMED_FRAMEBUFFER_STATUS,
+        CLEAR_NAMED_FRAMEBUFFER,
+        BLIT_NAMED_FRAMEBUFFER,
+        NAMED_FRAMEBUFFER_TEXTURE,
+        INVALIDATE_NAMED_FRAMEBUFFER_DATA,
+        GET_NAMED_FRAMEBUFFER_ATTACHMENT_PARAMETER,
+        GET_NAMED_RENDERBUFFER_PARAMETER,
+        NAMED_FRAMEBUFFER_RENDERBUFFER,
+        GENERATE_TEXTURE_MIPMAP,
+        BIND_TEXTURE_UNIT,
+        BIND_TEXTURES,
+        TEXTURE_STORAGE,
+        TEXTURE_SUB_IMAGE,
+        GET_TEXTURE_SUB_IMAGE,
+        CLEAR_TEX_IMAGE,
+        CLEAR_TEX_SUB_IMAGE,
+        GET_TEXTURE_PARAMETER,
+        TEXTURE_PARAMETER,
+        GET_TEXTURE_LEVEL_PARAMETER,
+        TEXTURE_BUFFER,
+        VERTEX_ARRAY_VERTEX_BUFFER,
+        VERTEX_ARRAY_ELEMENT_BUFFER,
+        VERTEX_ARRAY_ATTRIB_FORMAT,
+        VERTEX_ARRAY_ATTRIB_BINDING,
+        ENABLE_VERTEX_ARRAY_ATTRIB,
+        VERTEX_ARRAY_BINDING_DIVISOR,
+        DRAW_ARRAYS,
+        DRAW_ELEMENTS,
+        MULTI_DRAW_ARRAYS_INDIRECT,
+        MULTI_DRAW_ELEMENTS_INDIRECT,
+        COPY_IMAGE_SUB_DATA,
+        GET_PROGRAM_RESOURCE_INDEX,
+        BIND_IMAGE_TEXTURE,
+        SHADER_STORAGE_BLOCK_BINDING,
+        GET_OBJECT_LABEL,
+        OBJECT_LABEL,
+        GET_STRING,
+        GET_INTEGER,
+        GET_FLOAT,
+        GET_BOOLEAN,
+        DEBUG_MESSAGE_CONTROL,
+        MAX_SHADER_COMPILER_THREADS,
+        IS_ENABLED,
+        ENABLE,
+        DISABLE,
+        BLEND_FUNC,
+        BLEND_EQUATION,
+        DEPTH_FUNC,
+        COLOR_MASK,
+        DEPTH_MASK,
+        STENCIL_MASK,
+        STENCIL_FUNC,
+        STENCIL_OP,
+        SCISSOR,
+        VIEWPORT,
+        CULL_FACE,
+        FRONT_FACE,
+        LOGIC_OP,
+        POLYGON_OFFSET,
+        PIXEL_STORE,
+        HINT,
+        COVERAGE_MODULATION,
+        RASTER_SAMPLES,
+        USE_PROGRAM,
+        BIND_VERTEX_ARRAY,
+        BIND_FRAMEBUFFER,
+        BIND_BUFFER,
+        BIND_BUFFER_BASE,
+        BIND_SAMPLERS,
+        CLEAR_BUFFER,
+        IS_OBJECT,
+        DELETE_RENDERBUFFERS,
+        BEGIN_QUERY,
+        END_QUERY,
+        QUERY_COUNTER,
+        GET_QUERY_OBJECT,
+        DELETE_QUERIES,
+        FENCE_SYNC,
+        GET_SYNC,
+        CLIENT_WAIT_SYNC,
+        WAIT_SYNC,
+        DELETE_SYNC,
+        CREATE_SHADER,
+        SHADER_SOURCE,
+        GET_SHADER_SOURCE,
+        COMPILE_SHADER,
+        GET_SHADER,
+        GET_SHADER_INFO_LOG,
+        DELETE_SHADER,
+        CREATE_PROGRAM,
+        ATTACH_SHADER,
+        DETACH_SHADER,
+        GET_ATTACHED_SHADERS,
+        LINK_PROGRAM,
+        VALIDATE_PROGRAM,
+        GET_PROGRAM,
+        GET_PROGRAM_INFO_LOG,
+        PROGRAM_PARAMETER,
+        PROGRAM_BINARY,
+        GET_PROGRAM_BINARY,
+        UNIFORM_BLOCK_BINDING,
+        DELETE_PROGRAM,
+        GET_UNIFORM_LOCATION,
+        GET_UNIFORM_INDICES,
+        GET_ACTIVE_UNIFORMS,
+        PROGRAM_UNIFORM,
+        PROGRAM_UNIFORM_MATRIX,
+        DRAW_ARRAYS_INDIRECT,
+        DRAW_ELEMENTS_INDIRECT,
+        GET_TEXTURE_HANDLE,
+        GET_TEXTURE_SAMPLER_HANDLE,
+        IS_TEXTURE_HANDLE_RESIDENT,
+        MAKE_TEXTURE_HANDLE_RESIDENT,
+        MAKE_TEXTURE_HANDLE_NON_RESIDENT,
+
+    }
+
+    private static class BufferStorage {
+
+        long address;
+        long size;
+        int usage = GL15C.GL_STATIC_DRAW;
+        boolean immutable;
+        int storageFlags;
+        boolean mapped;
+        int mapAccess;
+        long mapOffset;
+        long mapLength;
+
+        void allocate(final long size) {
+            if (this.mapped) {
+                throw new IllegalStateException("Cannot reallocate a mapped buffer");
+            }
+            this.free();
+            if (size > 0) {
+                this.address = MemoryUtil.nmemCalloc(1, size);
+                if (this.address == 0) {
+                    throw new OutOfMemoryError("Failed to allocate memory of size: " + size);
+                }
+            }
+            this.size = size;
+        }
+
+        ByteBuffer map(final long offset, final long length, final int access) {
+            if (this.mapped) {
+                throw new IllegalStateException("Buffer is already mapped");
+            }
+            this.checkRange(offset, length);
+            this.mapped = true;
+            this.mapAccess = access;
+            this.mapOffset = offset;
+            this.mapLength = length;
+            return MemoryUtil.memByteBuffer(this.address + offset, (int) length);
+        }
+
+        void checkRange(final long offset, final long length) {
+            if (offset < 0 || length < 0 || offset + length > this.size) {
+                throw new IllegalArgumentException("Range " + offset + "+" + length + " is out of bounds for buffer of size " + this.size);
+            }
+        }
+
+        long getParameter(final int pname) {
+            return switch (pname) {
+                case GL15C.GL_BUFFER_SIZE -> this.size;
+                case GL15C.GL_BUFFER_USAGE -> this.usage;
+                case GL15C.GL_BUFFER_MAPPED -> this.mapped ? GL11C.GL_TRUE : GL11C.GL_FALSE;
+                case GL15C.GL_BUFFER_ACCESS -> GL15C.GL_READ_WRITE;
+                case GL30C.GL_BUFFER_ACCESS_FLAGS -> this.mapAccess;
+                case GL30C.GL_BUFFER_MAP_OFFSET -> this.mapOffset;
+                case GL30C.GL_BUFFER_MAP_LENGTH -> this.mapLength;
+                case GL44C.GL_BUFFER_IMMUTABLE_STORAGE -> this.immutable ? GL11C.GL_TRUE : GL11C.GL_FALSE;
+                case GL44C.GL_BUFFER_STORAGE_FLAGS -> this.storageFlags;
+                default -> throw new IllegalArgumentException("Unsupported buffer parameter: " + pname);
+            };
+        }
+
+        void free() {
+            if (this.address != 0) {
+                MemoryUtil.nmemFree(this.address);
+                this.address = 0;
+            }
+            this.size = 0;
+        }
+
+    }
+
+    private static class TextureState {
+
+        final int target;
+        final Int2IntMap parameters = new Int2IntOpenHashMap();
+        int levels;
+        int samples;
+        int internalFormat;
+        int width;
+        int height;
+        int depth;
+        int buffer;
+
+        TextureState(final int target) {
+            this.target = target;
+        }
+
+        void setStorage(final int levels, final int samples, final int internalFormat, final int width, final int height, final int depth) {
+            this.levels = levels;
+            this.samples = samples;
+            this.internalFormat = internalFormat;
+            this.width = width;
+            this.height = height;
+            this.depth = depth;
+        }
+
+        int getParameter(final int pname) {
+            return switch (pname) {
+                case GL45C.GL_TEXTURE_TARGET -> this.target;
+                case GL42C.GL_TEXTURE_IMMUTABLE_FORMAT -> this.levels != 0 ? GL11C.GL_TRUE : GL11C.GL_FALSE;
+                case GL43C.GL_TEXTURE_IMMUTABLE_LEVELS -> this.levels;
+                default -> this.parameters.get(pname);
+            };
+        }
+
+    }
+
+    private static class RenderbufferState {
+
+        int samples;
+        int internalFormat;
+        int width;
+        int height;
+
+        void set(final int samples, final int internalFormat, final int width, final int height) {
+            this.samples = samples;
+            this.internalFormat = internalFormat;
+            this.width = width;
+            this.height = height;
+        }
+
+    }
+
+    private static class VertexArrayState {
+
+        final Int2IntMap vertexBuffers = new Int2IntOpenHashMap();
+        int elementBuffer;
+
+    }
+
+    private static class ShaderState {
+
+        final int type;
+        String source = "";
+        boolean compiled;
+
+        ShaderState(final int type) {
+            this.type = type;
+        }
+
+    }
+
+    private static class ProgramState {
+
+        final IntList shaders = new IntArrayList();
+        final Object2IntMap<String> uniformLocations = new Object2IntOpenHashMap<>();
+        boolean linked;
+        boolean validated;
+
+        ProgramState() {
+            this.uniformLocations.defaultReturnValue(-1);
+        }
+
+    }
+
+}
@@ -28,17 +28,22 @@ import net.raphimc.thingl.implementation.Workarounds;
 import net.raphimc.thingl.implementation.instance.InstanceManager;
 import net.raphimc.thingl.implementation.instance.SingleInstanceManager;
 import net.raphimc.thingl.implementation.window.WindowInterface;
+import net.raphimc.thingl.program.ProgramBinaryCache;
 import net.raphimc.thingl.program.Programs;
 import net.raphimc.thingl.renderer.impl.Renderer2D;
 import net.raphimc.thingl.renderer.impl.Renderer3D;
 import net.raphimc.thingl.renderer.impl.RendererText;
 import net.raphimc.thingl.text.FreeTypeLibrary;
 import net.raphimc.thingl.text.renderer.SDFTextRenderer;
+import net.raphimc.thingl.texture.animated.AnimatedTextureScheduler;
+import net.raphimc.thingl.util.Profiler;
 import net.raphimc.thingl.util.SyncManager;
+import net.raphimc.thingl.util.TextureLoader;
 import net.raphimc.thingl.util.pool.BufferBuilderPool;
 import net.raphimc.thingl.util.pool.FramebufferPool;
 import net.raphimc.thingl.util.pool.GpuBufferPool;
 import net.raphimc.thingl.util.pool.ImmediateVertexArrays;
+import net.raphimc.thingl.util.pool.StreamingBuffer;
 import net.raphimc.thingl.wrapper.*;
 import org.lwjgl.opengl.GL11C;
 import org.lwjgl.system.Configuration;
@@ -107,6 +112,10 @@ public class ThinGL {
         return get().getStencilStack();
     }
 
+    public static ProgramBinaryCache programBinaryCache() { // FlorianMichael - program binary cache
+        return get().getProgramBinaryCache();
+    }
+
     public static Programs programs() {
         return get().getPrograms();
     }
@@ -155,6 +164,22 @@ public class ThinGL {
         return get().getSyncManager();
     }
 
+    public static StreamingBuffer streamingBuffer() { // FlorianMichael - add streaming buffer
+        return get().getStreamingBuffer();
+    }
+
+    public static TextureLoader textureLoader() { // FlorianMichael - add texture loader
+        return get().getTextureLoader();
+    }
+
+    public static AnimatedTextureScheduler animatedTextureScheduler() { // FlorianMichael - shared animated texture scheduler
+        return get().getAnimatedTextureScheduler();
+    }
+
+    public static Profiler profiler() { // FlorianMichael - GPU profiler
+        return get().getProfiler();
+    }
+
     public static FreeTypeLibrary freeTypeLibrary() {
         return get().getFreeTypeLibrary();
     }
@@ -169,6 +194,7 @@ public class ThinGL {
     private final GLStateStack glStateStack;
     private final ScissorStack scissorStack;
     private final StencilStack stencilStack;
+    private final ProgramBinaryCache programBinaryCache; // FlorianMichael - program binary cache
     private final Programs programs;
     private final Renderer2D renderer2D;
     private final Renderer3D renderer3D;
@@ -182,6 +208,10 @@ public class ThinGL {
     private final ImmediateVertexArrays immediateVertexArrays;
     private final QuadIndexBuffer quadIndexBuffer;
     private final SyncManager syncManager;
+    private final StreamingBuffer streamingBuffer; // FlorianMichael - add streaming buffer
+    private final TextureLoader textureLoader; // FlorianMichael - add texture loader
+    private final AnimatedTextureScheduler animatedTextureScheduler; // FlorianMichael - shared animated texture scheduler
+    private final Profiler profiler; // FlorianMichael - GPU profiler
 
     private final FreeTypeLibrary freeTypeLibrary;
 
@@ -199,6 +229,7 @@ public class ThinGL {
     private long lastFpsUpdateTime;
     private int fpsCounter;
     private int fps;
+    private long frameCount; // FlorianMichael - add frame counter
 
     public ThinGL(final Supplier<WindowInterface> windowInterface) {
         this(windowInterface.get());
@@ -218,6 +249,7 @@ public class ThinGL {
         this.glStateStack = this.createGLStateStack();
         this.scissorStack = this.createScissorStack();
         this.stencilStack = this.createStencilStack();
+        this.programBinaryCache = this.createProgramBinaryCache(); // FlorianMichael - program binary cache
         this.programs = this.createPrograms();
         this.renderer2D = this.createRenderer2D();
         this.renderer3D = this.createRenderer3D();
@@ -230,6 +262,10 @@ public class ThinGL {
         this.immediateVertexArrays = this.createImmediateVertexArrays();
         this.quadIndexBuffer = this.createQuadIndexBuffer();
         this.syncManager = this.createSyncManager();
+        this.streamingBuffer = this.createStreamingBuffer(); // FlorianMichael - add streaming buffer
+        this.textureLoader = this.createTextureLoader(); // FlorianMichael - add texture loader
+        this.animatedTextureScheduler = this.createAnimatedTextureScheduler(); // FlorianMichael - shared animated texture scheduler
+        this.profiler = this.createProfiler(); // FlorianMichael - GPU profiler
         this.freeTypeLibrary = this.createFreeTypeLibrary();
 
         if (this.capabilities.isFreeTypePresent() && this.capabilities.isHarfBuzzPresent()) {
@@ -241,10 +277,16 @@ public class ThinGL {
                 ThinGL.LOGGER.warn("Global draw batch was not empty at the end of the frame!");
             }
         });
+        // FlorianMichael - add macOS support
+        final de.florianmichael.thingl.encoder.AppleCommandEncoder appleEncoder = de.florianmichael.thingl.GlCommands.getApple();
+        if (appleEncoder != null) {
+            this.addFrameFinishedCallback(appleEncoder::restoreBindings);
+        }
+        // FlorianMichael - add macOS support
 
-        final String gpuVendor = GL11C.glGetString(GL11C.GL_VENDOR);
-        final String gpuModel = GL11C.glGetString(GL11C.GL_RENDERER);
-        final String glVersion = GL11C.glGetString(GL11C.GL_VERSION);
+        final String gpuVendor = de.florianmichael.thingl.GlCommands.get().glGetString(GL11C.GL_VENDOR);
+        final String gpuModel = de.florianmichael.thingl.GlCommands.get().glGetString(GL11C.GL_RENDERER);
+        final String glVersion = de.florianmichael.thingl.GlCommands.get().glGetString(GL11C.GL_VERSION);
         LOGGER.info("Initialized ThinGL " + IMPL_VERSION + " on " + gpuModel + " (" + gpuVendor + ") with OpenGL " + glVersion);
     }
 
@@ -263,6 +305,7 @@ public class ThinGL {
 
     public synchronized void onFrameStart() {
         this.frameStartTime = System.nanoTime();
+        this.profiler.beginFrame(); // FlorianMichael - GPU profiler
 
         for (Runnable action : this.frameStartActions) {
             try {
@@ -291,6 +334,13 @@ public class ThinGL {
             }
         }
 
+        this.profiler.endFrame(); // FlorianMichael - GPU profiler
+        this.frameCount++; // FlorianMichael - add frame counter
+        // FlorianMichael - primitive state tracking
+        if (this.glStateManager instanceof TrackingGLStateManager trackingGLStateManager) {
+            trackingGLStateManager.onFrameFinished();
+        }
+        // FlorianMichael - primitive state tracking
         final long currentTime = System.nanoTime();
         this.frameTime = (currentTime - this.frameStartTime) / 1_000_000F;
         this.fpsCounter++;
@@ -373,6 +423,36 @@ public class ThinGL {
         return this.fps;
     }
 
+    // FlorianMichael - primitive state tracking
+    /**
+     * @return The number of state changes in the last frame which were skipped because the state was already set (0 if the state manager doesn't track state)
+     */
+    public int getRedundantStateChanges() {
+        return this.glStateManager instanceof TrackingGLStateManager trackingGLStateManager ? trackingGLStateManager.getRedundantChanges() : 0;
+    }
+
+    public int getRedundantStateChanges(final TrackingGLStateManager.StateCategory category) {
+        return this.glStateManager instanceof TrackingGLStateManager trackingGLStateManager ? trackingGLStateManager.getRedundantChanges(category) : 0;
+    }
+
+    /**
+     * @return The number of state changes in the last frame which were sent to the driver (0 if the state manager doesn't track state)
+     */
+    public int getEffectiveStateChanges() {
+        return this.glStateManager instanceof TrackingGLStateManager trackingGLStateManager ? trackingGLStateManager.getEffectiveChanges() : 0;
+    }
+
+    public int getEffectiveStateChanges(final TrackingGLStateManager.StateCategory category) {
+        return this.glStateManager instanceof TrackingGLStateManager trackingGLStateManager ? trackingGLStateManager.getEffectiveChanges(category) : 0;
+    }
+    // FlorianMichael - primitive state tracking
+
+    // FlorianMichael - add frame counter
+    public long getFrameCount() {
+        return this.frameCount;
+    }
+    // FlorianMichael - add frame counter
+
     public boolean isAllocated() {
         return this.allocated;
     }
@@ -390,6 +470,10 @@ public class ThinGL {
         this.framebufferPool.free();
         this.immediateVertexArrays.free();
         this.quadIndexBuffer.free();
+        this.streamingBuffer.free(); // FlorianMichael - add streaming buffer
+        this.textureLoader.free(); // FlorianMichael - add texture loader
+        this.animatedTextureScheduler.free(); // FlorianMichael - shared animated texture scheduler
+        this.profiler.free(); // FlorianMichael - GPU profiler
         if (this.freeTypeLibrary != null) {
             this.freeTypeLibrary.free();
         }
@@ -432,6 +516,10 @@ public class ThinGL {
         return this.stencilStack;
     }
 
+    public ProgramBinaryCache getProgramBinaryCache() { // FlorianMichael - program binary cache
+        return this.programBinaryCache;
+    }
+
     public Programs getPrograms() {
         return this.programs;
     }
@@ -480,6 +568,22 @@ public class ThinGL {
         return this.syncManager;
     }
 
+    public StreamingBuffer getStreamingBuffer() { // FlorianMichael - add streaming buffer
+        return this.streamingBuffer;
+    }
+
+    public TextureLoader getTextureLoader() { // FlorianMichael - add texture loader
+        return this.textureLoader;
+    }
+
+    public AnimatedTextureScheduler getAnimatedTextureScheduler() { // FlorianMichael - shared animated texture scheduler
+        return this.animatedTextureScheduler;
+    }
+
+    public Profiler getProfiler() { // FlorianMichael - GPU profiler
+        return this.profiler;
+    }
+
     public FreeTypeLibrary getFreeTypeLibrary() {
         return this.freeTypeLibrary;
     }
@@ -512,6 +616,10 @@ public class ThinGL {
         return new StencilStack();
     }
 
+    protected ProgramBinaryCache createProgramBinaryCache() { // FlorianMichael - program binary cache
+        return new ProgramBinaryCache();
+    }
+
     protected Programs createPrograms() {
         return new Programs();
     }
@@ -560,6 +668,22 @@ public class ThinGL {
         return new SyncManager();
     }
 
+    protected StreamingBuffer createStreamingBuffer() { // FlorianMichael - add streaming buffer
+        return new StreamingBuffer();
+    }
+
+    protected TextureLoader createTextureLoader() { // FlorianMichael - add texture loader
+        return new TextureLoader();
+    }
+
+    protected AnimatedTextureScheduler createAnimatedTextureScheduler() { // FlorianMichael - shared animated texture scheduler
+        return new AnimatedTextureScheduler();
+    }
+
+    protected Profiler createProfiler() { // FlorianMichael - GPU profiler
+        return new Profiler(3);
+    }
+
     protected FreeTypeLibrary createFreeTypeLibrary() {
         if (this.capabilities.isFreeTypePresent()) {
             return new FreeTypeLibrary();
@@ -66,7 +66,7 @@ public class AwtFont extends Font {
     }
 
     @Override
-    public GlyphBitmap createGlyphBitmap(final Glyph glyph, final GlyphBitmap.RenderMode renderMode) {
+    public synchronized GlyphBitmap createGlyphBitmap(final Glyph glyph, final GlyphBitmap.RenderMode renderMode) { // FlorianMichael - async glyph rasterization
         final GlyphVector glyphVector = this.font.createGlyphVector(this.graphics.getFontRenderContext(), new int[]{glyph.glyphIndex()});
         if (glyphVector.getNumGlyphs() != 1) {
             throw new IllegalStateException("Glyph vector for glyph index " + glyph.glyphIndex() + " does not map to exactly one glyph");
@@ -104,7 +104,7 @@ public class AwtFont extends Font {
     }
 
     @Override
-    public void free() {
+    public synchronized void free() { // FlorianMichael - async glyph rasterization
         super.free();
         this.graphics.dispose();
     }
@@ -113,6 +113,13 @@ public class AwtFont extends Font {
         return this.font;
     }
 
+    // FlorianMichael - code point coverage index
+    @Override
+    public boolean hasGlyph(final int codePoint) {
+        return this.font.canDisplay(codePoint);
+    }
+    // FlorianMichael - code point coverage index
+
     @Override
     public float getAscent() {
         return this.fontMetrics.getAscent();
@@ -76,9 +76,34 @@ public class AwtGifFrameProvider implements FrameProvider {
 
     @Override
     public int loadNextFrame(final Texture2D target) throws IOException {
-        if (this.currentFrame + 1 >= this.getFrameCount()) {
+        final DecodedFrame frame = this.decodeNextFrame(target); // FlorianMichael - shared animated texture scheduler
+        if (frame == null) {
+            return -1;
+        }
+
+        if (!this.thinGL.isAllocated()) { // If ThinGL was freed while the image was loading
             return -1;
         }
+
+        final CompletableFuture<Void> uploadFuture = new CompletableFuture<>();
+        this.thinGL.runOnRenderThread(() -> {
+            try {
+                frame.upload().run(); // FlorianMichael - shared animated texture scheduler
+            } finally {
+                uploadFuture.complete(null);
+            }
+        });
+        uploadFuture.join();
+
+        return frame.delay(); // FlorianMichael - shared animated texture scheduler
+    }
+
+    // FlorianMichael - shared animated texture scheduler
+    @Override
+    public DecodedFrame decodeNextFrame(final Texture2D target) throws IOException {
+        if (this.currentFrame + 1 >= this.getFrameCount()) {
+            return null;
+        }
         this.currentFrame++;
 
         final BufferedImage frame = this.gifReader.read(this.currentFrame);
@@ -102,40 +127,29 @@ public class AwtGifFrameProvider implements FrameProvider {
         final int imageLeftPosition = Integer.parseInt(imageDescriptorNode.getAttributes().getNamedItem("imageLeftPosition").getNodeValue());
         final int imageTopPosition = Integer.parseInt(imageDescriptorNode.getAttributes().getNamedItem("imageTopPosition").getNodeValue());
 
-        if (!this.thinGL.isAllocated()) { // If ThinGL was freed while the image was loading
-            return -1;
-        }
-
-        final CompletableFuture<Void> uploadFuture = new CompletableFuture<>();
-        this.thinGL.runOnRenderThread(() -> {
+        return new DecodedFrame(delayTime, () -> {
+            this.frameBuilder.begin();
+            DefaultGLStates.push();
             try {
-                this.frameBuilder.begin();
-                DefaultGLStates.push();
-                try {
-                    final Texture2D frameBuilderTexture = this.frameBuilder.getColorAttachment();
-                    AwtUtil.uploadBufferedImageToTexture2D(this.partialTexture, 0, 0, frame);
-                    ThinGL.renderer2D().texture(RenderMathUtil.getIdentityMatrix(), this.partialTexture, imageLeftPosition, imageTopPosition, frame.getWidth(), frame.getHeight(), 0, 0, frame.getWidth(), frame.getHeight());
-                    for (int y = 0; y < frameBuilderTexture.getHeight(); y++) { // Copy to the image while flipping it vertically
-                        frameBuilderTexture.copyTo(target, 0, frameBuilderTexture.getHeight() - 1 - y, 0, y, frameBuilderTexture.getWidth(), 1);
-                    }
-                    switch (disposalMethod) {
-                        case "none", "doNotDispose" -> {
-                        }
-                        case "restoreToBackgroundColor" -> this.frameBuilder.clear();
-                        default -> throw new UnsupportedOperationException("Unsupported disposal method: " + disposalMethod);
+                final Texture2D frameBuilderTexture = this.frameBuilder.getColorAttachment();
+                AwtUtil.uploadBufferedImageToTexture2D(this.partialTexture, 0, 0, frame);
+                ThinGL.renderer2D().texture(RenderMathUtil.getIdentityMatrix(), this.partialTexture, imageLeftPosition, imageTopPosition, frame.getWidth(), frame.getHeight(), 0, 0, frame.getWidth(), frame.getHeight());
+                for (int y = 0; y < frameBuilderTexture.getHeight(); y++) { // Copy to the image while flipping it vertically
+                    frameBuilderTexture.copyTo(target, 0, frameBuilderTexture.getHeight() - 1 - y, 0, y, frameBuilderTexture.getWidth(), 1);
+                }
+                switch (disposalMethod) {
+                    case "none", "doNotDispose" -> {
                     }
-                } finally {
-                    DefaultGLStates.pop();
-                    this.frameBuilder.end();
+                    case "restoreToBackgroundColor" -> this.frameBuilder.clear();
+                    default -> throw new UnsupportedOperationException("Unsupported disposal method: " + disposalMethod);
                 }
             } finally {
-                uploadFuture.complete(null);
+                DefaultGLStates.pop();
+                this.frameBuilder.end();
             }
         });
-        uploadFuture.join();
-
-        return delayTime;
     }
+    // FlorianMichael - shared animated texture scheduler
 
     @Override
     public int getWidth() {
@@ -94,9 +94,34 @@ public class AwtWebpFrameProvider implements FrameProvider {
 
     @Override
     public int loadNextFrame(final Texture2D target) throws IOException {
-        if (this.currentFrame + 1 >= this.getFrameCount()) {
+        final DecodedFrame frame = this.decodeNextFrame(target); // FlorianMichael - shared animated texture scheduler
+        if (frame == null) {
+            return -1;
+        }
+
+        if (!this.thinGL.isAllocated()) { // If ThinGL was freed while the image was loading
             return -1;
         }
+
+        final CompletableFuture<Void> uploadFuture = new CompletableFuture<>();
+        this.thinGL.runOnRenderThread(() -> {
+            try {
+                frame.upload().run(); // FlorianMichael - shared animated texture scheduler
+            } finally {
+                uploadFuture.complete(null);
+            }
+        });
+        uploadFuture.join();
+
+        return frame.delay(); // FlorianMichael - shared animated texture scheduler
+    }
+
+    // FlorianMichael - shared animated texture scheduler
+    @Override
+    public DecodedFrame decodeNextFrame(final Texture2D target) throws IOException {
+        if (this.currentFrame + 1 >= this.getFrameCount()) {
+            return null;
+        }
         this.currentFrame++;
 
         final BufferedImage frame = this.webpReader.read(this.currentFrame);
@@ -106,43 +131,32 @@ public class AwtWebpFrameProvider implements FrameProvider {
         final boolean blend = (boolean) this.frameBlendGetter.apply(animationFrame);
         final boolean dispose = (boolean) this.frameDisposeGetter.apply(animationFrame);
 
-        if (!this.thinGL.isAllocated()) { // If ThinGL was freed while the image was loading
-            return -1;
-        }
-
-        final CompletableFuture<Void> uploadFuture = new CompletableFuture<>();
-        this.thinGL.runOnRenderThread(() -> {
+        return new DecodedFrame(duration, () -> {
+            this.frameBuilder.begin();
+            DefaultGLStates.push();
             try {
-                this.frameBuilder.begin();
-                DefaultGLStates.push();
-                try {
-                    final Texture2D frameBuilderTexture = this.frameBuilder.getColorAttachment();
-                    AwtUtil.uploadBufferedImageToTexture2D(this.partialTexture, 0, 0, frame);
-                    if (blend) {
-                        ThinGL.renderer2D().texture(RenderMathUtil.getIdentityMatrix(), this.partialTexture, bounds.x, bounds.y, frame.getWidth(), frame.getHeight(), 0, 0, frame.getWidth(), frame.getHeight());
-                    } else {
-                        for (int y = 0; y < frame.getHeight(); y++) { // Copy to the frame builder while flipping it vertically
-                            this.partialTexture.copyTo(frameBuilderTexture, 0, y, bounds.x, frameBuilderTexture.getHeight() - 1 - bounds.y - y, frame.getWidth(), 1);
-                        }
-                    }
-                    for (int y = 0; y < frameBuilderTexture.getHeight(); y++) { // Copy to the image while flipping it vertically
-                        frameBuilderTexture.copyTo(target, 0, frameBuilderTexture.getHeight() - 1 - y, 0, y, frameBuilderTexture.getWidth(), 1);
+                final Texture2D frameBuilderTexture = this.frameBuilder.getColorAttachment();
+                AwtUtil.uploadBufferedImageToTexture2D(this.partialTexture, 0, 0, frame);
+                if (blend) {
+                    ThinGL.renderer2D().texture(RenderMathUtil.getIdentityMatrix(), this.partialTexture, bounds.x, bounds.y, frame.getWidth(), frame.getHeight(), 0, 0, frame.getWidth(), frame.getHeight());
+                } else {
+                    for (int y = 0; y < frame.getHeight(); y++) { // Copy to the frame builder while flipping it vertically
+                        this.partialTexture.copyTo(frameBuilderTexture, 0, y, bounds.x, frameBuilderTexture.getHeight() - 1 - bounds.y - y, frame.getWidth(), 1);
                     }
-                    if (dispose) {
-                        this.frameBuilder.clear();
-                    }
-                } finally {
-                    DefaultGLStates.pop();
-                    this.frameBuilder.end();
+                }
+                for (int y = 0; y < frameBuilderTexture.getHeight(); y++) { // Copy to the image while flipping it vertically
+                    frameBuilderTexture.copyTo(target, 0, frameBuilderTexture.getHeight() - 1 - y, 0, y, frameBuilderTexture.getWidth(), 1);
+                }
+                if (dispose) {
+                    this.frameBuilder.clear();
                 }
             } finally {
-                uploadFuture.complete(null);
+                DefaultGLStates.pop();
+                this.frameBuilder.end();
             }
         });
-        uploadFuture.join();
-
-        return duration;
     }
+    // FlorianMichael - shared animated texture scheduler
 
     @Override
     public int getWidth() {
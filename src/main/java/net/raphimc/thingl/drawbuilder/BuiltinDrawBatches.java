@@ -39,6 +39,7 @@ public class BuiltinDrawBatches {
     public static final VertexDataLayout POSITION_TEXTURE_LAYOUT = new VertexDataLayout(POSITION_ELEMENT, TEXTURE_ELEMENT);
     public static final VertexDataLayout POSITION_TEXTURE_ARRAY_LAYER_LAYOUT = new VertexDataLayout(POSITION_ELEMENT, TEXTURE_ELEMENT, new VertexDataLayoutElement(DataType.SHORT, 1));
     public static final VertexDataLayout POSITION_COLOR_TEXTURE_LAYOUT = new VertexDataLayout(POSITION_ELEMENT, COLOR_ELEMENT, TEXTURE_ELEMENT);
+    public static final VertexDataLayout POSITION_COLOR_TEXTURE_SLOT_LAYOUT = new VertexDataLayout(POSITION_ELEMENT, COLOR_ELEMENT, TEXTURE_ELEMENT, new VertexDataLayoutElement(DataType.UNSIGNED_INT, 2)); // FlorianMichael - batched textures in Renderer2D
     public static final VertexDataLayout LINE_LAYOUT = new VertexDataLayout(POSITION_ELEMENT, COLOR_ELEMENT, new VertexDataLayoutElement(DataType.FLOAT, 1));
 
     // === Snippets ===
@@ -81,7 +82,7 @@ public class BuiltinDrawBatches {
             .drawMode(DrawMode.LINES)
             .appendSetupAction(() -> {
                 ThinGL.glStateStack().enable(GL11C.GL_LINE_SMOOTH);
-                GL11C.glHint(GL11C.GL_LINE_SMOOTH_HINT, GL11C.GL_NICEST);
+                de.florianmichael.thingl.GlCommands.get().glHint(GL11C.GL_LINE_SMOOTH_HINT, GL11C.GL_NICEST);
             })
             .build();
 
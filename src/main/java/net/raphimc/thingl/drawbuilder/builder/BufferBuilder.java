@@ -306,6 +306,17 @@ public class BufferBuilder {
         return this;
     }
 
+    // FlorianMichael - add multithreaded draw recording
+    public BufferBuilder putBytes(final long address, final int length) {
+        if (this.limitAddress - this.cursorAddress < length) {
+            this.ensureHasEnoughSpace(length);
+        }
+        MemoryUtil.memCopy(address, this.cursorAddress, length);
+        this.cursorAddress += length;
+        return this;
+    }
+    // FlorianMichael - add multithreaded draw recording
+
     public BufferBuilder align(final int alignment) {
         final int position = this.getPosition();
         final int alignedPosition = MathUtils.align(position, alignment);
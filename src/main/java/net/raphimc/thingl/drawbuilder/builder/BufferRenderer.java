@@ -32,6 +32,7 @@ import net.raphimc.thingl.drawbuilder.databuilder.holder.VertexDataHolder;
 import net.raphimc.thingl.drawbuilder.drawbatchdataholder.DrawBatchDataHolder;
 import net.raphimc.thingl.drawbuilder.index.IndexByteBuffer;
 import net.raphimc.thingl.drawbuilder.index.QuadIndexBuffer;
+import net.raphimc.thingl.drawbuilder.vertex.DataType;
 import net.raphimc.thingl.program.RegularProgram;
 import net.raphimc.thingl.resource.buffer.Buffer;
 import net.raphimc.thingl.resource.buffer.ImmutableBuffer;
@@ -39,6 +40,7 @@ import net.raphimc.thingl.resource.buffer.MutableBuffer;
 import net.raphimc.thingl.resource.program.Program;
 import net.raphimc.thingl.resource.vertexarray.VertexArray;
 import net.raphimc.thingl.util.BufferUtil;
+import net.raphimc.thingl.util.pool.StreamingBuffer;
 import org.joml.Matrix4f;
 import org.lwjgl.opengl.GL11C;
 import org.lwjgl.system.MemoryUtil;
@@ -91,7 +93,9 @@ public class BufferRenderer {
         }
 
         if (optimizeMesh && connectedPrimitiveIndices == null && drawBatch.drawMode().getGlMode() == GL11C.GL_TRIANGLES) {
-            ThinGL.capabilities().ensureMeshOptimizerPresent();
+            if (ThinGL.isInitialized()) { // FlorianMichael - allow preparing buffers without a ThinGL instance (JMH benchmarks)
+                ThinGL.capabilities().ensureMeshOptimizerPresent();
+            }
             if (indexBuffer != null && indexBuffer.type() != GL11C.GL_UNSIGNED_INT) {
                 throw new IllegalStateException("Optimizing the mesh requires the index buffer to be of type GL_UNSIGNED_INT");
             }
@@ -196,31 +200,38 @@ public class BufferRenderer {
 
     public static BuiltBuffer buildTemporaryBuffer(final PreparedBuffer preparedBuffer) {
         final DrawBatch drawBatch = preparedBuffer.drawBatch();
-        final VertexArray vertexArray = ThinGL.immediateVertexArrays().getVertexArray(drawBatch.vertexDataLayout(), drawBatch.instanceVertexDataLayout());
-
-        if (preparedBuffer.indexBuffer() != null) {
-            final ByteBuffer indexData = preparedBuffer.indexBuffer().buffer();
-            if (indexData == ThinGL.quadIndexBuffer().getSharedData()) {
-                vertexArray.setIndexBuffer(preparedBuffer.indexBuffer().type(), ThinGL.quadIndexBuffer().getSharedBuffer());
-            } else {
-                final MutableBuffer indexBuffer = ThinGL.gpuBufferPool().borrowBuffer();
-                indexBuffer.ensureSize(indexData.remaining());
-                indexBuffer.upload(indexData);
-                vertexArray.setIndexBuffer(preparedBuffer.indexBuffer().type(), indexBuffer);
+        // FlorianMichael - stream vertex and index data through a persistently mapped ring buffer
+        final List<DrawCommand> drawCommands = new ArrayList<>(preparedBuffer.drawCommands());
+        VertexArray vertexArray = streamVertexData(preparedBuffer, drawCommands);
+        if (vertexArray == null) {
+            vertexArray = ThinGL.immediateVertexArrays().getVertexArray(drawBatch.vertexDataLayout(), drawBatch.instanceVertexDataLayout());
+            // FlorianMichael - stream vertex and index data through a persistently mapped ring buffer
+
+            if (preparedBuffer.indexBuffer() != null) {
+                final ByteBuffer indexData = preparedBuffer.indexBuffer().buffer();
+                if (indexData == ThinGL.quadIndexBuffer().getSharedData()) {
+                    vertexArray.setIndexBuffer(preparedBuffer.indexBuffer().type(), ThinGL.quadIndexBuffer().getSharedBuffer());
+                } else {
+                    final MutableBuffer indexBuffer = ThinGL.gpuBufferPool().borrowBuffer();
+                    indexBuffer.ensureSize(indexData.remaining());
+                    indexBuffer.upload(indexData);
+                    vertexArray.setIndexBuffer(preparedBuffer.indexBuffer().type(), indexBuffer);
+                }
             }
-        }
 
-        final ByteBuffer vertexData = preparedBuffer.vertexBuffer();
-        final MutableBuffer vertexBuffer = (MutableBuffer) vertexArray.getVertexBuffers().get(0);
-        vertexBuffer.ensureSize(vertexData.remaining());
-        vertexBuffer.upload(vertexData);
+            final ByteBuffer vertexData = preparedBuffer.vertexBuffer();
+            final MutableBuffer vertexBuffer = (MutableBuffer) vertexArray.getVertexBuffers().get(0);
+            vertexBuffer.ensureSize(vertexData.remaining());
+            vertexBuffer.upload(vertexData);
 
-        final ByteBuffer instanceVertexData = preparedBuffer.instanceVertexBuffer();
-        if (instanceVertexData != null) {
-            final MutableBuffer instanceVertexBuffer = (MutableBuffer) vertexArray.getVertexBuffers().get(1);
-            instanceVertexBuffer.ensureSize(instanceVertexData.remaining());
-            instanceVertexBuffer.upload(instanceVertexData);
+            final ByteBuffer instanceVertexData = preparedBuffer.instanceVertexBuffer();
+            if (instanceVertexData != null) {
+                final MutableBuffer instanceVertexBuffer = (MutableBuffer) vertexArray.getVertexBuffers().get(1);
+                instanceVertexBuffer.ensureSize(instanceVertexData.remaining());
+                instanceVertexBuffer.upload(instanceVertexData);
+            }
         }
+        // FlorianMichael - stream vertex and index data through a persistently mapped ring buffer
 
         final Object2ObjectMap<String, Buffer> uniformBuffers = new Object2ObjectOpenHashMap<>(preparedBuffer.uniformBuffers().size());
         for (Map.Entry<String, ByteBuffer> entry : preparedBuffer.uniformBuffers().entrySet()) {
@@ -241,10 +252,10 @@ public class BufferRenderer {
         }
 
         MutableBuffer commandBuffer = null;
-        if (preparedBuffer.drawCommands().size() > 1) {
+        if (drawCommands.size() > 1) { // FlorianMichael - stream vertex and index data through a persistently mapped ring buffer
             final BufferBuilder commandBufferBuilder = ThinGL.bufferBuilderPool().borrowBufferBuilder();
-            commandBufferBuilder.ensureHasEnoughSpace(preparedBuffer.drawCommands().size() * DrawCommand.BYTES);
-            for (DrawCommand drawCommand : preparedBuffer.drawCommands()) {
+            commandBufferBuilder.ensureHasEnoughSpace(drawCommands.size() * DrawCommand.BYTES); // FlorianMichael - stream vertex and index data through a persistently mapped ring buffer
+            for (DrawCommand drawCommand : drawCommands) { // FlorianMichael - stream vertex and index data through a persistently mapped ring buffer
                 drawCommand.write(commandBufferBuilder);
             }
             final ByteBuffer commandData = commandBufferBuilder.finish();
@@ -255,12 +266,63 @@ public class BufferRenderer {
         }
 
         preparedBuffer.free();
-        return new BuiltBuffer(preparedBuffer.drawBatch(), vertexArray, uniformBuffers, shaderStorageBuffers, commandBuffer, preparedBuffer.drawCommands());
+        return new BuiltBuffer(preparedBuffer.drawBatch(), vertexArray, uniformBuffers, shaderStorageBuffers, commandBuffer, drawCommands); // FlorianMichael - stream vertex and index data through a persistently mapped ring buffer
+    }
+
+    // FlorianMichael - stream vertex and index data through a persistently mapped ring buffer
+    private static VertexArray streamVertexData(final PreparedBuffer preparedBuffer, final List<DrawCommand> drawCommands) {
+        final StreamingBuffer streamingBuffer = ThinGL.streamingBuffer();
+        if (!streamingBuffer.isSupported()) {
+            return null;
+        }
+
+        final DrawBatch drawBatch = preparedBuffer.drawBatch();
+        final int vertexSize = drawBatch.vertexDataLayout().getSize();
+        final ByteBuffer vertexData = preparedBuffer.vertexBuffer();
+        final ByteBuffer instanceVertexData = preparedBuffer.instanceVertexBuffer();
+        final IndexByteBuffer indexBuffer = preparedBuffer.indexBuffer();
+        final boolean streamIndexData = indexBuffer != null && indexBuffer.buffer() != ThinGL.quadIndexBuffer().getSharedData();
+        if (streamIndexData && indexBuffer.type() != GL11C.GL_UNSIGNED_INT) {
+            return null;
+        }
+
+        long requiredSize = vertexData.remaining() + vertexSize;
+        if (streamIndexData) {
+            requiredSize += indexBuffer.buffer().remaining() + Integer.BYTES;
+        }
+        if (instanceVertexData != null) {
+            requiredSize += instanceVertexData.remaining() + drawBatch.instanceVertexDataLayout().getSize();
+        }
+        if (!streamingBuffer.ensureHasEnoughSpace(requiredSize)) {
+            return null;
+        }
+
+        final VertexArray vertexArray = streamingBuffer.getVertexArray(drawBatch.vertexDataLayout(), drawBatch.instanceVertexDataLayout());
+        if (indexBuffer != null) {
+            if (streamIndexData) {
+                final int indexOffset = (int) (streamingBuffer.write(indexBuffer.buffer(), Integer.BYTES) / Integer.BYTES);
+                vertexArray.setIndexBuffer(indexBuffer.type(), streamingBuffer.getBuffer());
+                drawCommands.replaceAll(drawCommand -> ((DrawElementsCommand) drawCommand).withIndexOffset(indexOffset));
+            } else {
+                vertexArray.setIndexBuffer(indexBuffer.type(), ThinGL.quadIndexBuffer().getSharedBuffer());
+            }
+        }
+
+        final int vertexOffset = (int) (streamingBuffer.write(vertexData, vertexSize) / vertexSize);
+        drawCommands.replaceAll(drawCommand -> drawCommand.withVertexOffset(vertexOffset));
+
+        if (instanceVertexData != null) {
+            final int instanceVertexSize = drawBatch.instanceVertexDataLayout().getSize();
+            final long instanceOffset = streamingBuffer.write(instanceVertexData, instanceVertexSize);
+            vertexArray.setVertexBuffer(1, streamingBuffer.getBuffer(), instanceOffset, instanceVertexSize);
+        }
+        return vertexArray;
     }
+    // FlorianMichael - stream vertex and index data through a persistently mapped ring buffer
 
     public static void freeTemporaryBuffer(final BuiltBuffer builtBuffer) {
         final VertexArray vertexArray = builtBuffer.vertexArray();
-        if (vertexArray.getIndexBuffer() != null) {
+        if (vertexArray.getIndexBuffer() != null && !ThinGL.streamingBuffer().isStreamed(builtBuffer)) { // FlorianMichael - stream vertex and index data through a persistently mapped ring buffer
             if (vertexArray.getIndexBuffer() != ThinGL.quadIndexBuffer().getSharedBuffer()) {
                 ThinGL.gpuBufferPool().returnBuffer((MutableBuffer) vertexArray.getIndexBuffer());
             }
@@ -336,30 +398,26 @@ public class BufferRenderer {
             return;
         }
 
+        ThinGL.profiler().push("BufferRenderer#render"); // FlorianMichael - GPU profiler
         drawBatch.setupAction().run();
         final Program program = drawBatch.program().get();
         if (program != null) {
             program.bind();
             if (program instanceof RegularProgram regularProgram) {
                 regularProgram.configureParameters(modelMatrix);
-                for (Map.Entry<String, Buffer> entry : builtBuffer.uniformBuffers().entrySet()) {
-                    program.setUniformBuffer(entry.getKey(), entry.getValue());
-                }
-                for (Map.Entry<String, Buffer> entry : builtBuffer.shaderStorageBuffers().entrySet()) {
-                    program.setShaderStorageBuffer(entry.getKey(), entry.getValue());
-                }
+                builtBuffer.blockBindings().bind(program, builtBuffer.uniformBuffers(), builtBuffer.shaderStorageBuffers()); // FlorianMichael - uniform handles
             }
         }
 
         // FlorianMichael - add macOS support
-        final de.florianmichael.thingl.encoder.GlCommandEncoder encoder = de.florianmichael.thingl.GlCommands.get();
-        if (encoder instanceof final de.florianmichael.thingl.encoder.AppleCommandEncoder appleEncoder) {
+        final de.florianmichael.thingl.encoder.AppleCommandEncoder appleEncoder = de.florianmichael.thingl.GlCommands.getApple();
+        if (appleEncoder != null) {
             appleEncoder.drawBuiltBuffer(builtBuffer);
         } else {
             if (drawCommands.size() == 1) {
                 final DrawCommand drawCommand = drawCommands.get(0);
                 if (drawCommand instanceof DrawElementsCommand drawElementsCommand) {
-                    vertexArray.drawElements(drawMode, drawElementsCommand.vertexCount(), drawElementsCommand.firstIndex(), drawElementsCommand.instanceCount(), drawElementsCommand.baseVertex(), drawElementsCommand.baseInstance());
+                    vertexArray.drawElements(drawMode, drawElementsCommand.vertexCount(), drawElementsCommand.firstIndex() * DataType.fromGlType(vertexArray.getIndexType()).getSize(), drawElementsCommand.instanceCount(), drawElementsCommand.baseVertex(), drawElementsCommand.baseInstance()); // FlorianMichael - firstIndex is an index, not a byte offset
                 } else if (drawCommand instanceof DrawArraysCommand drawArraysCommand) {
                     vertexArray.drawArrays(drawMode, drawArraysCommand.vertexCount(), drawArraysCommand.firstVertex(), drawArraysCommand.instanceCount(), drawArraysCommand.baseInstance());
                 }
@@ -379,6 +437,7 @@ public class BufferRenderer {
             program.unbind();
         }
         drawBatch.cleanupAction().run();
+        ThinGL.profiler().pop(); // FlorianMichael - GPU profiler
     }
 
 }
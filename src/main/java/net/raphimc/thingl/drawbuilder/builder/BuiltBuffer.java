@@ -20,12 +20,21 @@ package net.raphimc.thingl.drawbuilder.builder;
 import net.raphimc.thingl.drawbuilder.DrawBatch;
 import net.raphimc.thingl.drawbuilder.builder.command.DrawCommand;
 import net.raphimc.thingl.resource.buffer.Buffer;
+import net.raphimc.thingl.resource.program.Program;
 import net.raphimc.thingl.resource.vertexarray.VertexArray;
+import org.lwjgl.opengl.GL31C;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
-public record BuiltBuffer(DrawBatch drawBatch, VertexArray vertexArray, Map<String, Buffer> uniformBuffers, Map<String, Buffer> shaderStorageBuffers, Buffer commandBuffer, List<DrawCommand> drawCommands) {
+public record BuiltBuffer(DrawBatch drawBatch, VertexArray vertexArray, Map<String, Buffer> uniformBuffers, Map<String, Buffer> shaderStorageBuffers, Buffer commandBuffer, List<DrawCommand> drawCommands, BlockBindings blockBindings) { // FlorianMichael - uniform handles
+
+    // FlorianMichael - uniform handles
+    public BuiltBuffer(final DrawBatch drawBatch, final VertexArray vertexArray, final Map<String, Buffer> uniformBuffers, final Map<String, Buffer> shaderStorageBuffers, final Buffer commandBuffer, final List<DrawCommand> drawCommands) {
+        this(drawBatch, vertexArray, uniformBuffers, shaderStorageBuffers, commandBuffer, drawCommands, new BlockBindings());
+    }
+    // FlorianMichael - uniform handles
 
     public void free() {
         this.vertexArray.freeFully();
@@ -40,4 +49,74 @@ public record BuiltBuffer(DrawBatch drawBatch, VertexArray vertexArray, Map<Stri
         }
     }
 
+    // FlorianMichael - uniform handles
+    /**
+     * The uniform and shader storage buffers of a built buffer resolved to block indices of the program they were last bound to.<br>
+     * The indices are resolved again if the program, its link generation or the number of buffers changed. Buffers for blocks which the program doesn't declare are skipped.
+     * {@link #invalidate()} has to be called after a buffer in the maps was replaced.
+     */
+    public static final class BlockBindings {
+
+        private static final int[] EMPTY_INDICES = new int[0];
+        private static final Buffer[] EMPTY_BUFFERS = new Buffer[0];
+
+        private Program program;
+        private int programLinkGeneration;
+        private int uniformBufferCount;
+        private int shaderStorageBufferCount;
+        private int[] uniformBlockIndices = EMPTY_INDICES;
+        private Buffer[] uniformBlockBuffers = EMPTY_BUFFERS;
+        private int[] shaderStorageBlockIndices = EMPTY_INDICES;
+        private Buffer[] shaderStorageBlockBuffers = EMPTY_BUFFERS;
+
+        public void invalidate() {
+            this.program = null;
+        }
+
+        void bind(final Program program, final Map<String, Buffer> uniformBuffers, final Map<String, Buffer> shaderStorageBuffers) {
+            if (this.program != program || this.programLinkGeneration != program.getLinkGeneration() || this.uniformBufferCount != uniformBuffers.size() || this.shaderStorageBufferCount != shaderStorageBuffers.size()) {
+                this.resolve(program, uniformBuffers, shaderStorageBuffers);
+            }
+            for (int i = 0; i < this.uniformBlockIndices.length; i++) {
+                program.setUniformBuffer(this.uniformBlockIndices[i], this.uniformBlockBuffers[i]);
+            }
+            for (int i = 0; i < this.shaderStorageBlockIndices.length; i++) {
+                program.setShaderStorageBuffer(this.shaderStorageBlockIndices[i], this.shaderStorageBlockBuffers[i]);
+            }
+        }
+
+        private void resolve(final Program program, final Map<String, Buffer> uniformBuffers, final Map<String, Buffer> shaderStorageBuffers) {
+            this.program = program;
+            this.programLinkGeneration = program.getLinkGeneration();
+            this.uniformBufferCount = uniformBuffers.size();
+            this.shaderStorageBufferCount = shaderStorageBuffers.size();
+            final int[] uniformBlockIndices = new int[uniformBuffers.size()];
+            final Buffer[] uniformBlockBuffers = new Buffer[uniformBuffers.size()];
+            int count = 0;
+            for (Map.Entry<String, Buffer> entry : uniformBuffers.entrySet()) {
+                final int blockIndex = program.getUniformBlockIndex(entry.getKey());
+                if (blockIndex != GL31C.GL_INVALID_INDEX) {
+                    uniformBlockIndices[count] = blockIndex;
+                    uniformBlockBuffers[count++] = entry.getValue();
+                }
+            }
+            this.uniformBlockIndices = Arrays.copyOf(uniformBlockIndices, count);
+            this.uniformBlockBuffers = Arrays.copyOf(uniformBlockBuffers, count);
+            final int[] shaderStorageBlockIndices = new int[shaderStorageBuffers.size()];
+            final Buffer[] shaderStorageBlockBuffers = new Buffer[shaderStorageBuffers.size()];
+            count = 0;
+            for (Map.Entry<String, Buffer> entry : shaderStorageBuffers.entrySet()) {
+                final int blockIndex = program.getShaderStorageBlockIndex(entry.getKey());
+                if (blockIndex != GL31C.GL_INVALID_INDEX) {
+                    shaderStorageBlockIndices[count] = blockIndex;
+                    shaderStorageBlockBuffers[count++] = entry.getValue();
+                }
+            }
+            this.shaderStorageBlockIndices = Arrays.copyOf(shaderStorageBlockIndices, count);
+            this.shaderStorageBlockBuffers = Arrays.copyOf(shaderStorageBlockBuffers, count);
+        }
+
+    }
+    // FlorianMichael - uniform handles
+
 }
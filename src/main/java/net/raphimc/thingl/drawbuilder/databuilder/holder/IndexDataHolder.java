@@ -20,6 +20,7 @@ package net.raphimc.thingl.drawbuilder.databuilder.holder;
 import net.raphimc.thingl.drawbuilder.builder.BufferBuilder;
 import net.raphimc.thingl.drawbuilder.databuilder.writer.BufferWriter;
 import net.raphimc.thingl.drawbuilder.index.QuadIndexBuffer;
+import org.lwjgl.system.MemoryUtil;
 
 public class IndexDataHolder extends BufferWriter<IndexDataHolder> {
 
@@ -57,6 +58,17 @@ public class IndexDataHolder extends BufferWriter<IndexDataHolder> {
         return this;
     }
 
+    // FlorianMichael - add multithreaded draw recording
+    public void append(final IndexDataHolder other, final int vertexOffset) {
+        final long otherBaseAddress = other.bufferBuilder.getBaseAddress();
+        this.bufferBuilder.ensureHasEnoughSpace(other.indexCount * Integer.BYTES);
+        for (int i = 0; i < other.indexCount; i++) {
+            this.bufferBuilder.putInt(MemoryUtil.memGetInt(otherBaseAddress + (long) i * Integer.BYTES) + vertexOffset);
+        }
+        this.indexCount += other.indexCount;
+    }
+    // FlorianMichael - add multithreaded draw recording
+
     public int getIndexCount() {
         return this.indexCount;
     }
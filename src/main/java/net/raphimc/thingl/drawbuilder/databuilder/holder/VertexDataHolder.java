@@ -68,6 +68,28 @@ public class VertexDataHolder extends BufferDataWriter<VertexDataHolder> {
         }
     }
 
+    // FlorianMichael - add multithreaded draw recording
+    public void append(final VertexDataHolder other) {
+        final IntList otherConnectedPrimitiveIndices = other.getConnectedPrimitiveIndices();
+        if (otherConnectedPrimitiveIndices != null && this.vertexCount != 0) {
+            this.endConnectedPrimitive();
+        }
+
+        final int vertexOffset = this.vertexCount;
+        this.bufferBuilder.putBytes(other.bufferBuilder.getBaseAddress(), other.bufferBuilder.getPosition());
+        this.vertexCount += other.vertexCount;
+        if (otherConnectedPrimitiveIndices != null) {
+            if (this.connectedPrimitiveIndices == null) {
+                this.connectedPrimitiveIndices = new IntArrayList();
+                this.connectedPrimitiveIndices.add(0);
+            }
+            for (int i = 1; i < otherConnectedPrimitiveIndices.size(); i++) {
+                this.connectedPrimitiveIndices.add(vertexOffset + otherConnectedPrimitiveIndices.getInt(i));
+            }
+        }
+    }
+    // FlorianMichael - add multithreaded draw recording
+
     public int getVertexCount() {
         return this.vertexCount;
     }
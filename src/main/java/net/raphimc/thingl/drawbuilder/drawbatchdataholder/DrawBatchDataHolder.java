@@ -62,6 +62,37 @@ public class DrawBatchDataHolder {
         }
     }
 
+    // FlorianMichael - add multithreaded draw recording
+    public void append(final DrawBatchDataHolder other) {
+        if (!other.uniformDataHolders.isEmpty() || !other.shaderStorageDataHolders.isEmpty()) {
+            throw new UnsupportedOperationException("Appending uniform or shader storage data is not supported");
+        }
+        final boolean hasVertices = this.vertexDataHolder != null && this.vertexDataHolder.getVertexCount() != 0;
+        final boolean otherHasVertices = other.vertexDataHolder != null && other.vertexDataHolder.getVertexCount() != 0;
+        if (hasVertices && otherHasVertices) {
+            if (this.hasIndexDataHolder() != other.hasIndexDataHolder()) {
+                throw new IllegalStateException("Cannot append draw batch data with and without index data");
+            }
+            if (this.hasInstanceVertexDataHolder() || other.hasInstanceVertexDataHolder()) {
+                throw new UnsupportedOperationException("Cannot append instanced draw batch data if both sides contain vertex data");
+            }
+        }
+
+        if (other.indexDataHolder != null) {
+            if (this.indexDataHolder == null) {
+                this.indexDataHolder = new IndexDataHolder(this.bufferBuilderSupplier.get());
+            }
+            this.indexDataHolder.append(other.indexDataHolder, hasVertices ? this.vertexDataHolder.getVertexCount() : 0);
+        }
+        if (other.vertexDataHolder != null) {
+            this.getVertexDataHolder().append(other.vertexDataHolder);
+        }
+        if (other.instanceVertexDataHolder != null) {
+            this.getInstanceVertexDataHolder().append(other.instanceVertexDataHolder);
+        }
+    }
+    // FlorianMichael - add multithreaded draw recording
+
     public boolean hasVertexDataHolder() {
         return this.vertexDataHolder != null;
     }
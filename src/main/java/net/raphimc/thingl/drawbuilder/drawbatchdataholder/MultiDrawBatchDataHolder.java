@@ -75,6 +75,14 @@ public abstract class MultiDrawBatchDataHolder {
         return this.getDrawBatchDataHolder(drawBatch).getShaderStorageDataHolder(name, shaderStorageDataHolderSupplier);
     }
 
+    // FlorianMichael - add multithreaded draw recording
+    public void append(final MultiDrawBatchDataHolder other) {
+        for (Map.Entry<DrawBatch, DrawBatchDataHolder> entry : other.drawBatches.entrySet()) {
+            this.getDrawBatchDataHolder(entry.getKey()).append(entry.getValue());
+        }
+    }
+    // FlorianMichael - add multithreaded draw recording
+
     public void draw() {
         this.draw(RenderMathUtil.getIdentityMatrix());
     }
@@ -0,0 +1,110 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.drawbuilder.drawbatchdataholder;
+
+import net.raphimc.thingl.ThinGL;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Records draw batch data on worker threads and merges it on the render thread.<br>
+ * Every submitted task gets its own {@link RecordingMultiDrawBatchDataHolder} backed by unpooled buffer builders. When merging, the recordings are appended in submission order, so the result is the same as if all tasks had been run sequentially on the render thread.<br>
+ * Tasks must not issue GL calls. Renderers can be used by creating a separate instance per task and buffering into the provided holder.
+ */
+public class ParallelDrawBatchRecorder {
+
+    private final Executor executor;
+    private final List<Submission> submissions = new ArrayList<>();
+
+    public ParallelDrawBatchRecorder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelDrawBatchRecorder(final Executor executor) {
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Void> submit(final Consumer<MultiDrawBatchDataHolder> task) {
+        final RecordingMultiDrawBatchDataHolder recording = new RecordingMultiDrawBatchDataHolder();
+        final CompletableFuture<Void> future = CompletableFuture.runAsync(() -> task.accept(recording), this.executor);
+        synchronized (this.submissions) {
+            this.submissions.add(new Submission(recording, future));
+        }
+        return future;
+    }
+
+    public void mergeInto(final MultiDrawBatchDataHolder target) {
+        ThinGL.get().assertOnRenderThread();
+        final List<Submission> submissions;
+        synchronized (this.submissions) {
+            submissions = new ArrayList<>(this.submissions);
+            this.submissions.clear();
+        }
+
+        Throwable failure = null;
+        for (Submission submission : submissions) {
+            try {
+                submission.future().join();
+                if (failure == null) {
+                    target.append(submission.recording());
+                }
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } finally {
+                submission.recording().free();
+            }
+        }
+        if (failure != null) {
+            throw new RuntimeException("Failed to record draw batch data", failure);
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (this.submissions) {
+            return this.submissions.size();
+        }
+    }
+
+    public void free() {
+        final List<Submission> submissions;
+        synchronized (this.submissions) {
+            submissions = new ArrayList<>(this.submissions);
+            this.submissions.clear();
+        }
+        for (Submission submission : submissions) {
+            try {
+                submission.future().join();
+            } catch (CompletionException ignored) {
+            } finally {
+                submission.recording().free();
+            }
+        }
+    }
+
+    private record Submission(RecordingMultiDrawBatchDataHolder recording, CompletableFuture<Void> future) {
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.drawbuilder.drawbatchdataholder;
+
+import net.raphimc.thingl.drawbuilder.DrawBatch;
+import net.raphimc.thingl.drawbuilder.builder.BufferBuilder;
+import org.joml.Matrix4f;
+
+/**
+ * Thread confined draw batch data holder which can be filled on any thread.<br>
+ * It can't be drawn directly, instead it has to be appended to another {@link MultiDrawBatchDataHolder} on the render thread (See {@link ParallelDrawBatchRecorder}).
+ */
+public class RecordingMultiDrawBatchDataHolder extends MultiDrawBatchDataHolder {
+
+    @Override
+    public void draw(final Matrix4f modelMatrix) {
+        throw new UnsupportedOperationException("Recorded draw batch data has to be appended to another MultiDrawBatchDataHolder before drawing");
+    }
+
+    @Override
+    public void draw(final DrawBatch drawBatch, final Matrix4f modelMatrix) {
+        throw new UnsupportedOperationException("Recorded draw batch data has to be appended to another MultiDrawBatchDataHolder before drawing");
+    }
+
+    @Override
+    protected DrawBatchDataHolder createDrawBatchDataHolder(final DrawBatch drawBatch) {
+        return new DrawBatchDataHolder(BufferBuilder::new, BufferBuilder::free);
+    }
+
+}
@@ -23,6 +23,7 @@ import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.drawbuilder.DrawBatch;
 import net.raphimc.thingl.drawbuilder.builder.BufferBuilder;
 import net.raphimc.thingl.drawbuilder.builder.BuiltBuffer;
+import net.raphimc.thingl.drawbuilder.builder.command.DrawArraysCommand;
 import net.raphimc.thingl.drawbuilder.builder.command.DrawCommand;
 import net.raphimc.thingl.drawbuilder.builder.command.DrawElementsCommand;
 import net.raphimc.thingl.resource.buffer.Buffer;
@@ -31,11 +32,14 @@ import net.raphimc.thingl.resource.buffer.MutableBuffer;
 import net.raphimc.thingl.resource.vertexarray.VertexArray;
 import net.raphimc.thingl.util.ArenaMemoryAllocator;
 import net.raphimc.thingl.util.BufferUtil;
+import net.raphimc.thingl.util.joml.ExtendedAABBf;
+import org.joml.FrustumIntersection;
 import org.lwjgl.opengl.GL11C;
 import org.lwjgl.opengl.GL15C;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -44,6 +48,11 @@ public class MultiDrawBuilder {
 
     private static final long MAX_BUFFER_SIZE = 1024 * 1024 * 1024;
     private static final long MIN_RESIZE_AMOUNT = 10 * 1024 * 1024;
+    private static final long DEFRAGMENT_STAGING_SIZE = 4 * 1024 * 1024; // FlorianMichael - add defragmentation
+    /**
+     * Shader storage block which maps the draw index (gl_DrawID) to the command slot. Multidraw shaders index their per draw data with {@code drawSlots[gl_DrawID]}.
+     */
+    public static final String DRAW_SLOTS_BLOCK_NAME = "ssbo_DrawSlots"; // FlorianMichael - add frustum culling
 
     private final DrawBatch drawBatch;
     private final ArenaMemoryAllocator vertexAllocator;
@@ -58,6 +67,33 @@ public class MultiDrawBuilder {
     private final Int2ObjectMap<List<DrawCommand>> bufferDrawCommands = new Int2ObjectOpenHashMap<>(); // id -> draw commands
     private final IntSet renderBuffers = new IntLinkedOpenHashSet();
     private BuiltBuffer builtBuffer;
+    // FlorianMichael - add frustum culling and incremental command buffer updates
+    private final int commandSize;
+    private final DrawCommand emptyDrawCommand;
+    private final Int2ObjectMap<ExtendedAABBf> bufferBounds = new Int2ObjectOpenHashMap<>(); // id -> bounds
+    private final Int2IntMap renderEntries = new Int2IntOpenHashMap(); // id -> entry index
+    private final List<DrawCommand> commandSlots = new ArrayList<>();
+    private int emptyCommandSlotCount;
+    // Render entries (structure of arrays, in render list order, removed entries have an id of -1)
+    private int entryCount;
+    private int[] entryIds = new int[64];
+    private int[] entryFirstSlots = new int[64];
+    private int[] entrySlotCounts = new int[64];
+    private float[] entryMinX = new float[64]; // NaN if the entry has no bounds
+    private float[] entryMinY = new float[64];
+    private float[] entryMinZ = new float[64];
+    private float[] entryMaxX = new float[64];
+    private float[] entryMaxY = new float[64];
+    private float[] entryMaxZ = new float[64];
+    private final MutableBuffer drawSlotBuffer; // draw index -> command slot (identity) for the full command buffer
+    private int drawSlotCapacity;
+    private final List<DrawCommand> visibleDrawCommands = new ArrayList<>();
+    private MutableBuffer visibleCommandBuffer;
+    private MutableBuffer visibleDrawSlotBuffer; // draw index -> command slot for the culled command buffer
+    private BuiltBuffer visibleBuiltBuffer;
+    private boolean culled;
+    // FlorianMichael - add frustum culling and incremental command buffer updates
+    private Buffer stagingBuffer; // FlorianMichael - add defragmentation
 
     public MultiDrawBuilder(final DrawBatch drawBatch) {
         this.drawBatch = drawBatch;
@@ -70,16 +106,45 @@ public class MultiDrawBuilder {
             this.indexAllocator = null;
         }
         this.commandBuffer = new MutableBuffer(DrawCommand.BYTES * 512L, GL15C.GL_DYNAMIC_DRAW);
+        // FlorianMichael - add frustum culling and incremental command buffer updates
+        if (drawBatch.drawMode().isIndexed()) {
+            this.commandSize = DrawElementsCommand.BYTES;
+            this.emptyDrawCommand = new DrawElementsCommand(0, 0);
+        } else {
+            this.commandSize = DrawArraysCommand.BYTES;
+            this.emptyDrawCommand = new DrawArraysCommand(0, 0);
+        }
+        this.renderEntries.defaultReturnValue(-1);
+        this.drawSlotBuffer = new MutableBuffer(Integer.BYTES * 512L, GL15C.GL_DYNAMIC_DRAW);
+        // FlorianMichael - add frustum culling and incremental command buffer updates
         this.vertexArray = new VertexArray();
         this.vertexArray.setVertexBuffer(0, this.vertexBuffer, 0, drawBatch.vertexDataLayout().getSize());
         this.vertexArray.configureVertexDataLayout(0, 0, drawBatch.vertexDataLayout(), 0);
         if (this.indexBuffer != null) {
             this.vertexArray.setIndexBuffer(GL11C.GL_UNSIGNED_INT, this.indexBuffer);
         }
+        // FlorianMichael - add frustum culling and incremental command buffer updates
+        this.builtBuffer = new BuiltBuffer(this.drawBatch, this.vertexArray, new HashMap<>(), new HashMap<>(), this.commandBuffer, this.commandSlots);
+        this.builtBuffer.shaderStorageBuffers().put(DRAW_SLOTS_BLOCK_NAME, this.drawSlotBuffer);
+        this.ensureDrawSlotCapacity(512);
+        // FlorianMichael - add frustum culling and incremental command buffer updates
         this.rebuildCommandBuffer();
     }
 
+    // FlorianMichael - add frustum culling and incremental command buffer updates
     public int uploadBuffer(final BuiltBuffer builtBuffer) {
+        return this.uploadBuffer(builtBuffer, null);
+    }
+
+    /**
+     * Uploads the given buffer.
+     *
+     * @param builtBuffer The buffer to upload
+     * @param bounds The bounds of the buffer used for frustum culling or null if the buffer should never be culled
+     * @return The id of the uploaded buffer
+     */
+    public int uploadBuffer(final BuiltBuffer builtBuffer, final ExtendedAABBf bounds) {
+    // FlorianMichael - add frustum culling and incremental command buffer updates
         final List<DrawCommand> drawCommands = new ArrayList<>(builtBuffer.drawCommands());
         if (builtBuffer.drawBatch() != this.drawBatch) {
             throw new IllegalArgumentException("BuiltBuffer is not compatible");
@@ -153,9 +218,41 @@ public class MultiDrawBuilder {
         this.storedVertexBuffers.put(id, address);
 
         this.bufferDrawCommands.put(id, drawCommands);
+        if (bounds != null) { // FlorianMichael - add frustum culling and incremental command buffer updates
+            this.bufferBounds.put(id, bounds);
+        }
         return id;
     }
 
+    // FlorianMichael - add frustum culling and incremental command buffer updates
+    public void setBounds(final int id, final ExtendedAABBf bounds) {
+        if (!this.storedVertexBuffers.containsKey(id)) {
+            throw new IllegalArgumentException("BuiltBuffer is not uploaded");
+        }
+        if (bounds != null) {
+            this.bufferBounds.put(id, bounds);
+        } else {
+            this.bufferBounds.remove(id);
+        }
+        final int entry = this.renderEntries.get(id);
+        if (entry != -1) {
+            this.writeEntryBounds(entry, bounds);
+        }
+    }
+
+    /**
+     * Draw data of a command is indexed by its slot. The {@value #DRAW_SLOTS_BLOCK_NAME} shader storage block maps the draw index of the submitted command buffer to the slot,
+     * so shaders have to use {@code drawSlots[gl_DrawID]}. Without culling this is the identity (removed buffers leave empty commands behind), culled command buffers are compacted.
+     *
+     * @param id The id of the buffer
+     * @return The index of the first command slot of the buffer or -1 if it is not in the render list
+     */
+    public int getFirstCommandSlot(final int id) {
+        final int entry = this.renderEntries.get(id);
+        return entry != -1 ? this.entryFirstSlots[entry] : -1;
+    }
+    // FlorianMichael - add frustum culling and incremental command buffer updates
+
     public void removeBuffer(final int id) {
         if (!this.storedVertexBuffers.containsKey(id)) {
             throw new IllegalArgumentException("BuiltBuffer is not uploaded");
@@ -168,6 +265,7 @@ public class MultiDrawBuilder {
             this.indexAllocator.free(indexAddress);
         }
         this.bufferDrawCommands.remove(id);
+        this.bufferBounds.remove(id); // FlorianMichael - add frustum culling and incremental command buffer updates
     }
 
     public void clearBuffers() {
@@ -177,43 +275,200 @@ public class MultiDrawBuilder {
         this.idGenerator.set(0);
     }
 
+    // FlorianMichael - add frustum culling and incremental command buffer updates
     public void addToRenderList(final int id) {
         if (!this.storedVertexBuffers.containsKey(id)) {
             throw new IllegalArgumentException("BuiltBuffer is not uploaded");
         }
-        this.renderBuffers.add(id);
+        if (!this.renderBuffers.add(id)) {
+            return;
+        }
+
+        this.culled = false;
+        final int firstSlot = this.commandSlots.size();
+        final int slotCount = this.bufferDrawCommands.get(id).size();
+        if ((long) (firstSlot + slotCount) * this.commandSize > this.commandBuffer.getSize()) {
+            this.rebuildCommandBuffer();
+        } else {
+            this.addRenderEntry(id);
+            this.uploadCommandSlots(firstSlot, slotCount);
+        }
     }
 
     public void removeFromRenderList(final int id) {
         if (!this.storedVertexBuffers.containsKey(id)) {
             throw new IllegalArgumentException("BuiltBuffer is not uploaded");
         }
-        this.renderBuffers.remove(id);
+        if (!this.renderBuffers.remove(id)) {
+            return;
+        }
+
+        this.culled = false;
+        final int entry = this.renderEntries.remove(id);
+        final int firstSlot = this.entryFirstSlots[entry];
+        final int slotCount = this.entrySlotCounts[entry];
+        this.entryIds[entry] = -1;
+        for (int i = 0; i < slotCount; i++) {
+            this.commandSlots.set(firstSlot + i, this.emptyDrawCommand);
+        }
+        this.emptyCommandSlotCount += slotCount;
+        if (this.emptyCommandSlotCount > this.commandSlots.size() / 2) {
+            this.rebuildCommandBuffer();
+        } else {
+            this.uploadCommandSlots(firstSlot, slotCount);
+        }
     }
 
     public void clearRenderList() {
         this.renderBuffers.clear();
+        this.rebuildCommandBuffer();
     }
 
+    /**
+     * Rebuilds and compacts the command buffer from the render list.<br>
+     * Adding and removing buffers from the render list patches the command buffer incrementally, so this is only needed to reclaim the slots of removed buffers earlier.
+     */
     public void rebuildCommandBuffer() {
-        final List<DrawCommand> drawCommands = new ArrayList<>(this.renderBuffers.size());
+        this.culled = false;
+        this.renderEntries.clear();
+        this.commandSlots.clear();
+        this.entryCount = 0;
+        this.emptyCommandSlotCount = 0;
         for (int id : this.renderBuffers) {
-            drawCommands.addAll(this.bufferDrawCommands.get(id));
+            this.addRenderEntry(id);
+        }
+
+        final long requiredSize = (long) this.commandSlots.size() * this.commandSize;
+        if (this.commandBuffer.getSize() < requiredSize) {
+            this.commandBuffer.setSize(requiredSize + requiredSize / 2);
         }
+        this.uploadCommandSlots(0, this.commandSlots.size());
+    }
+
+    /**
+     * Culls the buffers in the render list against the given frustum and writes the commands of the visible buffers into a separate command buffer.<br>
+     * The culled result is used by {@link #getBuiltBuffer()} until the render list changes or {@link #resetCulling()} is called, so this has to be called every frame after the camera has moved.
+     *
+     * @param frustum The frustum in the coordinate space of the buffer bounds
+     */
+    public void cull(final FrustumIntersection frustum) {
+        this.visibleDrawCommands.clear();
         final BufferBuilder commandBufferBuilder = ThinGL.bufferBuilderPool().borrowBufferBuilder();
-        commandBufferBuilder.ensureHasEnoughSpace(drawCommands.size() * DrawCommand.BYTES);
-        for (DrawCommand drawCommand : drawCommands) {
-            drawCommand.write(commandBufferBuilder);
+        final BufferBuilder drawSlotBufferBuilder = ThinGL.bufferBuilderPool().borrowBufferBuilder();
+        for (int entry = 0; entry < this.entryCount; entry++) {
+            if (this.entryIds[entry] == -1) {
+                continue;
+            }
+            if (!Float.isNaN(this.entryMinX[entry]) && !frustum.testAab(this.entryMinX[entry], this.entryMinY[entry], this.entryMinZ[entry], this.entryMaxX[entry], this.entryMaxY[entry], this.entryMaxZ[entry])) {
+                continue;
+            }
+            final int firstSlot = this.entryFirstSlots[entry];
+            final int slotCount = this.entrySlotCounts[entry];
+            commandBufferBuilder.ensureHasEnoughSpace(slotCount * this.commandSize);
+            drawSlotBufferBuilder.ensureHasEnoughSpace(slotCount * Integer.BYTES);
+            for (int slot = firstSlot; slot < firstSlot + slotCount; slot++) {
+                final DrawCommand drawCommand = this.commandSlots.get(slot);
+                this.visibleDrawCommands.add(drawCommand);
+                drawCommand.write(commandBufferBuilder);
+                drawSlotBufferBuilder.putInt(slot);
+            }
         }
+
         final ByteBuffer commandData = commandBufferBuilder.finish();
-        this.commandBuffer.ensureSize(commandData.remaining());
-        this.commandBuffer.upload(commandData);
+        final ByteBuffer drawSlotData = drawSlotBufferBuilder.finish();
+        if (this.visibleBuiltBuffer == null) {
+            this.visibleCommandBuffer = new MutableBuffer(Math.max(commandData.remaining(), this.commandSize * 512L), GL15C.GL_STREAM_DRAW);
+            this.visibleDrawSlotBuffer = new MutableBuffer(Math.max(drawSlotData.remaining(), Integer.BYTES * 512L), GL15C.GL_STREAM_DRAW);
+            this.visibleBuiltBuffer = new BuiltBuffer(this.drawBatch, this.vertexArray, new HashMap<>(), new HashMap<>(), this.visibleCommandBuffer, this.visibleDrawCommands);
+            this.visibleBuiltBuffer.shaderStorageBuffers().put(DRAW_SLOTS_BLOCK_NAME, this.visibleDrawSlotBuffer);
+        } else if (this.visibleCommandBuffer.getSize() < commandData.remaining()) {
+            this.visibleCommandBuffer.setSize(commandData.remaining() + commandData.remaining() / 2L);
+        }
+        if (this.visibleDrawSlotBuffer.getSize() < drawSlotData.remaining()) {
+            this.visibleDrawSlotBuffer.setSize(drawSlotData.remaining() + drawSlotData.remaining() / 2L);
+        }
+        if (commandData.hasRemaining()) {
+            this.visibleCommandBuffer.upload(commandData);
+            this.visibleDrawSlotBuffer.upload(drawSlotData);
+        }
         ThinGL.bufferBuilderPool().returnBufferBuilder(commandBufferBuilder);
-        this.builtBuffer = new BuiltBuffer(this.drawBatch, this.vertexArray, new HashMap<>(), new HashMap<>(), this.commandBuffer, drawCommands);
+        ThinGL.bufferBuilderPool().returnBufferBuilder(drawSlotBufferBuilder);
+        this.culled = true;
+    }
+
+    public void resetCulling() {
+        this.culled = false;
+    }
+
+    public boolean isCulled() {
+        return this.culled;
+    }
+
+    public int getVisibleDrawCommandCount() {
+        return this.culled ? this.visibleDrawCommands.size() : this.commandSlots.size() - this.emptyCommandSlotCount;
     }
+    // FlorianMichael - add frustum culling and incremental command buffer updates
+
+    // FlorianMichael - add defragmentation
+    public void defragment() {
+        this.defragment(Long.MAX_VALUE);
+    }
+
+    public void defragment(final long maxMovedBytes) {
+        boolean changed = false;
+
+        final List<ArenaMemoryAllocator.Move> vertexMoves = this.vertexAllocator.defragment(maxMovedBytes);
+        if (!vertexMoves.isEmpty()) {
+            this.applyMoves(this.vertexBuffer, vertexMoves);
+            final int vertexSize = this.drawBatch.vertexDataLayout().getSize();
+            for (Int2LongMap.Entry entry : this.storedVertexBuffers.int2LongEntrySet()) {
+                final long newAddress = getMovedAddress(vertexMoves, entry.getLongValue());
+                if (newAddress != entry.getLongValue()) {
+                    final int vertexOffset = (int) ((newAddress - entry.getLongValue()) / vertexSize);
+                    this.bufferDrawCommands.get(entry.getIntKey()).replaceAll(drawCommand -> drawCommand.withVertexOffset(vertexOffset));
+                    entry.setValue(newAddress);
+                }
+            }
+            changed = true;
+        }
+
+        if (this.indexAllocator != null) {
+            final List<ArenaMemoryAllocator.Move> indexMoves = this.indexAllocator.defragment(maxMovedBytes);
+            if (!indexMoves.isEmpty()) {
+                this.applyMoves(this.indexBuffer, indexMoves);
+                for (Int2LongMap.Entry entry : this.storedIndexBuffers.int2LongEntrySet()) {
+                    final long newAddress = getMovedAddress(indexMoves, entry.getLongValue());
+                    if (newAddress != entry.getLongValue()) {
+                        final int indexOffset = (int) ((newAddress - entry.getLongValue()) / Integer.BYTES);
+                        this.bufferDrawCommands.get(entry.getIntKey()).replaceAll(drawCommand -> ((DrawElementsCommand) drawCommand).withIndexOffset(indexOffset));
+                        entry.setValue(newAddress);
+                    }
+                }
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            this.rebuildCommandBuffer();
+        }
+    }
+    // FlorianMichael - add defragmentation
 
     public void free() {
+        this.builtBuffer.shaderStorageBuffers().clear(); // FlorianMichael - uniform handles (the draw data buffer stays in the map between draws, but is owned by the caller)
         this.builtBuffer.free();
+        // FlorianMichael - add frustum culling and incremental command buffer updates
+        this.drawSlotBuffer.free();
+        if (this.visibleCommandBuffer != null) {
+            this.visibleCommandBuffer.free();
+            this.visibleDrawSlotBuffer.free();
+        }
+        // FlorianMichael - add frustum culling and incremental command buffer updates
+        // FlorianMichael - add defragmentation
+        if (this.stagingBuffer != null) {
+            this.stagingBuffer.free();
+        }
+        // FlorianMichael - add defragmentation
     }
 
     public ArenaMemoryAllocator getVertexAllocator() {
@@ -225,7 +480,119 @@ public class MultiDrawBuilder {
     }
 
     public BuiltBuffer getBuiltBuffer() {
-        return this.builtBuffer;
+        return this.culled ? this.visibleBuiltBuffer : this.builtBuffer; // FlorianMichael - add frustum culling and incremental command buffer updates
+    }
+
+    // FlorianMichael - add frustum culling and incremental command buffer updates
+    private void addRenderEntry(final int id) {
+        if (this.entryCount == this.entryIds.length) {
+            final int newCapacity = this.entryCount * 2;
+            this.entryIds = Arrays.copyOf(this.entryIds, newCapacity);
+            this.entryFirstSlots = Arrays.copyOf(this.entryFirstSlots, newCapacity);
+            this.entrySlotCounts = Arrays.copyOf(this.entrySlotCounts, newCapacity);
+            this.entryMinX = Arrays.copyOf(this.entryMinX, newCapacity);
+            this.entryMinY = Arrays.copyOf(this.entryMinY, newCapacity);
+            this.entryMinZ = Arrays.copyOf(this.entryMinZ, newCapacity);
+            this.entryMaxX = Arrays.copyOf(this.entryMaxX, newCapacity);
+            this.entryMaxY = Arrays.copyOf(this.entryMaxY, newCapacity);
+            this.entryMaxZ = Arrays.copyOf(this.entryMaxZ, newCapacity);
+        }
+
+        final int entry = this.entryCount++;
+        final List<DrawCommand> drawCommands = this.bufferDrawCommands.get(id);
+        this.entryIds[entry] = id;
+        this.entryFirstSlots[entry] = this.commandSlots.size();
+        this.entrySlotCounts[entry] = drawCommands.size();
+        for (DrawCommand drawCommand : drawCommands) {
+            this.commandSlots.add(drawCommand);
+        }
+        this.ensureDrawSlotCapacity(this.commandSlots.size());
+        this.writeEntryBounds(entry, this.bufferBounds.get(id));
+        this.renderEntries.put(id, entry);
+    }
+
+    private void writeEntryBounds(final int entry, final ExtendedAABBf bounds) {
+        if (bounds != null) {
+            this.entryMinX[entry] = bounds.minX;
+            this.entryMinY[entry] = bounds.minY;
+            this.entryMinZ[entry] = bounds.minZ;
+            this.entryMaxX[entry] = bounds.maxX;
+            this.entryMaxY[entry] = bounds.maxY;
+            this.entryMaxZ[entry] = bounds.maxZ;
+        } else {
+            this.entryMinX[entry] = Float.NaN;
+        }
+    }
+
+    private void ensureDrawSlotCapacity(final int slotCount) {
+        if (slotCount <= this.drawSlotCapacity) {
+            return;
+        }
+
+        final int capacity = Math.max(slotCount, this.drawSlotCapacity * 2);
+        final BufferBuilder drawSlotBufferBuilder = ThinGL.bufferBuilderPool().borrowBufferBuilder();
+        drawSlotBufferBuilder.ensureHasEnoughSpace(capacity * Integer.BYTES);
+        for (int slot = 0; slot < capacity; slot++) {
+            drawSlotBufferBuilder.putInt(slot);
+        }
+        this.drawSlotBuffer.ensureSize((long) capacity * Integer.BYTES);
+        this.drawSlotBuffer.upload(drawSlotBufferBuilder.finish());
+        ThinGL.bufferBuilderPool().returnBufferBuilder(drawSlotBufferBuilder);
+        this.drawSlotCapacity = capacity;
+    }
+
+    private void uploadCommandSlots(final int firstSlot, final int slotCount) {
+        if (slotCount == 0) {
+            return;
+        }
+        final BufferBuilder commandBufferBuilder = ThinGL.bufferBuilderPool().borrowBufferBuilder();
+        commandBufferBuilder.ensureHasEnoughSpace(slotCount * this.commandSize);
+        for (int slot = firstSlot; slot < firstSlot + slotCount; slot++) {
+            this.commandSlots.get(slot).write(commandBufferBuilder);
+        }
+        this.commandBuffer.upload((long) firstSlot * this.commandSize, commandBufferBuilder.finish());
+        ThinGL.bufferBuilderPool().returnBufferBuilder(commandBufferBuilder);
+    }
+    // FlorianMichael - add frustum culling and incremental command buffer updates
+
+    // FlorianMichael - add defragmentation
+    private void applyMoves(final Buffer buffer, final List<ArenaMemoryAllocator.Move> moves) {
+        for (ArenaMemoryAllocator.Move move : moves) {
+            final long distance = move.oldAddress() - move.newAddress(); // Moves always go towards lower addresses
+            if (distance >= Math.min(move.size(), DEFRAGMENT_STAGING_SIZE)) { // Copying overlapping ranges within the same buffer is not allowed, so copy in chunks which don't overlap
+                final long chunkSize = Math.min(move.size(), distance);
+                for (long offset = 0; offset < move.size(); offset += chunkSize) {
+                    buffer.copyTo(buffer, move.oldAddress() + offset, move.newAddress() + offset, Math.min(chunkSize, move.size() - offset));
+                }
+            } else {
+                if (this.stagingBuffer == null) {
+                    this.stagingBuffer = new ImmutableBuffer(DEFRAGMENT_STAGING_SIZE, 0);
+                }
+                for (long offset = 0; offset < move.size(); offset += DEFRAGMENT_STAGING_SIZE) {
+                    final long chunkSize = Math.min(DEFRAGMENT_STAGING_SIZE, move.size() - offset);
+                    buffer.copyTo(this.stagingBuffer, move.oldAddress() + offset, 0L, chunkSize);
+                    this.stagingBuffer.copyTo(buffer, 0L, move.newAddress() + offset, chunkSize);
+                }
+            }
+        }
+    }
+
+    private static long getMovedAddress(final List<ArenaMemoryAllocator.Move> moves, final long address) {
+        int low = 0;
+        int high = moves.size() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final ArenaMemoryAllocator.Move move = moves.get(mid);
+            if (address < move.oldAddress()) {
+                high = mid - 1;
+            } else if (address >= move.oldAddress() + move.size()) {
+                low = mid + 1;
+            } else {
+                return move.newAddress() + (address - move.oldAddress());
+            }
+        }
+        return address;
     }
+    // FlorianMichael - add defragmentation
 
 }
@@ -23,16 +23,24 @@ import it.unimi.dsi.fastutil.objects.Reference2IntMap;
 import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
-import net.lenni0451.commons.arrays.ArrayUtils;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceSet;
 import net.lenni0451.commons.math.MathUtils;
+import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.drawbuilder.DrawBatch;
 import net.raphimc.thingl.drawbuilder.builder.BufferRenderer;
 import net.raphimc.thingl.drawbuilder.builder.BuiltBuffer;
 import net.raphimc.thingl.drawbuilder.drawbatchdataholder.PersistentMultiDrawBatchDataHolder;
+import net.raphimc.thingl.drawbuilder.vertex.VertexDataLayout;
 import net.raphimc.thingl.resource.buffer.Buffer;
+import net.raphimc.thingl.resource.program.Program;
+import net.raphimc.thingl.util.RadixSort;
 import net.raphimc.thingl.util.RenderMathUtil;
+import net.raphimc.thingl.util.joml.ExtendedAABBf;
+import org.joml.FrustumIntersection;
 import org.joml.Matrix4f;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -43,6 +51,19 @@ public class MultiDrawRenderer {
     private final Reference2ObjectMap<DrawBatch, MultiDrawBuilder> drawBatches = new Reference2ObjectLinkedOpenHashMap<>();
     private final AtomicInteger idGenerator = new AtomicInteger();
     private final Int2ObjectMap<Reference2IntMap<DrawBatch>> drawBatchBuffers = new Int2ObjectOpenHashMap<>();
+    // FlorianMichael - state sorted draw submission
+    private final ReferenceSet<DrawBatch> orderedDrawBatches = new ReferenceOpenHashSet<>();
+    private final Reference2IntMap<DrawBatch> layers = new Reference2IntOpenHashMap<>();
+    private final Reference2IntMap<VertexDataLayout> vertexDataLayoutIds = new Reference2IntOpenHashMap<>();
+    private final Reference2IntMap<Runnable> setupActionIds = new Reference2IntOpenHashMap<>();
+    private final RadixSort radixSort = new RadixSort();
+    private boolean stateSorting;
+    private boolean preserveSubmissionOrder;
+    private DrawBatch[] sortedDrawBatches = DrawBatch.EMPTY_ARRAY;
+    private long[] sortKeys = new long[0];
+    private int[] sortValues = new int[0];
+    private int lastProgramChangeCount;
+    // FlorianMichael - state sorted draw submission
 
     public MultiDrawRenderer() {
         this(DrawBatch.EMPTY_ARRAY, DrawBatch.EMPTY_ARRAY);
@@ -51,14 +72,22 @@ public class MultiDrawRenderer {
     public MultiDrawRenderer(final DrawBatch[] firstOrderedDrawBatches, final DrawBatch[] lastOrderedDrawBatches) {
         this.firstOrderedDrawBatches = firstOrderedDrawBatches;
         this.lastOrderedDrawBatches = lastOrderedDrawBatches;
+        // FlorianMichael - state sorted draw submission
+        this.orderedDrawBatches.addAll(Arrays.asList(firstOrderedDrawBatches));
+        this.orderedDrawBatches.addAll(Arrays.asList(lastOrderedDrawBatches));
+        // FlorianMichael - state sorted draw submission
     }
 
     public int uploadDrawBatchBuffers(final PersistentMultiDrawBatchDataHolder multiDrawBatchDataHolder) {
+        return this.uploadDrawBatchBuffers(multiDrawBatchDataHolder, null); // FlorianMichael - add frustum culling
+    }
+
+    public int uploadDrawBatchBuffers(final PersistentMultiDrawBatchDataHolder multiDrawBatchDataHolder, final ExtendedAABBf bounds) { // FlorianMichael - add frustum culling
         final int id = this.idGenerator.getAndIncrement();
         final Reference2IntMap<DrawBatch> multiDrawIds = new Reference2IntOpenHashMap<>();
         for (Map.Entry<DrawBatch, BuiltBuffer> entry : multiDrawBatchDataHolder.getBuiltDrawBatches().entrySet()) {
             final MultiDrawBuilder multiDrawBuilder = this.drawBatches.computeIfAbsent(entry.getKey(), drawBatch -> new MultiDrawBuilder((DrawBatch) drawBatch));
-            multiDrawIds.put(entry.getKey(), multiDrawBuilder.uploadBuffer(entry.getValue()));
+            multiDrawIds.put(entry.getKey(), multiDrawBuilder.uploadBuffer(entry.getValue(), bounds)); // FlorianMichael - add frustum culling
         }
         this.drawBatchBuffers.put(id, multiDrawIds);
         return id;
@@ -117,39 +146,83 @@ public class MultiDrawRenderer {
         }
     }
 
+    // FlorianMichael - add frustum culling
+    public void cull(final FrustumIntersection frustum) {
+        for (MultiDrawBuilder multiDrawBuilder : this.drawBatches.values()) {
+            multiDrawBuilder.cull(frustum);
+        }
+    }
+
+    public void resetCulling() {
+        for (MultiDrawBuilder multiDrawBuilder : this.drawBatches.values()) {
+            multiDrawBuilder.resetCulling();
+        }
+    }
+    // FlorianMichael - add frustum culling
+
+    // FlorianMichael - add defragmentation
+    public void defragment() {
+        for (MultiDrawBuilder multiDrawBuilder : this.drawBatches.values()) {
+            multiDrawBuilder.defragment();
+        }
+    }
+
+    public void defragment(final long maxMovedBytesPerDrawBatch) {
+        for (MultiDrawBuilder multiDrawBuilder : this.drawBatches.values()) {
+            multiDrawBuilder.defragment(maxMovedBytesPerDrawBatch);
+        }
+    }
+    // FlorianMichael - add defragmentation
+
     public void draw() {
         this.draw(RenderMathUtil.getIdentityMatrix());
     }
 
     public void draw(final Matrix4f modelMatrix) {
         if (this.hasDrawBatches()) {
+            ThinGL.profiler().push("MultiDrawRenderer#draw"); // FlorianMichael - GPU profiler
             for (DrawBatch drawBatch : this.firstOrderedDrawBatches) {
                 this.draw(drawBatch, modelMatrix);
             }
-            for (DrawBatch drawBatch : this.drawBatches.keySet()) {
-                if (!ArrayUtils.contains(this.firstOrderedDrawBatches, drawBatch) && !ArrayUtils.contains(this.lastOrderedDrawBatches, drawBatch)) {
-                    this.draw(drawBatch, modelMatrix);
+            // FlorianMichael - state sorted draw submission
+            if (this.stateSorting) {
+                this.drawSorted(modelMatrix, null);
+            } else {
+                for (DrawBatch drawBatch : this.drawBatches.keySet()) {
+                    if (!this.orderedDrawBatches.contains(drawBatch)) {
+                        this.draw(drawBatch, modelMatrix);
+                    }
                 }
             }
+            // FlorianMichael - state sorted draw submission
             for (DrawBatch drawBatch : this.lastOrderedDrawBatches) {
                 this.draw(drawBatch, modelMatrix);
             }
+            ThinGL.profiler().pop(); // FlorianMichael - GPU profiler
         }
     }
 
     public void draw(final Matrix4f modelMatrix, final Buffer drawDataBuffer) {
         if (this.hasDrawBatches()) {
+            ThinGL.profiler().push("MultiDrawRenderer#draw"); // FlorianMichael - GPU profiler
             for (DrawBatch drawBatch : this.firstOrderedDrawBatches) {
                 this.draw(drawBatch, modelMatrix, drawDataBuffer);
             }
-            for (DrawBatch drawBatch : this.drawBatches.keySet()) {
-                if (!ArrayUtils.contains(this.firstOrderedDrawBatches, drawBatch) && !ArrayUtils.contains(this.lastOrderedDrawBatches, drawBatch)) {
-                    this.draw(drawBatch, modelMatrix, drawDataBuffer);
+            // FlorianMichael - state sorted draw submission
+            if (this.stateSorting) {
+                this.drawSorted(modelMatrix, drawDataBuffer);
+            } else {
+                for (DrawBatch drawBatch : this.drawBatches.keySet()) {
+                    if (!this.orderedDrawBatches.contains(drawBatch)) {
+                        this.draw(drawBatch, modelMatrix, drawDataBuffer);
+                    }
                 }
             }
+            // FlorianMichael - state sorted draw submission
             for (DrawBatch drawBatch : this.lastOrderedDrawBatches) {
                 this.draw(drawBatch, modelMatrix, drawDataBuffer);
             }
+            ThinGL.profiler().pop(); // FlorianMichael - GPU profiler
         }
     }
 
@@ -160,11 +233,143 @@ public class MultiDrawRenderer {
     public void draw(final DrawBatch drawBatch, final Matrix4f modelMatrix, final Buffer drawDataBuffer) {
         final MultiDrawBuilder multiDrawBuilder = this.drawBatches.get(drawBatch);
         if (multiDrawBuilder != null) {
-            multiDrawBuilder.getBuiltBuffer().shaderStorageBuffers().put("ssbo_DrawData", drawDataBuffer);
-            BufferRenderer.render(multiDrawBuilder.getBuiltBuffer(), modelMatrix);
-            multiDrawBuilder.getBuiltBuffer().shaderStorageBuffers().remove("ssbo_DrawData");
+            // FlorianMichael - uniform handles
+            final BuiltBuffer builtBuffer = multiDrawBuilder.getBuiltBuffer();
+            if (builtBuffer.shaderStorageBuffers().put("ssbo_DrawData", drawDataBuffer) != drawDataBuffer) {
+                builtBuffer.blockBindings().invalidate();
+            }
+            BufferRenderer.render(builtBuffer, modelMatrix);
+            // FlorianMichael - uniform handles
+        }
+    }
+
+    // FlorianMichael - state sorted draw submission
+    private void drawSorted(final Matrix4f modelMatrix, final Buffer drawDataBuffer) {
+        final int count = this.sortDrawBatches();
+        final boolean restoreProgramBinding = ThinGL.config().restoreProgramBinding();
+        Program boundProgram = null;
+        int programChangeCount = 0;
+        for (int i = 0; i < count; i++) {
+            final DrawBatch drawBatch = this.sortedDrawBatches[this.sortValues[i]];
+            final Program program = drawBatch.program().get();
+            if (program != boundProgram) {
+                programChangeCount++;
+                // Keep the program bound for the whole run, so the per batch bind and restore only hit the tracked state
+                if (restoreProgramBinding) {
+                    if (boundProgram != null) {
+                        boundProgram.unbind();
+                    }
+                    if (program != null) {
+                        program.bind();
+                    }
+                }
+                boundProgram = program;
+            }
+            this.draw(drawBatch, modelMatrix, drawDataBuffer);
+        }
+        if (restoreProgramBinding && boundProgram != null) {
+            boundProgram.unbind();
+        }
+        this.lastProgramChangeCount = programChangeCount;
+        Arrays.fill(this.sortedDrawBatches, 0, count, null);
+    }
+
+    /**
+     * Computes a sort key for every draw batch which isn't first or last ordered and radix sorts them.<br>
+     * Key layout (most significant first): layer (8 bits), program (16 bits), vertex data layout (12 bits), setup action (16 bits), draw mode (4 bits).
+     * If submission order is preserved, the key only contains the layer.
+     *
+     * @return The number of sorted draw batches
+     */
+    private int sortDrawBatches() {
+        final int maxCount = this.drawBatches.size();
+        if (this.sortKeys.length < maxCount) {
+            this.sortedDrawBatches = new DrawBatch[maxCount];
+            this.sortKeys = new long[maxCount];
+            this.sortValues = new int[maxCount];
+        }
+
+        int count = 0;
+        for (DrawBatch drawBatch : this.drawBatches.keySet()) {
+            if (this.orderedDrawBatches.contains(drawBatch)) {
+                continue;
+            }
+
+            long key = (long) this.layers.getInt(drawBatch) << 56;
+            if (!this.preserveSubmissionOrder) {
+                final Program program = drawBatch.program().get();
+                key |= (long) ((program != null ? program.getGlId() : 0) & 0xFFFF) << 40;
+                key |= (long) (this.getId(this.vertexDataLayoutIds, drawBatch.vertexDataLayout()) & 0xFFF) << 28;
+                key |= (long) (this.getId(this.setupActionIds, drawBatch.setupAction()) & 0xFFFF) << 12;
+                key |= (long) (drawBatch.drawMode().ordinal() & 0xF) << 8;
+            }
+            this.sortedDrawBatches[count] = drawBatch;
+            this.sortKeys[count] = key;
+            this.sortValues[count] = count;
+            count++;
+        }
+        this.radixSort.sort(this.sortKeys, this.sortValues, count);
+        return count;
+    }
+
+    private <T> int getId(final Reference2IntMap<T> ids, final T object) {
+        int id = ids.getInt(object);
+        if (id == 0) {
+            id = ids.size() + 1;
+            ids.put(object, id);
+        }
+        return id;
+    }
+
+    /**
+     * Enables or disables state sorted draw submission.<br>
+     * When enabled, draw batches (except the first and last ordered ones) are sorted by layer, program, vertex data layout and setup action
+     * so consecutive batches share as much state as possible and redundant binds are skipped by the {@link net.raphimc.thingl.wrapper.TrackingGLStateManager}.
+     *
+     * @param stateSorting Whether state sorting should be enabled
+     */
+    public void setStateSorting(final boolean stateSorting) {
+        this.stateSorting = stateSorting;
+    }
+
+    public boolean isStateSorting() {
+        return this.stateSorting;
+    }
+
+    /**
+     * If enabled, state sorting only sorts by layer and keeps the submission order within a layer (Required for transparent geometry).
+     *
+     * @param preserveSubmissionOrder Whether the submission order should be preserved
+     */
+    public void setPreserveSubmissionOrder(final boolean preserveSubmissionOrder) {
+        this.preserveSubmissionOrder = preserveSubmissionOrder;
+    }
+
+    public boolean isPreserveSubmissionOrder() {
+        return this.preserveSubmissionOrder;
+    }
+
+    /**
+     * Sets the layer of the draw batch. Lower layers are drawn first when state sorting is enabled.
+     *
+     * @param drawBatch The draw batch
+     * @param layer The layer (0-255)
+     */
+    public void setLayer(final DrawBatch drawBatch, final int layer) {
+        if (layer < 0 || layer > 255) {
+            throw new IllegalArgumentException("Layer must be between 0 and 255");
         }
+        this.layers.put(drawBatch, layer);
+    }
+
+    public int getLayer(final DrawBatch drawBatch) {
+        return this.layers.getInt(drawBatch);
+    }
+
+    public int getLastProgramChangeCount() {
+        return this.lastProgramChangeCount;
     }
+    // FlorianMichael - state sorted draw submission
 
     public String getMemoryAllocationString() {
         long vertexUsedMemory = 0;
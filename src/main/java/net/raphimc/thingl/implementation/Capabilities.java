@@ -18,9 +18,10 @@
 package net.raphimc.thingl.implementation;
 
 import org.joml.Options;
-import org.lwjgl.opengl.GL;
-import org.lwjgl.opengl.GL11C;
+import org.lwjgl.opengl.GL20C;
 import org.lwjgl.opengl.GL30C;
+import org.lwjgl.opengl.GL41C;
+import org.lwjgl.opengl.GLCapabilities;
 import org.lwjgl.opengl.NVFramebufferMixedSamples;
 
 public class Capabilities {
@@ -35,6 +36,12 @@ public class Capabilities {
     private final int maxSamples;
     private final int maxColorAttachments;
     private final int maxArrayTextureLayers;
+    private final int maxTextureImageUnits; // FlorianMichael - batched textures in Renderer2D
+    private final boolean supportsBindlessTextures; // FlorianMichael - batched textures in Renderer2D
+    private final boolean supportsProgramBinaries; // FlorianMichael - program binary cache
+    private final boolean supportsBufferStorage; // FlorianMichael - add streaming buffer
+    private final boolean supportsKHRParallelShaderCompile; // FlorianMichael - shader preprocessor
+    private final boolean supportsARBParallelShaderCompile; // FlorianMichael - shader preprocessor
     private final boolean supportsNVFramebufferMixedSamples;
     private final int nvFramebufferMixedSamplesMaxRasterSamples;
     private final boolean supportsJomlUnsafe;
@@ -48,12 +55,19 @@ public class Capabilities {
         this.isTwelveMonkeysWebpReaderPresent = isClassPresent("com.twelvemonkeys.imageio.plugins.webp.WebPImageReader");
         this.isJsvgPresent = isClassPresent("com.github.weisj.jsvg.SVGDocument");
 
-        this.maxSamples = GL11C.glGetInteger(GL30C.GL_MAX_SAMPLES);
-        this.maxColorAttachments = GL11C.glGetInteger(GL30C.GL_MAX_COLOR_ATTACHMENTS);
-        this.maxArrayTextureLayers = GL11C.glGetInteger(GL30C.GL_MAX_ARRAY_TEXTURE_LAYERS);
-        this.supportsNVFramebufferMixedSamples = GL.getCapabilities().GL_NV_framebuffer_mixed_samples;
+        this.maxSamples = de.florianmichael.thingl.GlCommands.get().glGetInteger(GL30C.GL_MAX_SAMPLES);
+        this.maxColorAttachments = de.florianmichael.thingl.GlCommands.get().glGetInteger(GL30C.GL_MAX_COLOR_ATTACHMENTS);
+        this.maxArrayTextureLayers = de.florianmichael.thingl.GlCommands.get().glGetInteger(GL30C.GL_MAX_ARRAY_TEXTURE_LAYERS);
+        this.maxTextureImageUnits = de.florianmichael.thingl.GlCommands.get().glGetInteger(GL20C.GL_MAX_TEXTURE_IMAGE_UNITS); // FlorianMichael - batched textures in Renderer2D
+        final GLCapabilities glCapabilities = de.florianmichael.thingl.GlCommands.get().getCapabilities(); // FlorianMichael - headless command recording
+        this.supportsBindlessTextures = !de.florianmichael.thingl.GlCommands.isApple() && glCapabilities != null && glCapabilities.GL_ARB_bindless_texture; // FlorianMichael - batched textures in Renderer2D
+        this.supportsProgramBinaries = de.florianmichael.thingl.GlCommands.get().glGetInteger(GL41C.GL_NUM_PROGRAM_BINARY_FORMATS) > 0; // FlorianMichael - program binary cache
+        this.supportsBufferStorage = !de.florianmichael.thingl.GlCommands.isApple() && glCapabilities != null && (glCapabilities.OpenGL44 || glCapabilities.GL_ARB_buffer_storage); // FlorianMichael - add streaming buffer
+        this.supportsKHRParallelShaderCompile = glCapabilities != null && glCapabilities.GL_KHR_parallel_shader_compile; // FlorianMichael - shader preprocessor
+        this.supportsARBParallelShaderCompile = glCapabilities != null && glCapabilities.GL_ARB_parallel_shader_compile; // FlorianMichael - shader preprocessor
+        this.supportsNVFramebufferMixedSamples = glCapabilities != null && glCapabilities.GL_NV_framebuffer_mixed_samples; // FlorianMichael - headless command recording
         if (this.supportsNVFramebufferMixedSamples) {
-            this.nvFramebufferMixedSamplesMaxRasterSamples = GL11C.glGetInteger(NVFramebufferMixedSamples.GL_MAX_RASTER_SAMPLES_EXT);
+            this.nvFramebufferMixedSamplesMaxRasterSamples = de.florianmichael.thingl.GlCommands.get().glGetInteger(NVFramebufferMixedSamples.GL_MAX_RASTER_SAMPLES_EXT);
         } else {
             this.nvFramebufferMixedSamplesMaxRasterSamples = 0;
         }
@@ -146,6 +160,34 @@ public class Capabilities {
         return this.maxArrayTextureLayers;
     }
 
+    // FlorianMichael - batched textures in Renderer2D
+    public int getMaxTextureImageUnits() {
+        return this.maxTextureImageUnits;
+    }
+
+    public boolean supportsBindlessTextures() {
+        return this.supportsBindlessTextures;
+    }
+    // FlorianMichael - batched textures in Renderer2D
+
+    public boolean supportsProgramBinaries() { // FlorianMichael - program binary cache
+        return this.supportsProgramBinaries;
+    }
+
+    public boolean supportsBufferStorage() { // FlorianMichael - add streaming buffer
+        return this.supportsBufferStorage;
+    }
+
+    // FlorianMichael - shader preprocessor
+    public boolean supportsKHRParallelShaderCompile() {
+        return this.supportsKHRParallelShaderCompile;
+    }
+
+    public boolean supportsARBParallelShaderCompile() {
+        return this.supportsARBParallelShaderCompile;
+    }
+    // FlorianMichael - shader preprocessor
+
     public boolean supportsNVFramebufferMixedSamples() {
         return this.supportsNVFramebufferMixedSamples;
     }
@@ -17,10 +17,13 @@
  */
 package net.raphimc.thingl.implementation;
 
+import java.nio.file.Path;
+
 public class Config {
 
     private boolean restoreProgramBinding = false;
     private boolean restoreVertexArrayBinding = false;
+    private Path programBinaryCacheDirectory = null; // FlorianMichael - program binary cache
 
     public boolean restoreProgramBinding() {
         return this.restoreProgramBinding;
@@ -38,4 +41,19 @@ public class Config {
         this.restoreVertexArrayBinding = restoreVertexArrayBinding;
     }
 
+    // FlorianMichael - program binary cache
+    public Path programBinaryCacheDirectory() {
+        return this.programBinaryCacheDirectory;
+    }
+
+    /**
+     * Sets the directory in which linked program binaries are cached between runs. null disables the cache.
+     *
+     * @param programBinaryCacheDirectory The cache directory
+     */
+    public void setProgramBinaryCacheDirectory(final Path programBinaryCacheDirectory) {
+        this.programBinaryCacheDirectory = programBinaryCacheDirectory;
+    }
+    // FlorianMichael - program binary cache
+
 }
@@ -24,7 +24,7 @@ public class Workarounds {
     private final boolean isIntelGpu;
 
     public Workarounds() {
-        final String gpuVendor = GL11C.glGetString(GL11C.GL_VENDOR);
+        final String gpuVendor = de.florianmichael.thingl.GlCommands.get().glGetString(GL11C.GL_VENDOR);
         this.isIntelGpu = gpuVendor != null && gpuVendor.equalsIgnoreCase("Intel");
     }
 
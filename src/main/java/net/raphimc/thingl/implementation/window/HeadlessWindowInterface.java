@@ -0,0 +1,37 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.implementation.window;
+
+/**
+ * Window interface without a window. Meant to be used together with the headless command recording of {@link de.florianmichael.thingl.GlCommands}.
+ */
+public class HeadlessWindowInterface extends WindowInterface {
+
+    public HeadlessWindowInterface(final int framebufferWidth, final int framebufferHeight) {
+        this.callFramebufferResizeCallbacks(framebufferWidth, framebufferHeight);
+    }
+
+    public void setFramebufferSize(final int framebufferWidth, final int framebufferHeight) {
+        this.callFramebufferResizeCallbacks(framebufferWidth, framebufferHeight);
+    }
+
+    @Override
+    public void free() {
+    }
+
+}
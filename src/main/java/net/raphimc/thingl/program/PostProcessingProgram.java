@@ -20,7 +20,7 @@ package net.raphimc.thingl.program;
 import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.drawbuilder.DrawMode;
 import net.raphimc.thingl.resource.program.Program;
-import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderStage;
 import net.raphimc.thingl.util.RenderMathUtil;
 import net.raphimc.thingl.wrapper.GLStateManager;
 import org.joml.Matrix4f;
@@ -29,7 +29,9 @@ import org.lwjgl.opengl.GL11C;
 
 public class PostProcessingProgram extends Program {
 
-    public PostProcessingProgram(final Shader vertexShader, final Shader fragmentShader) {
+    private final String profilerScopeName = this.getClass().getSimpleName().isEmpty() ? PostProcessingProgram.class.getSimpleName() : this.getClass().getSimpleName(); // FlorianMichael - GPU profiler
+
+    public PostProcessingProgram(final ShaderStage vertexShader, final ShaderStage fragmentShader) { // FlorianMichael - program binary cache
         super(vertexShader, fragmentShader);
     }
 
@@ -58,6 +60,7 @@ public class PostProcessingProgram extends Program {
     }
 
     protected void prepareAndRenderInternal(final float xtl, final float ytl, final float xbr, final float ybr) {
+        ThinGL.profiler().push(this.profilerScopeName); // FlorianMichael - GPU profiler
         this.bind();
         ThinGL.glStateStack().push();
         ThinGL.glStateStack().enable(GL11C.GL_BLEND);
@@ -68,6 +71,7 @@ public class PostProcessingProgram extends Program {
         ThinGL.glStateStack().popDepthMask();
         ThinGL.glStateStack().pop();
         this.unbind();
+        ThinGL.profiler().pop(); // FlorianMichael - GPU profiler
     }
 
     protected void renderInternal(final float xtl, final float ytl, final float xbr, final float ybr) {
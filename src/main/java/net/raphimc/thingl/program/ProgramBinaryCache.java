@@ -0,0 +1,245 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.program;
+
+import net.raphimc.thingl.ThinGL;
+import net.raphimc.thingl.resource.program.Program;
+import net.raphimc.thingl.resource.shader.ShaderSource;
+import net.raphimc.thingl.resource.shader.ShaderStage;
+import org.lwjgl.opengl.GL11C;
+import org.lwjgl.opengl.GL41C;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.zip.CRC32;
+
+/**
+ * Caches linked program binaries on disk, so programs don't have to be compiled and linked again on the next start.<br>
+ * Binaries are keyed by a hash of the (preprocessed) shader sources and the GL vendor, renderer and version strings.
+ * The key is computed before any shader is created, {@link ShaderSource} stages are only compiled on a cache miss.<br>
+ * Corrupted, outdated or rejected binaries are deleted and the program is linked from source instead.
+ */
+public class ProgramBinaryCache {
+
+    private static final int MAGIC = 0x54474250; // TGPB
+    private static final int FILE_VERSION = 1;
+    private static final int KEY_SIZE = 32;
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + KEY_SIZE + Integer.BYTES * 2 + Long.BYTES;
+    private static final String FILE_EXTENSION = ".bin";
+
+    private final String driverIdentifier;
+    private int hitCount;
+    private int missCount;
+
+    public ProgramBinaryCache() {
+        this.driverIdentifier = de.florianmichael.thingl.GlCommands.get().glGetString(GL11C.GL_VENDOR) + '\0' + de.florianmichael.thingl.GlCommands.get().glGetString(GL11C.GL_RENDERER) + '\0' + de.florianmichael.thingl.GlCommands.get().glGetString(GL11C.GL_VERSION);
+    }
+
+    public boolean isEnabled() {
+        return ThinGL.config().programBinaryCacheDirectory() != null && ThinGL.capabilities().supportsProgramBinaries();
+    }
+
+    /**
+     * Loads the program from the cache into the bare program object.
+     * On a miss or if the driver rejects the binary, the shader stages are compiled, attached and linked and the resulting binary is stored.
+     *
+     * @param program The program
+     * @param shaders The shader stages of the program
+     */
+    public void linkAndValidate(final Program program, final ShaderStage... shaders) {
+        final Path directory = this.getDirectory();
+        final byte[] key = this.computeKey(shaders);
+        final Path file = this.getFile(directory, key);
+        if (this.load(program, file, key)) {
+            this.hitCount++;
+            program.validate();
+            return;
+        }
+
+        this.missCount++;
+        program.attachShaders(shaders);
+        de.florianmichael.thingl.GlCommands.get().glProgramParameteri(program.getGlId(), GL41C.GL_PROGRAM_BINARY_RETRIEVABLE_HINT, GL11C.GL_TRUE);
+        program.linkAndValidate();
+        this.store(program, directory, file, key);
+    }
+
+    /**
+     * Checks whether a binary for the given shader stages is stored. The binary can still be rejected when it is loaded.
+     *
+     * @param shaders The shader stages of the program
+     * @return True if a binary is stored
+     */
+    public boolean isCached(final ShaderStage... shaders) {
+        return Files.isRegularFile(this.getFile(this.getDirectory(), this.computeKey(shaders)));
+    }
+
+    /**
+     * Deletes all cached program binaries.
+     */
+    public void clear() {
+        final Path directory = ThinGL.config().programBinaryCacheDirectory();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            ThinGL.LOGGER.warn("Failed to clear program binary cache", e);
+        }
+    }
+
+    public int getHitCount() {
+        return this.hitCount;
+    }
+
+    public int getMissCount() {
+        return this.missCount;
+    }
+
+    protected byte[] computeKey(final ShaderStage[] shaders) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        digest.update(this.driverIdentifier.getBytes(StandardCharsets.UTF_8));
+
+        // Defines are part of the preprocessed sources. Sorting makes the key independent of the attachment order
+        final ShaderStage[] sortedShaders = shaders.clone();
+        Arrays.sort(sortedShaders, Comparator.comparingInt(ShaderStage::getType).thenComparing(ShaderStage::getSource));
+        for (ShaderStage shader : sortedShaders) {
+            digest.update(("\0" + shader.getType() + "\0").getBytes(StandardCharsets.UTF_8));
+            digest.update(shader.getSource().getBytes(StandardCharsets.UTF_8));
+        }
+        return digest.digest();
+    }
+
+    private Path getDirectory() {
+        final Path directory = ThinGL.config().programBinaryCacheDirectory();
+        if (directory == null) {
+            throw new IllegalStateException("Program binary cache directory is not set");
+        }
+        return directory;
+    }
+
+    private Path getFile(final Path directory, final byte[] key) {
+        return directory.resolve(HexFormat.of().formatHex(key) + FILE_EXTENSION);
+    }
+
+    private boolean load(final Program program, final Path file, final byte[] key) {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+
+        final String error;
+        ByteBuffer binary = null;
+        try {
+            final byte[] data = Files.readAllBytes(file);
+            final ByteBuffer header = ByteBuffer.wrap(data);
+            if (data.length < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != FILE_VERSION) {
+                error = "Invalid header";
+            } else if (!Arrays.equals(data, header.position(), header.position() + KEY_SIZE, key, 0, KEY_SIZE)) {
+                error = "Key mismatch";
+            } else {
+                header.position(header.position() + KEY_SIZE);
+                final int binaryFormat = header.getInt();
+                final int length = header.getInt();
+                final long checksum = header.getLong();
+                final CRC32 crc = new CRC32();
+                if (length != data.length - HEADER_SIZE) {
+                    error = "Truncated binary";
+                } else if (this.checksum(crc, data, length) != checksum) {
+                    error = "Checksum mismatch";
+                } else {
+                    binary = MemoryUtil.memAlloc(length).put(data, HEADER_SIZE, length).flip();
+                    if (program.loadBinary(binaryFormat, binary)) {
+                        return true;
+                    }
+                    error = "Binary rejected by driver";
+                }
+            }
+        } catch (IOException e) {
+            ThinGL.LOGGER.warn("Failed to read program binary " + file.getFileName(), e);
+            return false;
+        } finally {
+            if (binary != null) {
+                MemoryUtil.memFree(binary);
+            }
+        }
+
+        ThinGL.LOGGER.info("Discarding cached program binary " + file.getFileName() + ": " + error);
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+        return false;
+    }
+
+    private void store(final Program program, final Path directory, final Path file, final byte[] key) {
+        final int[] binaryFormat = new int[1];
+        final ByteBuffer binary = program.getBinary(binaryFormat);
+        if (binary == null) {
+            return;
+        }
+
+        try {
+            final int length = binary.remaining();
+            final byte[] data = new byte[HEADER_SIZE + length];
+            binary.get(data, HEADER_SIZE, length);
+            ByteBuffer.wrap(data).putInt(MAGIC).putInt(FILE_VERSION).put(key).putInt(binaryFormat[0]).putInt(length).putLong(this.checksum(new CRC32(), data, length));
+
+            Files.createDirectories(directory);
+            final Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                Files.write(tempFile, data);
+                try {
+                    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            ThinGL.LOGGER.warn("Failed to write program binary " + file.getFileName(), e);
+        } finally {
+            MemoryUtil.memFree(binary);
+        }
+    }
+
+    private long checksum(final CRC32 crc, final byte[] data, final int length) {
+        crc.update(data, HEADER_SIZE, length);
+        return crc.getValue();
+    }
+
+}
@@ -0,0 +1,347 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.program;
+
+import net.raphimc.thingl.ThinGL;
+import net.raphimc.thingl.resource.program.Program;
+import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderSource;
+import net.raphimc.thingl.resource.shader.ShaderStage;
+import net.raphimc.thingl.util.GlSlPreprocessor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lazily compiled permutations of a program.<br>
+ * The permutation space is defined by the {@code #pragma variant} declarations of all shader stages (See {@link GlSlPreprocessor#process(String, String)}).
+ * Every permutation is identified by a key, which packs the selected option index of every declared variant into a bitset.<br>
+ * Looking up compiled permutations is thread safe. Compiling a missing permutation has to happen on the render thread, which is asserted.<br>
+ * Identical preprocessed shader stages are compiled once and shared by all permutations (For example a vertex shader which doesn't use any variant).
+ *
+ * @param <P> The program type
+ */
+public class ProgramVariants<P extends Program> {
+
+    private static final int PARALLEL_SHADER_COMPILER_THREADS = 0xFFFFFFFF; // Let the driver decide
+
+    private final String debugName;
+    private final GlSlPreprocessor.IncludeResolver sourceResolver;
+    private final Map<String, Object> baseDefines;
+    private final Factory<P> factory;
+    private final Stage[] stages;
+
+    private final Map<String, String> sourceCache = new ConcurrentHashMap<>();
+    private final Map<String, ShaderSource> shaderSources = new ConcurrentHashMap<>(); // Type and preprocessed source -> Shader source
+    private final Map<Long, P> programs = new ConcurrentHashMap<>();
+    private volatile List<GlSlPreprocessor.VariantDeclaration> variants;
+    private int[] bitOffsets;
+    private int[] bitCounts;
+
+    public ProgramVariants(final String debugName, final GlSlPreprocessor.IncludeResolver sourceResolver, final Map<String, Object> baseDefines, final Factory<P> factory, final Stage... stages) {
+        if (stages.length == 0) {
+            throw new IllegalArgumentException("At least one shader stage is required");
+        }
+        this.debugName = debugName;
+        this.sourceResolver = sourceResolver;
+        this.baseDefines = Map.copyOf(baseDefines);
+        this.factory = factory;
+        this.stages = stages.clone();
+    }
+
+    public P get() {
+        return this.get(0L);
+    }
+
+    public P get(final Map<String, Object> variantValues) {
+        return this.get(this.getKey(variantValues));
+    }
+
+    public P get(final long key) {
+        final P program = this.programs.get(key);
+        if (program != null) {
+            return program;
+        }
+        ThinGL.get().assertOnRenderThread();
+        return this.programs.computeIfAbsent(key, k -> this.create(k, this.preprocess(k)));
+    }
+
+    /**
+     * Compiles the given permutations ahead of time.<br>
+     * The sources are preprocessed in parallel and all shaders are submitted to the driver before the first compile status is queried,
+     * so drivers supporting parallel shader compilation compile them concurrently. Permutations stored in the program binary cache are not compiled.
+     *
+     * @param keys The permutation keys
+     */
+    public void precompile(final Collection<Long> keys) {
+        final List<Long> missingKeys = keys.stream().distinct().filter(key -> !this.programs.containsKey(key)).toList();
+        if (missingKeys.isEmpty()) {
+            return;
+        }
+        ThinGL.get().assertOnRenderThread();
+        this.getVariants(); // Ensure variants are parsed before going parallel
+
+        if (ThinGL.capabilities().supportsKHRParallelShaderCompile()) {
+            de.florianmichael.thingl.GlCommands.get().glMaxShaderCompilerThreadsKHR(PARALLEL_SHADER_COMPILER_THREADS);
+        } else if (ThinGL.capabilities().supportsARBParallelShaderCompile()) {
+            de.florianmichael.thingl.GlCommands.get().glMaxShaderCompilerThreadsARB(PARALLEL_SHADER_COMPILER_THREADS);
+        }
+
+        final ProgramBinaryCache programBinaryCache = ThinGL.programBinaryCache();
+        final List<GlSlPreprocessor.Result[]> sources = missingKeys.parallelStream().map(this::preprocess).toList();
+        final List<ShaderSource[]> shaders = new ArrayList<>(missingKeys.size());
+        try {
+            for (GlSlPreprocessor.Result[] stageSources : sources) {
+                final ShaderSource[] stageShaders = this.createShaderSources(stageSources);
+                shaders.add(stageShaders);
+                if (!programBinaryCache.isEnabled() || !programBinaryCache.isCached(stageShaders)) {
+                    for (ShaderSource shader : stageShaders) {
+                        shader.compileDeferred();
+                    }
+                }
+            }
+            for (int i = 0; i < missingKeys.size(); i++) {
+                final long key = missingKeys.get(i);
+                final P program = this.factory.create(shaders.get(i), this.getDefines(key)); // Finishes the deferred compiles
+                program.setDebugName(this.debugName + this.getVariantValues(key));
+                shaders.set(i, null);
+                if (this.programs.putIfAbsent(key, program) != null) {
+                    program.freeFully();
+                }
+            }
+        } catch (Throwable e) {
+            for (ShaderSource[] stageShaders : shaders) {
+                if (stageShaders != null) {
+                    for (ShaderSource shader : stageShaders) {
+                        shader.free();
+                    }
+                }
+            }
+            throw e;
+        }
+    }
+
+    public void precompileAll() {
+        final long permutationCount = this.getPermutationCount();
+        final List<Long> keys = new ArrayList<>();
+        for (long index = 0; index < permutationCount; index++) {
+            long key = 0;
+            long remaining = index;
+            for (int i = 0; i < this.variants.size(); i++) {
+                final int optionCount = this.variants.get(i).getOptionCount();
+                key |= (remaining % optionCount) << this.bitOffsets[i];
+                remaining /= optionCount;
+            }
+            keys.add(key);
+        }
+        this.precompile(keys);
+    }
+
+    /**
+     * Computes the permutation key for the given variant values.<br>
+     * Toggle variants are enabled by {@link Boolean#TRUE}, all other variants are matched by the string representation of their value.
+     * Variants which are not specified use their default (Toggles off, otherwise the first declared value).
+     *
+     * @param variantValues The variant values
+     * @return The permutation key
+     */
+    public long getKey(final Map<String, Object> variantValues) {
+        final List<GlSlPreprocessor.VariantDeclaration> variants = this.getVariants();
+        long key = 0;
+        int matchedCount = 0;
+        for (int i = 0; i < variants.size(); i++) {
+            final GlSlPreprocessor.VariantDeclaration variant = variants.get(i);
+            if (!variantValues.containsKey(variant.name())) {
+                continue;
+            }
+            matchedCount++;
+            final Object value = variantValues.get(variant.name());
+            final int optionIndex;
+            if (variant.isToggle()) {
+                optionIndex = Boolean.TRUE.equals(value) ? 1 : 0;
+            } else {
+                optionIndex = variant.values().indexOf(String.valueOf(value));
+                if (optionIndex == -1) {
+                    throw new IllegalArgumentException("Invalid value " + value + " for variant " + variant.name() + " (Allowed: " + variant.values() + ")");
+                }
+            }
+            key |= (long) optionIndex << this.bitOffsets[i];
+        }
+        if (matchedCount != variantValues.size()) {
+            throw new IllegalArgumentException("Unknown variants in " + variantValues.keySet() + " (Declared: " + variants + ")");
+        }
+        return key;
+    }
+
+    public Map<String, Object> getVariantValues(final long key) {
+        final List<GlSlPreprocessor.VariantDeclaration> variants = this.getVariants();
+        final Map<String, Object> variantValues = new HashMap<>();
+        for (int i = 0; i < variants.size(); i++) {
+            final GlSlPreprocessor.VariantDeclaration variant = variants.get(i);
+            final int optionIndex = (int) ((key >>> this.bitOffsets[i]) & ((1L << this.bitCounts[i]) - 1));
+            if (optionIndex >= variant.getOptionCount()) {
+                throw new IllegalArgumentException("Invalid permutation key " + key);
+            }
+            variantValues.put(variant.name(), variant.isToggle() ? optionIndex == 1 : variant.values().get(optionIndex));
+        }
+        return variantValues;
+    }
+
+    public Map<String, Object> getDefines(final long key) {
+        final Map<String, Object> defines = new HashMap<>(this.baseDefines);
+        for (Map.Entry<String, Object> entry : this.getVariantValues(key).entrySet()) {
+            if (Boolean.TRUE.equals(entry.getValue())) {
+                defines.put(entry.getKey(), null);
+            } else if (!Boolean.FALSE.equals(entry.getValue())) {
+                defines.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return defines;
+    }
+
+    public List<GlSlPreprocessor.VariantDeclaration> getVariants() {
+        List<GlSlPreprocessor.VariantDeclaration> variants = this.variants;
+        if (variants == null) {
+            synchronized (this) {
+                variants = this.variants;
+                if (variants == null) {
+                    final List<GlSlPreprocessor.VariantDeclaration> declarations = new ArrayList<>();
+                    for (Stage stage : this.stages) {
+                        for (GlSlPreprocessor.VariantDeclaration declaration : this.preprocess(stage, this.baseDefines).variants()) {
+                            GlSlPreprocessor.addVariant(declarations, declaration);
+                        }
+                    }
+                    final int[] bitOffsets = new int[declarations.size()];
+                    final int[] bitCounts = new int[declarations.size()];
+                    int bitOffset = 0;
+                    for (int i = 0; i < declarations.size(); i++) {
+                        bitOffsets[i] = bitOffset;
+                        bitCounts[i] = Math.max(1, 32 - Integer.numberOfLeadingZeros(declarations.get(i).getOptionCount() - 1));
+                        bitOffset += bitCounts[i];
+                    }
+                    if (bitOffset > Long.SIZE) {
+                        throw new IllegalStateException("Too many variants declared for " + this.debugName);
+                    }
+                    this.bitOffsets = bitOffsets;
+                    this.bitCounts = bitCounts;
+                    this.variants = variants = Collections.unmodifiableList(declarations);
+                }
+            }
+        }
+        return variants;
+    }
+
+    public long getPermutationCount() {
+        long permutationCount = 1;
+        for (GlSlPreprocessor.VariantDeclaration variant : this.getVariants()) {
+            permutationCount *= variant.getOptionCount();
+        }
+        return permutationCount;
+    }
+
+    public int getCompiledCount() {
+        return this.programs.size();
+    }
+
+    public void free() {
+        for (P program : this.programs.values()) {
+            program.freeFully();
+        }
+        this.programs.clear();
+        for (ShaderSource shaderSource : this.shaderSources.values()) {
+            shaderSource.free();
+        }
+        this.shaderSources.clear();
+    }
+
+    private GlSlPreprocessor.Result[] preprocess(final long key) {
+        final Map<String, Object> defines = this.getDefines(key);
+        final GlSlPreprocessor.Result[] results = new GlSlPreprocessor.Result[this.stages.length];
+        for (int i = 0; i < this.stages.length; i++) {
+            results[i] = this.preprocess(this.stages[i], defines);
+        }
+        return results;
+    }
+
+    private GlSlPreprocessor.Result preprocess(final Stage stage, final Map<String, Object> defines) {
+        final String path = stage.name() + "." + stage.type().getFileExtension();
+        final GlSlPreprocessor preprocessor = new GlSlPreprocessor();
+        preprocessor.addDefines(defines);
+        preprocessor.setIncludeResolver(this::resolveSource);
+        return preprocessor.process(path, this.resolveSource(path));
+    }
+
+    private String resolveSource(final String name) {
+        return this.sourceCache.computeIfAbsent(name, key -> {
+            try {
+                final String source = this.sourceResolver.resolve(key);
+                if (source == null) {
+                    throw new IllegalStateException("Shader source " + key + " not found");
+                }
+                return source;
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to load shader source " + key, e);
+            }
+        });
+    }
+
+    private P create(final long key, final GlSlPreprocessor.Result[] sources) {
+        final ShaderSource[] shaders = this.createShaderSources(sources);
+        try {
+            final P program = this.factory.create(shaders, this.getDefines(key));
+            program.setDebugName(this.debugName + this.getVariantValues(key));
+            return program;
+        } catch (Throwable e) {
+            for (ShaderSource shader : shaders) {
+                shader.free();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Shader sources are only compiled if the program isn't loaded from the program binary cache.
+     * Stages with the same preprocessed source share one shader source, so they are compiled only once.
+     */
+    private ShaderSource[] createShaderSources(final GlSlPreprocessor.Result[] sources) {
+        final ShaderSource[] shaders = new ShaderSource[this.stages.length];
+        for (int i = 0; i < this.stages.length; i++) {
+            final Stage stage = this.stages[i];
+            final GlSlPreprocessor.Result result = sources[i];
+            shaders[i] = this.shaderSources.computeIfAbsent(stage.type().name() + '\n' + result.source(), key -> new ShaderSource(stage.type(), result.source(), result.sourceMap(), stage.name()));
+        }
+        return shaders;
+    }
+
+    public record Stage(String name, Shader.Type type) {
+    }
+
+    @FunctionalInterface
+    public interface Factory<P extends Program> {
+
+        P create(final ShaderStage[] shaders, final Map<String, Object> defines);
+
+    }
+
+}
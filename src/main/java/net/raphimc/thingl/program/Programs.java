@@ -18,15 +18,16 @@
 package net.raphimc.thingl.program;
 
 import net.lenni0451.commons.lazy.Lazy;
+import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.program.post.impl.*;
+import net.raphimc.thingl.renderer.TextureBatcher;
 import net.raphimc.thingl.resource.program.Program;
 import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderSource;
 import net.raphimc.thingl.util.GlSlPreprocessor;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.lang.reflect.Field;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -34,7 +35,8 @@ import static net.raphimc.thingl.resource.shader.Shader.Type.*;
 
 public class Programs {
 
-    private final Map<String, Shader> shaders = new HashMap<>();
+    private final Map<String, ShaderSource> shaders = new HashMap<>(); // FlorianMichael - program binary cache
+    private final GlSlPreprocessor.IncludeResolver sourceResolver = GlSlPreprocessor.resourceResolver(this.getClass().getClassLoader(), "thingl/shaders/"); // FlorianMichael - shader preprocessor
 
     private final Lazy<RegularProgram> color = Lazy.of(() -> {
         final RegularProgram program = new RegularProgram(this.getShader("regular/color", VERTEX), this.getShader("regular/color", FRAGMENT));
@@ -66,6 +68,10 @@ public class Programs {
         return program;
     });
 
+    // FlorianMichael - batched textures in Renderer2D
+    private final Lazy<ProgramVariants<RegularProgram>> batchedTexture = Lazy.of(() -> new ProgramVariants<>("batched_texture", this.sourceResolver, this.getBatchedTextureDefines(), (shaders, defines) -> new RegularProgram(shaders), new ProgramVariants.Stage("regular/batched_texture", VERTEX), new ProgramVariants.Stage("regular/batched_texture", FRAGMENT))); // FlorianMichael - shader preprocessor
+    // FlorianMichael - batched textures in Renderer2D
+
     private final Lazy<RegularProgram> line = Lazy.of(() -> {
         final RegularProgram program = new RegularProgram(this.getShader("geometry/line", VERTEX), this.getShader("geometry/line", GEOMETRY), this.getShader("geometry/line", FRAGMENT));
         program.setDebugName("line");
@@ -73,13 +79,13 @@ public class Programs {
     });
 
     private final Lazy<RegularProgram> bitmapText = Lazy.of(() -> {
-        final RegularProgram program = new RegularProgram(this.getShader("regular/bitmap_text", VERTEX), this.getShader("regular/bitmap_text", FRAGMENT));
+        final RegularProgram program = new RegularProgram(this.getShader("regular/bitmap_text", VERTEX), this.getShader("regular/bitmap_text", FRAGMENT, this.getTextDefines())); // FlorianMichael - atlas eviction and repacking
         program.setDebugName("bitmap_text");
         return program;
     });
 
     private final Lazy<RegularProgram> sdfText = Lazy.of(() -> {
-        final RegularProgram program = new RegularProgram(this.getShader("regular/sdf_text", VERTEX), this.getShader("regular/sdf_text", FRAGMENT));
+        final RegularProgram program = new RegularProgram(this.getShader("regular/sdf_text", VERTEX), this.getShader("regular/sdf_text", FRAGMENT, this.getTextDefines())); // FlorianMichael - atlas eviction and repacking
         program.setDebugName("sdf_text");
         return program;
     });
@@ -126,15 +132,9 @@ public class Programs {
         return program;
     });
 
-    private final Lazy<MSAAProgram> msaa = Lazy.of(() -> {
-        // FlorianMichael - macOS support
-        final Map<String, Object> defines = new HashMap<>();
-        defines.put("samples", 4);
-        final MSAAProgram program = new MSAAProgram(this.getShader("post/post_processing", Shader.Type.VERTEX), this.getShader("post/msaa", Shader.Type.FRAGMENT, defines), 4);
-        // FlorianMichael - macOS support
-        program.setDebugName("msaa");
-        return program;
-    });
+    // FlorianMichael - shader preprocessor
+    private final Lazy<ProgramVariants<MSAAProgram>> msaa = Lazy.of(() -> new ProgramVariants<>("msaa", this.sourceResolver, Map.of(), (shaders, defines) -> new MSAAProgram(shaders[0], shaders[1], Integer.parseInt(defines.get("samples").toString())), new ProgramVariants.Stage("post/post_processing", VERTEX), new ProgramVariants.Stage("post/msaa", FRAGMENT)));
+    // FlorianMichael - shader preprocessor
 
     private final Lazy<RegularProgram> instancedColor = Lazy.of(() -> {
         final RegularProgram program = new RegularProgram(this.getShader("instancing/color", VERTEX), this.getShader("regular/color", FRAGMENT));
@@ -174,6 +174,16 @@ public class Programs {
         return this.colorizedTexture.get();
     }
 
+    // FlorianMichael - batched textures in Renderer2D
+    public RegularProgram getBatchedTexture() {
+        return this.batchedTexture.get().get(); // FlorianMichael - shader preprocessor
+    }
+
+    public RegularProgram getBatchedColorizedTexture() {
+        return this.batchedTexture.get().get(Map.of("COLORIZED", true)); // FlorianMichael - shader preprocessor
+    }
+    // FlorianMichael - batched textures in Renderer2D
+
     public RegularProgram getLine() {
         return this.line.get();
     }
@@ -215,9 +225,15 @@ public class Programs {
     }
 
     public MSAAProgram getMsaa() {
-        return this.msaa.get();
+        return this.getMsaa(4); // FlorianMichael - shader preprocessor
     }
 
+    // FlorianMichael - shader preprocessor
+    public MSAAProgram getMsaa(final int samples) {
+        return this.msaa.get().get(Map.of("samples", samples));
+    }
+    // FlorianMichael - shader preprocessor
+
     public RegularProgram getInstancedColor() {
         return this.instancedColor.get();
     }
@@ -230,38 +246,64 @@ public class Programs {
         return this.multidrawLine.get();
     }
 
-    protected Shader getShader(final String name, final Shader.Type type) {
+    protected ShaderSource getShader(final String name, final Shader.Type type) { // FlorianMichael - program binary cache
         return this.getShader(name, type, Map.of());
     }
 
-    protected Shader getShader(final String name, final Shader.Type type, final Map<String, Object> defines) {
-        return this.shaders.computeIfAbsent(name + "." + type.getFileExtension(), path -> {
+    protected ShaderSource getShader(final String name, final Shader.Type type, final Map<String, Object> defines) { // FlorianMichael - program binary cache
+        final String path = name + "." + type.getFileExtension(); // FlorianMichael - batched textures in Renderer2D
+        return this.shaders.computeIfAbsent(defines.isEmpty() ? path : path + defines, key -> { // FlorianMichael - batched textures in Renderer2D
             try {
-                final InputStream stream = this.getClass().getClassLoader().getResourceAsStream("thingl/shaders/" + path);
-                if (stream == null) {
+                // FlorianMichael - shader preprocessor
+                final String source = this.sourceResolver.resolve(path);
+                if (source == null) {
                     throw new IOException("Shader " + name + " not found");
                 }
-                final String source = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
                 final GlSlPreprocessor preprocessor = new GlSlPreprocessor();
                 preprocessor.addDefines(defines);
-                final Shader shader = new Shader(type, preprocessor.process(source));
-                shader.setDebugName(name);
-                return shader;
+                preprocessor.setIncludeResolver(this.sourceResolver);
+                final GlSlPreprocessor.Result result = preprocessor.process(path, source);
+                return new ShaderSource(type, result.source(), result.sourceMap(), name); // FlorianMichael - program binary cache
+                // FlorianMichael - shader preprocessor
             } catch (Throwable e) {
                 throw new RuntimeException("Failed to load shader " + name, e);
             }
         });
     }
 
+    // FlorianMichael - batched textures in Renderer2D
+    private Map<String, Object> getBatchedTextureDefines() {
+        final Map<String, Object> defines = new HashMap<>();
+        if (ThinGL.capabilities().supportsBindlessTextures()) {
+            defines.put("BINDLESS", 1);
+        } else {
+            defines.put("SAMPLER_COUNT", TextureBatcher.getSamplerCount());
+        }
+        return defines;
+    }
+    // FlorianMichael - batched textures in Renderer2D
+
+    // FlorianMichael - atlas eviction and repacking
+    private Map<String, Object> getTextDefines() {
+        return Map.of("SAMPLER_COUNT", TextureBatcher.getSamplerCount()); // The text renderers never create more atlases than texture units
+    }
+    // FlorianMichael - atlas eviction and repacking
+
     public void free() {
         Class<?> clazz = this.getClass();
         while (clazz != null) {
             for (Field field : clazz.getDeclaredFields()) {
                 if (field.getType() == Lazy.class) {
                     try {
-                        final Lazy<? extends Program> lazy = (Lazy<? extends Program>) field.get(this);
+                        final Lazy<?> lazy = (Lazy<?>) field.get(this);
                         if (lazy.isInitialized()) {
-                            lazy.get().freeFully();
+                            // FlorianMichael - shader preprocessor
+                            if (lazy.get() instanceof ProgramVariants<?> programVariants) {
+                                programVariants.free();
+                            } else {
+                                ((Program) lazy.get()).freeFully();
+                            }
+                            // FlorianMichael - shader preprocessor
                         }
                     } catch (IllegalAccessException e) {
                         throw new RuntimeException("Failed to free program", e);
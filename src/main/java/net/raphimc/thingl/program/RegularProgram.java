@@ -19,28 +19,46 @@ package net.raphimc.thingl.program;
 
 import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.resource.program.Program;
-import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.program.UniformHandle;
+import net.raphimc.thingl.resource.shader.ShaderStage;
 import net.raphimc.thingl.wrapper.GLStateManager;
 import org.joml.Matrix4f;
 
 public class RegularProgram extends Program {
 
-    public RegularProgram(final Shader... shaders) {
+    // FlorianMichael - uniform handles
+    private final UniformHandle projectionMatrix;
+    private final UniformHandle viewMatrix;
+    private final UniformHandle modelMatrix;
+    private final UniformHandle colorModifier;
+    private final UniformHandle viewportSize;
+    // FlorianMichael - uniform handles
+
+    public RegularProgram(final ShaderStage... shaders) { // FlorianMichael - program binary cache
         super(shaders);
+        // FlorianMichael - uniform handles
+        this.projectionMatrix = this.getUniformHandle("u_ProjectionMatrix");
+        this.viewMatrix = this.getUniformHandle("u_ViewMatrix");
+        this.modelMatrix = this.getUniformHandle("u_ModelMatrix");
+        this.colorModifier = this.getUniformHandle("u_ColorModifier");
+        this.viewportSize = this.getUniformHandle("u_Viewport");
+        // FlorianMichael - uniform handles
     }
 
     @Override
     public void bind() {
         super.bind();
         final GLStateManager.Viewport viewport = ThinGL.glStateManager().getViewport();
-        this.setUniformMatrix4f("u_ProjectionMatrix", ThinGL.globalUniforms().getProjectionMatrix());
-        this.setUniformMatrix4f("u_ViewMatrix", ThinGL.globalUniforms().getViewMatrix());
-        this.setUniformVector4f("u_ColorModifier", ThinGL.globalUniforms().getColorModifier());
-        this.setUniformVector2f("u_Viewport", viewport.width(), viewport.height());
+        // FlorianMichael - uniform handles
+        this.projectionMatrix.setMatrix4f(ThinGL.globalUniforms().getProjectionMatrix());
+        this.viewMatrix.setMatrix4f(ThinGL.globalUniforms().getViewMatrix());
+        this.colorModifier.setVector4f(ThinGL.globalUniforms().getColorModifier());
+        this.viewportSize.setVector2f(viewport.width(), viewport.height());
+        // FlorianMichael - uniform handles
     }
 
     public void configureParameters(final Matrix4f modelMatrix) {
-        this.setUniformMatrix4f("u_ModelMatrix", modelMatrix);
+        this.modelMatrix.setMatrix4f(modelMatrix); // FlorianMichael - uniform handles
     }
 
 }
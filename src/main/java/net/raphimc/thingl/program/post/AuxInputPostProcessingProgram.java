@@ -20,7 +20,7 @@ package net.raphimc.thingl.program.post;
 import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.framebuffer.impl.TextureFramebuffer;
 import net.raphimc.thingl.program.PostProcessingProgram;
-import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderStage;
 import net.raphimc.thingl.util.RenderMathUtil;
 import net.raphimc.thingl.wrapper.Blending;
 import org.joml.Matrix4f;
@@ -30,7 +30,7 @@ public abstract class AuxInputPostProcessingProgram extends PostProcessingProgra
 
     protected TextureFramebuffer inputFramebuffer;
 
-    public AuxInputPostProcessingProgram(final Shader vertexShader, final Shader fragmentShader) {
+    public AuxInputPostProcessingProgram(final ShaderStage vertexShader, final ShaderStage fragmentShader) { // FlorianMichael - program binary cache
         super(vertexShader, fragmentShader);
     }
 
@@ -21,19 +21,20 @@ import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.framebuffer.impl.TextureFramebuffer;
 import net.raphimc.thingl.resource.framebuffer.Framebuffer;
 import net.raphimc.thingl.resource.image.texture.Texture2D;
-import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderStage;
 import org.lwjgl.opengl.GL11C;
 
 public abstract class MultiPassAuxInputPostProcessingProgram extends AuxInputPostProcessingProgram {
 
     private final int passes;
     private final boolean needsSourceFramebufferRead;
+    private final String[] passProfilerScopeNames; // FlorianMichael - GPU profiler
 
-    public MultiPassAuxInputPostProcessingProgram(final Shader vertexShader, final Shader fragmentShader, final int passes) {
+    public MultiPassAuxInputPostProcessingProgram(final ShaderStage vertexShader, final ShaderStage fragmentShader, final int passes) { // FlorianMichael - program binary cache
         this(vertexShader, fragmentShader, passes, false);
     }
 
-    public MultiPassAuxInputPostProcessingProgram(final Shader vertexShader, final Shader fragmentShader, final int passes, final boolean needsSourceFramebufferRead) {
+    public MultiPassAuxInputPostProcessingProgram(final ShaderStage vertexShader, final ShaderStage fragmentShader, final int passes, final boolean needsSourceFramebufferRead) { // FlorianMichael - program binary cache
         super(vertexShader, fragmentShader);
         this.passes = passes;
         this.needsSourceFramebufferRead = needsSourceFramebufferRead;
@@ -44,6 +45,12 @@ public abstract class MultiPassAuxInputPostProcessingProgram extends AuxInputPos
         if (passes == 1 && !needsSourceFramebufferRead) {
             throw new IllegalArgumentException("Single pass programs must use source framebuffer read (Or else use " + AuxInputPostProcessingProgram.class.getSimpleName() + " instead)");
         }
+        // FlorianMichael - GPU profiler
+        this.passProfilerScopeNames = new String[passes];
+        for (int i = 0; i < passes; i++) {
+            this.passProfilerScopeNames[i] = "Pass " + i;
+        }
+        // FlorianMichael - GPU profiler
     }
 
     @Override
@@ -96,9 +103,11 @@ public abstract class MultiPassAuxInputPostProcessingProgram extends AuxInputPos
     }
 
     protected void renderPass(final int pass, final Framebuffer sourceFramebuffer, final float xtl, final float ytl, final float xbr, final float ybr) {
+        ThinGL.profiler().push(this.passProfilerScopeNames[pass]); // FlorianMichael - GPU profiler
         this.setUniformInt("u_Pass", pass);
         this.setUniformSampler("u_Source", sourceFramebuffer);
         super.renderInternal(xtl, ytl, xbr, ybr);
+        ThinGL.profiler().pop(); // FlorianMichael - GPU profiler
     }
 
 }
@@ -20,12 +20,12 @@ package net.raphimc.thingl.program.post.impl;
 import net.lenni0451.commons.color.Color;
 import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.program.post.AuxInputPostProcessingProgram;
-import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderStage;
 import net.raphimc.thingl.wrapper.Blending;
 
 public class ColorTweakProgram extends AuxInputPostProcessingProgram {
 
-    public ColorTweakProgram(final Shader vertexShader, final Shader fragmentShader) {
+    public ColorTweakProgram(final ShaderStage vertexShader, final ShaderStage fragmentShader) { // FlorianMichael - program binary cache
         super(vertexShader, fragmentShader);
     }
 
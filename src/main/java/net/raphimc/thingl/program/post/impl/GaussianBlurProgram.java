@@ -18,11 +18,11 @@
 package net.raphimc.thingl.program.post.impl;
 
 import net.raphimc.thingl.program.post.MultiPassAuxInputPostProcessingProgram;
-import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderStage;
 
 public class GaussianBlurProgram extends MultiPassAuxInputPostProcessingProgram {
 
-    public GaussianBlurProgram(final Shader vertexShader, final Shader fragmentShader) {
+    public GaussianBlurProgram(final ShaderStage vertexShader, final ShaderStage fragmentShader) { // FlorianMichael - program binary cache
         super(vertexShader, fragmentShader, 2, true);
     }
 
@@ -19,12 +19,12 @@ package net.raphimc.thingl.program.post.impl;
 
 import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.program.post.MultiPassAuxInputPostProcessingProgram;
-import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderStage;
 import net.raphimc.thingl.wrapper.GLStateManager;
 
 public class KawaseBlurProgram extends MultiPassAuxInputPostProcessingProgram {
 
-    public KawaseBlurProgram(final Shader vertexShader, final Shader fragmentShader) {
+    public KawaseBlurProgram(final ShaderStage vertexShader, final ShaderStage fragmentShader) { // FlorianMichael - program binary cache
         super(vertexShader, fragmentShader, 4, true);
     }
 
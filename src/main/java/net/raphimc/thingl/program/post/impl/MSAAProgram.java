@@ -20,7 +20,7 @@ package net.raphimc.thingl.program.post.impl;
 import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.framebuffer.impl.MSAATextureFramebuffer;
 import net.raphimc.thingl.program.PostProcessingProgram;
-import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderStage;
 import net.raphimc.thingl.wrapper.Blending;
 import org.lwjgl.opengl.GL11C;
 import org.lwjgl.opengl.GL13C;
@@ -30,7 +30,7 @@ public class MSAAProgram extends PostProcessingProgram {
     private final int samples;
     protected MSAATextureFramebuffer inputFramebuffer;
 
-    public MSAAProgram(final Shader vertexShader, final Shader fragmentShader, final int samples) {
+    public MSAAProgram(final ShaderStage vertexShader, final ShaderStage fragmentShader, final int samples) { // FlorianMichael - program binary cache
         super(vertexShader, fragmentShader);
 
         this.samples = samples;
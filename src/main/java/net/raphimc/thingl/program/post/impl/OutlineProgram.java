@@ -18,7 +18,7 @@
 package net.raphimc.thingl.program.post.impl;
 
 import net.raphimc.thingl.program.post.MultiPassAuxInputPostProcessingProgram;
-import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderStage;
 
 public class OutlineProgram extends MultiPassAuxInputPostProcessingProgram {
 
@@ -26,7 +26,7 @@ public class OutlineProgram extends MultiPassAuxInputPostProcessingProgram {
     public static final int STYLE_INNER_BIT = 1 << 1;
     public static final int STYLE_SHARP_CORNERS_BIT = 1 << 2;
 
-    public OutlineProgram(final Shader vertexShader, final Shader fragmentShader) {
+    public OutlineProgram(final ShaderStage vertexShader, final ShaderStage fragmentShader) { // FlorianMichael - program binary cache
         super(vertexShader, fragmentShader, 2);
     }
 
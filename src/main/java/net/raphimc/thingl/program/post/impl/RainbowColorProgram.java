@@ -19,14 +19,14 @@ package net.raphimc.thingl.program.post.impl;
 
 import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.program.post.AuxInputPostProcessingProgram;
-import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderStage;
 import net.raphimc.thingl.wrapper.Blending;
 
 public class RainbowColorProgram extends AuxInputPostProcessingProgram {
 
     private final long startTime = System.currentTimeMillis();
 
-    public RainbowColorProgram(final Shader vertexShader, final Shader fragmentShader) {
+    public RainbowColorProgram(final ShaderStage vertexShader, final ShaderStage fragmentShader) { // FlorianMichael - program binary cache
         super(vertexShader, fragmentShader);
     }
 
@@ -19,11 +19,11 @@ package net.raphimc.thingl.program.post.impl;
 
 import net.lenni0451.commons.color.Color;
 import net.raphimc.thingl.program.post.AuxInputPostProcessingProgram;
-import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderStage;
 
 public class SingleColorProgram extends AuxInputPostProcessingProgram {
 
-    public SingleColorProgram(final Shader vertexShader, final Shader fragmentShader) {
+    public SingleColorProgram(final ShaderStage vertexShader, final ShaderStage fragmentShader) { // FlorianMichael - program binary cache
         super(vertexShader, fragmentShader);
     }
 
@@ -0,0 +1,791 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.renderer;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import net.raphimc.thingl.drawbuilder.databuilder.holder.IndexDataHolder;
+
+import java.util.Arrays;
+
+/**
+ * Triangulates simple polygons without allocating per call.<br>
+ * Convex polygons are triangulated as a fan and monotone polygons with a linear sweep. Everything else goes through an
+ * ear clipping implementation which follows <a href="https://github.com/mapbox/earcut">earcut</a> and uses a z-order curve hash for large inputs.<br>
+ * Optionally, the results can be cached by polygon content.<br>
+ * Instances are not thread safe.
+ */
+public class PolygonTriangulator {
+
+    private static final int HASH_THRESHOLD = 80;
+    private static final int NULL = -1;
+
+    // Linked list nodes of the ear clipping triangulation
+    private int nodeCount;
+    private int[] nodeIndex = new int[0];
+    private float[] nodeX = new float[0];
+    private float[] nodeY = new float[0];
+    private int[] prev = new int[0];
+    private int[] next = new int[0];
+    private int[] z = new int[0];
+    private int[] prevZ = new int[0];
+    private int[] nextZ = new int[0];
+
+    private int[] monotoneOrder = new int[0];
+    private boolean[] monotoneChain = new boolean[0];
+    private int[] monotoneStack = new int[0];
+
+    private int[] triangles = new int[0];
+    private int triangleIndexCount;
+
+    private float minX;
+    private float minY;
+    private float invSize;
+
+    private final Long2ObjectLinkedOpenHashMap<CacheEntry> cache = new Long2ObjectLinkedOpenHashMap<>();
+    private int cacheSize;
+
+    /**
+     * Triangulates the polygon and writes the triangle indices (relative to the first polygon point) into the index data holder.
+     *
+     * @param points The interleaved x/y coordinates of the polygon points
+     * @param pointCount The number of polygon points
+     * @param indexDataHolder The index data holder
+     */
+    public void triangulate(final float[] points, final int pointCount, final IndexDataHolder indexDataHolder) {
+        final int indexCount = this.triangulate(points, pointCount);
+        final int[] indices = this.getIndices();
+        for (int i = 0; i < indexCount; i++) {
+            indexDataHolder.putRelativeIndex(indices[i]);
+        }
+    }
+
+    /**
+     * Triangulates the polygon.<br>
+     * The indices can be read from {@link #getIndices()} until the next call.
+     *
+     * @param points The interleaved x/y coordinates of the polygon points
+     * @param pointCount The number of polygon points
+     * @return The number of indices
+     */
+    public int triangulate(final float[] points, final int pointCount) {
+        if (points.length < pointCount * 2) {
+            throw new IllegalArgumentException("Not enough coordinates for " + pointCount + " points");
+        }
+        this.triangleIndexCount = 0;
+        if (pointCount < 3) {
+            return 0;
+        }
+
+        long hash = 0L;
+        if (this.cacheSize > 0) {
+            hash = hash(points, pointCount);
+            final CacheEntry entry = this.cache.getAndMoveToLast(hash);
+            if (entry != null && entry.points().length == pointCount * 2 && Arrays.equals(entry.points(), 0, pointCount * 2, points, 0, pointCount * 2)) {
+                this.ensureTriangleCapacity(entry.indices().length);
+                System.arraycopy(entry.indices(), 0, this.triangles, 0, entry.indices().length);
+                this.triangleIndexCount = entry.indices().length;
+                return this.triangleIndexCount;
+            }
+        }
+
+        this.ensureTriangleCapacity((pointCount - 2) * 3);
+        final double signedArea = signedArea(points, pointCount);
+        if (signedArea != 0 && isConvex(points, pointCount)) {
+            this.triangulateFan(pointCount, signedArea > 0);
+        } else if (signedArea == 0 || !this.triangulateMonotone(points, pointCount, signedArea > 0)) {
+            this.triangulateEars(points, pointCount, signedArea);
+        }
+
+        // Reverse the triangles to keep the same winding as earcut4j produced before
+        for (int i = 0, j = this.triangleIndexCount - 1; i < j; i++, j--) {
+            final int temp = this.triangles[i];
+            this.triangles[i] = this.triangles[j];
+            this.triangles[j] = temp;
+        }
+
+        if (this.cacheSize > 0) {
+            while (this.cache.size() >= this.cacheSize) {
+                this.cache.removeFirst();
+            }
+            this.cache.putAndMoveToLast(hash, new CacheEntry(Arrays.copyOf(points, pointCount * 2), Arrays.copyOf(this.triangles, this.triangleIndexCount)));
+        }
+        return this.triangleIndexCount;
+    }
+
+    public int[] getIndices() {
+        return this.triangles;
+    }
+
+    public int getCacheSize() {
+        return this.cacheSize;
+    }
+
+    /**
+     * Sets the maximum number of cached triangulations. A size of 0 disables the cache.
+     *
+     * @param cacheSize The maximum number of cached triangulations
+     */
+    public void setCacheSize(final int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size must be at least 0");
+        }
+        this.cacheSize = cacheSize;
+        while (this.cache.size() > cacheSize) {
+            this.cache.removeFirst();
+        }
+    }
+
+    public void clearCache() {
+        this.cache.clear();
+    }
+
+    // === Convex ===
+
+    private void triangulateFan(final int pointCount, final boolean counterClockwise) {
+        for (int i = 1; i < pointCount - 1; i++) {
+            if (counterClockwise) {
+                this.putTriangle(0, i, i + 1);
+            } else {
+                this.putTriangle(0, i + 1, i);
+            }
+        }
+    }
+
+    // === Monotone ===
+
+    private boolean triangulateMonotone(final float[] points, final int pointCount, final boolean counterClockwise) {
+        int top = 0;
+        int maxima = 0;
+        for (int i = 0; i < pointCount; i++) {
+            final int prevIndex = i == 0 ? pointCount - 1 : i - 1;
+            final int nextIndex = i == pointCount - 1 ? 0 : i + 1;
+            if (isAbove(points, i, prevIndex) && isAbove(points, i, nextIndex)) {
+                maxima++;
+                top = i;
+            }
+        }
+        if (maxima != 1) {
+            return false;
+        }
+
+        if (this.monotoneOrder.length < pointCount) {
+            this.monotoneOrder = new int[pointCount];
+            this.monotoneChain = new boolean[pointCount];
+            this.monotoneStack = new int[pointCount];
+        }
+        final int[] order = this.monotoneOrder;
+        final boolean[] chain = this.monotoneChain;
+        final int[] stack = this.monotoneStack;
+
+        // Merge the two chains going down from the top point. The "next" chain follows the polygon order.
+        int nextChain = top == pointCount - 1 ? 0 : top + 1;
+        int prevChain = top == 0 ? pointCount - 1 : top - 1;
+        order[0] = top;
+        chain[0] = true;
+        for (int i = 1; i < pointCount; i++) {
+            if (isAbove(points, nextChain, prevChain)) {
+                order[i] = nextChain;
+                chain[i] = true;
+                nextChain = nextChain == pointCount - 1 ? 0 : nextChain + 1;
+            } else {
+                order[i] = prevChain;
+                chain[i] = false;
+                prevChain = prevChain == 0 ? pointCount - 1 : prevChain - 1;
+            }
+        }
+        chain[pointCount - 1] = !chain[pointCount - 2]; // The bottom point belongs to both chains
+
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        stack[stackSize++] = 1;
+        for (int i = 2; i < pointCount - 1; i++) {
+            if (chain[i] != chain[stack[stackSize - 1]]) {
+                while (stackSize > 1) {
+                    final int popped = stack[--stackSize];
+                    this.putOrientedTriangle(points, order[i], order[popped], order[stack[stackSize - 1]]);
+                }
+                stackSize = 0;
+                stack[stackSize++] = i - 1;
+                stack[stackSize++] = i;
+            } else {
+                int last = stack[--stackSize];
+                while (stackSize > 0 && this.isMonotoneDiagonalInside(points, order[stack[stackSize - 1]], order[last], order[i], chain[i], counterClockwise)) {
+                    this.putOrientedTriangle(points, order[i], order[last], order[stack[stackSize - 1]]);
+                    last = stack[--stackSize];
+                }
+                stack[stackSize++] = last;
+                stack[stackSize++] = i;
+            }
+        }
+        final int bottom = order[pointCount - 1];
+        for (int i = stackSize - 1; i > 0; i--) {
+            this.putOrientedTriangle(points, bottom, order[stack[i]], order[stack[i - 1]]);
+        }
+        return true;
+    }
+
+    private boolean isMonotoneDiagonalInside(final float[] points, final int upper, final int middle, final int lower, final boolean nextChain, final boolean counterClockwise) {
+        // On the "next" chain the polygon goes upper -> middle -> lower, on the other chain lower -> middle -> upper
+        final double cross = cross(points, upper, middle, lower);
+        if (nextChain == counterClockwise) {
+            return cross > 0;
+        } else {
+            return cross < 0;
+        }
+    }
+
+    private void putOrientedTriangle(final float[] points, final int a, final int b, final int c) {
+        final double cross = cross(points, a, b, c);
+        if (cross > 0) {
+            this.putTriangle(a, b, c);
+        } else if (cross < 0) {
+            this.putTriangle(a, c, b);
+        }
+    }
+
+    // === Ear clipping ===
+
+    private void triangulateEars(final float[] points, final int pointCount, final double signedArea) {
+        this.ensureNodeCapacity(pointCount * 3);
+        this.nodeCount = 0;
+
+        // earcut expects the ring in clockwise order (in its coordinate system), which is counter clockwise in ours
+        int last = NULL;
+        if (signedArea > 0) {
+            for (int i = 0; i < pointCount; i++) {
+                last = this.insertNode(i, points[i * 2], points[i * 2 + 1], last);
+            }
+        } else {
+            for (int i = pointCount - 1; i >= 0; i--) {
+                last = this.insertNode(i, points[i * 2], points[i * 2 + 1], last);
+            }
+        }
+        if (this.equals(last, this.next[last])) {
+            this.removeNode(last);
+            last = this.next[last];
+        }
+        if (this.next[last] == this.prev[last]) {
+            return;
+        }
+
+        this.invSize = 0F;
+        if (pointCount > HASH_THRESHOLD) {
+            float minX = points[0];
+            float minY = points[1];
+            float maxX = minX;
+            float maxY = minY;
+            for (int i = 1; i < pointCount; i++) {
+                final float x = points[i * 2];
+                final float y = points[i * 2 + 1];
+                if (x < minX) minX = x;
+                if (y < minY) minY = y;
+                if (x > maxX) maxX = x;
+                if (y > maxY) maxY = y;
+            }
+            final float size = Math.max(maxX - minX, maxY - minY);
+            this.minX = minX;
+            this.minY = minY;
+            this.invSize = size != 0 ? 32767F / size : 0F;
+        }
+
+        this.earcutLinked(last, 0);
+    }
+
+    private void earcutLinked(int ear, final int pass) {
+        if (ear == NULL) {
+            return;
+        }
+        if (pass == 0 && this.invSize != 0) {
+            this.indexCurve(ear);
+        }
+
+        int stop = ear;
+        while (this.prev[ear] != this.next[ear]) {
+            final int prev = this.prev[ear];
+            final int next = this.next[ear];
+
+            if (this.invSize != 0 ? this.isEarHashed(ear) : this.isEar(ear)) {
+                this.putTriangle(this.nodeIndex[prev], this.nodeIndex[ear], this.nodeIndex[next]);
+                this.removeNode(ear);
+                ear = this.next[next];
+                stop = this.next[next];
+                continue;
+            }
+
+            ear = next;
+            if (ear == stop) {
+                if (pass == 0) {
+                    this.earcutLinked(this.filterPoints(ear, NULL), 1);
+                } else if (pass == 1) {
+                    ear = this.cureLocalIntersections(this.filterPoints(ear, NULL));
+                    this.earcutLinked(ear, 2);
+                } else if (pass == 2) {
+                    this.splitEarcut(ear);
+                }
+                break;
+            }
+        }
+    }
+
+    private boolean isEar(final int ear) {
+        final int a = this.prev[ear];
+        final int c = this.next[ear];
+        if (this.area(a, ear, c) >= 0) {
+            return false;
+        }
+
+        final float ax = this.nodeX[a], bx = this.nodeX[ear], cx = this.nodeX[c];
+        final float ay = this.nodeY[a], by = this.nodeY[ear], cy = this.nodeY[c];
+        final float x0 = Math.min(ax, Math.min(bx, cx)), y0 = Math.min(ay, Math.min(by, cy));
+        final float x1 = Math.max(ax, Math.max(bx, cx)), y1 = Math.max(ay, Math.max(by, cy));
+
+        int p = this.next[c];
+        while (p != a) {
+            if (this.isBlocking(p, x0, y0, x1, y1, ax, ay, bx, by, cx, cy)) {
+                return false;
+            }
+            p = this.next[p];
+        }
+        return true;
+    }
+
+    private boolean isEarHashed(final int ear) {
+        final int a = this.prev[ear];
+        final int c = this.next[ear];
+        if (this.area(a, ear, c) >= 0) {
+            return false;
+        }
+
+        final float ax = this.nodeX[a], bx = this.nodeX[ear], cx = this.nodeX[c];
+        final float ay = this.nodeY[a], by = this.nodeY[ear], cy = this.nodeY[c];
+        final float x0 = Math.min(ax, Math.min(bx, cx)), y0 = Math.min(ay, Math.min(by, cy));
+        final float x1 = Math.max(ax, Math.max(bx, cx)), y1 = Math.max(ay, Math.max(by, cy));
+        final int minZ = this.zOrder(x0, y0);
+        final int maxZ = this.zOrder(x1, y1);
+
+        int p = this.prevZ[ear];
+        int n = this.nextZ[ear];
+        while (p != NULL && this.z[p] >= minZ && n != NULL && this.z[n] <= maxZ) {
+            if (p != a && p != c && this.isBlocking(p, x0, y0, x1, y1, ax, ay, bx, by, cx, cy)) {
+                return false;
+            }
+            p = this.prevZ[p];
+            if (n != a && n != c && this.isBlocking(n, x0, y0, x1, y1, ax, ay, bx, by, cx, cy)) {
+                return false;
+            }
+            n = this.nextZ[n];
+        }
+        while (p != NULL && this.z[p] >= minZ) {
+            if (p != a && p != c && this.isBlocking(p, x0, y0, x1, y1, ax, ay, bx, by, cx, cy)) {
+                return false;
+            }
+            p = this.prevZ[p];
+        }
+        while (n != NULL && this.z[n] <= maxZ) {
+            if (n != a && n != c && this.isBlocking(n, x0, y0, x1, y1, ax, ay, bx, by, cx, cy)) {
+                return false;
+            }
+            n = this.nextZ[n];
+        }
+        return true;
+    }
+
+    private boolean isBlocking(final int p, final float x0, final float y0, final float x1, final float y1, final float ax, final float ay, final float bx, final float by, final float cx, final float cy) {
+        final float px = this.nodeX[p];
+        final float py = this.nodeY[p];
+        return px >= x0 && px <= x1 && py >= y0 && py <= y1 && pointInTriangle(ax, ay, bx, by, cx, cy, px, py) && this.area(this.prev[p], p, this.next[p]) >= 0;
+    }
+
+    private int cureLocalIntersections(int start) {
+        int p = start;
+        do {
+            final int a = this.prev[p];
+            final int b = this.next[this.next[p]];
+            if (!this.equals(a, b) && this.intersects(a, p, this.next[p], b) && this.locallyInside(a, b) && this.locallyInside(b, a)) {
+                this.putTriangle(this.nodeIndex[a], this.nodeIndex[p], this.nodeIndex[b]);
+                this.removeNode(p);
+                this.removeNode(this.next[p]);
+                p = start = b;
+            }
+            p = this.next[p];
+        } while (p != start);
+        return this.filterPoints(p, NULL);
+    }
+
+    private void splitEarcut(final int start) {
+        int a = start;
+        do {
+            int b = this.next[this.next[a]];
+            while (b != this.prev[a]) {
+                if (this.nodeIndex[a] != this.nodeIndex[b] && this.isValidDiagonal(a, b)) {
+                    int c = this.splitPolygon(a, b);
+                    a = this.filterPoints(a, this.next[a]);
+                    c = this.filterPoints(c, this.next[c]);
+                    this.earcutLinked(a, 0);
+                    this.earcutLinked(c, 0);
+                    return;
+                }
+                b = this.next[b];
+            }
+            a = this.next[a];
+        } while (a != start);
+    }
+
+    private int filterPoints(final int start, int end) {
+        if (start == NULL) {
+            return start;
+        }
+        if (end == NULL) {
+            end = start;
+        }
+
+        int p = start;
+        boolean again;
+        do {
+            again = false;
+            if (this.equals(p, this.next[p]) || this.area(this.prev[p], p, this.next[p]) == 0) {
+                this.removeNode(p);
+                p = end = this.prev[p];
+                if (p == this.next[p]) {
+                    break;
+                }
+                again = true;
+            } else {
+                p = this.next[p];
+            }
+        } while (again || p != end);
+        return end;
+    }
+
+    private void indexCurve(final int start) {
+        int p = start;
+        do {
+            if (this.z[p] == 0) {
+                this.z[p] = this.zOrder(this.nodeX[p], this.nodeY[p]);
+            }
+            this.prevZ[p] = this.prev[p];
+            this.nextZ[p] = this.next[p];
+            p = this.next[p];
+        } while (p != start);
+
+        this.nextZ[this.prevZ[p]] = NULL;
+        this.prevZ[p] = NULL;
+        this.sortLinked(p);
+    }
+
+    private void sortLinked(int list) {
+        int inSize = 1;
+        int numMerges;
+        do {
+            int p = list;
+            list = NULL;
+            int tail = NULL;
+            numMerges = 0;
+
+            while (p != NULL) {
+                numMerges++;
+                int q = p;
+                int pSize = 0;
+                for (int i = 0; i < inSize; i++) {
+                    pSize++;
+                    q = this.nextZ[q];
+                    if (q == NULL) break;
+                }
+                int qSize = inSize;
+
+                while (pSize > 0 || (qSize > 0 && q != NULL)) {
+                    final int e;
+                    if (pSize != 0 && (qSize == 0 || q == NULL || this.z[p] <= this.z[q])) {
+                        e = p;
+                        p = this.nextZ[p];
+                        pSize--;
+                    } else {
+                        e = q;
+                        q = this.nextZ[q];
+                        qSize--;
+                    }
+
+                    if (tail != NULL) {
+                        this.nextZ[tail] = e;
+                    } else {
+                        list = e;
+                    }
+                    this.prevZ[e] = tail;
+                    tail = e;
+                }
+                p = q;
+            }
+
+            this.nextZ[tail] = NULL;
+            inSize *= 2;
+        } while (numMerges > 1);
+    }
+
+    private int zOrder(final float x, final float y) {
+        int lx = (int) ((x - this.minX) * this.invSize);
+        int ly = (int) ((y - this.minY) * this.invSize);
+        lx = (lx | (lx << 8)) & 0x00FF00FF;
+        lx = (lx | (lx << 4)) & 0x0F0F0F0F;
+        lx = (lx | (lx << 2)) & 0x33333333;
+        lx = (lx | (lx << 1)) & 0x55555555;
+        ly = (ly | (ly << 8)) & 0x00FF00FF;
+        ly = (ly | (ly << 4)) & 0x0F0F0F0F;
+        ly = (ly | (ly << 2)) & 0x33333333;
+        ly = (ly | (ly << 1)) & 0x55555555;
+        return lx | (ly << 1);
+    }
+
+    private boolean isValidDiagonal(final int a, final int b) {
+        return this.nodeIndex[this.next[a]] != this.nodeIndex[b] && this.nodeIndex[this.prev[a]] != this.nodeIndex[b] && !this.intersectsPolygon(a, b) &&
+                (this.locallyInside(a, b) && this.locallyInside(b, a) && this.middleInside(a, b) && (this.area(this.prev[a], a, this.prev[b]) != 0 || this.area(a, this.prev[b], b) != 0) ||
+                        this.equals(a, b) && this.area(this.prev[a], a, this.next[a]) > 0 && this.area(this.prev[b], b, this.next[b]) > 0);
+    }
+
+    private boolean intersects(final int p1, final int q1, final int p2, final int q2) {
+        final int o1 = sign(this.area(p1, q1, p2));
+        final int o2 = sign(this.area(p1, q1, q2));
+        final int o3 = sign(this.area(p2, q2, p1));
+        final int o4 = sign(this.area(p2, q2, q1));
+        if (o1 != o2 && o3 != o4) return true;
+        if (o1 == 0 && this.onSegment(p1, p2, q1)) return true;
+        if (o2 == 0 && this.onSegment(p1, q2, q1)) return true;
+        if (o3 == 0 && this.onSegment(p2, p1, q2)) return true;
+        return o4 == 0 && this.onSegment(p2, q1, q2);
+    }
+
+    private boolean onSegment(final int p, final int q, final int r) {
+        return this.nodeX[q] <= Math.max(this.nodeX[p], this.nodeX[r]) && this.nodeX[q] >= Math.min(this.nodeX[p], this.nodeX[r]) && this.nodeY[q] <= Math.max(this.nodeY[p], this.nodeY[r]) && this.nodeY[q] >= Math.min(this.nodeY[p], this.nodeY[r]);
+    }
+
+    private boolean intersectsPolygon(final int a, final int b) {
+        int p = a;
+        do {
+            final int pNext = this.next[p];
+            if (this.nodeIndex[p] != this.nodeIndex[a] && this.nodeIndex[pNext] != this.nodeIndex[a] && this.nodeIndex[p] != this.nodeIndex[b] && this.nodeIndex[pNext] != this.nodeIndex[b] && this.intersects(p, pNext, a, b)) {
+                return true;
+            }
+            p = pNext;
+        } while (p != a);
+        return false;
+    }
+
+    private boolean locallyInside(final int a, final int b) {
+        return this.area(this.prev[a], a, this.next[a]) < 0 ?
+                this.area(a, b, this.next[a]) >= 0 && this.area(a, this.prev[a], b) >= 0 :
+                this.area(a, b, this.prev[a]) < 0 || this.area(a, this.next[a], b) < 0;
+    }
+
+    private boolean middleInside(final int a, final int b) {
+        int p = a;
+        boolean inside = false;
+        final double px = (this.nodeX[a] + (double) this.nodeX[b]) / 2D;
+        final double py = (this.nodeY[a] + (double) this.nodeY[b]) / 2D;
+        do {
+            final int pNext = this.next[p];
+            final float x = this.nodeX[p], y = this.nodeY[p];
+            final float nx = this.nodeX[pNext], ny = this.nodeY[pNext];
+            if (((y > py) != (ny > py)) && ny != y && (px < ((double) nx - x) * (py - y) / ((double) ny - y) + x)) {
+                inside = !inside;
+            }
+            p = pNext;
+        } while (p != a);
+        return inside;
+    }
+
+    private int splitPolygon(final int a, final int b) {
+        final int a2 = this.createNode(this.nodeIndex[a], this.nodeX[a], this.nodeY[a]);
+        final int b2 = this.createNode(this.nodeIndex[b], this.nodeX[b], this.nodeY[b]);
+        final int an = this.next[a];
+        final int bp = this.prev[b];
+
+        this.next[a] = b;
+        this.prev[b] = a;
+        this.next[a2] = an;
+        this.prev[an] = a2;
+        this.next[b2] = a2;
+        this.prev[a2] = b2;
+        this.next[bp] = b2;
+        this.prev[b2] = bp;
+        return b2;
+    }
+
+    private int insertNode(final int index, final float x, final float y, final int last) {
+        final int p = this.createNode(index, x, y);
+        if (last == NULL) {
+            this.prev[p] = p;
+            this.next[p] = p;
+        } else {
+            this.next[p] = this.next[last];
+            this.prev[p] = last;
+            this.prev[this.next[last]] = p;
+            this.next[last] = p;
+        }
+        return p;
+    }
+
+    private void removeNode(final int p) {
+        this.prev[this.next[p]] = this.prev[p];
+        this.next[this.prev[p]] = this.next[p];
+        if (this.prevZ[p] != NULL) {
+            this.nextZ[this.prevZ[p]] = this.nextZ[p];
+        }
+        if (this.nextZ[p] != NULL) {
+            this.prevZ[this.nextZ[p]] = this.prevZ[p];
+        }
+    }
+
+    private int createNode(final int index, final float x, final float y) {
+        this.ensureNodeCapacity(this.nodeCount + 1);
+        final int node = this.nodeCount++;
+        this.nodeIndex[node] = index;
+        this.nodeX[node] = x;
+        this.nodeY[node] = y;
+        this.prev[node] = NULL;
+        this.next[node] = NULL;
+        this.z[node] = 0;
+        this.prevZ[node] = NULL;
+        this.nextZ[node] = NULL;
+        return node;
+    }
+
+    private double area(final int p, final int q, final int r) {
+        return ((double) this.nodeY[q] - this.nodeY[p]) * ((double) this.nodeX[r] - this.nodeX[q]) - ((double) this.nodeX[q] - this.nodeX[p]) * ((double) this.nodeY[r] - this.nodeY[q]);
+    }
+
+    private boolean equals(final int p1, final int p2) {
+        return this.nodeX[p1] == this.nodeX[p2] && this.nodeY[p1] == this.nodeY[p2];
+    }
+
+    // === Helpers ===
+
+    private void putTriangle(final int a, final int b, final int c) {
+        this.ensureTriangleCapacity(this.triangleIndexCount + 3);
+        this.triangles[this.triangleIndexCount++] = a;
+        this.triangles[this.triangleIndexCount++] = b;
+        this.triangles[this.triangleIndexCount++] = c;
+    }
+
+    private void ensureTriangleCapacity(final int capacity) {
+        if (this.triangles.length < capacity) {
+            this.triangles = Arrays.copyOf(this.triangles, Math.max(capacity, this.triangles.length * 2));
+        }
+    }
+
+    private void ensureNodeCapacity(final int capacity) {
+        if (this.nodeIndex.length < capacity) {
+            final int newCapacity = Math.max(capacity, this.nodeIndex.length * 2);
+            this.nodeIndex = Arrays.copyOf(this.nodeIndex, newCapacity);
+            this.nodeX = Arrays.copyOf(this.nodeX, newCapacity);
+            this.nodeY = Arrays.copyOf(this.nodeY, newCapacity);
+            this.prev = Arrays.copyOf(this.prev, newCapacity);
+            this.next = Arrays.copyOf(this.next, newCapacity);
+            this.z = Arrays.copyOf(this.z, newCapacity);
+            this.prevZ = Arrays.copyOf(this.prevZ, newCapacity);
+            this.nextZ = Arrays.copyOf(this.nextZ, newCapacity);
+        }
+    }
+
+    private static boolean isConvex(final float[] points, final int pointCount) {
+        int sign = 0;
+        int xSignChanges = 0;
+        int ySignChanges = 0;
+        int lastXSign = 0;
+        int lastYSign = 0;
+        int firstXSign = 0;
+        int firstYSign = 0;
+        for (int i = 0; i < pointCount; i++) {
+            final int j = (i + 1) % pointCount;
+            final int k = (i + 2) % pointCount;
+            final int crossSign = sign(cross(points, i, j, k));
+            if (crossSign != 0) {
+                if (sign == 0) {
+                    sign = crossSign;
+                } else if (sign != crossSign) {
+                    return false;
+                }
+            }
+
+            // A convex polygon changes its x and y direction exactly twice. This rules out self overlapping polygons which only turn in one direction.
+            final int xSign = sign((double) points[j * 2] - points[i * 2]);
+            final int ySign = sign((double) points[j * 2 + 1] - points[i * 2 + 1]);
+            if (xSign != 0) {
+                if (lastXSign == 0) {
+                    firstXSign = xSign;
+                } else if (xSign != lastXSign) {
+                    xSignChanges++;
+                }
+                lastXSign = xSign;
+            }
+            if (ySign != 0) {
+                if (lastYSign == 0) {
+                    firstYSign = ySign;
+                } else if (ySign != lastYSign) {
+                    ySignChanges++;
+                }
+                lastYSign = ySign;
+            }
+        }
+        if (lastXSign != firstXSign) xSignChanges++;
+        if (lastYSign != firstYSign) ySignChanges++;
+        return sign != 0 && xSignChanges <= 2 && ySignChanges <= 2;
+    }
+
+    private static boolean isAbove(final float[] points, final int a, final int b) {
+        final float ay = points[a * 2 + 1];
+        final float by = points[b * 2 + 1];
+        return ay > by || (ay == by && points[a * 2] < points[b * 2]);
+    }
+
+    private static double cross(final float[] points, final int a, final int b, final int c) {
+        final double abX = (double) points[b * 2] - points[a * 2];
+        final double abY = (double) points[b * 2 + 1] - points[a * 2 + 1];
+        final double bcX = (double) points[c * 2] - points[b * 2];
+        final double bcY = (double) points[c * 2 + 1] - points[b * 2 + 1];
+        return abX * bcY - abY * bcX;
+    }
+
+    private static double signedArea(final float[] points, final int pointCount) {
+        double sum = 0;
+        for (int i = 0, j = pointCount - 1; i < pointCount; j = i++) {
+            sum += ((double) points[i * 2] - points[j * 2]) * ((double) points[i * 2 + 1] + points[j * 2 + 1]);
+        }
+        return -sum / 2D;
+    }
+
+    private static boolean pointInTriangle(final float ax, final float ay, final float bx, final float by, final float cx, final float cy, final float px, final float py) {
+        return ((double) cx - px) * ((double) ay - py) >= ((double) ax - px) * ((double) cy - py) &&
+                ((double) ax - px) * ((double) by - py) >= ((double) bx - px) * ((double) ay - py) &&
+                ((double) bx - px) * ((double) cy - py) >= ((double) cx - px) * ((double) by - py);
+    }
+
+    private static int sign(final double value) {
+        return value > 0 ? 1 : value < 0 ? -1 : 0;
+    }
+
+    private static long hash(final float[] points, final int pointCount) {
+        long hash = pointCount;
+        for (int i = 0; i < pointCount * 2; i++) {
+            hash = (hash ^ Float.floatToIntBits(points[i])) * 0x9E3779B97F4A7C15L;
+        }
+        return hash ^ (hash >>> 32);
+    }
+
+    private record CacheEntry(float[] points, int[] indices) {
+    }
+
+}
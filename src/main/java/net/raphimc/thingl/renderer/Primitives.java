@@ -17,7 +17,6 @@
  */
 package net.raphimc.thingl.renderer;
 
-import net.lenni0451.commons.math.MathUtils;
 import net.raphimc.thingl.drawbuilder.BuiltinDrawBatches;
 import net.raphimc.thingl.drawbuilder.databuilder.holder.VertexDataHolder;
 import net.raphimc.thingl.drawbuilder.drawbatchdataholder.MultiDrawBatchDataHolder;
@@ -332,30 +331,45 @@ public class Primitives {
 
 
     public static void _filledCircle(final Matrix4f positionMatrix, final VertexDataHolder vertexDataHolder, final float x, final float y, final float z, final float radius, final float degStart, final float degEnd, final int c) {
-        _circle(radius, degStart, degEnd, (xc, yc) -> vertexDataHolder.putVector3f(positionMatrix, x + xc, y + yc, z).putColor(c).endVertex());
+        // FlorianMichael - cached circle tessellation
+        final float[] arc = UnitCircle.forRadius(radius).getArc(degStart, degEnd);
+        for (int i = 0; i < arc.length; i += 2) {
+            vertexDataHolder.putVector3f(positionMatrix, x + arc[i] * radius, y + arc[i + 1] * radius, z).putColor(c).endVertex();
+        }
+        // FlorianMichael - cached circle tessellation
     }
 
     public static void _outlinedCircle(final Matrix4f positionMatrix, final VertexDataHolder vertexDataHolder, final float x, final float y, final float z, final float radius, final float w, final float degStart, final float degEnd, final int c) {
-        _circle(radius, degStart, degEnd, (xc, yc) -> {
-            vertexDataHolder.putVector3f(positionMatrix, x + (xc / radius * (radius - w / 2F)), y + (yc / radius * (radius - w / 2F)), z).putColor(c).endVertex();
-            vertexDataHolder.putVector3f(positionMatrix, x + (xc / radius * (radius + w / 2F)), y + (yc / radius * (radius + w / 2F)), z).putColor(c).endVertex();
-        });
+        // FlorianMichael - cached circle tessellation
+        final float[] arc = UnitCircle.forRadius(radius).getArc(degStart, degEnd);
+        final float innerRadius = radius - w / 2F;
+        final float outerRadius = radius + w / 2F;
+        for (int i = 0; i < arc.length; i += 2) {
+            vertexDataHolder.putVector3f(positionMatrix, x + arc[i] * innerRadius, y + arc[i + 1] * innerRadius, z).putColor(c).endVertex();
+            vertexDataHolder.putVector3f(positionMatrix, x + arc[i] * outerRadius, y + arc[i + 1] * outerRadius, z).putColor(c).endVertex();
+        }
+        // FlorianMichael - cached circle tessellation
+    }
+
+    // FlorianMichael - cached circle tessellation
+    public static void _circlePoints(final float radius, final float degStart, final float degEnd, final PointConsumer pointConsumer) {
+        final float[] arc = UnitCircle.forRadius(radius).getArc(degStart, degEnd);
+        for (int i = 0; i < arc.length; i += 2) {
+            pointConsumer.accept(arc[i] * radius, arc[i + 1] * radius);
+        }
     }
 
+    @Deprecated(forRemoval = true)
     public static void _circle(final float radius, final float degStart, final float degEnd, final BiConsumer<Float, Float> valueConsumer) {
-        final float stepSize = MathUtils.clamp(180F / (MathUtil.PI * radius), 2F, 20F);
+        _circlePoints(radius, degStart, degEnd, valueConsumer::accept);
+    }
 
-        for (float angle = degEnd; angle >= degStart; angle -= stepSize) {
-            final float rad = Math.toRadians(angle) - MathUtil.HALF_PI;
-            final float x = radius * Math.cos(rad);
-            final float y = radius * Math.sin(rad);
-            valueConsumer.accept(x, y);
-        }
+    @FunctionalInterface
+    public interface PointConsumer {
+
+        void accept(final float x, final float y);
 
-        final float radStart = Math.toRadians(degStart) - MathUtil.HALF_PI;
-        final float xStart = radius * Math.cos(radStart);
-        final float yStart = radius * Math.sin(radStart);
-        valueConsumer.accept(xStart, yStart);
     }
+    // FlorianMichael - cached circle tessellation
 
 }
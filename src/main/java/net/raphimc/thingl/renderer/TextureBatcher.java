@@ -0,0 +1,242 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.renderer;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.raphimc.thingl.ThinGL;
+import net.raphimc.thingl.drawbuilder.DrawBatch;
+import net.raphimc.thingl.drawbuilder.databuilder.holder.VertexDataHolder;
+import net.raphimc.thingl.resource.image.texture.Texture;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Assigns textures to slots of a shared draw batch, so textured primitives using different textures can be drawn together.<br>
+ * If bindless textures are supported every texture is referenced by its handle and all textures share a single draw batch.
+ * Otherwise textures are packed into groups of sampler array slots and a new group (and draw batch) is started once the sampler limit is exceeded.<br>
+ * The vertex data layout of the draw batch must end with two unsigned ints which are written by {@link #putTexture(VertexDataHolder, Slot)}.<br>
+ * In bindless mode the sampler state of a texture is frozen once its handle was created by {@link #getSlot(Texture)}: OpenGL makes the parameters of a texture immutable while it is referenced by a handle,
+ * so calls like {@link net.raphimc.thingl.resource.image.texture.SampledTexture#setFilter(int)} or {@link net.raphimc.thingl.resource.image.texture.SampledTexture#setWrap(int)} fail with GL_INVALID_OPERATION afterwards.
+ * Configure the filter and wrap modes before the texture is drawn for the first time or draw the texture with a sampler object through {@link #getSlot(Texture, int)}.
+ * Handles are created per texture/sampler pair, so the same texture can be drawn with different samplers (The texture parameters are frozen by sampler handles as well).<br>
+ * Slots of freed textures are released at the end of every frame. Use {@link #release(Texture)} to release the slots of a texture which is still allocated.
+ */
+public class TextureBatcher {
+
+    public static final int MAX_SAMPLER_COUNT = 32;
+
+    private final DrawBatch.Snippet snippet;
+    private final boolean bindless;
+    private final int samplerCount;
+    private final Long2ObjectMap<Slot> slots = new Long2ObjectOpenHashMap<>(); // (sampler << 32 | texture) -> slot
+    private final List<Group> groups = new ArrayList<>();
+    private final DrawBatch bindlessDrawBatch;
+    private final Runnable releaseFreedTexturesCallback = this::releaseFreedTextures;
+
+    public TextureBatcher(final DrawBatch.Snippet snippet) {
+        this(snippet, ThinGL.capabilities().supportsBindlessTextures());
+    }
+
+    public TextureBatcher(final DrawBatch.Snippet snippet, final boolean bindless) {
+        this.snippet = snippet;
+        this.bindless = bindless;
+        this.samplerCount = getSamplerCount();
+        this.bindlessDrawBatch = bindless ? new DrawBatch.Builder(snippet).build() : null;
+        ThinGL.get().addFrameFinishedCallback(this.releaseFreedTexturesCallback);
+    }
+
+    public static int getSamplerCount() {
+        return Math.min(ThinGL.capabilities().getMaxTextureImageUnits(), MAX_SAMPLER_COUNT);
+    }
+
+    /**
+     * @param texture The texture
+     * @return The slot of the texture. In bindless mode this creates the texture handle, which makes the sampler state of the texture immutable
+     */
+    public Slot getSlot(final Texture texture) {
+        return this.getSlot(texture, 0);
+    }
+
+    /**
+     * @param texture The texture
+     * @param sampler The sampler object to sample the texture with or 0 to use the sampler state of the texture. Sampler objects are only supported in bindless mode
+     * @return The slot of the texture/sampler pair. In bindless mode this creates the texture handle, which makes the sampler state of the texture and the sampler immutable
+     */
+    public Slot getSlot(final Texture texture, final int sampler) {
+        if (sampler != 0 && !this.bindless) {
+            throw new UnsupportedOperationException("Sampler objects are only supported with bindless textures");
+        }
+        final int textureId = texture.getGlId();
+        final long key = slotKey(textureId, sampler);
+        final Slot slot = this.slots.get(key);
+        if (slot != null && slot.texture() == texture) {
+            return slot;
+        }
+
+        if (this.bindless) {
+            final long handle = sampler != 0 ? de.florianmichael.thingl.GlCommands.get().glGetTextureSamplerHandleARB(textureId, sampler) : de.florianmichael.thingl.GlCommands.get().glGetTextureHandleARB(textureId);
+            if (!de.florianmichael.thingl.GlCommands.get().glIsTextureHandleResidentARB(handle)) {
+                de.florianmichael.thingl.GlCommands.get().glMakeTextureHandleResidentARB(handle);
+            }
+            final Slot newSlot = new Slot(texture, this.bindlessDrawBatch, -1, handle);
+            this.slots.put(key, newSlot);
+            return newSlot;
+        }
+
+        if (slot != null) { // The texture id has been reused by a new texture object, so the new texture can take over the slot
+            final Slot newSlot = new Slot(texture, slot.drawBatch(), slot.group(), slot.value());
+            this.groups.get(slot.group()).textures[(int) slot.value()] = texture;
+            this.slots.put(key, newSlot);
+            return newSlot;
+        }
+
+        for (int i = 0; i < this.groups.size(); i++) {
+            final Group group = this.groups.get(i);
+            final int index = group.findFreeIndex();
+            if (index != -1) {
+                final Texture previousTexture = group.textures[index];
+                if (previousTexture != null) {
+                    this.slots.remove(slotKey(group.textureIds[index], 0));
+                }
+                return this.assign(group, i, index, texture);
+            }
+        }
+
+        final Group group = new Group(this.samplerCount);
+        group.drawBatch = new DrawBatch.Builder(this.snippet)
+                .appendSetupAction(p -> p.setUniformSamplerArray("u_Textures", group.getBoundTextureIds()))
+                .build();
+        this.groups.add(group);
+        return this.assign(group, this.groups.size() - 1, 0, texture);
+    }
+
+    public VertexDataHolder putTexture(final VertexDataHolder vertexDataHolder, final Slot slot) {
+        return vertexDataHolder.putInt((int) slot.value()).putInt((int) (slot.value() >>> 32));
+    }
+
+    public boolean isBindless() {
+        return this.bindless;
+    }
+
+    public int getGroupCount() {
+        return this.bindless ? 1 : this.groups.size();
+    }
+
+    /**
+     * Releases all slots of the texture. In bindless mode this makes the handles of the texture non-resident.<br>
+     * Must not be called while vertices referencing the texture are still waiting to be drawn.
+     *
+     * @param texture The texture
+     */
+    public void release(final Texture texture) {
+        for (ObjectIterator<Long2ObjectMap.Entry<Slot>> iterator = this.slots.long2ObjectEntrySet().iterator(); iterator.hasNext(); ) {
+            final Slot slot = iterator.next().getValue();
+            if (slot.texture() == texture) {
+                this.releaseSlot(slot);
+                iterator.remove();
+            }
+        }
+    }
+
+    public void free() {
+        ThinGL.get().removeFrameFinishedCallback(this.releaseFreedTexturesCallback);
+        if (this.bindless) {
+            for (Slot slot : this.slots.values()) {
+                if (slot.texture().isAllocated() && de.florianmichael.thingl.GlCommands.get().glIsTextureHandleResidentARB(slot.value())) {
+                    de.florianmichael.thingl.GlCommands.get().glMakeTextureHandleNonResidentARB(slot.value());
+                }
+            }
+        }
+        this.slots.clear();
+        this.groups.clear();
+    }
+
+    private void releaseFreedTextures() {
+        for (ObjectIterator<Long2ObjectMap.Entry<Slot>> iterator = this.slots.long2ObjectEntrySet().iterator(); iterator.hasNext(); ) {
+            final Slot slot = iterator.next().getValue();
+            if (!slot.texture().isAllocated()) { // Deleting a texture also deletes its handles, so there is nothing left to make non-resident
+                this.releaseSlot(slot);
+                iterator.remove();
+            }
+        }
+    }
+
+    private void releaseSlot(final Slot slot) {
+        if (this.bindless) {
+            if (slot.texture().isAllocated() && de.florianmichael.thingl.GlCommands.get().glIsTextureHandleResidentARB(slot.value())) {
+                de.florianmichael.thingl.GlCommands.get().glMakeTextureHandleNonResidentARB(slot.value());
+            }
+        } else {
+            final Group group = this.groups.get(slot.group());
+            if (group.textures[(int) slot.value()] == slot.texture()) {
+                group.textures[(int) slot.value()] = null;
+            }
+        }
+    }
+
+    private Slot assign(final Group group, final int groupIndex, final int index, final Texture texture) {
+        group.textures[index] = texture;
+        group.textureIds[index] = texture.getGlId();
+        final Slot slot = new Slot(texture, group.drawBatch, groupIndex, index);
+        this.slots.put(slotKey(texture.getGlId(), 0), slot);
+        return slot;
+    }
+
+    private static long slotKey(final int texture, final int sampler) {
+        return (long) sampler << 32 | (texture & 0xFFFFFFFFL);
+    }
+
+    public record Slot(Texture texture, DrawBatch drawBatch, int group, long value) {
+    }
+
+    private static class Group {
+
+        private final Texture[] textures;
+        private final int[] textureIds;
+        private final int[] boundTextureIds;
+        private DrawBatch drawBatch;
+
+        private Group(final int samplerCount) {
+            this.textures = new Texture[samplerCount];
+            this.textureIds = new int[samplerCount];
+            this.boundTextureIds = new int[samplerCount];
+        }
+
+        private int findFreeIndex() {
+            for (int i = 0; i < this.textures.length; i++) {
+                if (this.textures[i] == null || !this.textures[i].isAllocated()) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int[] getBoundTextureIds() {
+            for (int i = 0; i < this.textures.length; i++) {
+                final Texture texture = this.textures[i];
+                this.boundTextureIds[i] = texture != null && texture.isAllocated() ? texture.getGlId() : 0;
+            }
+            return this.boundTextureIds;
+        }
+
+    }
+
+}
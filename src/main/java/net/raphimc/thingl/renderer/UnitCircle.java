@@ -0,0 +1,142 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.renderer;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.lenni0451.commons.math.MathUtils;
+import net.raphimc.thingl.util.MathUtil;
+
+/**
+ * Sine/cosine lookup table of a unit circle with a fixed segment count, along with a cache of tessellated arcs.<br>
+ * Angles are in degrees, start at the top of the circle and go clockwise (Same as {@link Primitives#filledCircle}).
+ */
+public final class UnitCircle {
+
+    public static final int MIN_SEGMENTS = 4;
+    public static final int MAX_SEGMENTS = 180;
+    private static final int MAX_CACHED_ARCS = 256;
+    private static final float ALIGNMENT_EPSILON = 1E-4F;
+
+    private static final UnitCircle[] CACHE = new UnitCircle[MAX_SEGMENTS + 1];
+
+    /**
+     * Returns the unit circle with a segment count suitable for drawing a circle with the given radius.<br>
+     * The segment count is rounded up to a multiple of 4, so that quarter circles align with the lookup table.
+     *
+     * @param radius The radius of the circle
+     * @return The unit circle
+     */
+    public static UnitCircle forRadius(final float radius) {
+        final float stepSize = MathUtils.clamp(180F / (MathUtil.PI * radius), 2F, 20F);
+        final int segments = (int) Math.ceil(360F / stepSize);
+        return forSegments((segments + 3) & ~3);
+    }
+
+    public static UnitCircle forSegments(final int segments) {
+        if (segments < MIN_SEGMENTS || segments > MAX_SEGMENTS) {
+            throw new IllegalArgumentException("Segment count must be between " + MIN_SEGMENTS + " and " + MAX_SEGMENTS);
+        }
+
+        UnitCircle unitCircle = CACHE[segments];
+        if (unitCircle == null) { // Racy initialization is fine, the instances are equal and safely published through their final fields
+            unitCircle = new UnitCircle(segments);
+            CACHE[segments] = unitCircle;
+        }
+        return unitCircle;
+    }
+
+    private final int segments;
+    private final float stepSize;
+    private final float[] cos;
+    private final float[] sin;
+    private final Long2ObjectMap<float[]> arcs = new Long2ObjectOpenHashMap<>();
+
+    private UnitCircle(final int segments) {
+        this.segments = segments;
+        this.stepSize = 360F / segments;
+        this.cos = new float[segments];
+        this.sin = new float[segments];
+        for (int i = 0; i < segments; i++) {
+            final double rad = Math.toRadians(i * 360D / segments) - Math.PI / 2D;
+            this.cos[i] = (float) Math.cos(rad);
+            this.sin[i] = (float) Math.sin(rad);
+        }
+    }
+
+    /**
+     * Returns the points of the arc between the given angles as interleaved x/y coordinates on the unit circle.<br>
+     * The points go from degEnd to degStart and always end with the point at degStart.<br>
+     * The returned array is shared and must not be modified.
+     *
+     * @param degStart The start angle
+     * @param degEnd The end angle
+     * @return The arc points
+     */
+    public float[] getArc(final float degStart, final float degEnd) {
+        final long key = ((long) Float.floatToIntBits(degStart) << 32) | (Float.floatToIntBits(degEnd) & 0xFFFFFFFFL);
+        synchronized (this.arcs) {
+            final float[] arc = this.arcs.get(key);
+            if (arc != null) {
+                return arc;
+            }
+        }
+
+        final float[] arc = this.tessellateArc(degStart, degEnd);
+        synchronized (this.arcs) {
+            if (this.arcs.size() >= MAX_CACHED_ARCS) {
+                this.arcs.clear();
+            }
+            this.arcs.put(key, arc);
+        }
+        return arc;
+    }
+
+    public int getSegments() {
+        return this.segments;
+    }
+
+    public float getStepSize() {
+        return this.stepSize;
+    }
+
+    private float[] tessellateArc(final float degStart, final float degEnd) {
+        final int steps = degEnd >= degStart ? (int) ((degEnd - degStart) / this.stepSize + ALIGNMENT_EPSILON) + 1 : 0;
+        final float[] arc = new float[(steps + 1) * 2];
+        for (int i = 0; i < steps; i++) {
+            this.putPoint(arc, i, degEnd - i * this.stepSize);
+        }
+        this.putPoint(arc, steps, degStart);
+        return arc;
+    }
+
+    private void putPoint(final float[] arc, final int pointIndex, final float angle) {
+        final float index = angle / this.stepSize;
+        final int roundedIndex = Math.round(index);
+        if (Math.abs(index - roundedIndex) < ALIGNMENT_EPSILON) {
+            final int tableIndex = Math.floorMod(roundedIndex, this.segments);
+            arc[pointIndex * 2] = this.cos[tableIndex];
+            arc[pointIndex * 2 + 1] = this.sin[tableIndex];
+        } else {
+            final double rad = Math.toRadians(angle) - Math.PI / 2D;
+            arc[pointIndex * 2] = (float) Math.cos(rad);
+            arc[pointIndex * 2 + 1] = (float) Math.sin(rad);
+        }
+    }
+
+}
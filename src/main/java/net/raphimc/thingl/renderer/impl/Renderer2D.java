@@ -17,8 +17,8 @@
  */
 package net.raphimc.thingl.renderer.impl;
 
-import earcut4j.Earcut;
 import net.lenni0451.commons.color.Color;
+import net.lenni0451.commons.lazy.Lazy;
 import net.lenni0451.commons.math.shapes.triangle.TriangleD;
 import net.lenni0451.commons.math.shapes.triangle.TriangleF;
 import net.lenni0451.commons.math.shapes.triangle.TriangleI;
@@ -27,8 +27,10 @@ import net.raphimc.thingl.drawbuilder.BuiltinDrawBatches;
 import net.raphimc.thingl.drawbuilder.DrawBatch;
 import net.raphimc.thingl.drawbuilder.databuilder.holder.IndexDataHolder;
 import net.raphimc.thingl.drawbuilder.databuilder.holder.VertexDataHolder;
+import net.raphimc.thingl.renderer.PolygonTriangulator;
 import net.raphimc.thingl.renderer.Primitives;
 import net.raphimc.thingl.renderer.Renderer;
+import net.raphimc.thingl.renderer.TextureBatcher;
 import net.raphimc.thingl.resource.image.texture.Texture2D;
 import net.raphimc.thingl.resource.image.texture.Texture2DArray;
 import net.raphimc.thingl.util.CacheUtil;
@@ -69,6 +71,25 @@ public class Renderer2D extends Renderer {
             .appendSetupAction(p -> p.setUniformSampler("u_Texture", textureId))
             .build());
 
+    // FlorianMichael - batched textures in Renderer2D
+    protected final Lazy<TextureBatcher> textureBatcher = Lazy.of(() -> new TextureBatcher(new DrawBatch.Builder(BuiltinDrawBatches.TEXTURE_SNIPPET)
+            .program(() -> ThinGL.programs().getBatchedTexture())
+            .vertexDataLayout(BuiltinDrawBatches.POSITION_COLOR_TEXTURE_SLOT_LAYOUT)
+            .buildSnippet()));
+
+    protected final Lazy<TextureBatcher> colorizedTextureBatcher = Lazy.of(() -> new TextureBatcher(new DrawBatch.Builder(BuiltinDrawBatches.TEXTURE_SNIPPET)
+            .program(() -> ThinGL.programs().getBatchedColorizedTexture())
+            .vertexDataLayout(BuiltinDrawBatches.POSITION_COLOR_TEXTURE_SLOT_LAYOUT)
+            .buildSnippet()));
+
+    private boolean textureBatching;
+    // FlorianMichael - batched textures in Renderer2D
+
+    // FlorianMichael - in-tree polygon triangulation
+    protected final PolygonTriangulator polygonTriangulator = new PolygonTriangulator();
+    private float[] polygonPoints = new float[0];
+    // FlorianMichael - in-tree polygon triangulation
+
     public void filledRectangle(final Matrix4f positionMatrix, final Rectangled rectangle, final Color color) {
         this.filledRectangle(positionMatrix, rectangle, color, color, color, color);
     }
@@ -533,26 +554,38 @@ public class Renderer2D extends Renderer {
     }
 
     public void filledPolygon(final Matrix4f positionMatrix, final List<Vector2f> points, final Color color) {
-        ThinGL.capabilities().ensureEarcut4jPresent();
+        // FlorianMichael - in-tree polygon triangulation
+        if (this.polygonPoints.length < points.size() * 2) {
+            this.polygonPoints = new float[points.size() * 2];
+        }
+        for (int i = 0; i < points.size(); i++) {
+            final Vector2f point = points.get(i);
+            this.polygonPoints[i * 2] = point.x;
+            this.polygonPoints[i * 2 + 1] = point.y;
+        }
+        this.filledPolygon(positionMatrix, this.polygonPoints, points.size(), color);
+        // FlorianMichael - in-tree polygon triangulation
+    }
+
+    // FlorianMichael - in-tree polygon triangulation
+    public void filledPolygon(final Matrix4f positionMatrix, final float[] points, final int pointCount, final Color color) {
         final VertexDataHolder vertexDataHolder = this.targetMultiDrawBatchDataHolder.getVertexDataHolder(BuiltinDrawBatches.INDEXED_COLOR_TRIANGLE);
         final IndexDataHolder indexDataHolder = this.targetMultiDrawBatchDataHolder.getIndexDataHolder(BuiltinDrawBatches.INDEXED_COLOR_TRIANGLE);
         final int abgrColor = color.toABGR();
 
-        final double[] data = new double[points.size() * 2];
-        for (int i = 0; i < points.size(); i++) {
-            final Vector2f point = points.get(i);
-            data[i * 2] = point.x;
-            data[i * 2 + 1] = point.y;
-            vertexDataHolder.putVector3f(positionMatrix, point.x, point.y, 0F).putColor(abgrColor).endVertex();
-        }
-        final List<Integer> indices = Earcut.earcut(data);
-        for (int i = indices.size() - 1; i >= 0; i--) {
-            indexDataHolder.putRelativeIndex(indices.get(i));
+        for (int i = 0; i < pointCount; i++) {
+            vertexDataHolder.putVector3f(positionMatrix, points[i * 2], points[i * 2 + 1], 0F).putColor(abgrColor).endVertex();
         }
+        this.polygonTriangulator.triangulate(points, pointCount, indexDataHolder);
 
         this.drawIfNotBuffering();
     }
 
+    public PolygonTriangulator getPolygonTriangulator() {
+        return this.polygonTriangulator;
+    }
+    // FlorianMichael - in-tree polygon triangulation
+
     public void texture(final Matrix4f positionMatrix, final Texture2D texture, final float x, final float y) {
         this.texture(positionMatrix, texture, x, y, texture.getWidth(), texture.getHeight());
     }
@@ -570,6 +603,12 @@ public class Renderer2D extends Renderer {
     }
 
     public void textureWithRawTexCoord(final Matrix4f positionMatrix, final Texture2D texture, final float x, final float y, final float width, final float height, final float u, final float v, final float uWidth, final float vHeight) {
+        // FlorianMichael - batched textures in Renderer2D
+        if (this.textureBatching) {
+            this.batchedTextureWithRawTexCoord(this.textureBatcher.get(), positionMatrix, texture, x, y, width, height, u, v, uWidth, vHeight, 0xFFFFFFFF);
+            return;
+        }
+        // FlorianMichael - batched textures in Renderer2D
         final VertexDataHolder vertexDataHolder = this.targetMultiDrawBatchDataHolder.getVertexDataHolder(this.textureQuad.apply(texture.getGlId()));
         vertexDataHolder.putVector3f(positionMatrix, x, y + height, 0F).putTextureCoord(u, v + vHeight).endVertex();
         vertexDataHolder.putVector3f(positionMatrix, x + width, y + height, 0F).putTextureCoord(u + uWidth, v + vHeight).endVertex();
@@ -620,6 +659,12 @@ public class Renderer2D extends Renderer {
     }
 
     public void coloredTextureWithRawTexCoord(final Matrix4f positionMatrix, final Texture2D texture, final float x, final float y, final float width, final float height, final float u, final float v, final float uWidth, final float vHeight, final Color color) {
+        // FlorianMichael - batched textures in Renderer2D
+        if (this.textureBatching) {
+            this.batchedTextureWithRawTexCoord(this.textureBatcher.get(), positionMatrix, texture, x, y, width, height, u, v, uWidth, vHeight, color.toABGR());
+            return;
+        }
+        // FlorianMichael - batched textures in Renderer2D
         final VertexDataHolder vertexDataHolder = this.targetMultiDrawBatchDataHolder.getVertexDataHolder(this.coloredTextureQuad.apply(texture.getGlId()));
         vertexDataHolder.putVector3f(positionMatrix, x, y + height, 0F).putColor(color).putTextureCoord(u, v + vHeight).endVertex();
         vertexDataHolder.putVector3f(positionMatrix, x + width, y + height, 0F).putColor(color).putTextureCoord(u + uWidth, v + vHeight).endVertex();
@@ -645,6 +690,12 @@ public class Renderer2D extends Renderer {
     }
 
     public void colorizedTextureWithRawTexCoord(final Matrix4f positionMatrix, final Texture2D texture, final float x, final float y, final float width, final float height, final float u, final float v, final float uWidth, final float vHeight, final Color color) {
+        // FlorianMichael - batched textures in Renderer2D
+        if (this.textureBatching) {
+            this.batchedTextureWithRawTexCoord(this.colorizedTextureBatcher.get(), positionMatrix, texture, x, y, width, height, u, v, uWidth, vHeight, color.toABGR());
+            return;
+        }
+        // FlorianMichael - batched textures in Renderer2D
         final VertexDataHolder vertexDataHolder = this.targetMultiDrawBatchDataHolder.getVertexDataHolder(this.colorizedTextureQuad.apply(texture.getGlId()));
         vertexDataHolder.putVector3f(positionMatrix, x, y + height, 0F).putColor(color).putTextureCoord(u, v + vHeight).endVertex();
         vertexDataHolder.putVector3f(positionMatrix, x + width, y + height, 0F).putColor(color).putTextureCoord(u + uWidth, v + vHeight).endVertex();
@@ -653,6 +704,45 @@ public class Renderer2D extends Renderer {
         this.drawIfNotBuffering();
     }
 
+    // FlorianMichael - batched textures in Renderer2D
+    /**
+     * Enables or disables texture batching.<br>
+     * When enabled, textured primitives store a texture slot in their vertex data so primitives with different textures can be drawn with a single draw call.
+     * Uses bindless textures if supported, otherwise sampler arrays which are automatically split into multiple draw batches once the sampler limit is exceeded.<br>
+     * Texture array layers are not batched.
+     *
+     * @param textureBatching Whether texture batching should be enabled
+     */
+    public void setTextureBatching(final boolean textureBatching) {
+        this.textureBatching = textureBatching;
+    }
+
+    public boolean isTextureBatching() {
+        return this.textureBatching;
+    }
+
+    protected void batchedTextureWithRawTexCoord(final TextureBatcher textureBatcher, final Matrix4f positionMatrix, final Texture2D texture, final float x, final float y, final float width, final float height, final float u, final float v, final float uWidth, final float vHeight, final int abgrColor) {
+        final TextureBatcher.Slot slot = textureBatcher.getSlot(texture);
+        final VertexDataHolder vertexDataHolder = this.targetMultiDrawBatchDataHolder.getVertexDataHolder(slot.drawBatch());
+        textureBatcher.putTexture(vertexDataHolder.putVector3f(positionMatrix, x, y + height, 0F).putColor(abgrColor).putTextureCoord(u, v + vHeight), slot).endVertex();
+        textureBatcher.putTexture(vertexDataHolder.putVector3f(positionMatrix, x + width, y + height, 0F).putColor(abgrColor).putTextureCoord(u + uWidth, v + vHeight), slot).endVertex();
+        textureBatcher.putTexture(vertexDataHolder.putVector3f(positionMatrix, x + width, y, 0F).putColor(abgrColor).putTextureCoord(u + uWidth, v), slot).endVertex();
+        textureBatcher.putTexture(vertexDataHolder.putVector3f(positionMatrix, x, y, 0F).putColor(abgrColor).putTextureCoord(u, v), slot).endVertex();
+        this.drawIfNotBuffering();
+    }
+
+    @Override
+    public void free() {
+        super.free();
+        if (this.textureBatcher.isInitialized()) {
+            this.textureBatcher.get().free();
+        }
+        if (this.colorizedTextureBatcher.isInitialized()) {
+            this.colorizedTextureBatcher.get().free();
+        }
+    }
+    // FlorianMichael - batched textures in Renderer2D
+
     @Deprecated(forRemoval = true)
     public void connectedLine(final Matrix4f positionMatrix, final List<Vector2f> points, final float width, final Color color) {
         this.connectedLine(positionMatrix, points, width, color, false);
@@ -41,7 +41,7 @@ public abstract class Buffer extends GLObject {
     }
 
     public static Buffer fromGlId(final int glId) {
-        if (!GL15C.glIsBuffer(glId)) {
+        if (!de.florianmichael.thingl.GlCommands.get().glIsBuffer(glId)) {
             throw new IllegalArgumentException("Not a buffer object");
         }
         return fromGlIdUnsafe(glId);
@@ -107,7 +107,7 @@ public abstract class Buffer extends GLObject {
 
     @Override
     protected void free0() {
-        GL15C.glDeleteBuffers(this.getGlId());
+        de.florianmichael.thingl.GlCommands.get().glDeleteBuffers(this.getGlId()); // FlorianMichael - route buffer deletion through GlCommands
     }
 
     @Override
@@ -87,7 +87,7 @@ public class Framebuffer extends GLContainerObject {
     }
 
     public static Framebuffer fromGlId(final int glId) {
-        if (glId != 0 && !GL30C.glIsFramebuffer(glId)) {
+        if (glId != 0 && !de.florianmichael.thingl.GlCommands.get().glIsFramebuffer(glId)) {
             throw new IllegalArgumentException("Not a framebuffer object");
         }
         return fromGlIdUnsafe(glId);
@@ -339,7 +339,7 @@ public class Framebuffer extends GLContainerObject {
 
     @Override
     protected void free0() {
-        GL30C.glDeleteFramebuffers(this.getGlId());
+        de.florianmichael.thingl.GlCommands.get().glDeleteFramebuffers(this.getGlId()); // FlorianMichael - add macOS support
     }
 
     @Override
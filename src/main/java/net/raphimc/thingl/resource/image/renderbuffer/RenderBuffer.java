@@ -38,7 +38,7 @@ public abstract class RenderBuffer extends GLObject implements ImageStorage {
     }
 
     public static RenderBuffer fromGlId(final int glId) {
-        if (!GL30C.glIsRenderbuffer(glId)) {
+        if (!de.florianmichael.thingl.GlCommands.get().glIsRenderbuffer(glId)) {
             throw new IllegalArgumentException("Not a renderbuffer object");
         }
         return fromGlIdUnsafe(glId);
@@ -60,7 +60,7 @@ public abstract class RenderBuffer extends GLObject implements ImageStorage {
 
     @Override
     protected void free0() {
-        GL30C.glDeleteRenderbuffers(this.getGlId());
+        de.florianmichael.thingl.GlCommands.get().glDeleteRenderbuffers(this.getGlId());
     }
 
     @Override
@@ -38,7 +38,7 @@ public abstract class Texture extends GLObject {
     }
 
     public static Texture fromGlId(final int glId) {
-        if (!GL11C.glIsTexture(glId)) {
+        if (!de.florianmichael.thingl.GlCommands.get().glIsTexture(glId)) {
             throw new IllegalArgumentException("Not a texture object");
         }
         return fromGlIdUnsafe(glId);
@@ -17,22 +17,30 @@
  */
 package net.raphimc.thingl.resource.program;
 
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
 import net.lenni0451.commons.color.Color;
 import net.raphimc.thingl.ThinGL;
+import net.raphimc.thingl.program.ProgramBinaryCache;
 import net.raphimc.thingl.resource.GLContainerObject;
 import net.raphimc.thingl.resource.buffer.Buffer;
 import net.raphimc.thingl.resource.framebuffer.Framebuffer;
 import net.raphimc.thingl.resource.image.texture.ImageTexture;
 import net.raphimc.thingl.resource.image.texture.Texture;
 import net.raphimc.thingl.resource.shader.Shader;
+import net.raphimc.thingl.resource.shader.ShaderStage;
 import org.joml.Matrix3f;
 import org.joml.Matrix4f;
 import org.lwjgl.opengl.*;
 import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -41,23 +49,42 @@ public class Program extends GLContainerObject {
 
     private Set<Shader> shaders;
 
-    private final Object2IntMap<String> uniformLocationCache = new Object2IntOpenHashMap<>();
+    private final Object2ObjectMap<String, UniformHandle> uniformHandles = new Object2ObjectOpenHashMap<>(); // FlorianMichael - uniform handles
     private final Object2IntMap<String> uniformBlockIndexCache = new Object2IntOpenHashMap<>();
     private final Object2IntMap<String> shaderStorageBlockIndexCache = new Object2IntOpenHashMap<>();
+    // FlorianMichael - uniform handles
+    private final Int2IntMap uniformBlockBindings = createBindingMap();
+    private final Int2IntMap shaderStorageBlockBindings = createBindingMap();
+    // FlorianMichael - uniform handles
 
     private int currentTextureUnit;
     private int currentImageUnit;
     private int currentUniformBufferIndex;
     private int currentShaderStorageBufferIndex;
-
-    public Program(final Shader... shaders) {
-        super(GL20C.glCreateProgram());
+    // FlorianMichael - uniform handles
+    private int linkGeneration;
+    private final boolean cacheUniformValues;
+    // FlorianMichael - uniform handles
+
+    public Program(final ShaderStage... shaders) { // FlorianMichael - program binary cache
+        super(de.florianmichael.thingl.GlCommands.get().glCreateProgram());
+        this.cacheUniformValues = true; // FlorianMichael - uniform handles
         this.shaders = new HashSet<>(shaders.length);
         try {
-            for (Shader shader : shaders) {
-                this.attachShader(shader);
+            // FlorianMichael - program binary cache
+            for (ShaderStage shader : shaders) {
+                if (shader instanceof Shader compiledShader) { // Already compiled shaders are owned by the program, even if it is loaded from a binary
+                    this.attachShader(compiledShader);
+                }
+            }
+            final ProgramBinaryCache programBinaryCache = ThinGL.programBinaryCache();
+            if (programBinaryCache.isEnabled()) {
+                programBinaryCache.linkAndValidate(this, shaders);
+            } else {
+                this.attachShaders(shaders);
+                this.linkAndValidate();
             }
-            this.linkAndValidate();
+            // FlorianMichael - program binary cache
         } catch (Throwable e) {
             this.free();
             throw e;
@@ -66,10 +93,11 @@ public class Program extends GLContainerObject {
 
     protected Program(final int glId) {
         super(glId);
+        this.cacheUniformValues = false; // FlorianMichael - uniform handles: Wrapped programs are usually modified by foreign code as well
     }
 
     public static Program fromGlId(final int glId) {
-        if (!GL20C.glIsProgram(glId)) {
+        if (!de.florianmichael.thingl.GlCommands.get().glIsProgram(glId)) {
             throw new IllegalArgumentException("Not a program object");
         }
         return fromGlIdUnsafe(glId);
@@ -81,31 +109,96 @@ public class Program extends GLContainerObject {
 
     public void attachShader(final Shader shader) {
         this.getShaders(); // Ensure shaders set is initialized
-        GL20C.glAttachShader(this.getGlId(), shader.getGlId());
+        de.florianmichael.thingl.GlCommands.get().glAttachShader(this.getGlId(), shader.getGlId());
         this.shaders.add(shader);
     }
 
+    // FlorianMichael - program binary cache
+    /**
+     * Compiles the given shader stages if necessary and attaches the ones which aren't attached yet.
+     *
+     * @param shaders The shader stages
+     */
+    public void attachShaders(final ShaderStage... shaders) {
+        for (ShaderStage stage : shaders) {
+            final Shader shader = stage.getOrCompile();
+            if (!this.getShaders().contains(shader)) {
+                this.attachShader(shader);
+            }
+        }
+    }
+    // FlorianMichael - program binary cache
+
     public void detachShader(final Shader shader) {
         this.getShaders(); // Ensure shaders set is initialized
-        GL20C.glDetachShader(this.getGlId(), shader.getGlId());
+        de.florianmichael.thingl.GlCommands.get().glDetachShader(this.getGlId(), shader.getGlId());
         this.shaders.remove(shader);
     }
 
     public void linkAndValidate() {
-        this.uniformLocationCache.clear();
         this.uniformBlockIndexCache.clear();
         this.shaderStorageBlockIndexCache.clear();
-        GL20C.glLinkProgram(this.getGlId());
-        final String linkLog = GL20C.glGetProgramInfoLog(this.getGlId());
-        if (GL20C.glGetProgrami(this.getGlId(), GL20C.GL_LINK_STATUS) == GL11C.GL_FALSE) {
+        de.florianmichael.thingl.GlCommands.get().glLinkProgram(this.getGlId());
+        final String linkLog = de.florianmichael.thingl.GlCommands.get().glGetProgramInfoLog(this.getGlId());
+        if (de.florianmichael.thingl.GlCommands.get().glGetProgrami(this.getGlId(), GL20C.GL_LINK_STATUS) == GL11C.GL_FALSE) {
             throw new IllegalStateException("Error linking program: " + linkLog);
         } else if (!linkLog.isBlank()) {
             ThinGL.LOGGER.warn("Program link log: " + linkLog);
         }
+        this.onLinked(); // FlorianMichael - uniform handles
+
+        this.validate(); // FlorianMichael - program binary cache
+    }
 
-        GL20C.glValidateProgram(this.getGlId());
-        final String validateLog = GL20C.glGetProgramInfoLog(this.getGlId());
-        if (GL20C.glGetProgrami(this.getGlId(), GL20C.GL_VALIDATE_STATUS) == GL11C.GL_FALSE) {
+    // FlorianMichael - program binary cache
+    /**
+     * Loads a previously retrieved program binary instead of linking the attached shaders.
+     *
+     * @param binaryFormat The driver specific binary format
+     * @param binary The program binary
+     * @return True if the driver accepted the binary, false if the program has to be linked from source
+     */
+    public boolean loadBinary(final int binaryFormat, final ByteBuffer binary) {
+        this.uniformBlockIndexCache.clear();
+        this.shaderStorageBlockIndexCache.clear();
+        de.florianmichael.thingl.GlCommands.get().glProgramBinary(this.getGlId(), binaryFormat, binary);
+        if (de.florianmichael.thingl.GlCommands.get().glGetProgrami(this.getGlId(), GL20C.GL_LINK_STATUS) == GL11C.GL_FALSE) {
+            return false;
+        }
+        this.onLinked(); // FlorianMichael - uniform handles
+        return true;
+    }
+
+    /**
+     * Retrieves the program binary of this linked program.<br>
+     * The returned buffer has to be freed with {@link MemoryUtil#memFree(java.nio.Buffer)}.
+     *
+     * @param binaryFormat Array of length 1 receiving the driver specific binary format
+     * @return The program binary or null if the driver doesn't provide one
+     */
+    public ByteBuffer getBinary(final int[] binaryFormat) {
+        final int length = de.florianmichael.thingl.GlCommands.get().glGetProgrami(this.getGlId(), GL41C.GL_PROGRAM_BINARY_LENGTH);
+        if (length <= 0) {
+            return null;
+        }
+        final ByteBuffer binary = MemoryUtil.memAlloc(length);
+        try (MemoryStack memoryStack = MemoryStack.stackPush()) {
+            final IntBuffer writtenLength = memoryStack.mallocInt(1);
+            final IntBuffer format = memoryStack.mallocInt(1);
+            de.florianmichael.thingl.GlCommands.get().glGetProgramBinary(this.getGlId(), writtenLength, format, binary);
+            binaryFormat[0] = format.get(0);
+            return binary.limit(writtenLength.get(0));
+        } catch (Throwable e) {
+            MemoryUtil.memFree(binary);
+            throw e;
+        }
+    }
+    // FlorianMichael - program binary cache
+
+    public void validate() {
+        de.florianmichael.thingl.GlCommands.get().glValidateProgram(this.getGlId());
+        final String validateLog = de.florianmichael.thingl.GlCommands.get().glGetProgramInfoLog(this.getGlId());
+        if (de.florianmichael.thingl.GlCommands.get().glGetProgrami(this.getGlId(), GL20C.GL_VALIDATE_STATUS) == GL11C.GL_FALSE) {
             if (de.florianmichael.thingl.GlCommands.isApple()) return; // FlorianMichael - add macOS support
             throw new IllegalStateException("Error validating program: " + validateLog);
         } else if (!validateLog.isBlank()) {
@@ -114,31 +207,31 @@ public class Program extends GLContainerObject {
     }
 
     public void setUniformBoolean(final String name, final boolean v) {
-        GL41C.glProgramUniform1i(this.getGlId(), this.getUniformLocation(name), v ? GL11C.GL_TRUE : GL11C.GL_FALSE);
+        this.getUniformHandle(name).setBoolean(v); // FlorianMichael - uniform handles
     }
 
     public void setUniformInt(final String name, final int v) {
-        GL41C.glProgramUniform1i(this.getGlId(), this.getUniformLocation(name), v);
+        this.getUniformHandle(name).setInt(v); // FlorianMichael - uniform handles
     }
 
     public void setUniformIntArray(final String name, final int... v) {
-        GL41C.glProgramUniform1iv(this.getGlId(), this.getUniformLocation(name), v);
+        this.getUniformHandle(name).setIntArray(v); // FlorianMichael - uniform handles
     }
 
     public void setUniformFloat(final String name, final float v) {
-        GL41C.glProgramUniform1f(this.getGlId(), this.getUniformLocation(name), v);
+        this.getUniformHandle(name).setFloat(v); // FlorianMichael - uniform handles
     }
 
     public void setUniformVector2f(final String name, final float v1, final float v2) {
-        GL41C.glProgramUniform2f(this.getGlId(), this.getUniformLocation(name), v1, v2);
+        this.getUniformHandle(name).setVector2f(v1, v2); // FlorianMichael - uniform handles
     }
 
     public void setUniformVector3f(final String name, final float v1, final float v2, final float v3) {
-        GL41C.glProgramUniform3f(this.getGlId(), this.getUniformLocation(name), v1, v2, v3);
+        this.getUniformHandle(name).setVector3f(v1, v2, v3); // FlorianMichael - uniform handles
     }
 
     public void setUniformVector4f(final String name, final float v1, final float v2, final float v3, final float v4) {
-        GL41C.glProgramUniform4f(this.getGlId(), this.getUniformLocation(name), v1, v2, v3, v4);
+        this.getUniformHandle(name).setVector4f(v1, v2, v3, v4); // FlorianMichael - uniform handles
     }
 
     public void setUniformVector4f(final String name, final Color color) {
@@ -146,27 +239,11 @@ public class Program extends GLContainerObject {
     }
 
     public void setUniformMatrix3f(final String name, final Matrix3f matrix) {
-        try (MemoryStack memoryStack = MemoryStack.stackPush()) {
-            final long address = memoryStack.nmalloc(Float.BYTES * 3 * 3);
-            if (ThinGL.capabilities().supportsJomlUnsafe()) {
-                matrix.getToAddress(address);
-            } else {
-                matrix.get(MemoryUtil.memFloatBuffer(address, 3 * 3));
-            }
-            GL41C.nglProgramUniformMatrix3fv(this.getGlId(), this.getUniformLocation(name), 1, false, address);
-        }
+        this.getUniformHandle(name).setMatrix3f(matrix); // FlorianMichael - uniform handles
     }
 
     public void setUniformMatrix4f(final String name, final Matrix4f matrix) {
-        try (MemoryStack memoryStack = MemoryStack.stackPush()) {
-            final long address = memoryStack.nmalloc(Float.BYTES * 4 * 4);
-            if (ThinGL.capabilities().supportsJomlUnsafe()) {
-                matrix.getToAddress(address);
-            } else {
-                matrix.get(MemoryUtil.memFloatBuffer(address, 4 * 4));
-            }
-            GL41C.nglProgramUniformMatrix4fv(this.getGlId(), this.getUniformLocation(name), 1, false, address);
-        }
+        this.getUniformHandle(name).setMatrix4f(matrix); // FlorianMichael - uniform handles
     }
 
     public void setUniformSampler(final String name, final Framebuffer framebuffer) {
@@ -190,14 +267,24 @@ public class Program extends GLContainerObject {
     }
 
     public void setUniformSampler(final String name, final int textureId) {
+        this.setUniformSampler(this.getUniformHandle(name), textureId); // FlorianMichael - uniform handles
+    }
+
+    // FlorianMichael - uniform handles
+    public void setUniformSampler(final UniformHandle handle, final Texture texture) {
+        this.setUniformSampler(handle, texture != null ? texture.getGlId() : 0);
+    }
+
+    public void setUniformSampler(final UniformHandle handle, final int textureId) {
         de.florianmichael.thingl.GlCommands.get().glBindTextureUnit(this.currentTextureUnit, textureId); // FlorianMichael - add macOS support
-        GL33C.glBindSampler(this.currentTextureUnit, 0); // FlorianMichael - backport https://github.com/RaphiMC/ThinGL/commit/2efca55c2ad752f386c6f606bb085a059f425d75
-        this.setUniformInt(name, this.currentTextureUnit++);
+        de.florianmichael.thingl.GlCommands.get().glBindSampler(this.currentTextureUnit, 0); // FlorianMichael - backport https://github.com/RaphiMC/ThinGL/commit/2efca55c2ad752f386c6f606bb085a059f425d75
+        handle.setInt(this.currentTextureUnit++);
     }
+    // FlorianMichael - uniform handles
 
     public void setUniformSamplerArray(final String name, final int... textureIds) {
         de.florianmichael.thingl.GlCommands.get().glBindTextures(this.currentTextureUnit, textureIds); // FlorianMichael - add macOS support
-        GL44C.nglBindSamplers(this.currentTextureUnit, textureIds.length, 0L); // FlorianMichael - backport https://github.com/RaphiMC/ThinGL/commit/2efca55c2ad752f386c6f606bb085a059f425d75
+        de.florianmichael.thingl.GlCommands.get().nglBindSamplers(this.currentTextureUnit, textureIds.length, 0L); // FlorianMichael - backport https://github.com/RaphiMC/ThinGL/commit/2efca55c2ad752f386c6f606bb085a059f425d75
         final int[] textureUnits = new int[textureIds.length];
         for (int i = 0; i < textureIds.length; i++) {
             textureUnits[i] = this.currentTextureUnit + i;
@@ -224,22 +311,46 @@ public class Program extends GLContainerObject {
     }
 
     public void setUniformBuffer(final String name, final Buffer buffer) {
-        GL31C.glUniformBlockBinding(this.getGlId(), this.getUniformBlockIndex(name), this.currentUniformBufferIndex);
+        this.setUniformBuffer(this.getUniformBlockIndex(name), buffer); // FlorianMichael - uniform handles
+    }
+
+    // FlorianMichael - uniform handles
+    /**
+     * @param blockIndex The block index as returned by {@link #getUniformBlockIndex(String)}
+     * @param buffer The buffer to bind or null
+     */
+    public void setUniformBuffer(final int blockIndex, final Buffer buffer) {
+        if (!this.cacheUniformValues || this.uniformBlockBindings.put(blockIndex, this.currentUniformBufferIndex) != this.currentUniformBufferIndex) {
+            de.florianmichael.thingl.GlCommands.get().glUniformBlockBinding(this.getGlId(), blockIndex, this.currentUniformBufferIndex);
+        }
         if (buffer != null) {
-            GL30C.glBindBufferBase(GL31C.GL_UNIFORM_BUFFER, this.currentUniformBufferIndex++, buffer.getGlId());
+            de.florianmichael.thingl.GlCommands.get().glBindBufferBase(GL31C.GL_UNIFORM_BUFFER, this.currentUniformBufferIndex++, buffer.getGlId());
         } else {
-            GL30C.glBindBufferBase(GL31C.GL_UNIFORM_BUFFER, this.currentUniformBufferIndex++, 0);
+            de.florianmichael.thingl.GlCommands.get().glBindBufferBase(GL31C.GL_UNIFORM_BUFFER, this.currentUniformBufferIndex++, 0);
         }
     }
+    // FlorianMichael - uniform handles
 
     public void setShaderStorageBuffer(final String name, final Buffer buffer) {
-        de.florianmichael.thingl.GlCommands.get().glShaderStorageBlockBinding(this.getGlId(), this.getShaderStorageBlockIndex(name), this.currentShaderStorageBufferIndex);
+        this.setShaderStorageBuffer(this.getShaderStorageBlockIndex(name), buffer); // FlorianMichael - uniform handles
+    }
+
+    // FlorianMichael - uniform handles
+    /**
+     * @param blockIndex The block index as returned by {@link #getShaderStorageBlockIndex(String)}
+     * @param buffer The buffer to bind or null
+     */
+    public void setShaderStorageBuffer(final int blockIndex, final Buffer buffer) {
+        if (!this.cacheUniformValues || this.shaderStorageBlockBindings.put(blockIndex, this.currentShaderStorageBufferIndex) != this.currentShaderStorageBufferIndex) {
+            de.florianmichael.thingl.GlCommands.get().glShaderStorageBlockBinding(this.getGlId(), blockIndex, this.currentShaderStorageBufferIndex);
+        }
         if (buffer != null) {
-            GL30C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, this.currentShaderStorageBufferIndex++, buffer.getGlId());
+            de.florianmichael.thingl.GlCommands.get().glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, this.currentShaderStorageBufferIndex++, buffer.getGlId());
         } else {
-            GL30C.glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, this.currentShaderStorageBufferIndex++, 0);
+            de.florianmichael.thingl.GlCommands.get().glBindBufferBase(GL43C.GL_SHADER_STORAGE_BUFFER, this.currentShaderStorageBufferIndex++, 0);
         }
     }
+    // FlorianMichael - uniform handles
 
     public void bind() {
         this.currentTextureUnit = 0;
@@ -264,7 +375,7 @@ public class Program extends GLContainerObject {
 
     @Override
     protected void free0() {
-        GL20C.glDeleteProgram(this.getGlId());
+        de.florianmichael.thingl.GlCommands.get().glDeleteProgram(this.getGlId());
     }
 
     @Override
@@ -291,10 +402,10 @@ public class Program extends GLContainerObject {
 
     public Set<Shader> getShaders() {
         if (this.shaders == null) {
-            final int shaderCount = GL20C.glGetProgrami(this.getGlId(), GL20C.GL_ATTACHED_SHADERS);
+            final int shaderCount = de.florianmichael.thingl.GlCommands.get().glGetProgrami(this.getGlId(), GL20C.GL_ATTACHED_SHADERS);
             this.shaders = new HashSet<>(shaderCount);
             final int[] shaderGlIds = new int[shaderCount];
-            GL20C.glGetAttachedShaders(this.getGlId(), null, shaderGlIds);
+            de.florianmichael.thingl.GlCommands.get().glGetAttachedShaders(this.getGlId(), null, shaderGlIds);
             for (int shaderGlId : shaderGlIds) {
                 this.shaders.add(Shader.fromGlId(shaderGlId));
             }
@@ -302,13 +413,63 @@ public class Program extends GLContainerObject {
         return Collections.unmodifiableSet(this.shaders);
     }
 
-    private int getUniformLocation(final String name) {
-        return this.uniformLocationCache.computeIfAbsent(name, this::queryUniformLocation);
+    // FlorianMichael - uniform handles
+    /**
+     * Returns the resolved handle of the uniform. The handle stays valid if the program is relinked.
+     *
+     * @param name The uniform name
+     * @return The uniform handle
+     */
+    public UniformHandle getUniformHandle(final String name) {
+        UniformHandle handle = this.uniformHandles.get(name);
+        if (handle == null) {
+            handle = new UniformHandle(this, name);
+            this.uniformHandles.put(name, handle);
+        }
+        return handle;
+    }
+
+    /**
+     * Forgets the last uploaded uniform values and block bindings. Required if the program state was modified without this object.<br>
+     * Programs wrapped with {@link #fromGlId(int)} don't cache uniform values and block bindings at all.
+     */
+    public void invalidateUniforms() {
+        for (UniformHandle handle : this.uniformHandles.values()) {
+            handle.invalidate();
+        }
+        this.uniformBlockBindings.clear();
+        this.shaderStorageBlockBindings.clear();
+    }
+
+    private static Int2IntMap createBindingMap() {
+        final Int2IntMap map = new Int2IntOpenHashMap();
+        map.defaultReturnValue(-1);
+        return map;
+    }
+
+    private void onLinked() {
+        for (UniformHandle handle : this.uniformHandles.values()) {
+            handle.resolve();
+        }
+        this.uniformBlockBindings.clear();
+        this.shaderStorageBlockBindings.clear();
+        this.linkGeneration++;
+    }
+
+    /**
+     * @return True if unchanged uniform values and block bindings are skipped. False for programs wrapped with {@link #fromGlId(int)}, since they might be modified by foreign code
+     */
+    public boolean cachesUniformValues() {
+        return this.cacheUniformValues;
     }
 
-    private int queryUniformLocation(final String name) {
-        return GL20C.glGetUniformLocation(this.getGlId(), name);
+    /**
+     * @return A counter which changes every time the program is linked. Cached block indices have to be resolved again once it changed
+     */
+    public int getLinkGeneration() {
+        return this.linkGeneration;
     }
+    // FlorianMichael - uniform handles
 
     public int getUniformBlockIndex(final String name) {
         return this.uniformBlockIndexCache.computeIfAbsent(name, this::queryUniformBlockIndex);
@@ -0,0 +1,244 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.resource.program;
+
+import net.lenni0451.commons.color.Color;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.lwjgl.opengl.GL11C;
+import org.lwjgl.opengl.GL31C;
+
+import java.util.Arrays;
+
+/**
+ * Resolved uniform of a program. Obtain it once with {@link Program#getUniformHandle(String)} to avoid the name lookup on every update.<br>
+ * The last uploaded value is kept, so setting an unchanged value doesn't issue a GL call. Programs wrapped with {@link Program#fromGlId(int)} always upload the value, since foreign code might change it.
+ */
+public class UniformHandle {
+
+    private final Program program;
+    private final String name;
+    private int location;
+    private int type;
+    private int size;
+
+    private int[] values = new int[4];
+    private int valueCount = -1;
+    private final float[] matrix3Values = new float[3 * 3];
+    private final float[] matrix4Values = new float[4 * 4];
+
+    UniformHandle(final Program program, final String name) {
+        this.program = program;
+        this.name = name;
+        this.resolve();
+    }
+
+    /**
+     * Resolves the location and type of the uniform again. Called after the program was relinked.
+     */
+    void resolve() {
+        this.location = de.florianmichael.thingl.GlCommands.get().glGetUniformLocation(this.program.getGlId(), this.name);
+        this.type = 0;
+        this.size = 0;
+        if (this.location != -1) {
+            final int index = de.florianmichael.thingl.GlCommands.get().glGetUniformIndices(this.program.getGlId(), this.name);
+            if (index != GL31C.GL_INVALID_INDEX) {
+                this.type = de.florianmichael.thingl.GlCommands.get().glGetActiveUniformsi(this.program.getGlId(), index, GL31C.GL_UNIFORM_TYPE);
+                this.size = de.florianmichael.thingl.GlCommands.get().glGetActiveUniformsi(this.program.getGlId(), index, GL31C.GL_UNIFORM_SIZE);
+            }
+        }
+        this.invalidate();
+    }
+
+    /**
+     * Forgets the last uploaded value, so the next update is sent to the driver. Required if the uniform was modified without this handle.
+     */
+    public void invalidate() {
+        this.valueCount = -1;
+    }
+
+    public void setBoolean(final boolean v) {
+        this.setInt(v ? GL11C.GL_TRUE : GL11C.GL_FALSE);
+    }
+
+    public void setInt(final int v) {
+        if (this.location != -1 && this.update(v)) {
+            de.florianmichael.thingl.GlCommands.get().glProgramUniform1i(this.program.getGlId(), this.location, v);
+        }
+    }
+
+    public void setIntArray(final int... v) {
+        if (this.location != -1 && this.update(v)) {
+            de.florianmichael.thingl.GlCommands.get().glProgramUniform1iv(this.program.getGlId(), this.location, v);
+        }
+    }
+
+    public void setFloat(final float v) {
+        if (this.location != -1 && this.update(Float.floatToRawIntBits(v))) {
+            de.florianmichael.thingl.GlCommands.get().glProgramUniform1f(this.program.getGlId(), this.location, v);
+        }
+    }
+
+    public void setVector2f(final float v1, final float v2) {
+        if (this.location != -1 && this.update(Float.floatToRawIntBits(v1), Float.floatToRawIntBits(v2))) {
+            de.florianmichael.thingl.GlCommands.get().glProgramUniform2f(this.program.getGlId(), this.location, v1, v2);
+        }
+    }
+
+    public void setVector3f(final float v1, final float v2, final float v3) {
+        if (this.location != -1 && this.update(Float.floatToRawIntBits(v1), Float.floatToRawIntBits(v2), Float.floatToRawIntBits(v3))) {
+            de.florianmichael.thingl.GlCommands.get().glProgramUniform3f(this.program.getGlId(), this.location, v1, v2, v3);
+        }
+    }
+
+    public void setVector4f(final float v1, final float v2, final float v3, final float v4) {
+        if (this.location != -1 && this.update(Float.floatToRawIntBits(v1), Float.floatToRawIntBits(v2), Float.floatToRawIntBits(v3), Float.floatToRawIntBits(v4))) {
+            de.florianmichael.thingl.GlCommands.get().glProgramUniform4f(this.program.getGlId(), this.location, v1, v2, v3, v4);
+        }
+    }
+
+    public void setVector4f(final Color color) {
+        this.setVector4f(color.getRed() / 255F, color.getGreen() / 255F, color.getBlue() / 255F, color.getAlpha() / 255F);
+    }
+
+    public void setMatrix3f(final Matrix3f matrix) {
+        if (this.location != -1) {
+            final float[] matrixValues = matrix.get(this.matrix3Values);
+            if (this.update(matrixValues, 3 * 3)) {
+                de.florianmichael.thingl.GlCommands.get().glProgramUniformMatrix3fv(this.program.getGlId(), this.location, false, matrixValues);
+            }
+        }
+    }
+
+    public void setMatrix4f(final Matrix4f matrix) {
+        if (this.location != -1) {
+            final float[] matrixValues = matrix.get(this.matrix4Values);
+            if (this.update(matrixValues, 4 * 4)) {
+                de.florianmichael.thingl.GlCommands.get().glProgramUniformMatrix4fv(this.program.getGlId(), this.location, false, matrixValues);
+            }
+        }
+    }
+
+    public Program getProgram() {
+        return this.program;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getLocation() {
+        return this.location;
+    }
+
+    /**
+     * @return True if the uniform is used by the program
+     */
+    public boolean isActive() {
+        return this.location != -1;
+    }
+
+    /**
+     * @return The GL type of the uniform (For example GL_FLOAT_VEC4) or 0 if the uniform is not active
+     */
+    public int getType() {
+        return this.type;
+    }
+
+    /**
+     * @return The array size of the uniform (1 for non-array uniforms) or 0 if the uniform is not active
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    private boolean isCached(final int count) {
+        return this.valueCount == count && this.program.cachesUniformValues();
+    }
+
+    private boolean update(final int v) {
+        if (this.isCached(1) && this.values[0] == v) {
+            return false;
+        }
+        this.values[0] = v;
+        this.valueCount = 1;
+        return true;
+    }
+
+    private boolean update(final int v1, final int v2) {
+        if (this.isCached(2) && this.values[0] == v1 && this.values[1] == v2) {
+            return false;
+        }
+        this.values[0] = v1;
+        this.values[1] = v2;
+        this.valueCount = 2;
+        return true;
+    }
+
+    private boolean update(final int v1, final int v2, final int v3) {
+        if (this.isCached(3) && this.values[0] == v1 && this.values[1] == v2 && this.values[2] == v3) {
+            return false;
+        }
+        this.values[0] = v1;
+        this.values[1] = v2;
+        this.values[2] = v3;
+        this.valueCount = 3;
+        return true;
+    }
+
+    private boolean update(final int v1, final int v2, final int v3, final int v4) {
+        if (this.isCached(4) && this.values[0] == v1 && this.values[1] == v2 && this.values[2] == v3 && this.values[3] == v4) {
+            return false;
+        }
+        this.values[0] = v1;
+        this.values[1] = v2;
+        this.values[2] = v3;
+        this.values[3] = v4;
+        this.valueCount = 4;
+        return true;
+    }
+
+    private boolean update(final int[] v) {
+        if (this.isCached(v.length) && Arrays.equals(this.values, 0, v.length, v, 0, v.length)) {
+            return false;
+        }
+        if (this.values.length < v.length) {
+            this.values = new int[v.length];
+        }
+        System.arraycopy(v, 0, this.values, 0, v.length);
+        this.valueCount = v.length;
+        return true;
+    }
+
+    private boolean update(final float[] v, final int length) {
+        boolean changed = !this.isCached(length);
+        if (this.values.length < length) {
+            this.values = new int[length];
+        }
+        for (int i = 0; i < length; i++) {
+            final int bits = Float.floatToRawIntBits(v[i]);
+            if (this.values[i] != bits) {
+                this.values[i] = bits;
+                changed = true;
+            }
+        }
+        this.valueCount = length;
+        return changed;
+    }
+
+}
@@ -34,7 +34,7 @@ public class Query extends GLObject {
     }
 
     public static Query fromGlId(final int glId) {
-        if (!GL15C.glIsQuery(glId)) {
+        if (!de.florianmichael.thingl.GlCommands.get().glIsQuery(glId)) {
             throw new IllegalArgumentException("Not a query object");
         }
         return fromGlIdUnsafe(glId);
@@ -45,32 +45,38 @@ public class Query extends GLObject {
     }
 
     public void begin() {
-        GL15C.glBeginQuery(this.getTarget(), this.getGlId());
+        de.florianmichael.thingl.GlCommands.get().glBeginQuery(this.getTarget(), this.getGlId());
     }
 
     public void end() {
-        GL15C.glEndQuery(this.getTarget());
+        de.florianmichael.thingl.GlCommands.get().glEndQuery(this.getTarget());
     }
 
+    // FlorianMichael - GPU profiler
+    public void queryCounter() {
+        de.florianmichael.thingl.GlCommands.get().glQueryCounter(this.getGlId(), GL33C.GL_TIMESTAMP);
+    }
+    // FlorianMichael - GPU profiler
+
     public boolean isResultAvailable() {
-        return GL15C.glGetQueryObjecti(this.getGlId(), GL15C.GL_QUERY_RESULT_AVAILABLE) == GL11C.GL_TRUE;
+        return de.florianmichael.thingl.GlCommands.get().glGetQueryObjecti(this.getGlId(), GL15C.GL_QUERY_RESULT_AVAILABLE) == GL11C.GL_TRUE;
     }
 
     public boolean getResultBoolean() {
-        return GL15C.glGetQueryObjecti(this.getGlId(), GL15C.GL_QUERY_RESULT) == GL11C.GL_TRUE;
+        return de.florianmichael.thingl.GlCommands.get().glGetQueryObjecti(this.getGlId(), GL15C.GL_QUERY_RESULT) == GL11C.GL_TRUE;
     }
 
     public int getResultInt() {
-        return GL15C.glGetQueryObjecti(this.getGlId(), GL15C.GL_QUERY_RESULT);
+        return de.florianmichael.thingl.GlCommands.get().glGetQueryObjecti(this.getGlId(), GL15C.GL_QUERY_RESULT);
     }
 
     public long getResultLong() {
-        return GL33C.glGetQueryObjecti64(this.getGlId(), GL15C.GL_QUERY_RESULT);
+        return de.florianmichael.thingl.GlCommands.get().glGetQueryObjecti64(this.getGlId(), GL15C.GL_QUERY_RESULT);
     }
 
     @Override
     protected void free0() {
-        GL15C.glDeleteQueries(this.getGlId());
+        de.florianmichael.thingl.GlCommands.get().glDeleteQueries(this.getGlId());
     }
 
     @Override
@@ -80,7 +86,7 @@ public class Query extends GLObject {
 
     public int getTarget() {
         if (this.target == null) {
-            this.target = GL15C.glGetQueryObjecti(this.getGlId(), GL45C.GL_QUERY_TARGET);
+            this.target = de.florianmichael.thingl.GlCommands.get().glGetQueryObjecti(this.getGlId(), GL45C.GL_QUERY_TARGET);
         }
         return this.target;
     }
@@ -19,16 +19,23 @@ package net.raphimc.thingl.resource.shader;
 
 import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.resource.GLObject;
+import net.raphimc.thingl.util.GlSlPreprocessor;
 import org.lwjgl.opengl.*;
 
-public class Shader extends GLObject {
+public class Shader extends GLObject implements ShaderStage { // FlorianMichael - program binary cache
 
     private Integer type;
     private String source;
+    private GlSlPreprocessor.SourceMap sourceMap; // FlorianMichael - shader preprocessor
 
     public Shader(final Type type, final String source) {
-        super(GL20C.glCreateShader(type.getGlType()));
+        this(type, source, null);
+    }
+
+    public Shader(final Type type, final String source, final GlSlPreprocessor.SourceMap sourceMap) { // FlorianMichael - shader preprocessor
+        super(de.florianmichael.thingl.GlCommands.get().glCreateShader(type.getGlType()));
         this.type = type.getGlType();
+        this.sourceMap = sourceMap; // FlorianMichael - shader preprocessor
         try {
             this.setSource(source);
             this.compile();
@@ -43,7 +50,7 @@ public class Shader extends GLObject {
     }
 
     public static Shader fromGlId(final int glId) {
-        if (!GL20C.glIsShader(glId)) {
+        if (!de.florianmichael.thingl.GlCommands.get().glIsShader(glId)) {
             throw new IllegalArgumentException("Not a shader object");
         }
         return fromGlIdUnsafe(glId);
@@ -53,19 +60,59 @@ public class Shader extends GLObject {
         return new Shader(glId);
     }
 
+    /**
+     * Creates the shader and starts compiling it without waiting for the result.<br>
+     * With parallel shader compilation the driver compiles in the background until {@link #finishCompile()} is called.
+     *
+     * @param type The shader type
+     * @param source The shader source
+     * @param sourceMap The source map used to map the compile log back to the original files (Can be null)
+     * @return The shader
+     */
+    public static Shader compileDeferred(final Type type, final String source, final GlSlPreprocessor.SourceMap sourceMap) {
+        final Shader shader = new Shader(de.florianmichael.thingl.GlCommands.get().glCreateShader(type.getGlType()));
+        shader.type = type.getGlType();
+        shader.sourceMap = sourceMap;
+        try {
+            shader.setSource(source);
+            de.florianmichael.thingl.GlCommands.get().glCompileShader(shader.getGlId());
+        } catch (Throwable e) {
+            shader.free();
+            throw e;
+        }
+        return shader;
+    }
+    // FlorianMichael - shader preprocessor
+
     public void compile() {
-        GL20C.glCompileShader(this.getGlId());
-        final String compileLog = GL20C.glGetShaderInfoLog(this.getGlId());
-        if (GL20C.glGetShaderi(this.getGlId(), GL20C.GL_COMPILE_STATUS) == GL11C.GL_FALSE) {
+        de.florianmichael.thingl.GlCommands.get().glCompileShader(this.getGlId());
+        this.finishCompile(); // FlorianMichael - shader preprocessor
+    }
+
+    // FlorianMichael - shader preprocessor
+    public void finishCompile() {
+        String compileLog = de.florianmichael.thingl.GlCommands.get().glGetShaderInfoLog(this.getGlId());
+        if (this.sourceMap != null) {
+            compileLog = this.sourceMap.mapLog(compileLog);
+        }
+        if (de.florianmichael.thingl.GlCommands.get().glGetShaderi(this.getGlId(), GL20C.GL_COMPILE_STATUS) == GL11C.GL_FALSE) {
             throw new IllegalStateException("Error compiling shader: " + compileLog);
         } else if (!compileLog.isBlank()) {
             ThinGL.LOGGER.warn("Shader compile log: " + compileLog);
         }
     }
+    // FlorianMichael - shader preprocessor
+
+    // FlorianMichael - program binary cache
+    @Override
+    public Shader getOrCompile() {
+        return this;
+    }
+    // FlorianMichael - program binary cache
 
     @Override
     protected void free0() {
-        GL20C.glDeleteShader(this.getGlId());
+        de.florianmichael.thingl.GlCommands.get().glDeleteShader(this.getGlId());
     }
 
     @Override
@@ -75,7 +122,7 @@ public class Shader extends GLObject {
 
     public int getType() {
         if (this.type == null) {
-            this.type = GL20C.glGetShaderi(this.getGlId(), GL20C.GL_SHADER_TYPE);
+            this.type = de.florianmichael.thingl.GlCommands.get().glGetShaderi(this.getGlId(), GL20C.GL_SHADER_TYPE);
         }
         return this.type;
     }
@@ -86,14 +133,18 @@ public class Shader extends GLObject {
 
     public String getSource() {
         if (this.source == null) {
-            this.source = GL20C.glGetShaderSource(this.getGlId());
+            this.source = de.florianmichael.thingl.GlCommands.get().glGetShaderSource(this.getGlId());
         }
         return this.source;
     }
 
+    public GlSlPreprocessor.SourceMap getSourceMap() { // FlorianMichael - shader preprocessor
+        return this.sourceMap;
+    }
+
     public void setSource(final String source) {
         this.source = source;
-        GL20C.glShaderSource(this.getGlId(), source);
+        de.florianmichael.thingl.GlCommands.get().glShaderSource(this.getGlId(), source);
     }
 
     public enum Type {
@@ -0,0 +1,109 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.resource.shader;
+
+import net.raphimc.thingl.util.GlSlPreprocessor;
+
+/**
+ * Shader source which is compiled on first use.<br>
+ * Programs loaded from the program binary cache never compile their shader sources. The compiled shader is shared by all programs created from the same instance.
+ */
+public class ShaderSource implements ShaderStage {
+
+    private final Shader.Type type;
+    private final String source;
+    private final GlSlPreprocessor.SourceMap sourceMap;
+    private final String debugName;
+    private Shader shader;
+    private boolean compilePending;
+
+    public ShaderSource(final Shader.Type type, final String source, final GlSlPreprocessor.SourceMap sourceMap, final String debugName) {
+        this.type = type;
+        this.source = source;
+        this.sourceMap = sourceMap;
+        this.debugName = debugName;
+    }
+
+    /**
+     * Submits the shader to the driver without waiting for the compile result (See {@link Shader#compileDeferred(Shader.Type, String, GlSlPreprocessor.SourceMap)}).<br>
+     * The compile result is checked by the next call to {@link #getOrCompile()}.
+     */
+    public void compileDeferred() {
+        if (this.shader == null || !this.shader.isAllocated()) {
+            this.shader = Shader.compileDeferred(this.type, this.source, this.sourceMap);
+            this.shader.setDebugName(this.debugName);
+            this.compilePending = true;
+        }
+    }
+
+    @Override
+    public Shader getOrCompile() {
+        if (this.shader == null || !this.shader.isAllocated()) {
+            this.shader = new Shader(this.type, this.source, this.sourceMap);
+            this.shader.setDebugName(this.debugName);
+        } else if (this.compilePending) {
+            this.compilePending = false;
+            try {
+                this.shader.finishCompile();
+            } catch (Throwable e) {
+                this.shader.free();
+                this.shader = null;
+                throw e;
+            }
+        }
+        return this.shader;
+    }
+
+    public boolean isCompiled() {
+        return this.shader != null && this.shader.isAllocated();
+    }
+
+    @Override
+    public int getType() {
+        return this.type.getGlType();
+    }
+
+    public Shader.Type getTypeEnum() {
+        return this.type;
+    }
+
+    @Override
+    public String getSource() {
+        return this.source;
+    }
+
+    public GlSlPreprocessor.SourceMap getSourceMap() {
+        return this.sourceMap;
+    }
+
+    public String getDebugName() {
+        return this.debugName;
+    }
+
+    /**
+     * Frees the compiled shader, if any. The source is compiled again on the next use.
+     */
+    public void free() {
+        if (this.shader != null) {
+            this.shader.free();
+            this.shader = null;
+            this.compilePending = false;
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.resource.shader;
+
+/**
+ * A shader stage of a program. Either an already compiled {@link Shader} or a {@link ShaderSource}, which is only compiled once a program has to be linked from source.
+ */
+public interface ShaderStage {
+
+    /**
+     * @return The GL shader type
+     */
+    int getType();
+
+    /**
+     * @return The (preprocessed) shader source
+     */
+    String getSource();
+
+    /**
+     * @return The compiled shader. Compiles the shader if this stage hasn't been compiled yet
+     */
+    Shader getOrCompile();
+
+}
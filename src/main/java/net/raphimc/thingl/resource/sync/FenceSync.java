@@ -29,7 +29,7 @@ public class FenceSync extends GLSyncObject {
     }
 
     public FenceSync(final int condition, final int flags) {
-        super(GL32C.glFenceSync(condition, flags));
+        super(de.florianmichael.thingl.GlCommands.get().glFenceSync(condition, flags));
         this.condition = condition;
         this.flags = flags;
     }
@@ -43,15 +43,15 @@ public class FenceSync extends GLSyncObject {
     }
 
     public boolean isSignaled() {
-        return GL32C.glGetSynci(this.getPointer(), GL32C.GL_SYNC_STATUS, null) == GL32C.GL_SIGNALED;
+        return de.florianmichael.thingl.GlCommands.get().glGetSynci(this.getPointer(), GL32C.GL_SYNC_STATUS, null) == GL32C.GL_SIGNALED;
     }
 
     public int clientWait(final int flags, final long timeout) {
-        return GL32C.glClientWaitSync(this.getPointer(), flags, timeout);
+        return de.florianmichael.thingl.GlCommands.get().glClientWaitSync(this.getPointer(), flags, timeout);
     }
 
     public void serverWait(final int flags, final long timeout) {
-        GL32C.glWaitSync(this.getPointer(), flags, timeout);
+        de.florianmichael.thingl.GlCommands.get().glWaitSync(this.getPointer(), flags, timeout);
     }
 
     @Override
@@ -61,14 +61,14 @@ public class FenceSync extends GLSyncObject {
 
     public int getCondition() {
         if (this.condition == null) {
-            this.condition = GL32C.glGetSynci(this.getPointer(), GL32C.GL_SYNC_CONDITION, null);
+            this.condition = de.florianmichael.thingl.GlCommands.get().glGetSynci(this.getPointer(), GL32C.GL_SYNC_CONDITION, null);
         }
         return this.condition;
     }
 
     public int getFlags() {
         if (this.flags == null) {
-            this.flags = GL32C.glGetSynci(this.getPointer(), GL32C.GL_SYNC_FLAGS, null);
+            this.flags = de.florianmichael.thingl.GlCommands.get().glGetSynci(this.getPointer(), GL32C.GL_SYNC_FLAGS, null);
         }
         return this.flags;
     }
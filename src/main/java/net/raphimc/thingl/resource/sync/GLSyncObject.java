@@ -30,14 +30,14 @@ public abstract class GLSyncObject {
     }
 
     public static GLSyncObject fromPointer(final long pointer) {
-        if (!GL32C.glIsSync(pointer)) {
+        if (!de.florianmichael.thingl.GlCommands.get().glIsSync(pointer)) {
             throw new IllegalArgumentException("Not a sync object");
         }
         return fromPointerUnsafe(pointer);
     }
 
     public static GLSyncObject fromPointerUnsafe(final long pointer) {
-        final int objectType = GL32C.glGetSynci(pointer, GL32C.GL_OBJECT_TYPE, null);
+        final int objectType = de.florianmichael.thingl.GlCommands.get().glGetSynci(pointer, GL32C.GL_OBJECT_TYPE, null);
         return switch (objectType) {
             case GL32C.GL_SYNC_FENCE -> FenceSync.fromPointerUnsafe(pointer);
             default -> throw new IllegalArgumentException("Unsupported sync object type: " + objectType);
@@ -47,7 +47,7 @@ public abstract class GLSyncObject {
     public void free() {
         if (this.isAllocated()) {
             try {
-                GL32C.glDeleteSync(this.pointer);
+                de.florianmichael.thingl.GlCommands.get().glDeleteSync(this.pointer);
             } finally {
                 this.pointer = 0L;
             }
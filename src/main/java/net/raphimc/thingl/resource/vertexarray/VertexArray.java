@@ -42,7 +42,7 @@ public class VertexArray extends GLContainerObject {
     }
 
     public static VertexArray fromGlId(final int glId) {
-        if (!GL30C.glIsVertexArray(glId)) {
+        if (!de.florianmichael.thingl.GlCommands.get().glIsVertexArray(glId)) {
             throw new IllegalArgumentException("Not a vertex array object");
         }
         return fromGlIdUnsafe(glId);
@@ -72,7 +72,7 @@ public class VertexArray extends GLContainerObject {
                 de.florianmichael.thingl.GlCommands.get().glVertexArrayElementBuffer(this.getGlId(), 0); // FlorianMichael - add macOS support
             } else {
                 this.bind();
-                GL15C.glBindBuffer(GL15C.GL_ELEMENT_ARRAY_BUFFER, 0);
+                de.florianmichael.thingl.GlCommands.get().glBindBuffer(GL15C.GL_ELEMENT_ARRAY_BUFFER, 0);
                 this.unbind();
             }
         }
@@ -97,7 +97,7 @@ public class VertexArray extends GLContainerObject {
 
     public void drawArrays(final DrawMode drawMode, final int count, final int offset) {
         this.bind();
-        GL11C.glDrawArrays(drawMode.getGlMode(), offset, count);
+        de.florianmichael.thingl.GlCommands.get().glDrawArrays(drawMode.getGlMode(), offset, count);
         this.unbind();
     }
 
@@ -109,20 +109,20 @@ public class VertexArray extends GLContainerObject {
 
     public void drawArraysIndirect(final DrawMode drawMode, final Buffer indirectCommandBuffer, final long offset, final int count) {
         this.bind();
-        final int prevIndirectCommandBuffer = GL11C.glGetInteger(GL40C.GL_DRAW_INDIRECT_BUFFER_BINDING);
-        GL15C.glBindBuffer(GL40C.GL_DRAW_INDIRECT_BUFFER, indirectCommandBuffer.getGlId());
+        final int prevIndirectCommandBuffer = de.florianmichael.thingl.GlCommands.get().glGetInteger(GL40C.GL_DRAW_INDIRECT_BUFFER_BINDING);
+        de.florianmichael.thingl.GlCommands.get().glBindBuffer(GL40C.GL_DRAW_INDIRECT_BUFFER, indirectCommandBuffer.getGlId());
         if (count == 1) {
-            GL40C.glDrawArraysIndirect(drawMode.getGlMode(), offset);
+            de.florianmichael.thingl.GlCommands.get().glDrawArraysIndirect(drawMode.getGlMode(), offset);
         } else {
             de.florianmichael.thingl.GlCommands.get().glMultiDrawArraysIndirect(drawMode.getGlMode(), offset, count, 0);
         }
-        GL15C.glBindBuffer(GL40C.GL_DRAW_INDIRECT_BUFFER, prevIndirectCommandBuffer);
+        de.florianmichael.thingl.GlCommands.get().glBindBuffer(GL40C.GL_DRAW_INDIRECT_BUFFER, prevIndirectCommandBuffer);
         this.unbind();
     }
 
     public void drawElements(final DrawMode drawMode, final int count, final int offset) {
         this.bind();
-        GL11C.glDrawElements(drawMode.getGlMode(), count, this.indexType, offset);
+        de.florianmichael.thingl.GlCommands.get().glDrawElements(drawMode.getGlMode(), count, this.indexType, offset);
         this.unbind();
     }
 
@@ -134,14 +134,14 @@ public class VertexArray extends GLContainerObject {
 
     public void drawElementsIndirect(final DrawMode drawMode, final Buffer indirectCommandBuffer, final long offset, final int count) {
         this.bind();
-        final int prevIndirectCommandBuffer = GL11C.glGetInteger(GL40C.GL_DRAW_INDIRECT_BUFFER_BINDING);
-        GL15C.glBindBuffer(GL40C.GL_DRAW_INDIRECT_BUFFER, indirectCommandBuffer.getGlId());
+        final int prevIndirectCommandBuffer = de.florianmichael.thingl.GlCommands.get().glGetInteger(GL40C.GL_DRAW_INDIRECT_BUFFER_BINDING);
+        de.florianmichael.thingl.GlCommands.get().glBindBuffer(GL40C.GL_DRAW_INDIRECT_BUFFER, indirectCommandBuffer.getGlId());
         if (count == 1) {
-            GL40C.glDrawElementsIndirect(drawMode.getGlMode(), this.indexType, offset);
+            de.florianmichael.thingl.GlCommands.get().glDrawElementsIndirect(drawMode.getGlMode(), this.indexType, offset);
         } else {
             de.florianmichael.thingl.GlCommands.get().glMultiDrawElementsIndirect(drawMode.getGlMode(), this.indexType, offset, count, 0);
         }
-        GL15C.glBindBuffer(GL40C.GL_DRAW_INDIRECT_BUFFER, prevIndirectCommandBuffer);
+        de.florianmichael.thingl.GlCommands.get().glBindBuffer(GL40C.GL_DRAW_INDIRECT_BUFFER, prevIndirectCommandBuffer);
         this.unbind();
     }
 
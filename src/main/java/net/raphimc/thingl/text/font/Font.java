@@ -20,6 +20,8 @@ package net.raphimc.thingl.text.font;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.raphimc.thingl.ThinGL;
+import net.raphimc.thingl.text.shaping.impl.BasicTextShaper;
+import net.raphimc.thingl.text.shaping.impl.HarfBuzzTextShaper;
 import org.lwjgl.util.harfbuzz.HarfBuzz;
 
 import java.nio.ByteBuffer;
@@ -53,9 +55,19 @@ public abstract class Font {
         }
     }
 
+    // FlorianMichael - code point coverage index
+    public boolean hasGlyph(final int codePoint) {
+        return this.getGlyphByCodePoint(codePoint).glyphIndex() != 0;
+    }
+    // FlorianMichael - code point coverage index
+
     public abstract GlyphBitmap createGlyphBitmap(final Glyph glyph, final GlyphBitmap.RenderMode renderMode);
 
     public void free() {
+        // FlorianMichael - Cache shaping results
+        BasicTextShaper.INSTANCE.getShapingCache().invalidate(this);
+        HarfBuzzTextShaper.INSTANCE.getShapingCache().invalidate(this);
+        // FlorianMichael - Cache shaping results
         if (this.harfBuzzInstance != 0L) {
             HarfBuzz.hb_font_destroy(this.harfBuzzInstance);
         }
@@ -24,8 +24,17 @@ import java.util.List;
 
 public class FontSet {
 
+    // FlorianMichael - code point coverage index
+    private static final int BLOCK_BITS = 8;
+    private static final int BLOCK_MASK = (1 << BLOCK_BITS) - 1;
+    private static final int BASIC_LATIN_END = 0x80;
+    private static final int MAX_INDEXED_FONTS = Byte.MAX_VALUE;
+    private static final byte NO_FONT = -1;
+    // FlorianMichael - code point coverage index
+
     private final Font mainFont;
     private final List<Pair<Font, GlyphPredicate>> fonts = new ArrayList<>();
+    private volatile CoverageIndex coverageIndex; // FlorianMichael - code point coverage index
 
     public FontSet(final Font mainFont) {
         this(mainFont, GlyphPredicate.all());
@@ -50,6 +59,7 @@ public class FontSet {
 
     public FontSet addFont(final Font font, final GlyphPredicate predicate) {
         this.fonts.add(Pair.of(font, predicate));
+        this.invalidateCoverageIndex(); // FlorianMichael - code point coverage index
         return this;
     }
 
@@ -64,16 +74,53 @@ public class FontSet {
         return this.mainFont;
     }
 
+    // FlorianMichael - code point coverage index
     public Font getFont(final int codePoint) {
-        for (Pair<Font, GlyphPredicate> pair : this.fonts) {
-            final Font font = pair.first();
-            final GlyphPredicate predicate = pair.second();
-            if (predicate.test(codePoint) && font.getGlyphByCodePoint(codePoint).glyphIndex() != 0) {
-                return font;
+        CoverageIndex coverageIndex = this.coverageIndex;
+        if (coverageIndex == null) {
+            if (this.fonts.size() > MAX_INDEXED_FONTS) {
+                final int fontIndex = this.findFontIndex(codePoint);
+                return fontIndex != NO_FONT ? this.fonts.get(fontIndex).first() : null;
+            }
+            this.coverageIndex = coverageIndex = new CoverageIndex(this);
+        }
+        if (codePoint >= 0 && codePoint < BASIC_LATIN_END) {
+            return coverageIndex.basicLatinFonts[codePoint];
+        } else if (codePoint < 0 || codePoint > Character.MAX_CODE_POINT) {
+            return null;
+        }
+
+        final int blockIndex = codePoint >>> BLOCK_BITS;
+        byte[] block = coverageIndex.blocks[blockIndex];
+        if (block == null) {
+            block = new byte[1 << BLOCK_BITS];
+            final int firstCodePoint = blockIndex << BLOCK_BITS;
+            for (int i = 0; i < block.length; i++) {
+                block[i] = (byte) this.findFontIndex(firstCodePoint + i);
+            }
+            coverageIndex.blocks[blockIndex] = block;
+        }
+        final int fontIndex = block[codePoint & BLOCK_MASK];
+        return fontIndex != NO_FONT ? coverageIndex.fonts[fontIndex] : null;
+    }
+
+    /**
+     * Invalidates the code point coverage index. This is done automatically when fonts are added, but has to be called manually if the glyph predicates change their result.
+     */
+    public void invalidateCoverageIndex() {
+        this.coverageIndex = null;
+    }
+
+    private int findFontIndex(final int codePoint) {
+        for (int i = 0; i < this.fonts.size(); i++) {
+            final Pair<Font, GlyphPredicate> pair = this.fonts.get(i);
+            if (pair.second().test(codePoint) && pair.first().hasGlyph(codePoint)) {
+                return i;
             }
         }
-        return null;
+        return NO_FONT;
     }
+    // FlorianMichael - code point coverage index
 
     public void free() {
         for (Pair<Font, GlyphPredicate> pair : this.fonts) {
@@ -81,4 +128,25 @@ public class FontSet {
         }
     }
 
+    // FlorianMichael - code point coverage index
+    private static final class CoverageIndex {
+
+        private final Font[] fonts;
+        private final Font[] basicLatinFonts = new Font[BASIC_LATIN_END];
+        private final byte[][] blocks = new byte[(Character.MAX_CODE_POINT + 1) >>> BLOCK_BITS][];
+
+        private CoverageIndex(final FontSet fontSet) {
+            this.fonts = new Font[fontSet.fonts.size()];
+            for (int i = 0; i < this.fonts.length; i++) {
+                this.fonts[i] = fontSet.fonts.get(i).first();
+            }
+            for (int codePoint = 0; codePoint < BASIC_LATIN_END; codePoint++) {
+                final int fontIndex = fontSet.findFontIndex(codePoint);
+                this.basicLatinFonts[codePoint] = fontIndex != NO_FONT ? this.fonts[fontIndex] : null;
+            }
+        }
+
+    }
+    // FlorianMichael - code point coverage index
+
 }
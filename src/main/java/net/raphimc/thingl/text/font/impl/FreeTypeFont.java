@@ -33,11 +33,20 @@ import org.lwjgl.util.freetype.*;
 import org.lwjgl.util.harfbuzz.HarfBuzz;
 
 import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class FreeTypeFont extends Font {
 
     private final ByteBuffer fontDataBuffer;
     private final FT_Face fontFace;
+    // FlorianMichael - async glyph rasterization
+    private final FreeTypeLibrary freeTypeLibrary;
+    private final Vector2f shift;
+    private final Queue<FT_Face> fontFaceClones = new ConcurrentLinkedQueue<>();
+    private int checkedOutFontFaceClones; // Guarded by fontFaceClones
+    private boolean freed; // Guarded by fontFaceClones
+    // FlorianMichael - async glyph rasterization
     private final int glyphLoadFlags;
     private final float ascent;
     private final float descent;
@@ -62,15 +71,12 @@ public class FreeTypeFont extends Font {
         super(size);
         ThinGL.capabilities().ensureFreeTypePresent();
         this.fontDataBuffer = MemoryUtil.memAlloc(fontData.length).put(fontData).flip();
+        // FlorianMichael - async glyph rasterization
+        this.freeTypeLibrary = ThinGL.freeTypeLibrary();
+        this.shift = new Vector2f(shift);
+        // FlorianMichael - async glyph rasterization
         try {
-            try (MemoryStack memoryStack = MemoryStack.stackPush()) {
-                final PointerBuffer fontFaceBuffer = memoryStack.mallocPointer(1);
-                FreeTypeLibrary.checkError(FreeType.FT_New_Memory_Face(ThinGL.freeTypeLibrary().getPointer(), this.fontDataBuffer, 0L, fontFaceBuffer), "Failed to load font face");
-                this.fontFace = FT_Face.create(fontFaceBuffer.get(0));
-
-                FreeTypeLibrary.checkError(FreeType.FT_Set_Pixel_Sizes(this.fontFace, 0, size), "Failed to set font size");
-                FreeType.FT_Set_Transform(this.fontFace, null, FT_Vector.malloc(memoryStack).set(Math.round(shift.x * 64F), Math.round(-shift.y * 64F)));
-            }
+            this.fontFace = this.createFontFace(); // FlorianMichael - async glyph rasterization
             this.glyphLoadFlags = FreeType.FT_LOAD_DEFAULT | (useHinting ? 0 : FreeType.FT_LOAD_NO_HINTING);
 
             final long yScale = this.fontFace.size().metrics().y_scale();
@@ -97,8 +103,58 @@ public class FreeTypeFont extends Font {
         }
     }
 
+    // FlorianMichael - async glyph rasterization
     @Override
     public GlyphBitmap createGlyphBitmap(final Glyph glyph, final GlyphBitmap.RenderMode renderMode) {
+        if (ThinGL.isInitialized() && ThinGL.get().isOnRenderThread()) {
+            return this.createGlyphBitmap(this.fontFace, glyph, renderMode);
+        }
+
+        // FT_Face objects are not thread safe, so rasterization threads render the glyph with a cloned face
+        FT_Face fontFace;
+        synchronized (this.fontFaceClones) {
+            if (this.freed) {
+                throw new IllegalStateException("Font has been freed");
+            }
+            fontFace = this.fontFaceClones.poll();
+            this.checkedOutFontFaceClones++;
+        }
+        try {
+            if (fontFace == null) {
+                fontFace = this.createFontFace();
+            }
+            return this.createGlyphBitmap(fontFace, glyph, renderMode);
+        } finally {
+            this.returnFontFaceClone(fontFace);
+        }
+    }
+
+    private void returnFontFaceClone(final FT_Face fontFace) {
+        final boolean lastCheckedOut;
+        synchronized (this.fontFaceClones) {
+            this.checkedOutFontFaceClones--;
+            if (!this.freed) {
+                if (fontFace != null) {
+                    this.fontFaceClones.add(fontFace);
+                }
+                return;
+            }
+            lastCheckedOut = this.checkedOutFontFaceClones == 0;
+        }
+
+        // The font was freed while this clone was in use
+        if (fontFace != null) {
+            synchronized (this.freeTypeLibrary) {
+                FreeTypeLibrary.checkError(FreeType.FT_Done_Face(fontFace), "Failed to free font face");
+            }
+        }
+        if (lastCheckedOut) { // The clones reference the font data, so it can only be freed once the last one is done
+            BufferUtil.memFree(this.fontDataBuffer);
+        }
+    }
+
+    private GlyphBitmap createGlyphBitmap(final FT_Face fontFace, final Glyph glyph, final GlyphBitmap.RenderMode renderMode) {
+    // FlorianMichael - async glyph rasterization
         int loadFlags = this.glyphLoadFlags;
         if (renderMode == GlyphBitmap.RenderMode.PIXELATED || renderMode == GlyphBitmap.RenderMode.COLORED_PIXELATED) {
             loadFlags |= FreeType.FT_FT_LOAD_TARGET_MONO;
@@ -106,8 +162,8 @@ public class FreeTypeFont extends Font {
         if (renderMode == GlyphBitmap.RenderMode.COLORED_PIXELATED || renderMode == GlyphBitmap.RenderMode.COLORED_ANTIALIASED) {
             loadFlags |= FreeType.FT_LOAD_COLOR;
         }
-        FreeTypeLibrary.checkError(FreeType.FT_Load_Glyph(this.fontFace, glyph.glyphIndex(), loadFlags), "Failed to load glyph");
-        final FT_GlyphSlot glyphSlot = this.fontFace.glyph();
+        FreeTypeLibrary.checkError(FreeType.FT_Load_Glyph(fontFace, glyph.glyphIndex(), loadFlags), "Failed to load glyph"); // FlorianMichael - async glyph rasterization
+        final FT_GlyphSlot glyphSlot = fontFace.glyph(); // FlorianMichael - async glyph rasterization
         switch (renderMode) {
             case PIXELATED, COLORED_PIXELATED -> FreeTypeLibrary.checkError(FreeType.FT_Render_Glyph(glyphSlot, FreeType.FT_RENDER_MODE_MONO), "Failed to render glyph");
             case ANTIALIASED, COLORED_ANTIALIASED -> FreeTypeLibrary.checkError(FreeType.FT_Render_Glyph(glyphSlot, FreeType.FT_RENDER_MODE_NORMAL), "Failed to render glyph");
@@ -192,16 +248,38 @@ public class FreeTypeFont extends Font {
     @Override
     public void free() {
         super.free();
-        if (this.fontFace != null) {
-            FreeTypeLibrary.checkError(FreeType.FT_Done_Face(this.fontFace), "Failed to free font face");
+        // FlorianMichael - async glyph rasterization
+        final boolean clonesCheckedOut;
+        synchronized (this.fontFaceClones) {
+            this.freed = true;
+            clonesCheckedOut = this.checkedOutFontFaceClones != 0;
+        }
+        synchronized (this.freeTypeLibrary) {
+            if (this.fontFace != null) {
+                FreeTypeLibrary.checkError(FreeType.FT_Done_Face(this.fontFace), "Failed to free font face");
+            }
+            FT_Face fontFaceClone;
+            while ((fontFaceClone = this.fontFaceClones.poll()) != null) {
+                FreeTypeLibrary.checkError(FreeType.FT_Done_Face(fontFaceClone), "Failed to free font face");
+            }
+        }
+        if (!clonesCheckedOut) { // Otherwise freed when the last clone is returned
+            BufferUtil.memFree(this.fontDataBuffer);
         }
-        BufferUtil.memFree(this.fontDataBuffer);
+        // FlorianMichael - async glyph rasterization
     }
 
     public FT_Face getFontFace() {
         return this.fontFace;
     }
 
+    // FlorianMichael - code point coverage index
+    @Override
+    public boolean hasGlyph(final int codePoint) {
+        return FreeType.FT_Get_Char_Index(this.fontFace, codePoint) != 0;
+    }
+    // FlorianMichael - code point coverage index
+
     @Override
     public float getAscent() {
         return this.ascent;
@@ -271,6 +349,23 @@ public class FreeTypeFont extends Font {
         return this.getGlyphByIndex(FreeType.FT_Get_Char_Index(this.fontFace, codePoint));
     }
 
+    // FlorianMichael - async glyph rasterization
+    private FT_Face createFontFace() {
+        final FT_Face fontFace;
+        try (MemoryStack memoryStack = MemoryStack.stackPush()) {
+            final PointerBuffer fontFaceBuffer = memoryStack.mallocPointer(1);
+            synchronized (this.freeTypeLibrary) { // FT_New_Face and FT_Done_Face calls on the same library must be serialized
+                FreeTypeLibrary.checkError(FreeType.FT_New_Memory_Face(this.freeTypeLibrary.getPointer(), this.fontDataBuffer, 0L, fontFaceBuffer), "Failed to load font face");
+            }
+            fontFace = FT_Face.create(fontFaceBuffer.get(0));
+
+            FreeTypeLibrary.checkError(FreeType.FT_Set_Pixel_Sizes(fontFace, 0, this.getSize()), "Failed to set font size");
+            FreeType.FT_Set_Transform(fontFace, null, FT_Vector.malloc(memoryStack).set(Math.round(this.shift.x * 64F), Math.round(-this.shift.y * 64F)));
+        }
+        return fontFace;
+    }
+    // FlorianMichael - async glyph rasterization
+
     @Override
     protected long createHarfBuzzInstance() {
         final long harfBuzzInstance = HarfBuzz.hb_ft_font_create_referenced(this.fontFace.address());
@@ -118,6 +118,13 @@ public class StbFont extends Font {
         return this.scale;
     }
 
+    // FlorianMichael - code point coverage index
+    @Override
+    public boolean hasGlyph(final int codePoint) {
+        return STBTruetype.stbtt_FindGlyphIndex(this.fontInfo, codePoint) != 0;
+    }
+    // FlorianMichael - code point coverage index
+
     @Override
     public float getAscent() {
         return this.ascent;
@@ -0,0 +1,82 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.text.renderer;
+
+import net.raphimc.thingl.drawbuilder.drawbatchdataholder.MultiDrawBatchDataHolder;
+import net.raphimc.thingl.drawbuilder.drawbatchdataholder.PersistentMultiDrawBatchDataHolder;
+import net.raphimc.thingl.util.RenderMathUtil;
+import org.joml.Matrix4f;
+
+import java.util.function.Consumer;
+
+/**
+ * Text geometry which is built once and drawn every frame.<br>
+ * The geometry references glyph atlas slots, so it is rebuilt once the {@link TextRenderer} evicted or repacked glyphs ({@link TextRenderer#getAtlasGeneration()}).
+ * It is also rebuilt while glyphs are still being rasterized asynchronously, because those glyphs are skipped.
+ */
+public class CachedText {
+
+    private final TextRenderer textRenderer;
+    private final Consumer<MultiDrawBatchDataHolder> builder;
+    private final PersistentMultiDrawBatchDataHolder multiDrawBatchDataHolder = new PersistentMultiDrawBatchDataHolder();
+    private int atlasGeneration;
+    private boolean built;
+
+    /**
+     * @param textRenderer The text renderer which renders the text
+     * @param builder Renders the text into the given data holder (For example with {@link TextRenderer#renderTextBlock})
+     */
+    public CachedText(final TextRenderer textRenderer, final Consumer<MultiDrawBatchDataHolder> builder) {
+        this.textRenderer = textRenderer;
+        this.builder = builder;
+    }
+
+    public void draw() {
+        this.draw(RenderMathUtil.getIdentityMatrix());
+    }
+
+    public void draw(final Matrix4f modelMatrix) {
+        if (this.isOutdated()) {
+            this.rebuild();
+        }
+        this.multiDrawBatchDataHolder.draw(modelMatrix);
+    }
+
+    /**
+     * Rebuilds the text geometry on the next draw. Required if the text which is rendered by the builder changed.
+     */
+    public void invalidate() {
+        this.built = false;
+    }
+
+    public boolean isOutdated() {
+        return !this.built || this.atlasGeneration != this.textRenderer.getAtlasGeneration();
+    }
+
+    public void free() {
+        this.multiDrawBatchDataHolder.free();
+    }
+
+    private void rebuild() {
+        this.builder.accept(this.multiDrawBatchDataHolder);
+        this.multiDrawBatchDataHolder.build();
+        this.atlasGeneration = this.textRenderer.getAtlasGeneration(); // Read after building, glyphs used by this text are never evicted while it is built
+        this.built = this.textRenderer.getPendingGlyphCount() == 0;
+    }
+
+}
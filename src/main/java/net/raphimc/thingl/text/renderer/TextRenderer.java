@@ -19,7 +19,10 @@ package net.raphimc.thingl.text.renderer;
 
 import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
 import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceSet;
 import net.lenni0451.commons.color.Color;
+import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.drawbuilder.BuiltinDrawBatches;
 import net.raphimc.thingl.drawbuilder.DrawBatch;
 import net.raphimc.thingl.drawbuilder.databuilder.holder.ShaderDataHolder;
@@ -32,7 +35,7 @@ import net.raphimc.thingl.resource.program.Program;
 import net.raphimc.thingl.text.TextSegment;
 import net.raphimc.thingl.text.font.Font;
 import net.raphimc.thingl.text.shaping.*;
-import net.raphimc.thingl.texture.StaticAtlasTexture;
+import net.raphimc.thingl.texture.DynamicAtlasTexture;
 import net.raphimc.thingl.util.BufferUtil;
 import net.raphimc.thingl.util.rectpack.Slot;
 import org.joml.Matrix4f;
@@ -41,7 +44,13 @@ import org.lwjgl.opengl.GL30C;
 import org.lwjgl.opengl.GL33C;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -52,12 +61,37 @@ public abstract class TextRenderer {
     public static final float BOLD_OFFSET_DIVIDER = 64F;
 
     private static final int ATLAS_SIZE = 1024;
+    // FlorianMichael - atlas eviction and repacking
+    private static final int MAX_ATLAS_COUNT = 32; // Limited by the 5 atlas index bits in the glyph data
+    private static final long DEFAULT_ATLAS_MEMORY_BUDGET = 16 * 1024 * 1024;
+    private static final int EVICTION_AREA_DIVIDER = 8;
+    private static final int DEFRAGMENT_CHECK_INTERVAL = 600;
+    private static final float DEFRAGMENT_OCCUPANCY_THRESHOLD = 0.5F;
+    // FlorianMichael - atlas eviction and repacking
 
     private final DrawBatch drawBatch;
     private final Font.GlyphBitmap.RenderMode glyphRenderMode;
-    private final List<StaticAtlasTexture> glyphAtlases = new ArrayList<>();
+    private final List<DynamicAtlasTexture> glyphAtlases = new ArrayList<>(); // FlorianMichael - atlas eviction and repacking
     private final Reference2ObjectMap<Font.Glyph, AtlasGlyph> atlasGlyphs = new Reference2ObjectOpenHashMap<>();
     private float globalScale = 1F;
+    // FlorianMichael - async glyph rasterization
+    private final ReferenceSet<Font.Glyph> pendingGlyphs = new ReferenceOpenHashSet<>();
+    private final ReferenceSet<Font.Glyph> emptyGlyphs = new ReferenceOpenHashSet<>();
+    private final Queue<RasterizedGlyph> rasterizedGlyphs = new ConcurrentLinkedQueue<>();
+    private final Runnable uploadRasterizedGlyphsCallback = this::uploadRasterizedGlyphs;
+    private Executor rasterizationExecutor;
+    private volatile int rasterizationGeneration; // Incremented when async rasterization is disabled, results of older generations are discarded
+    private volatile boolean freed;
+    // FlorianMichael - async glyph rasterization
+    // FlorianMichael - atlas eviction and repacking
+    private final long atlasMemorySize;
+    private final int maxAtlasCount;
+    private long atlasMemoryBudget = DEFAULT_ATLAS_MEMORY_BUDGET;
+    private int atlasGeneration;
+    private long currentFrame;
+    private long lastDefragmentCheckFrame;
+    private long evictedGlyphCount;
+    // FlorianMichael - atlas eviction and repacking
 
     public TextRenderer(final Supplier<Program> program, final Font.GlyphBitmap.RenderMode glyphRenderMode) {
         this(program, glyphRenderMode, p -> {
@@ -77,6 +111,13 @@ public abstract class TextRenderer {
                 })
                 .build();
         this.glyphRenderMode = glyphRenderMode;
+        // FlorianMichael - atlas eviction and repacking
+        this.atlasMemorySize = (long) ATLAS_SIZE * ATLAS_SIZE * switch (glyphRenderMode) {
+            case PIXELATED, ANTIALIASED, BSDF, SDF -> 1;
+            case COLORED_PIXELATED, COLORED_ANTIALIASED, MSDF -> 4;
+        };
+        this.maxAtlasCount = Math.min(MAX_ATLAS_COUNT, ThinGL.capabilities().getMaxTextureImageUnits()); // Every atlas occupies one texture unit of the sampler array
+        // FlorianMichael - atlas eviction and repacking
     }
 
     public void renderTextBlock(final Matrix4f positionMatrix, final MultiDrawBatchDataHolder multiDrawBatchDataHolder, final ShapedTextBlock textBlock, final float x, float y, final float z) {
@@ -103,10 +144,154 @@ public abstract class TextRenderer {
         this.renderTextRun(positionMatrix, multiDrawBatchDataHolder, textRun, x, y, z, textRun.font());
     }
 
+    // FlorianMichael - async glyph rasterization
+    /**
+     * Prefetches the glyphs of the given code point range (inclusive), so they are already present in the atlas once text using them is rendered.<br>
+     * Code points which are not covered by the font are ignored.
+     *
+     * @param font The font
+     * @param firstCodePoint The first code point
+     * @param lastCodePoint The last code point
+     */
+    public void prefetch(final Font font, final int firstCodePoint, final int lastCodePoint) {
+        for (int codePoint = firstCodePoint; codePoint <= lastCodePoint; codePoint++) {
+            final Font.Glyph fontGlyph = font.getGlyphByCodePoint(codePoint);
+            if (fontGlyph.glyphIndex() != 0) {
+                this.getAtlasGlyph(fontGlyph);
+            }
+        }
+    }
+
+    public void prefetch(final Font font, final String text) {
+        text.codePoints().forEach(codePoint -> this.prefetch(font, codePoint, codePoint));
+    }
+
+    public void enableAsyncRasterization() {
+        this.enableAsyncRasterization(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Moves glyph rasterization to the given executor. Glyphs which are not rasterized yet are skipped until their bitmap is ready.<br>
+     * Rasterized glyphs are uploaded to the atlas in one batch at the end of each frame.
+     *
+     * @param executor The executor which rasterizes the glyphs
+     */
+    public void enableAsyncRasterization(final Executor executor) {
+        if (this.rasterizationExecutor == null) {
+            ThinGL.get().addFrameFinishedCallback(this.uploadRasterizedGlyphsCallback);
+        }
+        this.rasterizationExecutor = executor;
+    }
+
+    public void disableAsyncRasterization() {
+        if (this.rasterizationExecutor != null) {
+            ThinGL.get().removeFrameFinishedCallback(this.uploadRasterizedGlyphsCallback);
+            this.rasterizationExecutor = null;
+            this.uploadRasterizedGlyphs();
+            this.rasterizationGeneration++; // Glyphs which are still being rasterized are discarded once finished and rasterized synchronously on their next use
+            this.pendingGlyphs.clear();
+        }
+    }
+
+    public boolean isAsyncRasterizationEnabled() {
+        return this.rasterizationExecutor != null;
+    }
+
+    public int getPendingGlyphCount() {
+        return this.pendingGlyphs.size();
+    }
+    // FlorianMichael - async glyph rasterization
+
     public void free() {
-        this.glyphAtlases.forEach(StaticAtlasTexture::free);
+        // FlorianMichael - async glyph rasterization
+        if (this.rasterizationExecutor != null) {
+            ThinGL.get().removeFrameFinishedCallback(this.uploadRasterizedGlyphsCallback);
+            this.rasterizationExecutor = null;
+        }
+        this.freed = true;
+        this.freeRasterizedGlyphs();
+        // FlorianMichael - async glyph rasterization
+        this.glyphAtlases.forEach(DynamicAtlasTexture::free); // FlorianMichael - atlas eviction and repacking
+    }
+
+    // FlorianMichael - atlas eviction and repacking
+    /**
+     * Repacks all glyphs which are currently in the atlases into as few fresh atlases as possible. The glyphs are copied on the GPU.<br>
+     * Must not be called while text vertices of the current frame are pending, because they reference the old atlas slots.
+     */
+    public void defragmentAtlases() {
+        if (this.glyphAtlases.isEmpty()) {
+            return;
+        }
+
+        ThinGL.profiler().push("TextRenderer#defragmentAtlases"); // FlorianMichael - GPU profiler
+        final List<AtlasGlyph> atlasGlyphs = new ArrayList<>(this.atlasGlyphs.values());
+        atlasGlyphs.sort(Comparator.comparingInt((AtlasGlyph atlasGlyph) -> atlasGlyph.slot.height()).thenComparingInt(atlasGlyph -> atlasGlyph.slot.width()).reversed());
+        final List<DynamicAtlasTexture> newGlyphAtlases = new ArrayList<>();
+        for (AtlasGlyph atlasGlyph : atlasGlyphs) {
+            final DynamicAtlasTexture sourceAtlas = this.glyphAtlases.get(atlasGlyph.atlasIndex);
+            Slot atlasSlot = null;
+            int atlasIndex = 0;
+            for (; atlasIndex < newGlyphAtlases.size() && atlasSlot == null; atlasIndex++) {
+                atlasSlot = newGlyphAtlases.get(atlasIndex).addSlot(sourceAtlas, atlasGlyph.slot);
+            }
+            if (atlasSlot == null) {
+                final DynamicAtlasTexture atlas = this.createAtlas();
+                newGlyphAtlases.add(atlas);
+                atlasSlot = atlas.addSlot(sourceAtlas, atlasGlyph.slot);
+                atlasIndex++;
+                if (atlasSlot == null) { // Should never happen
+                    throw new IllegalStateException("Failed to find a free slot for glyph in atlas");
+                }
+            }
+            atlasGlyph.atlasIndex = atlasIndex - 1;
+            atlasGlyph.slot = atlasSlot;
+        }
+
+        this.glyphAtlases.forEach(DynamicAtlasTexture::free);
+        this.glyphAtlases.clear();
+        this.glyphAtlases.addAll(newGlyphAtlases);
+        this.atlasGeneration++;
+        ThinGL.profiler().pop(); // FlorianMichael - GPU profiler
+    }
+
+    public long getAtlasMemoryBudget() {
+        return this.atlasMemoryBudget;
+    }
+
+    /**
+     * Sets the memory budget of the glyph atlases. Once it is reached, the least recently used glyphs are evicted from the atlases instead of creating new ones.<br>
+     * The budget is exceeded if all glyphs in the atlases were used in the current frame.
+     *
+     * @param atlasMemoryBudget The budget in bytes
+     */
+    public void setAtlasMemoryBudget(final long atlasMemoryBudget) {
+        this.atlasMemoryBudget = atlasMemoryBudget;
     }
 
+    public int getAtlasCount() {
+        return this.glyphAtlases.size();
+    }
+
+    public long getAtlasMemoryUsage() {
+        return this.glyphAtlases.size() * this.atlasMemorySize;
+    }
+
+    public long getEvictedGlyphCount() {
+        return this.evictedGlyphCount;
+    }
+
+    /**
+     * Returns a counter which changes every time glyphs are evicted from or moved within the atlases.<br>
+     * Text geometry which is kept across frames (For example in a {@link net.raphimc.thingl.drawbuilder.drawbatchdataholder.PersistentMultiDrawBatchDataHolder}) references atlas slots and has to be rebuilt once the counter changed. {@link CachedText} does this automatically.
+     *
+     * @return The atlas generation
+     */
+    public int getAtlasGeneration() {
+        return this.atlasGeneration;
+    }
+    // FlorianMichael - atlas eviction and repacking
+
     public DrawBatch getDrawBatch() {
         return this.drawBatch;
     }
@@ -124,6 +309,15 @@ public abstract class TextRenderer {
     }
 
     protected void renderTextRun(final Matrix4f positionMatrix, final MultiDrawBatchDataHolder multiDrawBatchDataHolder, final ShapedTextRun textRun, final float x, final float y, final float z, final Font decorationFont) {
+        // FlorianMichael - atlas eviction and repacking
+        this.currentFrame = ThinGL.get().getFrameCount();
+        if (this.currentFrame - this.lastDefragmentCheckFrame >= DEFRAGMENT_CHECK_INTERVAL) {
+            this.lastDefragmentCheckFrame = this.currentFrame;
+            if (this.shouldDefragmentAtlases()) {
+                ThinGL.get().runOnFrameStart(this::defragmentAtlases);
+            }
+        }
+        // FlorianMichael - atlas eviction and repacking
         for (ShapedTextSegment textSegment : textRun.segments()) {
             if (textSegment.glyphs().isEmpty()) {
                 continue;
@@ -161,6 +355,7 @@ public abstract class TextRenderer {
             final Font.Glyph fontGlyph = shapedGlyph.fontGlyph();
             final AtlasGlyph atlasGlyph = this.getAtlasGlyph(fontGlyph);
             if (atlasGlyph != null) {
+                atlasGlyph.lastUsedFrame = this.currentFrame; // FlorianMichael - atlas eviction and repacking
                 final float glyphX = shapedGlyph.x() * this.globalScale;
                 final float glyphY = shapedGlyph.y() * this.globalScale;
                 this.renderGlyph(positionMatrix, vertexDataHolder, glyphDataHolder, atlasGlyph, x + glyphX, y + glyphY, z, textSegment.styleFlags(), textDataIndex);
@@ -192,10 +387,13 @@ public abstract class TextRenderer {
     }
 
     private void renderGlyph(final Matrix4f positionMatrix, final VertexDataHolder vertexDataHolder, final ShaderDataHolder glyphDataHolder, final AtlasGlyph glyph, final float x, final float y, final float z, final int styleFlags, final int textDataIndex) {
-        final float x1 = x + glyph.xOffset() * this.globalScale;
-        final float x2 = x1 + glyph.width() * this.globalScale;
-        final float y1 = y + glyph.yOffset() * this.globalScale;
-        final float y2 = y1 + glyph.height() * this.globalScale;
+        // FlorianMichael - atlas eviction and repacking
+        final Slot slot = glyph.slot;
+        final float x1 = x + glyph.xOffset * this.globalScale;
+        final float x2 = x1 + slot.width() * this.globalScale;
+        final float y1 = y + glyph.yOffset * this.globalScale;
+        final float y2 = y1 + slot.height() * this.globalScale;
+        // FlorianMichael - atlas eviction and repacking
 
         float topOffset = 0F;
         float bottomOffset = 0F;
@@ -204,73 +402,219 @@ public abstract class TextRenderer {
             bottomOffset = ITALIC_SHEAR_FACTOR * (y2 - y);
         }
 
-        glyphDataHolder.ensureInTopLevelArray().beginStruct(Integer.BYTES).putInt((glyph.atlasIndex() << 27) | textDataIndex).endStruct();
+        glyphDataHolder.ensureInTopLevelArray().beginStruct(Integer.BYTES).putInt((glyph.atlasIndex << 27) | textDataIndex).endStruct(); // FlorianMichael - atlas eviction and repacking
 
-        vertexDataHolder.putVector3f(positionMatrix, x1 - bottomOffset, y2, z).putTextureCoord(glyph.u1(), glyph.v2()).endVertex();
-        vertexDataHolder.putVector3f(positionMatrix, x2 - bottomOffset, y2, z).putTextureCoord(glyph.u2(), glyph.v2()).endVertex();
-        vertexDataHolder.putVector3f(positionMatrix, x2 + topOffset, y1, z).putTextureCoord(glyph.u2(), glyph.v1()).endVertex();
-        vertexDataHolder.putVector3f(positionMatrix, x1 + topOffset, y1, z).putTextureCoord(glyph.u1(), glyph.v1()).endVertex();
+        // FlorianMichael - atlas eviction and repacking
+        vertexDataHolder.putVector3f(positionMatrix, x1 - bottomOffset, y2, z).putTextureCoord(slot.u1(), slot.v2()).endVertex();
+        vertexDataHolder.putVector3f(positionMatrix, x2 - bottomOffset, y2, z).putTextureCoord(slot.u2(), slot.v2()).endVertex();
+        vertexDataHolder.putVector3f(positionMatrix, x2 + topOffset, y1, z).putTextureCoord(slot.u2(), slot.v1()).endVertex();
+        vertexDataHolder.putVector3f(positionMatrix, x1 + topOffset, y1, z).putTextureCoord(slot.u1(), slot.v1()).endVertex();
+        // FlorianMichael - atlas eviction and repacking
     }
 
     private AtlasGlyph getAtlasGlyph(final Font.Glyph fontGlyph) {
-        return this.atlasGlyphs.computeIfAbsent(fontGlyph, this::createAtlasGlyph);
+        // FlorianMichael - async glyph rasterization
+        if (this.rasterizationExecutor != null) {
+            final AtlasGlyph atlasGlyph = this.atlasGlyphs.get(fontGlyph);
+            if (atlasGlyph == null && !this.emptyGlyphs.contains(fontGlyph) && this.pendingGlyphs.add(fontGlyph)) {
+                final int generation = this.rasterizationGeneration;
+                CompletableFuture.supplyAsync(() -> fontGlyph.font().createGlyphBitmap(fontGlyph, this.glyphRenderMode), this.rasterizationExecutor).whenComplete((glyphBitmap, throwable) -> {
+                    if (generation != this.rasterizationGeneration) { // Async rasterization was disabled in the meantime
+                        if (glyphBitmap != null) {
+                            BufferUtil.memFree(glyphBitmap.pixelBuffer());
+                        }
+                        return;
+                    }
+                    this.rasterizedGlyphs.add(new RasterizedGlyph(fontGlyph, glyphBitmap, throwable, generation));
+                    if (this.freed) { // Finished after the text renderer was freed, so the bitmap will never be uploaded
+                        this.freeRasterizedGlyphs();
+                    }
+                });
+            }
+            return atlasGlyph;
+        }
+        // FlorianMichael - async glyph rasterization
+        // FlorianMichael - atlas eviction and repacking
+        AtlasGlyph atlasGlyph = this.atlasGlyphs.get(fontGlyph);
+        if (atlasGlyph == null) { // Not using computeIfAbsent, because creating the glyph can evict other glyphs from the map
+            atlasGlyph = this.createAtlasGlyph(fontGlyph);
+            if (atlasGlyph != null) {
+                this.atlasGlyphs.put(fontGlyph, atlasGlyph);
+            }
+        }
+        return atlasGlyph;
+        // FlorianMichael - atlas eviction and repacking
     }
 
+    // FlorianMichael - async glyph rasterization
+    private void uploadRasterizedGlyphs() {
+        // FlorianMichael - GPU profiler
+        if (this.rasterizedGlyphs.isEmpty()) {
+            return;
+        }
+
+        ThinGL.profiler().push("TextRenderer#uploadRasterizedGlyphs");
+        // FlorianMichael - GPU profiler
+        RasterizedGlyph rasterizedGlyph;
+        while ((rasterizedGlyph = this.rasterizedGlyphs.poll()) != null) {
+            if (rasterizedGlyph.generation() != this.rasterizationGeneration) { // Finished right while async rasterization was disabled
+                if (rasterizedGlyph.glyphBitmap() != null) {
+                    BufferUtil.memFree(rasterizedGlyph.glyphBitmap().pixelBuffer());
+                }
+                continue;
+            }
+            final Font.Glyph fontGlyph = rasterizedGlyph.fontGlyph();
+            this.pendingGlyphs.remove(fontGlyph);
+            if (rasterizedGlyph.throwable() != null) {
+                ThinGL.LOGGER.error("Failed to rasterize glyph " + fontGlyph.glyphIndex() + " of font " + fontGlyph.font().getPostScriptName(), rasterizedGlyph.throwable());
+                this.emptyGlyphs.add(fontGlyph);
+            } else if (rasterizedGlyph.glyphBitmap() == null) {
+                this.emptyGlyphs.add(fontGlyph);
+            } else {
+                this.atlasGlyphs.put(fontGlyph, this.createAtlasGlyph(fontGlyph, rasterizedGlyph.glyphBitmap())); // FlorianMichael - atlas eviction and repacking
+            }
+        }
+        ThinGL.profiler().pop(); // FlorianMichael - GPU profiler
+    }
+
+    private void freeRasterizedGlyphs() {
+        RasterizedGlyph rasterizedGlyph;
+        while ((rasterizedGlyph = this.rasterizedGlyphs.poll()) != null) {
+            if (rasterizedGlyph.glyphBitmap() != null) {
+                BufferUtil.memFree(rasterizedGlyph.glyphBitmap().pixelBuffer());
+            }
+        }
+    }
+    // FlorianMichael - async glyph rasterization
+
     private AtlasGlyph createAtlasGlyph(final Font.Glyph fontGlyph) {
         final Font.GlyphBitmap glyphBitmap = fontGlyph.font().createGlyphBitmap(fontGlyph, this.glyphRenderMode);
         if (glyphBitmap == null) {
             return null;
         }
+        return this.createAtlasGlyph(fontGlyph, glyphBitmap); // FlorianMichael - async glyph rasterization
+    }
 
-        Slot atlasSlot = null;
-        StaticAtlasTexture atlas = null;
-        for (int i = 0; i <= this.glyphAtlases.size(); i++) {
-            if (i == this.glyphAtlases.size()) {
-                atlas = switch (this.glyphRenderMode) {
-                    case PIXELATED -> {
-                        final StaticAtlasTexture atlasTexture = new StaticAtlasTexture(GL30C.GL_R8, ATLAS_SIZE, ATLAS_SIZE);
-                        atlasTexture.setFilter(GL11C.GL_NEAREST);
-                        atlasTexture.setParameterIntArray(GL33C.GL_TEXTURE_SWIZZLE_RGBA, new int[]{GL11C.GL_ONE, GL11C.GL_ONE, GL11C.GL_ONE, GL11C.GL_RED});
-                        yield atlasTexture;
-                    }
-                    case COLORED_PIXELATED -> {
-                        final StaticAtlasTexture atlasTexture = new StaticAtlasTexture(GL11C.GL_RGBA8, ATLAS_SIZE, ATLAS_SIZE);
-                        atlasTexture.setFilter(GL11C.GL_NEAREST);
-                        yield atlasTexture;
-                    }
-                    case ANTIALIASED -> {
-                        final StaticAtlasTexture atlasTexture = new StaticAtlasTexture(GL30C.GL_R8, ATLAS_SIZE, ATLAS_SIZE);
-                        atlasTexture.setParameterIntArray(GL33C.GL_TEXTURE_SWIZZLE_RGBA, new int[]{GL11C.GL_ONE, GL11C.GL_ONE, GL11C.GL_ONE, GL11C.GL_RED});
-                        yield atlasTexture;
-                    }
-                    case COLORED_ANTIALIASED -> new StaticAtlasTexture(GL11C.GL_RGBA8, ATLAS_SIZE, ATLAS_SIZE);
-                    case BSDF, SDF -> {
-                        final StaticAtlasTexture atlasTexture = new StaticAtlasTexture(GL30C.GL_R8, ATLAS_SIZE, ATLAS_SIZE);
-                        atlasTexture.setParameterIntArray(GL33C.GL_TEXTURE_SWIZZLE_RGBA, new int[]{GL11C.GL_RED, GL11C.GL_RED, GL11C.GL_RED, GL11C.GL_ONE});
-                        yield atlasTexture;
-                    }
-                    case MSDF -> new StaticAtlasTexture(GL11C.GL_RGB8, ATLAS_SIZE, ATLAS_SIZE);
-                };
-            } else {
-                atlas = this.glyphAtlases.get(i);
+    // FlorianMichael - atlas eviction and repacking
+    private AtlasGlyph createAtlasGlyph(final Font.Glyph fontGlyph, final Font.GlyphBitmap glyphBitmap) {
+        try {
+            AtlasGlyph atlasGlyph = this.addToAtlases(fontGlyph, glyphBitmap);
+            if (atlasGlyph == null && this.glyphAtlases.size() < this.maxAtlasCount && (this.glyphAtlases.size() + 1) * this.atlasMemorySize <= this.atlasMemoryBudget) {
+                this.glyphAtlases.add(this.createAtlas());
+                atlasGlyph = this.addToAtlases(fontGlyph, glyphBitmap);
             }
-            atlasSlot = atlas.addSlot(glyphBitmap.width(), glyphBitmap.height(), glyphBitmap.pixelFormat(), glyphBitmap.pixelBuffer());
+            if (atlasGlyph == null) {
+                this.evictGlyphs((long) (glyphBitmap.width() + 1) * (glyphBitmap.height() + 1));
+                atlasGlyph = this.addToAtlases(fontGlyph, glyphBitmap);
+            }
+            if (atlasGlyph == null && this.glyphAtlases.size() < this.maxAtlasCount) { // Every glyph is in use, exceed the memory budget
+                this.glyphAtlases.add(this.createAtlas());
+                atlasGlyph = this.addToAtlases(fontGlyph, glyphBitmap);
+            }
+            if (atlasGlyph == null) {
+                throw new IllegalStateException("Failed to find a free slot for glyph in atlas");
+            }
+            return atlasGlyph;
+        } finally {
+            BufferUtil.memFree(glyphBitmap.pixelBuffer());
+        }
+    }
+
+    private AtlasGlyph addToAtlases(final Font.Glyph fontGlyph, final Font.GlyphBitmap glyphBitmap) {
+        for (int i = this.glyphAtlases.size() - 1; i >= 0; i--) {
+            final Slot atlasSlot = this.glyphAtlases.get(i).addSlot(glyphBitmap.width(), glyphBitmap.height(), glyphBitmap.pixelFormat(), glyphBitmap.pixelBuffer());
             if (atlasSlot != null) {
-                break;
+                final AtlasGlyph atlasGlyph = new AtlasGlyph(fontGlyph, i, atlasSlot, glyphBitmap.xOffset(), glyphBitmap.yOffset());
+                atlasGlyph.lastUsedFrame = this.currentFrame;
+                return atlasGlyph;
             }
         }
-        BufferUtil.memFree(glyphBitmap.pixelBuffer());
-        if (atlasSlot == null) { // Should never happen
-            throw new IllegalStateException("Failed to find a free slot for glyph in atlas");
+        return null;
+    }
+
+    private void evictGlyphs(final long requiredArea) {
+        final List<AtlasGlyph> candidates = new ArrayList<>();
+        for (AtlasGlyph atlasGlyph : this.atlasGlyphs.values()) {
+            if (atlasGlyph.lastUsedFrame < this.currentFrame) { // Glyphs of the current frame are still referenced by pending vertices
+                candidates.add(atlasGlyph);
+            }
         }
-        if (!this.glyphAtlases.contains(atlas)) {
-            this.glyphAtlases.add(atlas);
+        candidates.sort(Comparator.comparingLong(atlasGlyph -> atlasGlyph.lastUsedFrame));
+
+        final long targetArea = Math.max(requiredArea, (long) ATLAS_SIZE * ATLAS_SIZE / EVICTION_AREA_DIVIDER);
+        long freedArea = 0;
+        for (int i = 0; i < candidates.size() && freedArea < targetArea; i++) {
+            final AtlasGlyph atlasGlyph = candidates.get(i);
+            this.glyphAtlases.get(atlasGlyph.atlasIndex).removeSlot(atlasGlyph.slot);
+            this.atlasGlyphs.remove(atlasGlyph.fontGlyph);
+            freedArea += (long) (atlasGlyph.slot.width() + 1) * (atlasGlyph.slot.height() + 1);
+            this.evictedGlyphCount++;
+        }
+        if (freedArea > 0) { // The freed slots will be reused by other glyphs
+            this.atlasGeneration++;
+        }
+    }
+
+    private boolean shouldDefragmentAtlases() {
+        if (this.glyphAtlases.size() <= 1) {
+            return false;
+        }
+        float occupancy = 0F;
+        for (DynamicAtlasTexture atlas : this.glyphAtlases) {
+            occupancy += atlas.getOccupancy();
+        }
+        return occupancy / this.glyphAtlases.size() < DEFRAGMENT_OCCUPANCY_THRESHOLD;
+    }
+
+    private DynamicAtlasTexture createAtlas() {
+        return switch (this.glyphRenderMode) {
+            case PIXELATED -> {
+                final DynamicAtlasTexture atlasTexture = new DynamicAtlasTexture(GL30C.GL_R8, ATLAS_SIZE, ATLAS_SIZE);
+                atlasTexture.setFilter(GL11C.GL_NEAREST);
+                atlasTexture.setParameterIntArray(GL33C.GL_TEXTURE_SWIZZLE_RGBA, new int[]{GL11C.GL_ONE, GL11C.GL_ONE, GL11C.GL_ONE, GL11C.GL_RED});
+                yield atlasTexture;
+            }
+            case COLORED_PIXELATED -> {
+                final DynamicAtlasTexture atlasTexture = new DynamicAtlasTexture(GL11C.GL_RGBA8, ATLAS_SIZE, ATLAS_SIZE);
+                atlasTexture.setFilter(GL11C.GL_NEAREST);
+                yield atlasTexture;
+            }
+            case ANTIALIASED -> {
+                final DynamicAtlasTexture atlasTexture = new DynamicAtlasTexture(GL30C.GL_R8, ATLAS_SIZE, ATLAS_SIZE);
+                atlasTexture.setParameterIntArray(GL33C.GL_TEXTURE_SWIZZLE_RGBA, new int[]{GL11C.GL_ONE, GL11C.GL_ONE, GL11C.GL_ONE, GL11C.GL_RED});
+                yield atlasTexture;
+            }
+            case COLORED_ANTIALIASED -> new DynamicAtlasTexture(GL11C.GL_RGBA8, ATLAS_SIZE, ATLAS_SIZE);
+            case BSDF, SDF -> {
+                final DynamicAtlasTexture atlasTexture = new DynamicAtlasTexture(GL30C.GL_R8, ATLAS_SIZE, ATLAS_SIZE);
+                atlasTexture.setParameterIntArray(GL33C.GL_TEXTURE_SWIZZLE_RGBA, new int[]{GL11C.GL_RED, GL11C.GL_RED, GL11C.GL_RED, GL11C.GL_ONE});
+                yield atlasTexture;
+            }
+            case MSDF -> new DynamicAtlasTexture(GL11C.GL_RGB8, ATLAS_SIZE, ATLAS_SIZE);
+        };
+    }
+
+    private static final class AtlasGlyph {
+
+        private final Font.Glyph fontGlyph;
+        private final float xOffset;
+        private final float yOffset;
+        private int atlasIndex;
+        private Slot slot;
+        private long lastUsedFrame;
+
+        private AtlasGlyph(final Font.Glyph fontGlyph, final int atlasIndex, final Slot slot, final float xOffset, final float yOffset) {
+            this.fontGlyph = fontGlyph;
+            this.atlasIndex = atlasIndex;
+            this.slot = slot;
+            this.xOffset = xOffset;
+            this.yOffset = yOffset;
         }
 
-        return new AtlasGlyph(this.glyphAtlases.indexOf(atlas), atlasSlot.u1(), atlasSlot.v1(), atlasSlot.u2(), atlasSlot.v2(), glyphBitmap.width(), glyphBitmap.height(), glyphBitmap.xOffset(), glyphBitmap.yOffset());
     }
+    // FlorianMichael - atlas eviction and repacking
 
-    private record AtlasGlyph(int atlasIndex, float u1, float v1, float u2, float v2, float width, float height, float xOffset, float yOffset) {
+    private record RasterizedGlyph(Font.Glyph fontGlyph, Font.GlyphBitmap glyphBitmap, Throwable throwable, int generation) { // FlorianMichael - async glyph rasterization
     }
 
 }
@@ -0,0 +1,196 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.text.shaping;
+
+import net.raphimc.thingl.text.TextRun;
+import net.raphimc.thingl.text.TextSegment;
+import net.raphimc.thingl.text.font.Font;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * LRU cache for shaped text runs. Entries are weighted by their estimated memory usage and the least recently used entries are evicted once the memory budget is exceeded.<br>
+ * Cached {@link ShapedTextRun}s are shared between callers and must not be modified.
+ */
+public class ShapingCache {
+
+    public static final long DEFAULT_MAX_MEMORY = 4 * 1024 * 1024;
+    private static final int RUN_SIZE = 128;
+    private static final int SEGMENT_SIZE = 160;
+    private static final int GLYPH_SIZE = 32;
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75F, true);
+    private long maxMemory;
+    private long usedMemory;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public ShapingCache() {
+        this(DEFAULT_MAX_MEMORY);
+    }
+
+    public ShapingCache(final long maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+
+    public synchronized ShapedTextRun get(final TextRun textRun, final Function<TextRun, ShapedTextRun> shaper) {
+        if (this.maxMemory <= 0) {
+            return shaper.apply(textRun);
+        }
+
+        final Key key = Key.of(textRun);
+        final Entry entry = this.entries.get(key);
+        if (entry != null) {
+            this.hitCount++;
+            return entry.shapedTextRun();
+        }
+
+        this.missCount++;
+        final ShapedTextRun shapedTextRun = shaper.apply(textRun);
+        final long size = estimateSize(shapedTextRun, key);
+        if (size <= this.maxMemory) {
+            this.entries.put(key, new Entry(shapedTextRun, size));
+            this.usedMemory += size;
+            this.trim();
+        }
+        return shapedTextRun;
+    }
+
+    public synchronized void invalidate() {
+        this.entries.clear();
+        this.usedMemory = 0;
+    }
+
+    public synchronized void invalidate(final Font font) {
+        final Iterator<Map.Entry<Key, Entry>> it = this.entries.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<Key, Entry> entry = it.next();
+            if (entry.getKey().font() == font) {
+                this.usedMemory -= entry.getValue().size();
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void resetStatistics() {
+        this.hitCount = 0;
+        this.missCount = 0;
+        this.evictionCount = 0;
+    }
+
+    public synchronized long getMaxMemory() {
+        return this.maxMemory;
+    }
+
+    public synchronized void setMaxMemory(final long maxMemory) {
+        this.maxMemory = maxMemory;
+        this.trim();
+    }
+
+    public synchronized long getUsedMemory() {
+        return this.usedMemory;
+    }
+
+    public synchronized int getEntryCount() {
+        return this.entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return this.hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return this.missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    public synchronized float getHitRate() {
+        final long total = this.hitCount + this.missCount;
+        return total == 0 ? 0F : (float) this.hitCount / total;
+    }
+
+    private void trim() {
+        final Iterator<Entry> it = this.entries.values().iterator();
+        while (this.usedMemory > Math.max(this.maxMemory, 0) && it.hasNext()) {
+            this.usedMemory -= it.next().size();
+            it.remove();
+            this.evictionCount++;
+        }
+    }
+
+    private static long estimateSize(final ShapedTextRun shapedTextRun, final Key key) {
+        long size = RUN_SIZE;
+        for (ShapedTextSegment segment : shapedTextRun.segments()) {
+            size += SEGMENT_SIZE + (long) segment.glyphs().size() * GLYPH_SIZE;
+        }
+        for (SegmentKey segmentKey : key.segments()) {
+            size += SEGMENT_SIZE / 2 + segmentKey.text().length() * 2L;
+        }
+        return size;
+    }
+
+    private record Key(Font font, SegmentKey[] segments, int hashCode) {
+
+        private static Key of(final TextRun textRun) {
+            final SegmentKey[] segments = new SegmentKey[textRun.segments().size()];
+            int hashCode = System.identityHashCode(textRun.font());
+            for (int i = 0; i < segments.length; i++) {
+                final TextSegment segment = textRun.segments().get(i);
+                segments[i] = new SegmentKey(segment.text(), segment.color().toABGR(), segment.styleFlags(), segment.outlineColor().toABGR(), segment.visualOffset().x, segment.visualOffset().y);
+                hashCode = hashCode * 31 + segments[i].hashCode();
+            }
+            return new Key(textRun.font(), segments, hashCode);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other) || this.font != other.font || this.hashCode != other.hashCode || this.segments.length != other.segments.length) {
+                return false;
+            }
+            for (int i = 0; i < this.segments.length; i++) {
+                if (!this.segments[i].equals(other.segments[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+    }
+
+    private record SegmentKey(String text, int color, int styleFlags, int outlineColor, float offsetX, float offsetY) {
+    }
+
+    private record Entry(ShapedTextRun shapedTextRun, long size) {
+    }
+
+}
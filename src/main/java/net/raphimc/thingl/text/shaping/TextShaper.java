@@ -27,6 +27,8 @@ import java.util.List;
 
 public abstract class TextShaper {
 
+    private final ShapingCache shapingCache = new ShapingCache(); // FlorianMichael - Cache shaping results
+
     public ShapedTextBlock shape(final TextBlock textBlock) {
         final List<ShapedTextLine> shapedTextLines = new ArrayList<>(textBlock.lines().size());
         for (TextLine textLine : textBlock.lines()) {
@@ -43,7 +45,17 @@ public abstract class TextShaper {
         return new ShapedTextLine(shapedTextRuns);
     }
 
-    public abstract ShapedTextRun shape(final TextRun textRun);
+    // FlorianMichael - Cache shaping results
+    public ShapedTextRun shape(final TextRun textRun) {
+        return this.shapingCache.get(textRun, this::shapeUncached);
+    }
+
+    public ShapingCache getShapingCache() {
+        return this.shapingCache;
+    }
+
+    protected abstract ShapedTextRun shapeUncached(final TextRun textRun);
+    // FlorianMichael - Cache shaping results
 
     public record Glyph(Font.Glyph fontGlyph, float x, float y) {
     }
@@ -32,7 +32,7 @@ public class BasicTextShaper extends TextShaper {
     public static final BasicTextShaper INSTANCE = new BasicTextShaper();
 
     @Override
-    public ShapedTextRun shape(final TextRun textRun) {
+    protected ShapedTextRun shapeUncached(final TextRun textRun) { // FlorianMichael - Cache shaping results
         float x = 0F;
         final List<ShapedTextSegment> shapedTextSegments = new ArrayList<>(textRun.segments().size());
         for (TextSegment textSegment : textRun.segments()) {
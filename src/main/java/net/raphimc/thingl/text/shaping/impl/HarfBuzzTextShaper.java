@@ -36,7 +36,7 @@ public class HarfBuzzTextShaper extends TextShaper {
     public static final HarfBuzzTextShaper INSTANCE = new HarfBuzzTextShaper();
 
     @Override
-    public ShapedTextRun shape(final TextRun textRun) {
+    protected ShapedTextRun shapeUncached(final TextRun textRun) { // FlorianMichael - Cache shaping results
         ThinGL.capabilities().ensureHarfBuzzPresent();
         final long hbBuffer = HarfBuzz.hb_buffer_create();
         if (!HarfBuzz.hb_buffer_allocation_successful(hbBuffer)) {
@@ -0,0 +1,70 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.texture;
+
+import net.lenni0451.commons.color.Color;
+import net.raphimc.thingl.resource.image.texture.Texture2D;
+import net.raphimc.thingl.util.rectpack.GuillotineRectanglePacker;
+import net.raphimc.thingl.util.rectpack.Slot;
+import org.lwjgl.opengl.GL11C;
+import org.lwjgl.opengl.GL13C;
+
+import java.nio.ByteBuffer;
+
+public class DynamicAtlasTexture extends Texture2D {
+
+    private final GuillotineRectanglePacker rectanglePacker;
+
+    public DynamicAtlasTexture(final int internalFormat, final int width, final int height) {
+        super(internalFormat, width, height);
+        this.setWrap(GL13C.GL_CLAMP_TO_BORDER);
+        this.setParameterFloatArray(GL11C.GL_TEXTURE_BORDER_COLOR, new float[4]);
+        this.clear(Color.TRANSPARENT);
+        this.rectanglePacker = new GuillotineRectanglePacker(width, height);
+    }
+
+    public Slot addSlot(final int width, final int height, final int pixelFormat, final ByteBuffer pixelBuffer) {
+        final Slot slot = this.rectanglePacker.pack(width, height);
+        if (slot == null) {
+            return null;
+        }
+
+        this.uploadPixels(slot.x(), slot.y(), width, height, pixelFormat, pixelBuffer);
+        return slot;
+    }
+
+    public Slot addSlot(final DynamicAtlasTexture source, final Slot sourceSlot) {
+        final Slot slot = this.rectanglePacker.pack(sourceSlot.width(), sourceSlot.height());
+        if (slot == null) {
+            return null;
+        }
+
+        source.copyTo(this, sourceSlot.x(), sourceSlot.y(), slot.x(), slot.y(), slot.width(), slot.height());
+        return slot;
+    }
+
+    public void removeSlot(final Slot slot) {
+        this.rectanglePacker.free(slot);
+        this.clear(slot.x(), slot.y(), slot.width(), slot.height(), Color.TRANSPARENT);
+    }
+
+    public float getOccupancy() {
+        return this.rectanglePacker.getUsedArea() / ((float) this.rectanglePacker.getWidth() * this.rectanglePacker.getHeight());
+    }
+
+}
@@ -17,18 +17,19 @@
  */
 package net.raphimc.thingl.texture.animated;
 
-import net.lenni0451.commons.threading.ThreadUtils;
 import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.resource.image.texture.Texture2D;
 import net.raphimc.thingl.texture.animated.frameprovider.FrameProvider;
-import net.raphimc.thingl.util.TimerHack;
 import org.lwjgl.opengl.GL11C;
 
 public class AnimatedTexture extends Texture2D {
 
     private final ThinGL thinGL;
     private final FrameProvider frameProvider;
-    private Thread loadingThread;
+    // FlorianMichael - shared animated texture scheduler
+    private boolean started;
+    private volatile boolean finished;
+    // FlorianMichael - shared animated texture scheduler
 
     public AnimatedTexture(final FrameProvider frameProvider) {
         this(GL11C.GL_RGBA8, frameProvider);
@@ -40,58 +41,42 @@ public class AnimatedTexture extends Texture2D {
         this.frameProvider = frameProvider;
     }
 
+    // FlorianMichael - shared animated texture scheduler
     public AnimatedTexture start() {
-        if (this.loadingThread != null) {
+        if (this.started) {
             throw new IllegalStateException("Animation was already started");
         }
 
-        this.loadingThread = new Thread(() -> {
-            TimerHack.ensureRunning();
-            try {
-                while (this.thinGL.isAllocated() && !Thread.currentThread().isInterrupted()) {
-                    final long startTime = System.nanoTime();
-                    final int delay = this.frameProvider.loadNextFrame(this);
-                    if (delay < 0) {
-                        return;
-                    }
-
-                    final float timeToSleep = delay - (System.nanoTime() - startTime) / 1_000_000F;
-                    if (timeToSleep > 0) {
-                        ThreadUtils.hybridSleep(timeToSleep);
-                    }
-                }
-            } catch (Throwable e) {
-                if (e.getCause() instanceof InterruptedException) {
-                    return;
-                }
-
-                ThinGL.LOGGER.error("Failed to load animated texture frame", e);
-            }
-        }, "AnimatedTexture-LoadThread");
-        this.loadingThread.setDaemon(true);
-        this.loadingThread.start();
+        this.started = true;
+        this.thinGL.getAnimatedTextureScheduler().schedule(this);
         return this;
     }
 
     public boolean isRunning() {
-        return this.loadingThread != null && this.loadingThread.isAlive();
+        return this.started && !this.finished;
     }
 
     public boolean isFinished() {
-        return this.loadingThread != null && !this.loadingThread.isAlive();
+        return this.finished;
+    }
+
+    FrameProvider getFrameProvider() {
+        return this.frameProvider;
+    }
+
+    void onFinished() {
+        this.finished = true;
     }
 
     @Override
     protected void free0() {
-        if (this.isRunning()) {
-            this.loadingThread.interrupt();
-            try {
-                this.loadingThread.join(1000);
-            } catch (InterruptedException ignored) {
-            }
+        if (this.started) {
+            this.thinGL.getAnimatedTextureScheduler().cancel(this);
+        } else {
+            this.frameProvider.free();
         }
-        this.frameProvider.free();
         super.free0();
     }
+    // FlorianMichael - shared animated texture scheduler
 
 }
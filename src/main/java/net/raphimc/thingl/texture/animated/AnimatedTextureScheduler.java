@@ -0,0 +1,261 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.texture.animated;
+
+import net.raphimc.thingl.ThinGL;
+import net.raphimc.thingl.texture.animated.frameprovider.FrameProvider;
+import net.raphimc.thingl.util.TimerHack;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drives all {@link AnimatedTexture}s from a single scheduler thread instead of one thread per texture.<br>
+ * The textures are kept in a priority queue keyed by the deadline of their next frame. Due frames are decoded on a small pool of worker threads and all decoded frames are uploaded in one batch at the start of the next render frame.
+ */
+public class AnimatedTextureScheduler {
+
+    private final ThinGL thinGL;
+    private final ExecutorService decodeExecutor;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition deadlineChanged = this.lock.newCondition();
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.deadline));
+    private final Map<AnimatedTexture, Entry> entries = new IdentityHashMap<>();
+    private final Queue<Runnable> pendingUploads = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean uploadScheduled = new AtomicBoolean();
+    private Thread schedulerThread;
+    private boolean running = true;
+    private int lastUploadCount;
+
+    public AnimatedTextureScheduler() {
+        this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+    }
+
+    public AnimatedTextureScheduler(final int decodeThreads) {
+        this.thinGL = ThinGL.get();
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadPoolExecutor decodeExecutor = new ThreadPoolExecutor(decodeThreads, decodeThreads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "ThinGL Animation Decoder #" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        decodeExecutor.allowCoreThreadTimeOut(true);
+        this.decodeExecutor = decodeExecutor;
+    }
+
+    /**
+     * Starts playing the animated texture. The first frame is decoded immediately.
+     *
+     * @param texture The texture to play
+     */
+    public void schedule(final AnimatedTexture texture) {
+        this.lock.lock();
+        try {
+            if (!this.running) {
+                throw new IllegalStateException("Scheduler has been freed");
+            }
+            if (this.entries.containsKey(texture)) {
+                throw new IllegalStateException("Animated texture is already scheduled");
+            }
+            final Entry entry = new Entry(texture, texture.getFrameProvider(), System.nanoTime());
+            this.entries.put(texture, entry);
+            this.queue.add(entry);
+            if (this.schedulerThread == null) {
+                this.schedulerThread = new Thread(this::runScheduler, "ThinGL Animation Scheduler");
+                this.schedulerThread.setDaemon(true);
+                this.schedulerThread.start();
+            }
+            this.deadlineChanged.signal();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Stops playing the animated texture and frees its frame provider. Has to be called on the render thread.
+     *
+     * @param texture The texture to stop
+     */
+    public void cancel(final AnimatedTexture texture) {
+        final Entry entry;
+        this.lock.lock();
+        try {
+            entry = this.entries.remove(texture);
+            if (entry == null) {
+                return;
+            }
+            entry.cancelled = true;
+            if (entry.decoding) { // The decode task frees the frame provider once it is done
+                return;
+            }
+            this.queue.remove(entry);
+        } finally {
+            this.lock.unlock();
+        }
+        entry.frameProvider.free();
+    }
+
+    public boolean isScheduled(final AnimatedTexture texture) {
+        this.lock.lock();
+        try {
+            return this.entries.containsKey(texture);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int getScheduledCount() {
+        this.lock.lock();
+        try {
+            return this.entries.size();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * @return The amount of frames uploaded in the last upload batch
+     */
+    public int getLastUploadCount() {
+        return this.lastUploadCount;
+    }
+
+    public void free() {
+        this.lock.lock();
+        try {
+            this.running = false;
+            this.deadlineChanged.signal();
+        } finally {
+            this.lock.unlock();
+        }
+        this.decodeExecutor.shutdownNow();
+    }
+
+    private void runScheduler() {
+        TimerHack.ensureRunning();
+        this.lock.lock();
+        try {
+            while (this.running) {
+                final Entry entry = this.queue.peek();
+                if (entry == null) {
+                    this.deadlineChanged.await();
+                    continue;
+                }
+                final long waitTime = entry.deadline - System.nanoTime();
+                if (waitTime > 0) {
+                    this.deadlineChanged.awaitNanos(waitTime);
+                    continue;
+                }
+
+                this.queue.poll();
+                entry.decoding = true;
+                this.decodeExecutor.execute(() -> this.decodeFrame(entry));
+            }
+        } catch (InterruptedException | RejectedExecutionException ignored) {
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void decodeFrame(final Entry entry) {
+        final long startTime = System.nanoTime();
+        FrameProvider.DecodedFrame frame = null;
+        if (!entry.cancelled && this.thinGL.isAllocated()) {
+            try {
+                frame = entry.frameProvider.decodeNextFrame(entry.texture);
+            } catch (Throwable e) {
+                ThinGL.LOGGER.error("Failed to load animated texture frame", e);
+            }
+        }
+
+        if (frame != null) {
+            final Runnable upload = frame.upload();
+            final AnimatedTexture texture = entry.texture;
+            this.pendingUploads.add(() -> {
+                if (texture.isAllocated()) {
+                    upload.run();
+                }
+            });
+            if (this.uploadScheduled.compareAndSet(false, true)) {
+                this.thinGL.runOnFrameStart(this::uploadFrames);
+            }
+        }
+
+        this.lock.lock();
+        try {
+            entry.decoding = false;
+            if (entry.cancelled || frame == null) {
+                this.entries.remove(entry.texture, entry);
+                entry.finished = true;
+            } else {
+                entry.deadline = startTime + frame.delay() * 1_000_000L;
+                this.queue.add(entry);
+                this.deadlineChanged.signal();
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        if (entry.finished) {
+            entry.texture.onFinished();
+            if (this.thinGL.isAllocated()) {
+                this.thinGL.runOnFrameStart(entry.frameProvider::free);
+            }
+        }
+    }
+
+    private void uploadFrames() {
+        this.uploadScheduled.set(false);
+        int uploadCount = 0;
+        Runnable upload;
+        while ((upload = this.pendingUploads.poll()) != null) {
+            try {
+                upload.run();
+            } catch (Throwable e) {
+                ThinGL.LOGGER.error("Failed to upload animated texture frame", e);
+            }
+            uploadCount++;
+        }
+        this.lastUploadCount = uploadCount;
+    }
+
+    private static final class Entry {
+
+        private final AnimatedTexture texture;
+        private final FrameProvider frameProvider;
+        private long deadline;
+        private boolean decoding;
+        private volatile boolean cancelled;
+        private boolean finished;
+
+        private Entry(final AnimatedTexture texture, final FrameProvider frameProvider, final long deadline) {
+            this.texture = texture;
+            this.frameProvider = frameProvider;
+            this.deadline = deadline;
+        }
+
+    }
+
+}
@@ -24,12 +24,10 @@ import net.raphimc.thingl.texture.animated.frameprovider.FrameProvider;
 import org.lwjgl.opengl.GL11C;
 
 import java.io.IOException;
-import java.util.NavigableMap;
-import java.util.TreeMap;
 
 public class SequencedTexture extends Texture2DArray {
 
-    private final NavigableMap<Integer, Integer> frameTimes = new TreeMap<>();
+    private final long[] frameTimes; // FlorianMichael - primitive frame time lookup
 
     public SequencedTexture(final FrameProvider frameProvider) throws IOException {
         this(GL11C.GL_RGBA8, frameProvider);
@@ -41,6 +39,7 @@ public class SequencedTexture extends Texture2DArray {
             ThinGL.LOGGER.warn("Frame provider has more frames (" + frameProvider.getFrameCount() + ") than the maximum supported by the GPU (" + ThinGL.capabilities().getMaxArrayTextureLayers() + "). Only loading the maximum supported frames.");
         }
 
+        this.frameTimes = new long[this.getDepth() + 1]; // FlorianMichael - primitive frame time lookup
         final Texture2D target = new Texture2D(internalFormat, this.getWidth(), this.getHeight());
         try {
             int frameIndex = 0;
@@ -48,11 +47,11 @@ public class SequencedTexture extends Texture2DArray {
             while (frameIndex < this.getDepth()) {
                 final int delay = frameProvider.loadNextFrame(target);
                 target.copyTo(this, 0, 0, 0, 0, frameIndex, this.getWidth(), this.getHeight());
-                this.frameTimes.put(relativeTime, frameIndex);
+                this.frameTimes[frameIndex] = relativeTime; // FlorianMichael - primitive frame time lookup
                 relativeTime += delay;
                 frameIndex++;
             }
-            this.frameTimes.put(relativeTime, frameIndex - 1);
+            this.frameTimes[frameIndex] = relativeTime; // FlorianMichael - primitive frame time lookup
         } catch (Throwable e) {
             this.free();
             throw e;
@@ -62,20 +61,47 @@ public class SequencedTexture extends Texture2DArray {
         }
     }
 
+    // FlorianMichael - primitive frame time lookup
     public int getFrameIndex(final int time) {
         if (this.getDuration() != 0) {
-            return this.frameTimes.floorEntry(time % this.getDuration()).getValue();
+            return findFrameIndex(this.frameTimes, this.getDepth(), time % this.getDuration());
         } else {
             return 0;
         }
     }
 
     public int getDuration() {
-        return this.frameTimes.lastKey();
+        return (int) this.frameTimes[this.getDepth()];
     }
 
-    public NavigableMap<Integer, Integer> getFrameTimes() {
+    /**
+     * @return The start time of every frame, followed by the total duration of the animation
+     */
+    public long[] getFrameTimes() {
         return this.frameTimes;
     }
 
+    /**
+     * Finds the last frame which starts at or before the given time. Frames with a delay of zero are skipped like in a sorted map lookup.
+     *
+     * @param frameTimes The ascending start times of the frames
+     * @param frameCount The amount of frames to search
+     * @param time The time to look up
+     * @return The index of the frame
+     */
+    static int findFrameIndex(final long[] frameTimes, final int frameCount, final long time) {
+        int low = 0;
+        int high = frameCount - 1;
+        while (low < high) {
+            final int mid = (low + high + 1) >>> 1;
+            if (frameTimes[mid] <= time) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+    // FlorianMichael - primitive frame time lookup
+
 }
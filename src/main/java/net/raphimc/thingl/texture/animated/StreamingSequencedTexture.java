@@ -0,0 +1,277 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.texture.animated;
+
+import net.lenni0451.commons.color.Color;
+import net.raphimc.thingl.ThinGL;
+import net.raphimc.thingl.resource.image.texture.Texture2D;
+import net.raphimc.thingl.resource.image.texture.Texture2DArray;
+import net.raphimc.thingl.texture.animated.frameprovider.FrameProvider;
+import org.lwjgl.opengl.GL11C;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Variant of {@link SequencedTexture} for long animations. Only a ring of a few layers is kept resident and the frames are decoded ahead on a background thread.<br>
+ * The frame provider is recreated with the given factory whenever the animation loops. Frame providers are created, fed and freed through the render thread, so the factory may create GL objects.<br>
+ * {@link #getFrameIndex(int)} returns the layer which holds the frame for the given time. If the decoder falls behind, the newest decoded frame is shown instead.
+ */
+public class StreamingSequencedTexture extends Texture2DArray {
+
+    public static final int DEFAULT_LAYER_COUNT = 8;
+
+    private final ThinGL thinGL;
+    private final Callable<FrameProvider> frameProviderFactory;
+    private final int layerCount;
+    private final Texture2D stagingTexture;
+    private final Object ringLock = new Object();
+    private final Thread decodeThread;
+    private volatile boolean running = true;
+    private volatile long displayedSequence;
+
+    // Only accessed on the render thread
+    private long[] frameTimes = new long[16];
+    private int knownFrameCount;
+    private boolean frameTimesComplete;
+    private long uploadedSequence = -1;
+    private long requestedTime;
+    private long decodeLag;
+    private long droppedFrameCount;
+
+    public StreamingSequencedTexture(final Callable<FrameProvider> frameProviderFactory) throws Exception {
+        this(GL11C.GL_RGBA8, frameProviderFactory, DEFAULT_LAYER_COUNT);
+    }
+
+    public StreamingSequencedTexture(final int internalFormat, final Callable<FrameProvider> frameProviderFactory, final int layerCount) throws Exception {
+        this(internalFormat, frameProviderFactory, createFirstFrameProvider(frameProviderFactory, layerCount), layerCount);
+    }
+
+    private StreamingSequencedTexture(final int internalFormat, final Callable<FrameProvider> frameProviderFactory, final FrameProvider firstFrameProvider, final int layerCount) {
+        super(internalFormat, firstFrameProvider.getWidth(), firstFrameProvider.getHeight(), Math.min(layerCount, ThinGL.capabilities().getMaxArrayTextureLayers()));
+        this.thinGL = ThinGL.get();
+        this.frameProviderFactory = frameProviderFactory;
+        this.layerCount = this.getDepth();
+        this.stagingTexture = new Texture2D(internalFormat, this.getWidth(), this.getHeight());
+        this.clear(Color.TRANSPARENT);
+
+        this.decodeThread = new Thread(() -> this.decodeFrames(firstFrameProvider), "StreamingSequencedTexture-DecodeThread");
+        this.decodeThread.setDaemon(true);
+        this.decodeThread.start();
+    }
+
+    public int getFrameIndex(final int time) {
+        this.thinGL.assertOnRenderThread();
+        this.requestedTime = time;
+        if (this.uploadedSequence < 0) {
+            return 0;
+        }
+
+        final long requestedSequence = this.getSequence(time);
+        final long oldestResidentSequence = Math.max(0, this.uploadedSequence - this.layerCount + 1);
+        final long sequence = Math.max(oldestResidentSequence, Math.min(requestedSequence, this.uploadedSequence));
+        this.decodeLag = requestedSequence > this.uploadedSequence ? Math.max(0, time - this.getEndTime(this.uploadedSequence)) : 0;
+        if (sequence != this.displayedSequence) {
+            synchronized (this.ringLock) {
+                this.displayedSequence = sequence;
+                this.ringLock.notifyAll();
+            }
+        }
+        return (int) (sequence % this.layerCount);
+    }
+
+    /**
+     * @return The duration of the animation or -1 if the frame provider hasn't been read completely yet
+     */
+    public int getDuration() {
+        return this.frameTimesComplete ? (int) this.frameTimes[this.knownFrameCount] : -1;
+    }
+
+    /**
+     * @return How many milliseconds the newest decoded frame lags behind the last requested time
+     */
+    public long getDecodeLag() {
+        return this.decodeLag;
+    }
+
+    /**
+     * @return The amount of frames which were decoded too late to be shown
+     */
+    public long getDroppedFrameCount() {
+        return this.droppedFrameCount;
+    }
+
+    public int getLayerCount() {
+        return this.layerCount;
+    }
+
+    public boolean isRunning() {
+        return this.decodeThread.isAlive();
+    }
+
+    @Override
+    protected void free0() {
+        this.running = false;
+        if (this.decodeThread.isAlive()) {
+            this.decodeThread.interrupt();
+            try {
+                this.decodeThread.join(1000);
+            } catch (InterruptedException ignored) {
+            }
+        }
+        this.stagingTexture.free();
+        super.free0();
+    }
+
+    private void decodeFrames(FrameProvider frameProvider) {
+        try {
+            long sequence = 0;
+            int frameIndex = 0;
+            int relativeTime = 0;
+            boolean firstPass = true;
+            while (this.running && this.thinGL.isAllocated()) {
+                synchronized (this.ringLock) {
+                    while (this.running && sequence >= this.displayedSequence + this.layerCount) {
+                        this.ringLock.wait();
+                    }
+                }
+                if (!this.running) {
+                    break;
+                }
+
+                final int delay = frameProvider.loadNextFrame(this.stagingTexture);
+                if (delay < 0) {
+                    if (frameIndex == 0) {
+                        throw new IllegalStateException("Frame provider did not provide any frames");
+                    }
+                    if (firstPass) {
+                        firstPass = false;
+                        this.callOnRenderThread(() -> {
+                            this.frameTimesComplete = true;
+                            return null;
+                        });
+                    }
+                    final FrameProvider finishedFrameProvider = frameProvider;
+                    frameProvider = null;
+                    this.callOnRenderThread(() -> {
+                        finishedFrameProvider.free();
+                        return null;
+                    });
+                    frameProvider = this.callOnRenderThread(this.frameProviderFactory);
+                    frameIndex = 0;
+                    continue;
+                }
+
+                final long frameSequence = sequence;
+                final int frameStartTime = relativeTime;
+                final int frameEndTime = relativeTime + delay;
+                final boolean recordFrameTime = firstPass;
+                this.callOnRenderThread(() -> {
+                    if (!this.running) {
+                        return null;
+                    }
+                    if (recordFrameTime) {
+                        if (this.knownFrameCount + 2 > this.frameTimes.length) {
+                            this.frameTimes = Arrays.copyOf(this.frameTimes, this.frameTimes.length * 2);
+                        }
+                        this.frameTimes[this.knownFrameCount] = frameStartTime;
+                        this.frameTimes[this.knownFrameCount + 1] = frameEndTime;
+                        this.knownFrameCount++;
+                    }
+                    this.stagingTexture.copyTo(this, 0, 0, 0, 0, (int) (frameSequence % this.layerCount), this.getWidth(), this.getHeight());
+                    this.uploadedSequence = frameSequence;
+                    if (this.requestedTime >= this.getEndTime(frameSequence)) {
+                        this.droppedFrameCount++;
+                    }
+                    return null;
+                });
+                if (firstPass) {
+                    relativeTime = frameEndTime;
+                }
+                sequence++;
+                frameIndex++;
+            }
+            if (frameProvider != null) {
+                final FrameProvider finishedFrameProvider = frameProvider;
+                this.callOnRenderThread(() -> {
+                    finishedFrameProvider.free();
+                    return null;
+                });
+            }
+        } catch (Throwable e) {
+            if (e instanceof InterruptedException || e.getCause() instanceof InterruptedException) {
+                return;
+            }
+
+            ThinGL.LOGGER.error("Failed to decode streamed texture frame", e);
+        }
+    }
+
+    private long getSequence(final long time) {
+        if (this.frameTimesComplete) {
+            final long duration = this.frameTimes[this.knownFrameCount];
+            if (duration == 0) {
+                return 0;
+            }
+            return (time / duration) * this.knownFrameCount + SequencedTexture.findFrameIndex(this.frameTimes, this.knownFrameCount, time % duration);
+        } else if (time >= this.frameTimes[this.knownFrameCount]) {
+            return this.knownFrameCount;
+        } else {
+            return SequencedTexture.findFrameIndex(this.frameTimes, this.knownFrameCount, time);
+        }
+    }
+
+    private long getEndTime(final long sequence) {
+        if (this.frameTimesComplete) {
+            final int frameIndex = (int) (sequence % this.knownFrameCount);
+            return (sequence / this.knownFrameCount) * this.frameTimes[this.knownFrameCount] + this.frameTimes[frameIndex + 1];
+        } else {
+            return this.frameTimes[(int) sequence + 1];
+        }
+    }
+
+    private static FrameProvider createFirstFrameProvider(final Callable<FrameProvider> frameProviderFactory, final int layerCount) throws Exception {
+        if (layerCount < 2) {
+            throw new IllegalArgumentException("Layer count must be at least 2");
+        }
+        return frameProviderFactory.call();
+    }
+
+    private <T> T callOnRenderThread(final Callable<T> action) throws InterruptedException {
+        if (!this.thinGL.isAllocated()) {
+            throw new InterruptedException("ThinGL was freed");
+        }
+
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        this.thinGL.runOnRenderThread(() -> {
+            try {
+                future.complete(action.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+}
@@ -25,6 +25,24 @@ public interface FrameProvider {
 
     int loadNextFrame(final Texture2D target) throws IOException;
 
+    // FlorianMichael - shared animated texture scheduler
+    /**
+     * Decodes the next frame without touching the GPU. The returned upload action writes it into the target texture and has to be run on the render thread.<br>
+     * The default implementation falls back to {@link #loadNextFrame(Texture2D)}, which uploads the frame itself and returns an empty upload action.
+     *
+     * @param target The texture the frame should be uploaded to
+     * @return The decoded frame or null if there are no more frames
+     */
+    default DecodedFrame decodeNextFrame(final Texture2D target) throws IOException {
+        final int delay = this.loadNextFrame(target);
+        if (delay < 0) {
+            return null;
+        }
+        return new DecodedFrame(delay, () -> {
+        });
+    }
+    // FlorianMichael - shared animated texture scheduler
+
     int getWidth();
 
     int getHeight();
@@ -33,4 +51,7 @@ public interface FrameProvider {
 
     void free();
 
+    record DecodedFrame(int delay, Runnable upload) { // FlorianMichael - shared animated texture scheduler
+    }
+
 }
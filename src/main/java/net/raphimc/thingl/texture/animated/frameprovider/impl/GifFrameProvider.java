@@ -46,28 +46,39 @@ public class GifFrameProvider implements FrameProvider {
 
     @Override
     public int loadNextFrame(final Texture2D target) throws IOException {
-        if (this.gifReader.hasRemaining()) {
-            final GifFrame frame = this.gifReader.read();
+        final DecodedFrame frame = this.decodeNextFrame(target); // FlorianMichael - shared animated texture scheduler
+        if (frame == null) {
+            return -1;
+        }
+
+        if (!this.thinGL.isAllocated()) { // If ThinGL was freed while the image was loading
+            return -1;
+        }
 
-            if (!this.thinGL.isAllocated()) { // If ThinGL was freed while the image was loading
-                return -1;
+        final CompletableFuture<Void> uploadFuture = new CompletableFuture<>();
+        this.thinGL.runOnRenderThread(() -> {
+            try {
+                frame.upload().run(); // FlorianMichael - shared animated texture scheduler
+            } finally {
+                uploadFuture.complete(null);
             }
+        });
+        uploadFuture.join();
 
-            final CompletableFuture<Void> uploadFuture = new CompletableFuture<>();
-            this.thinGL.runOnRenderThread(() -> {
-                try {
-                    target.uploadPixels(0, 0, frame.getWidth(), frame.getHeight(), GL12C.GL_BGRA, frame.getData(), false);
-                } finally {
-                    uploadFuture.complete(null);
-                }
-            });
-            uploadFuture.join();
-
-            return frame.getDelay() * 10;
+        return frame.delay(); // FlorianMichael - shared animated texture scheduler
+    }
+
+    // FlorianMichael - shared animated texture scheduler
+    @Override
+    public DecodedFrame decodeNextFrame(final Texture2D target) throws IOException {
+        if (this.gifReader.hasRemaining()) {
+            final GifFrame frame = this.gifReader.read();
+            return new DecodedFrame(frame.getDelay() * 10, () -> target.uploadPixels(0, 0, frame.getWidth(), frame.getHeight(), GL12C.GL_BGRA, frame.getData(), false));
         } else {
-            return -1;
+            return null;
         }
     }
+    // FlorianMichael - shared animated texture scheduler
 
     @Override
     public int getWidth() {
@@ -17,23 +17,56 @@
  */
 package net.raphimc.thingl.util;
 
-import it.unimi.dsi.fastutil.longs.Long2LongMap;
-import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+// FlorianMichael - segregated fit (TLSF) allocator with O(1) statistics and defragmentation
 public class ArenaMemoryAllocator {
 
+    private static final int SL_BITS = 4;
+    private static final int SL_COUNT = 1 << SL_BITS;
+    private static final int FL_COUNT = Long.SIZE - SL_BITS;
+    private static final int NO_BLOCK = -1;
+
     private final long address;
     private final long size;
-    private final Long2LongMap allocationMap = new Long2LongOpenHashMap(); // Address -> Size
-    private final TreeMap<Long, Long> freeMap = new TreeMap<>(); // Address -> Size
+    private final Long2IntMap allocationMap = new Long2IntOpenHashMap(); // Address -> Block
+
+    // Block pool (structure of arrays, indexed by block id)
+    private long[] blockAddresses = new long[64];
+    private long[] blockSizes = new long[64];
+    private int[] blockPrevPhysical = new int[64];
+    private int[] blockNextPhysical = new int[64];
+    private int[] blockPrevFree = new int[64];
+    private int[] blockNextFree = new int[64];
+    private boolean[] blockIsFree = new boolean[64];
+    private int blockCount;
+    private int unusedBlockHead = NO_BLOCK;
+    private int firstBlock;
+
+    // Segregated free lists
+    private long firstLevelBitmap;
+    private final int[] secondLevelBitmaps = new int[FL_COUNT];
+    private final int[] freeListHeads = new int[FL_COUNT * SL_COUNT];
+
+    private long usedMemory;
+    private int freeBlockCount;
 
     public ArenaMemoryAllocator(final long address, final long size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be greater than 0");
+        }
+
         this.address = address;
         this.size = size;
-        this.freeMap.put(address, size);
+        this.allocationMap.defaultReturnValue(NO_BLOCK);
+        Arrays.fill(this.freeListHeads, NO_BLOCK);
+        this.firstBlock = this.createBlock(address, size, NO_BLOCK, NO_BLOCK);
+        this.insertFreeBlock(this.firstBlock);
     }
 
     public long alloc(final long segmentSize) {
@@ -41,56 +74,164 @@ public class ArenaMemoryAllocator {
             return -1;
         }
 
-        for (Map.Entry<Long, Long> entry : this.freeMap.entrySet()) {
-            final long freeSegmentAddress = entry.getKey();
-            final long freeSegmentSize = entry.getValue();
-
-            if (freeSegmentSize >= segmentSize) {
-                this.freeMap.remove(freeSegmentAddress);
-
-                if (freeSegmentSize > segmentSize) {
-                    final long remainingSize = freeSegmentSize - segmentSize;
-                    final long remainingAddress = freeSegmentAddress + segmentSize;
-                    this.freeMap.put(remainingAddress, remainingSize);
-                }
+        final int block = this.findFreeBlock(segmentSize);
+        if (block == NO_BLOCK) {
+            return -1;
+        }
+        this.removeFreeBlock(block);
 
-                this.allocationMap.put(freeSegmentAddress, segmentSize);
-                return freeSegmentAddress;
+        final long remainingSize = this.blockSizes[block] - segmentSize;
+        if (remainingSize > 0) {
+            final int remainingBlock = this.createBlock(this.blockAddresses[block] + segmentSize, remainingSize, block, this.blockNextPhysical[block]);
+            if (this.blockNextPhysical[block] != NO_BLOCK) {
+                this.blockPrevPhysical[this.blockNextPhysical[block]] = remainingBlock;
             }
+            this.blockNextPhysical[block] = remainingBlock;
+            this.blockSizes[block] = segmentSize;
+            this.insertFreeBlock(remainingBlock);
         }
 
-        return -1;
+        this.usedMemory += segmentSize;
+        this.allocationMap.put(this.blockAddresses[block], block);
+        return this.blockAddresses[block];
     }
 
     public void free(final long ptr) {
-        long segmentSize = this.allocationMap.remove(ptr);
-        if (segmentSize == 0) {
+        int block = this.allocationMap.remove(ptr);
+        if (block == NO_BLOCK) {
             return;
         }
+        this.usedMemory -= this.blockSizes[block];
 
-        long start = ptr;
-        long end = start + segmentSize;
-        final Long lower = this.freeMap.floorKey(start);
-        if (lower != null && lower + this.freeMap.get(lower) == start) {
-            start = lower;
-            segmentSize += this.freeMap.get(lower);
-            this.freeMap.remove(lower);
+        final int prev = this.blockPrevPhysical[block];
+        if (prev != NO_BLOCK && this.blockIsFree[prev]) {
+            this.removeFreeBlock(prev);
+            this.mergeIntoPrevious(prev, block);
+            block = prev;
         }
-        final Long higher = this.freeMap.ceilingKey(end);
-        if (higher != null && higher == end) {
-            segmentSize += this.freeMap.get(higher);
-            this.freeMap.remove(higher);
+        final int next = this.blockNextPhysical[block];
+        if (next != NO_BLOCK && this.blockIsFree[next]) {
+            this.removeFreeBlock(next);
+            this.mergeIntoPrevious(block, next);
         }
 
-        this.freeMap.put(start, segmentSize);
+        this.insertFreeBlock(block);
+    }
+
+    /**
+     * Compacts all allocations towards the start of the arena.<br>
+     * The returned moves have to be applied in order by the caller. Moves always go towards lower addresses, but the source and destination range of a single move may overlap.
+     *
+     * @return The list of moves which have been performed
+     */
+    public List<Move> defragment() {
+        return this.defragment(Long.MAX_VALUE);
+    }
+
+    /**
+     * Compacts allocations towards the start of the arena until the given amount of bytes would be exceeded.<br>
+     * This can be used to spread the compaction over multiple frames.<br>
+     * The returned moves have to be applied in order by the caller. Moves always go towards lower addresses, but the source and destination range of a single move may overlap.
+     *
+     * @param maxMovedBytes The maximum amount of bytes to move
+     * @return The list of moves which have been performed
+     */
+    public List<Move> defragment(final long maxMovedBytes) {
+        final List<Move> moves = new ArrayList<>();
+        long movedBytes = 0;
+        long cursor = this.address;
+        int lastUsedBlock = NO_BLOCK;
+        int block = this.firstBlock;
+
+        while (block != NO_BLOCK) {
+            final int next = this.blockNextPhysical[block];
+            if (this.blockIsFree[block]) {
+                this.removeFreeBlock(block);
+                this.releaseBlock(block);
+                block = next;
+                continue;
+            }
+
+            final long blockAddress = this.blockAddresses[block];
+            final long blockSize = this.blockSizes[block];
+            if (blockAddress != cursor) {
+                if (movedBytes + blockSize > maxMovedBytes) {
+                    break;
+                }
+                movedBytes += blockSize;
+
+                final Move lastMove = moves.isEmpty() ? null : moves.get(moves.size() - 1);
+                if (lastMove != null && lastMove.oldAddress() + lastMove.size() == blockAddress && lastMove.newAddress() + lastMove.size() == cursor) {
+                    moves.set(moves.size() - 1, new Move(lastMove.oldAddress(), lastMove.newAddress(), lastMove.size() + blockSize));
+                } else {
+                    moves.add(new Move(blockAddress, cursor, blockSize));
+                }
+                this.allocationMap.remove(blockAddress);
+                this.allocationMap.put(cursor, block);
+                this.blockAddresses[block] = cursor;
+            }
+
+            this.linkPhysical(lastUsedBlock, block);
+            lastUsedBlock = block;
+            cursor += blockSize;
+            block = next;
+        }
+
+        final long gapEnd = block != NO_BLOCK ? this.blockAddresses[block] : this.address + this.size;
+        if (gapEnd > cursor) {
+            final int gapBlock = this.createBlock(cursor, gapEnd - cursor, NO_BLOCK, NO_BLOCK);
+            this.linkPhysical(lastUsedBlock, gapBlock);
+            this.linkPhysical(gapBlock, block);
+            this.insertFreeBlock(gapBlock);
+        } else {
+            this.linkPhysical(lastUsedBlock, block);
+        }
+
+        return moves;
     }
 
     public long getUsedMemory() {
-        return this.allocationMap.values().longStream().sum();
+        return this.usedMemory;
     }
 
     public long getFreeMemory() {
-        return this.freeMap.values().stream().mapToLong(Long::longValue).sum();
+        return this.size - this.usedMemory;
+    }
+
+    public int getAllocationCount() {
+        return this.allocationMap.size();
+    }
+
+    public int getFreeBlockCount() {
+        return this.freeBlockCount;
+    }
+
+    public long getLargestFreeBlockSize() {
+        if (this.firstLevelBitmap == 0) {
+            return 0;
+        }
+
+        final int fl = Long.SIZE - 1 - Long.numberOfLeadingZeros(this.firstLevelBitmap);
+        final int sl = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(this.secondLevelBitmaps[fl]);
+        long largestSize = 0;
+        for (int block = this.freeListHeads[fl * SL_COUNT + sl]; block != NO_BLOCK; block = this.blockNextFree[block]) {
+            largestSize = Math.max(largestSize, this.blockSizes[block]);
+        }
+        return largestSize;
+    }
+
+    /**
+     * Calculates the external fragmentation of the arena.<br>
+     * 0 means that all free memory is in a single contiguous block, values close to 1 mean that the free memory is scattered across many small blocks.
+     *
+     * @return The fragmentation in the range [0, 1]
+     */
+    public float getFragmentation() {
+        final long freeMemory = this.getFreeMemory();
+        if (freeMemory == 0) {
+            return 0F;
+        }
+        return 1F - (float) ((double) this.getLargestFreeBlockSize() / freeMemory);
     }
 
     public long getAddress() {
@@ -101,4 +242,147 @@ public class ArenaMemoryAllocator {
         return this.size;
     }
 
+    private int findFreeBlock(final long segmentSize) {
+        final long roundedSize = roundUpToClass(segmentSize);
+        if (roundedSize > 0) {
+            final int index = mapToClass(roundedSize);
+            int fl = index >>> SL_BITS;
+            if (fl < FL_COUNT) {
+                int slMap = this.secondLevelBitmaps[fl] & (-1 << (index & (SL_COUNT - 1)));
+                if (slMap == 0) {
+                    final long flMap = fl + 1 < Long.SIZE ? this.firstLevelBitmap & (-1L << (fl + 1)) : 0;
+                    if (flMap != 0) {
+                        fl = Long.numberOfTrailingZeros(flMap);
+                        slMap = this.secondLevelBitmaps[fl];
+                    }
+                }
+                if (slMap != 0) {
+                    return this.freeListHeads[fl * SL_COUNT + Integer.numberOfTrailingZeros(slMap)];
+                }
+            }
+        }
+
+        // The rounded up class has no free blocks, but the exact class might still contain a block which is large enough
+        for (int block = this.freeListHeads[mapToClass(segmentSize)]; block != NO_BLOCK; block = this.blockNextFree[block]) {
+            if (this.blockSizes[block] >= segmentSize) {
+                return block;
+            }
+        }
+        return NO_BLOCK;
+    }
+
+    private void insertFreeBlock(final int block) {
+        final int index = mapToClass(this.blockSizes[block]);
+        final int head = this.freeListHeads[index];
+        this.blockIsFree[block] = true;
+        this.blockPrevFree[block] = NO_BLOCK;
+        this.blockNextFree[block] = head;
+        if (head != NO_BLOCK) {
+            this.blockPrevFree[head] = block;
+        }
+        this.freeListHeads[index] = block;
+        this.secondLevelBitmaps[index >>> SL_BITS] |= 1 << (index & (SL_COUNT - 1));
+        this.firstLevelBitmap |= 1L << (index >>> SL_BITS);
+        this.freeBlockCount++;
+    }
+
+    private void removeFreeBlock(final int block) {
+        final int index = mapToClass(this.blockSizes[block]);
+        final int prev = this.blockPrevFree[block];
+        final int next = this.blockNextFree[block];
+        if (prev != NO_BLOCK) {
+            this.blockNextFree[prev] = next;
+        } else {
+            this.freeListHeads[index] = next;
+            if (next == NO_BLOCK) {
+                final int fl = index >>> SL_BITS;
+                this.secondLevelBitmaps[fl] &= ~(1 << (index & (SL_COUNT - 1)));
+                if (this.secondLevelBitmaps[fl] == 0) {
+                    this.firstLevelBitmap &= ~(1L << fl);
+                }
+            }
+        }
+        if (next != NO_BLOCK) {
+            this.blockPrevFree[next] = prev;
+        }
+        this.blockIsFree[block] = false;
+        this.freeBlockCount--;
+    }
+
+    private void mergeIntoPrevious(final int block, final int next) {
+        this.blockSizes[block] += this.blockSizes[next];
+        final int nextNext = this.blockNextPhysical[next];
+        this.blockNextPhysical[block] = nextNext;
+        if (nextNext != NO_BLOCK) {
+            this.blockPrevPhysical[nextNext] = block;
+        }
+        this.releaseBlock(next);
+    }
+
+    private void linkPhysical(final int block, final int next) {
+        if (block != NO_BLOCK) {
+            this.blockNextPhysical[block] = next;
+        } else {
+            this.firstBlock = next;
+        }
+        if (next != NO_BLOCK) {
+            this.blockPrevPhysical[next] = block;
+        }
+    }
+
+    private int createBlock(final long address, final long size, final int prevPhysical, final int nextPhysical) {
+        final int block;
+        if (this.unusedBlockHead != NO_BLOCK) {
+            block = this.unusedBlockHead;
+            this.unusedBlockHead = this.blockNextFree[block];
+        } else {
+            if (this.blockCount == this.blockAddresses.length) {
+                final int newCapacity = this.blockCount * 2;
+                this.blockAddresses = Arrays.copyOf(this.blockAddresses, newCapacity);
+                this.blockSizes = Arrays.copyOf(this.blockSizes, newCapacity);
+                this.blockPrevPhysical = Arrays.copyOf(this.blockPrevPhysical, newCapacity);
+                this.blockNextPhysical = Arrays.copyOf(this.blockNextPhysical, newCapacity);
+                this.blockPrevFree = Arrays.copyOf(this.blockPrevFree, newCapacity);
+                this.blockNextFree = Arrays.copyOf(this.blockNextFree, newCapacity);
+                this.blockIsFree = Arrays.copyOf(this.blockIsFree, newCapacity);
+            }
+            block = this.blockCount++;
+        }
+        this.blockAddresses[block] = address;
+        this.blockSizes[block] = size;
+        this.blockPrevPhysical[block] = prevPhysical;
+        this.blockNextPhysical[block] = nextPhysical;
+        this.blockPrevFree[block] = NO_BLOCK;
+        this.blockNextFree[block] = NO_BLOCK;
+        this.blockIsFree[block] = false;
+        return block;
+    }
+
+    private void releaseBlock(final int block) {
+        this.blockIsFree[block] = false;
+        this.blockNextFree[block] = this.unusedBlockHead;
+        this.unusedBlockHead = block;
+    }
+
+    private static int mapToClass(final long size) {
+        final int log2 = Long.SIZE - 1 - Long.numberOfLeadingZeros(size);
+        if (log2 < SL_BITS) {
+            return (int) size;
+        }
+        final int fl = log2 - SL_BITS + 1;
+        final int sl = (int) (size >>> (log2 - SL_BITS)) & (SL_COUNT - 1);
+        return fl * SL_COUNT + sl;
+    }
+
+    private static long roundUpToClass(final long size) {
+        final int log2 = Long.SIZE - 1 - Long.numberOfLeadingZeros(size);
+        if (log2 < SL_BITS) {
+            return size;
+        }
+        return size + (1L << (log2 - SL_BITS)) - 1;
+    }
+
+    public record Move(long oldAddress, long newAddress, long size) {
+    }
+
 }
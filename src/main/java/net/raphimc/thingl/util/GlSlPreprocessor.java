@@ -17,14 +17,25 @@
  */
 package net.raphimc.thingl.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class GlSlPreprocessor {
 
     private final Map<String, Object> defines = new HashMap<>();
+    private IncludeResolver includeResolver; // FlorianMichael - shader preprocessor
 
     public void addDefines(final Map<String, Object> defines) {
         if (defines == null) {
@@ -42,29 +53,279 @@ public class GlSlPreprocessor {
         this.defines.put(name, value);
     }
 
+    // FlorianMichael - shader preprocessor
+    public void setIncludeResolver(final IncludeResolver includeResolver) {
+        this.includeResolver = includeResolver;
+    }
+
     public String process(final String code) {
-        final List<String> codeLines = new ArrayList<>(code.lines().toList());
+        return this.process("<source>", code).source();
+    }
+
+    /**
+     * Processes the given shader source.<br>
+     * Supported directives:<br>
+     * - {@code #include "path"}: Inserts the resolved file. Paths starting with {@code /} are resolved relative to the resolver root, all others relative to the including file<br>
+     * - {@code #pragma once}: Includes the file only once per shader<br>
+     * - {@code #pragma variant NAME [values...]}: Declares a variant define. Without values the define is toggled on or off, otherwise it takes one of the values (The first one is the default)<br>
+     * {@code #line} directives are inserted so the line numbers in driver logs can be mapped back with the returned {@link SourceMap}.
+     *
+     * @param name The name of the shader file (Used to resolve relative includes and in mapped logs)
+     * @param code The shader source
+     * @return The processed source, its source map and the declared variants
+     */
+    public Result process(final String name, final String code) {
+        final List<String> codeLines = code.lines().toList();
         if (codeLines.isEmpty()) {
             throw new IllegalArgumentException("Shader code cannot be empty");
         }
 
+        final Context context = new Context();
+        final int fileIndex = context.sourceMap.add(name);
+        context.includeStack.push(name);
+        context.output.add(codeLines.get(0));
         if (!this.defines.isEmpty()) {
-            final List<String> defineLines = new ArrayList<>();
-            defineLines.add("#line 2 1");
+            context.output.add("#line 1 " + context.sourceMap.add("<defines>"));
             for (Map.Entry<String, Object> entry : this.defines.entrySet()) {
                 final StringBuilder sb = new StringBuilder();
                 sb.append("#define ").append(entry.getKey());
                 if (entry.getValue() != null) {
                     sb.append(' ').append(entry.getValue());
                 }
-                defineLines.add(sb.toString());
+                context.output.add(sb.toString());
+            }
+            context.output.add("#line 2 " + fileIndex);
+        }
+        this.processLines(context, name, fileIndex, codeLines, 1);
+
+        return new Result(String.join("\n", context.output), context.sourceMap, Collections.unmodifiableList(context.variants));
+    }
+
+    private void processLines(final Context context, final String name, final int fileIndex, final List<String> lines, final int startLine) {
+        for (int i = startLine; i < lines.size(); i++) {
+            final String line = lines.get(i);
+            final String trimmedLine = line.strip();
+            if (!trimmedLine.startsWith("#")) {
+                context.output.add(line);
+                continue;
+            }
+
+            final String[] directive = trimmedLine.substring(1).strip().split("\\s+", 2);
+            final String arguments = directive.length > 1 ? directive[1].strip() : "";
+            if (directive[0].equals("include")) {
+                if (arguments.length() < 2 || !(arguments.startsWith("\"") && arguments.endsWith("\"") || arguments.startsWith("<") && arguments.endsWith(">"))) {
+                    throw new IllegalArgumentException(name + ":" + (i + 1) + ": Invalid #include directive");
+                }
+                final String includeName = resolvePath(name, arguments.substring(1, arguments.length() - 1));
+                if (context.includeStack.contains(includeName)) {
+                    throw new IllegalStateException(name + ":" + (i + 1) + ": Cyclic include of " + includeName);
+                }
+                context.output.add("");
+                if (context.onceFiles.contains(includeName)) {
+                    continue;
+                }
+
+                final String includeCode = this.resolveInclude(includeName);
+                if (includeCode == null) {
+                    throw new IllegalStateException(name + ":" + (i + 1) + ": Include " + includeName + " not found");
+                }
+                context.includeStack.push(includeName);
+                context.output.add("#line 1 " + context.sourceMap.add(includeName));
+                this.processLines(context, includeName, context.sourceMap.indexOf(includeName), includeCode.lines().toList(), 0);
+                context.output.add("#line " + (i + 2) + " " + fileIndex);
+                context.includeStack.pop();
+            } else if (directive[0].equals("pragma") && arguments.equals("once")) {
+                context.onceFiles.add(name);
+                context.output.add("");
+            } else if (directive[0].equals("pragma") && arguments.split("\\s+")[0].equals("variant")) {
+                final String[] variantArguments = arguments.split("\\s+");
+                if (variantArguments.length < 2) {
+                    throw new IllegalArgumentException(name + ":" + (i + 1) + ": Invalid #pragma variant directive");
+                }
+                final VariantDeclaration declaration = new VariantDeclaration(variantArguments[1], List.of(variantArguments).subList(2, variantArguments.length));
+                addVariant(context.variants, declaration);
+                context.output.add("");
+            } else if (directive[0].equals("version") && context.includeStack.size() > 1) {
+                throw new IllegalArgumentException(name + ":" + (i + 1) + ": Included files cannot contain a #version directive");
+            } else {
+                context.output.add(line);
+            }
+        }
+    }
+
+    private String resolveInclude(final String name) {
+        if (this.includeResolver == null) {
+            throw new IllegalStateException("No include resolver set");
+        }
+        try {
+            return this.includeResolver.resolve(name);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to resolve include " + name, e);
+        }
+    }
+
+    /**
+     * Adds the variant declaration to the list or checks that it matches an existing declaration with the same name.
+     *
+     * @param variants The declared variants
+     * @param declaration The variant declaration to add
+     */
+    public static void addVariant(final List<VariantDeclaration> variants, final VariantDeclaration declaration) {
+        for (VariantDeclaration variant : variants) {
+            if (variant.name().equals(declaration.name())) {
+                if (!variant.values().equals(declaration.values())) {
+                    throw new IllegalArgumentException("Variant " + declaration.name() + " is declared with different values");
+                }
+                return;
+            }
+        }
+        variants.add(declaration);
+    }
+
+    /**
+     * Resolves an include path relative to the including file.
+     *
+     * @param includingName The name of the including file
+     * @param path The include path
+     * @return The normalized name of the included file
+     */
+    public static String resolvePath(final String includingName, final String path) {
+        final Deque<String> parts = new ArrayDeque<>();
+        if (!path.startsWith("/")) {
+            final int lastSlash = includingName.lastIndexOf('/');
+            if (lastSlash != -1) {
+                for (String part : includingName.substring(0, lastSlash).split("/")) {
+                    parts.addLast(part);
+                }
+            }
+        }
+        for (String part : path.split("/")) {
+            if (part.equals("..")) {
+                if (parts.isEmpty()) {
+                    throw new IllegalArgumentException("Include path " + path + " escapes the include root");
+                }
+                parts.removeLast();
+            } else if (!part.isEmpty() && !part.equals(".")) {
+                parts.addLast(part);
+            }
+        }
+        return String.join("/", parts);
+    }
+
+    /**
+     * Creates an include resolver which loads the files from the classpath.
+     *
+     * @param classLoader The class loader to load the resources from
+     * @param root The resource path prefix (For example {@code thingl/shaders/})
+     * @return The include resolver
+     */
+    public static IncludeResolver resourceResolver(final ClassLoader classLoader, final String root) {
+        return name -> {
+            try (InputStream stream = classLoader.getResourceAsStream(root + name)) {
+                if (stream == null) {
+                    return null;
+                }
+                return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
             }
-            defineLines.add("#line 2 0");
+        };
+    }
+
+    @FunctionalInterface
+    public interface IncludeResolver {
+
+        /**
+         * @param name The normalized name of the file
+         * @return The source of the file or null if it doesn't exist
+         */
+        String resolve(final String name) throws IOException;
+
+    }
+
+    public record Result(String source, SourceMap sourceMap, List<VariantDeclaration> variants) {
+    }
+
+    public record VariantDeclaration(String name, List<String> values) {
 
-            codeLines.addAll(1, defineLines);
+        public VariantDeclaration {
+            if (name == null || name.isEmpty()) {
+                throw new IllegalArgumentException("Variant name cannot be null or empty");
+            }
+            values = List.copyOf(values);
+        }
+
+        public boolean isToggle() {
+            return this.values.isEmpty();
+        }
+
+        public int getOptionCount() {
+            return this.isToggle() ? 2 : this.values.size();
         }
 
-        return String.join("\n", codeLines);
     }
 
+    /**
+     * Maps the source string numbers of the inserted {@code #line} directives back to file names.
+     */
+    public static class SourceMap {
+
+        private static final Pattern LOG_LOCATION_PATTERN = Pattern.compile("^(\\s*(?:ERROR|WARNING|error|warning)?:?\\s*)(\\d+)(?::(\\d+)(?:\\(\\d+\\))?|\\((\\d+)\\))", Pattern.MULTILINE);
+
+        private final List<String> names = new ArrayList<>();
+
+        private int add(final String name) {
+            final int index = this.names.indexOf(name);
+            if (index != -1) {
+                return index;
+            }
+            this.names.add(name);
+            return this.names.size() - 1;
+        }
+
+        private int indexOf(final String name) {
+            return this.names.indexOf(name);
+        }
+
+        public String getName(final int sourceIndex) {
+            return sourceIndex >= 0 && sourceIndex < this.names.size() ? this.names.get(sourceIndex) : null;
+        }
+
+        public List<String> getNames() {
+            return Collections.unmodifiableList(this.names);
+        }
+
+        /**
+         * Rewrites the source locations in a driver compile log (For example {@code 0:12(5)}, {@code 0(12)} or {@code ERROR: 0:12}) to {@code file:line}.
+         *
+         * @param log The compile log
+         * @return The compile log with mapped locations
+         */
+        public String mapLog(final String log) {
+            final Matcher matcher = LOG_LOCATION_PATTERN.matcher(log);
+            final StringBuilder sb = new StringBuilder();
+            while (matcher.find()) {
+                final String name = this.getName(Integer.parseInt(matcher.group(2)));
+                final String line = matcher.group(3) != null ? matcher.group(3) : matcher.group(4);
+                if (name != null) {
+                    matcher.appendReplacement(sb, Matcher.quoteReplacement(matcher.group(1) + name + ":" + line));
+                } else {
+                    matcher.appendReplacement(sb, Matcher.quoteReplacement(matcher.group()));
+                }
+            }
+            matcher.appendTail(sb);
+            return sb.toString();
+        }
+
+    }
+
+    private static class Context {
+
+        private final List<String> output = new ArrayList<>();
+        private final SourceMap sourceMap = new SourceMap();
+        private final Deque<String> includeStack = new ArrayDeque<>();
+        private final Set<String> onceFiles = new HashSet<>();
+        private final List<VariantDeclaration> variants = new ArrayList<>();
+
+    }
+    // FlorianMichael - shader preprocessor
+
 }
@@ -23,6 +23,27 @@ import java.nio.ByteBuffer;
 
 public class ImageUtil {
 
+    // FlorianMichael - vectorized pixel conversions
+    private static final boolean VECTOR_API_AVAILABLE = isVectorApiAvailable();
+    private static boolean vectorized = VECTOR_API_AVAILABLE;
+
+    public static boolean isVectorized() {
+        return vectorized;
+    }
+
+    /**
+     * Enables or disables the SIMD implementations of the pixel conversions. They are enabled by default if the jdk.incubator.vector module is present (--add-modules jdk.incubator.vector).
+     *
+     * @param vectorized Whether the SIMD implementations should be used
+     */
+    public static void setVectorized(final boolean vectorized) {
+        if (vectorized && !VECTOR_API_AVAILABLE) {
+            throw new IllegalStateException("The jdk.incubator.vector module is not available");
+        }
+        ImageUtil.vectorized = vectorized;
+    }
+    // FlorianMichael - vectorized pixel conversions
+
     public static ByteBuffer packTightly(final ByteBuffer sourcePixelBuffer, final int width, final int height, final int bytesPerPixel, final int sourceRowPitch) {
         return packTightly(sourcePixelBuffer, width, height, bytesPerPixel, sourceRowPitch, true);
     }
@@ -33,13 +54,12 @@ public class ImageUtil {
 
     public static ByteBuffer packTightly(final ByteBuffer sourcePixelBuffer, final int width, final int height, final int bytesPerPixel, final int sourceRowPitch, final boolean freeSource, final boolean allocateDirect) {
         final ByteBuffer destinationPixelBuffer = BufferUtil.memAlloc(width * height * bytesPerPixel, allocateDirect);
+        // FlorianMichael - vectorized pixel conversions
+        final int rowSize = width * bytesPerPixel;
         for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                for (int b = 0; b < bytesPerPixel; b++) {
-                    destinationPixelBuffer.put((y * width + x) * bytesPerPixel + b, sourcePixelBuffer.get(y * sourceRowPitch + x * bytesPerPixel + b));
-                }
-            }
+            destinationPixelBuffer.put(y * rowSize, sourcePixelBuffer, y * sourceRowPitch, rowSize);
         }
+        // FlorianMichael - vectorized pixel conversions
         if (freeSource && sourcePixelBuffer.isDirect()) {
             BufferUtil.memFree(sourcePixelBuffer);
         }
@@ -69,13 +89,17 @@ public class ImageUtil {
     public static ByteBuffer convertMonochromeToGrayscale(final ByteBuffer sourcePixelBuffer, final int width, final int height, final boolean freeSource, final boolean allocateDirect) {
         final int bytesPerRow = (width + 7) / 8;
         final ByteBuffer destinationPixelBuffer = BufferUtil.memAlloc(width * height, allocateDirect);
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                final int byteIndex = x / 8;
-                final int bitIndex = 7 - (x & 7);
-                final byte value = sourcePixelBuffer.get(y * bytesPerRow + byteIndex);
-                final byte grayValue = (byte) (((value >> bitIndex) & 1) * 255);
-                destinationPixelBuffer.put(y * width + x, grayValue);
+        if (vectorized) { // FlorianMichael - vectorized pixel conversions
+            VectorImageUtil.convertMonochromeToGrayscale(sourcePixelBuffer, destinationPixelBuffer, width, height);
+        } else {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    final int byteIndex = x / 8;
+                    final int bitIndex = 7 - (x & 7);
+                    final byte value = sourcePixelBuffer.get(y * bytesPerRow + byteIndex);
+                    final byte grayValue = (byte) (((value >> bitIndex) & 1) * 255);
+                    destinationPixelBuffer.put(y * width + x, grayValue);
+                }
             }
         }
         if (freeSource && sourcePixelBuffer.isDirect()) {
@@ -97,11 +121,15 @@ public class ImageUtil {
             throw new IllegalArgumentException("Destination channel must be between 0 and 3 (inclusive)");
         }
         final ByteBuffer destinationPixelBuffer = BufferUtil.memAlloc(width * height * Integer.BYTES, allocateDirect);
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                final int index = y * width + x;
-                destinationPixelBuffer.putInt(index * Integer.BYTES, 0xFFFFFFFF);
-                destinationPixelBuffer.put(index * Integer.BYTES + destinationChannel, sourcePixelBuffer.get(index));
+        if (vectorized) { // FlorianMichael - vectorized pixel conversions
+            VectorImageUtil.convertGrayscaleToColor(sourcePixelBuffer, destinationPixelBuffer, width * height, destinationChannel);
+        } else {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    final int index = y * width + x;
+                    destinationPixelBuffer.putInt(index * Integer.BYTES, 0xFFFFFFFF);
+                    destinationPixelBuffer.put(index * Integer.BYTES + destinationChannel, sourcePixelBuffer.get(index));
+                }
             }
         }
         if (freeSource && sourcePixelBuffer.isDirect()) {
@@ -123,10 +151,14 @@ public class ImageUtil {
             throw new IllegalArgumentException("Source channel must be between 0 and 3 (inclusive)");
         }
         final ByteBuffer destinationPixelBuffer = BufferUtil.memAlloc(width * height, allocateDirect);
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                final int index = y * width + x;
-                destinationPixelBuffer.put(index, sourcePixelBuffer.get(index * Integer.BYTES + sourceChannel));
+        if (vectorized) { // FlorianMichael - vectorized pixel conversions
+            VectorImageUtil.convertColorToGrayscale(sourcePixelBuffer, destinationPixelBuffer, width * height, sourceChannel);
+        } else {
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    final int index = y * width + x;
+                    destinationPixelBuffer.put(index, sourcePixelBuffer.get(index * Integer.BYTES + sourceChannel));
+                }
             }
         }
         if (freeSource && sourcePixelBuffer.isDirect()) {
@@ -149,19 +181,23 @@ public class ImageUtil {
         }
         final int pixelCount = sourcePixelBuffer.limit() / Integer.BYTES;
         final ByteBuffer destinationPixelBuffer = BufferUtil.memAlloc(sourcePixelBuffer.limit(), allocateDirect);
-        for (int i = 0; i < pixelCount; i++) {
-            final int index = i * Integer.BYTES;
-            final int b = sourcePixelBuffer.get(index) & 0xFF;
-            final int g = sourcePixelBuffer.get(index + 1) & 0xFF;
-            final int r = sourcePixelBuffer.get(index + 2) & 0xFF;
-            final int a = sourcePixelBuffer.get(index + 3) & 0xFF;
-            if (a == 0) {
-                destinationPixelBuffer.putInt(index, 0);
-            } else {
-                destinationPixelBuffer.put(index, (byte) MathUtils.clamp((b * 255) / a, 0, 255));
-                destinationPixelBuffer.put(index + 1, (byte) MathUtils.clamp((g * 255) / a, 0, 255));
-                destinationPixelBuffer.put(index + 2, (byte) MathUtils.clamp((r * 255) / a, 0, 255));
-                destinationPixelBuffer.put(index + 3, (byte) a);
+        if (vectorized) { // FlorianMichael - vectorized pixel conversions
+            VectorImageUtil.revertPreMultipliedAlphaBGRA(sourcePixelBuffer, destinationPixelBuffer, pixelCount);
+        } else {
+            for (int i = 0; i < pixelCount; i++) {
+                final int index = i * Integer.BYTES;
+                final int b = sourcePixelBuffer.get(index) & 0xFF;
+                final int g = sourcePixelBuffer.get(index + 1) & 0xFF;
+                final int r = sourcePixelBuffer.get(index + 2) & 0xFF;
+                final int a = sourcePixelBuffer.get(index + 3) & 0xFF;
+                if (a == 0) {
+                    destinationPixelBuffer.putInt(index, 0);
+                } else {
+                    destinationPixelBuffer.put(index, (byte) MathUtils.clamp((b * 255) / a, 0, 255));
+                    destinationPixelBuffer.put(index + 1, (byte) MathUtils.clamp((g * 255) / a, 0, 255));
+                    destinationPixelBuffer.put(index + 2, (byte) MathUtils.clamp((r * 255) / a, 0, 255));
+                    destinationPixelBuffer.put(index + 3, (byte) a);
+                }
             }
         }
         if (freeSource && sourcePixelBuffer.isDirect()) {
@@ -180,10 +216,14 @@ public class ImageUtil {
 
     public static ByteBuffer thresholdGrayscale(final ByteBuffer sourcePixelBuffer, final int alphaThreshold, final boolean freeSource, final boolean allocateDirect) {
         final ByteBuffer destinationPixelBuffer = BufferUtil.memAlloc(sourcePixelBuffer.limit(), allocateDirect);
-        for (int i = 0; i < sourcePixelBuffer.limit(); i++) {
-            final int grayValue = sourcePixelBuffer.get(i) & 0xFF;
-            final byte newGrayValue = (byte) (grayValue >= alphaThreshold ? 255 : 0);
-            destinationPixelBuffer.put(i, newGrayValue);
+        if (vectorized) { // FlorianMichael - vectorized pixel conversions
+            VectorImageUtil.thresholdGrayscale(sourcePixelBuffer, destinationPixelBuffer, alphaThreshold);
+        } else {
+            for (int i = 0; i < sourcePixelBuffer.limit(); i++) {
+                final int grayValue = sourcePixelBuffer.get(i) & 0xFF;
+                final byte newGrayValue = (byte) (grayValue >= alphaThreshold ? 255 : 0);
+                destinationPixelBuffer.put(i, newGrayValue);
+            }
         }
         if (freeSource && sourcePixelBuffer.isDirect()) {
             BufferUtil.memFree(sourcePixelBuffer);
@@ -191,4 +231,18 @@ public class ImageUtil {
         return destinationPixelBuffer;
     }
 
+    // FlorianMichael - vectorized pixel conversions
+    private static boolean isVectorApiAvailable() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            Class.forName("net.raphimc.thingl.util.VectorImageUtil", true, ImageUtil.class.getClassLoader());
+            return true;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+    // FlorianMichael - vectorized pixel conversions
+
 }
@@ -0,0 +1,336 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.util;
+
+import net.raphimc.thingl.ThinGL;
+import net.raphimc.thingl.resource.query.Query;
+import org.lwjgl.opengl.GL33C;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Measures the CPU and GPU time of named scopes within a frame.<br>
+ * Every scope boundary issues a {@code GL_TIMESTAMP} query. The queries of the last frames are kept in a ring and only read once
+ * the {@link SyncManager} reports that their results are available, so reading them never stalls the pipeline. If the results of a frame
+ * are still pending when its slot in the ring is needed again, the frame is dropped.<br>
+ * The profiler is disabled by default. When disabled, {@link #push(String)} and {@link #pop()} return immediately.
+ */
+public class Profiler {
+
+    public static final String FRAME_SCOPE_NAME = "Frame";
+
+    private final FrameSlot[] frameSlots;
+    private final List<Consumer<Frame>> frameListeners = new ArrayList<>();
+    private boolean enabled;
+    private FrameSlot currentFrame;
+    private long frameNumber;
+    private long droppedFrameCount;
+    private Frame lastFrame;
+
+    public Profiler(final int frameLatency) {
+        if (frameLatency < 1) {
+            throw new IllegalArgumentException("Frame latency must be at least 1");
+        }
+        this.frameSlots = new FrameSlot[frameLatency];
+        for (int i = 0; i < this.frameSlots.length; i++) {
+            this.frameSlots[i] = new FrameSlot();
+        }
+    }
+
+    public void push(final String name) {
+        final FrameSlot frame = this.currentFrame;
+        if (frame != null && ThinGL.get().isOnRenderThread()) {
+            frame.beginScope(name);
+        }
+    }
+
+    public void pop() {
+        final FrameSlot frame = this.currentFrame;
+        if (frame != null && ThinGL.get().isOnRenderThread()) {
+            if (frame.currentScope <= 0) {
+                throw new IllegalStateException("Profiler scope stack is empty");
+            }
+            frame.endScope();
+        }
+    }
+
+    /**
+     * Starts recording a new frame. Called by ThinGL when a frame is started.
+     */
+    public void beginFrame() {
+        if (!this.enabled || this.currentFrame != null) {
+            return;
+        }
+
+        final FrameSlot frame = this.frameSlots[(int) (this.frameNumber % this.frameSlots.length)];
+        if (frame.pending) {
+            this.droppedFrameCount++;
+        }
+        frame.reset(this.frameNumber);
+        frame.beginScope(FRAME_SCOPE_NAME);
+        this.currentFrame = frame;
+    }
+
+    /**
+     * Finishes recording the current frame and schedules reading its query results. Called by ThinGL when a frame is finished.
+     */
+    public void endFrame() {
+        final FrameSlot frame = this.currentFrame;
+        if (frame == null) {
+            return;
+        }
+
+        this.currentFrame = null;
+        if (frame.currentScope != 0) {
+            while (frame.currentScope != 0) frame.endScope();
+            ThinGL.LOGGER.warn("Profiler scope stack was not empty at the end of the frame!");
+        }
+        frame.endScope();
+        frame.pending = true;
+        this.frameNumber++;
+
+        final int generation = frame.generation;
+        ThinGL.syncManager().runWhenQueryResultAvailable(frame.queries[1], query -> { // The frame scope ends last, so all other results are available too
+            if (frame.pending && frame.generation == generation) {
+                frame.pending = false;
+                this.lastFrame = frame.resolve();
+                for (Consumer<Frame> frameListener : this.frameListeners) {
+                    frameListener.accept(this.lastFrame);
+                }
+            }
+        });
+    }
+
+    public void addFrameListener(final Consumer<Frame> frameListener) {
+        this.frameListeners.add(frameListener);
+    }
+
+    public void removeFrameListener(final Consumer<Frame> frameListener) {
+        this.frameListeners.remove(frameListener);
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Enables or disables the profiler. The change takes effect with the next frame.
+     *
+     * @param enabled Whether the profiler should be enabled
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return The most recent frame whose query results have been read or null if there is none yet
+     */
+    public Frame getLastFrame() {
+        return this.lastFrame;
+    }
+
+    /**
+     * @return The number of frames whose query results weren't available in time
+     */
+    public long getDroppedFrameCount() {
+        return this.droppedFrameCount;
+    }
+
+    public void free() {
+        for (FrameSlot frameSlot : this.frameSlots) {
+            for (Query query : frameSlot.queries) {
+                if (query != null) {
+                    query.free();
+                }
+            }
+        }
+    }
+
+    /**
+     * Exports the given frames in the Chrome trace event format (Viewable in chrome://tracing or Perfetto).<br>
+     * CPU scopes are placed on thread 1 and GPU scopes on thread 2. GPU scopes are aligned to the CPU start of their frame.
+     *
+     * @param frames The frames to export
+     * @return The trace as JSON
+     */
+    public static String toChromeTrace(final Collection<Frame> frames) {
+        long baseTime = Long.MAX_VALUE;
+        for (Frame frame : frames) {
+            baseTime = Math.min(baseTime, frame.root().cpuStartNanos());
+        }
+
+        final StringBuilder json = new StringBuilder("{\"traceEvents\":[");
+        json.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":1,\"args\":{\"name\":\"CPU\"}},");
+        json.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":2,\"args\":{\"name\":\"GPU\"}}");
+        for (Frame frame : frames) {
+            appendChromeTraceEvents(json, frame.root(), baseTime, frame.root().cpuStartNanos() - baseTime);
+        }
+        return json.append("],\"displayTimeUnit\":\"ms\"}").toString();
+    }
+
+    private static void appendChromeTraceEvents(final StringBuilder json, final Scope scope, final long baseTime, final long gpuOffset) {
+        appendChromeTraceEvent(json, scope.name(), 1, scope.cpuStartNanos() - baseTime, scope.getCpuTimeNanos());
+        appendChromeTraceEvent(json, scope.name(), 2, scope.gpuStartNanos() + gpuOffset, scope.getGpuTimeNanos());
+        for (Scope child : scope.children()) {
+            appendChromeTraceEvents(json, child, baseTime, gpuOffset);
+        }
+    }
+
+    private static void appendChromeTraceEvent(final StringBuilder json, final String name, final int threadId, final long startNanos, final long durationNanos) {
+        json.append(",{\"name\":\"");
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append("\",\"ph\":\"X\",\"pid\":1,\"tid\":").append(threadId);
+        json.append(",\"ts\":");
+        appendMicros(json, startNanos);
+        json.append(",\"dur\":");
+        appendMicros(json, durationNanos);
+        json.append('}');
+    }
+
+    private static void appendMicros(final StringBuilder json, final long nanos) {
+        final long clampedNanos = Math.max(nanos, 0L);
+        final long fraction = clampedNanos % 1000;
+        json.append(clampedNanos / 1000).append('.');
+        if (fraction < 100) json.append('0');
+        if (fraction < 10) json.append('0');
+        json.append(fraction);
+    }
+
+    /**
+     * Ring slot which holds the recorded scopes and the timestamp queries of one frame.<br>
+     * Scope i uses query 2i for its start and query 2i + 1 for its end. The arrays and queries are reused between frames.
+     */
+    private static final class FrameSlot {
+
+        private long frameNumber;
+        private int generation;
+        private boolean pending;
+        private String[] names = new String[32];
+        private int[] parents = new int[32];
+        private long[] cpuStarts = new long[32];
+        private long[] cpuEnds = new long[32];
+        private Query[] queries = new Query[64];
+        private int scopeCount;
+        private int currentScope;
+
+        private void reset(final long frameNumber) {
+            this.frameNumber = frameNumber;
+            this.generation++;
+            this.pending = false;
+            Arrays.fill(this.names, 0, this.scopeCount, null);
+            this.scopeCount = 0;
+            this.currentScope = -1;
+        }
+
+        private void beginScope(final String name) {
+            final int scope = this.scopeCount++;
+            if (scope == this.names.length) {
+                this.names = Arrays.copyOf(this.names, scope * 2);
+                this.parents = Arrays.copyOf(this.parents, scope * 2);
+                this.cpuStarts = Arrays.copyOf(this.cpuStarts, scope * 2);
+                this.cpuEnds = Arrays.copyOf(this.cpuEnds, scope * 2);
+                this.queries = Arrays.copyOf(this.queries, scope * 4);
+            }
+            this.names[scope] = name;
+            this.parents[scope] = this.currentScope;
+            this.currentScope = scope;
+            this.cpuStarts[scope] = System.nanoTime();
+            this.getQuery(scope * 2).queryCounter();
+        }
+
+        private void endScope() {
+            final int scope = this.currentScope;
+            this.getQuery(scope * 2 + 1).queryCounter();
+            this.cpuEnds[scope] = System.nanoTime();
+            this.currentScope = this.parents[scope];
+        }
+
+        private Query getQuery(final int index) {
+            Query query = this.queries[index];
+            if (query == null) {
+                query = this.queries[index] = new Query(GL33C.GL_TIMESTAMP);
+            }
+            return query;
+        }
+
+        private Frame resolve() {
+            final long[] gpuTimes = new long[this.scopeCount * 2];
+            for (int i = 0; i < gpuTimes.length; i++) {
+                gpuTimes[i] = this.queries[i].getResultLong();
+            }
+
+            // Children always have a higher index than their parent, so the tree can be built back to front
+            final List<List<Scope>> children = new ArrayList<>(this.scopeCount);
+            for (int i = 0; i < this.scopeCount; i++) {
+                children.add(new ArrayList<>());
+            }
+            Scope root = null;
+            for (int i = this.scopeCount - 1; i >= 0; i--) {
+                final List<Scope> scopeChildren = children.get(i);
+                Collections.reverse(scopeChildren);
+                final Scope scope = new Scope(this.names[i], this.cpuStarts[i], this.cpuEnds[i], gpuTimes[i * 2] - gpuTimes[0], gpuTimes[i * 2 + 1] - gpuTimes[0], Collections.unmodifiableList(scopeChildren));
+                if (this.parents[i] >= 0) {
+                    children.get(this.parents[i]).add(scope);
+                } else {
+                    root = scope;
+                }
+            }
+            return new Frame(this.frameNumber, root);
+        }
+
+    }
+
+    public record Frame(long frameNumber, Scope root) {
+
+        public String toChromeTrace() {
+            return Profiler.toChromeTrace(List.of(this));
+        }
+
+    }
+
+    /**
+     * @param name          The scope name
+     * @param cpuStartNanos The {@link System#nanoTime()} at the start of the scope
+     * @param cpuEndNanos   The {@link System#nanoTime()} at the end of the scope
+     * @param gpuStartNanos The GPU timestamp at the start of the scope, relative to the start of the frame
+     * @param gpuEndNanos   The GPU timestamp at the end of the scope, relative to the start of the frame
+     * @param children      The nested scopes in the order they were pushed
+     */
+    public record Scope(String name, long cpuStartNanos, long cpuEndNanos, long gpuStartNanos, long gpuEndNanos, List<Scope> children) {
+
+        public long getCpuTimeNanos() {
+            return this.cpuEndNanos - this.cpuStartNanos;
+        }
+
+        public long getGpuTimeNanos() {
+            return this.gpuEndNanos - this.gpuStartNanos;
+        }
+
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.util;
+
+import java.util.Arrays;
+
+/**
+ * Stable LSD radix sort for unsigned 64-bit keys with an int payload.<br>
+ * Passes where every key has the same digit are skipped, so keys which only use a few bits are sorted in a few passes.
+ */
+public class RadixSort {
+
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int PASSES = Long.SIZE / RADIX_BITS;
+
+    private final int[] counts = new int[RADIX];
+    private long[] tempKeys = new long[0];
+    private int[] tempValues = new int[0];
+
+    /**
+     * Sorts the first length keys in ascending (unsigned) order and reorders the values alongside them.
+     *
+     * @param keys The keys
+     * @param values The values
+     * @param length The number of entries to sort
+     */
+    public void sort(long[] keys, int[] values, final int length) {
+        if (length < 2) {
+            return;
+        }
+        if (this.tempKeys.length < length) {
+            this.tempKeys = new long[length];
+            this.tempValues = new int[length];
+        }
+
+        final long[] originalKeys = keys;
+        final int[] originalValues = values;
+        long[] targetKeys = this.tempKeys;
+        int[] targetValues = this.tempValues;
+        final int[] counts = this.counts;
+        for (int pass = 0; pass < PASSES; pass++) {
+            final int shift = pass * RADIX_BITS;
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < length; i++) {
+                counts[(int) (keys[i] >>> shift) & (RADIX - 1)]++;
+            }
+            if (counts[(int) (keys[0] >>> shift) & (RADIX - 1)] == length) {
+                continue; // All keys share this digit
+            }
+
+            int offset = 0;
+            for (int i = 0; i < RADIX; i++) {
+                final int count = counts[i];
+                counts[i] = offset;
+                offset += count;
+            }
+            for (int i = 0; i < length; i++) {
+                final int position = counts[(int) (keys[i] >>> shift) & (RADIX - 1)]++;
+                targetKeys[position] = keys[i];
+                targetValues[position] = values[i];
+            }
+
+            final long[] swapKeys = keys;
+            final int[] swapValues = values;
+            keys = targetKeys;
+            values = targetValues;
+            targetKeys = swapKeys;
+            targetValues = swapValues;
+        }
+
+        if (keys != originalKeys) {
+            System.arraycopy(keys, 0, originalKeys, 0, length);
+            System.arraycopy(values, 0, originalValues, 0, length);
+        }
+    }
+
+}
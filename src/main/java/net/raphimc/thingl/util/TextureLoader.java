@@ -0,0 +1,365 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.util;
+
+import net.lenni0451.commons.color.Color;
+import net.raphimc.thingl.ThinGL;
+import net.raphimc.thingl.resource.buffer.Buffer;
+import net.raphimc.thingl.resource.buffer.ImmutableBuffer;
+import net.raphimc.thingl.resource.image.texture.Texture2D;
+import net.raphimc.thingl.resource.sync.FenceSync;
+import org.lwjgl.opengl.*;
+import org.lwjgl.stb.STBImage;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Loads images into {@link Texture2D}s without blocking the render thread.<br>
+ * Images are decoded on a bounded pool of worker threads into off-heap buffers. The pixels are uploaded at the end of each frame in row stripes until the upload time budget is used up.<br>
+ * If buffer storage is available the stripes are staged through a persistently mapped pixel unpack buffer ring (allocated on the first upload), so the driver can copy them asynchronously. Otherwise (for example on macOS) the stripes are uploaded from client memory.<br>
+ * The returned futures are completed on the render thread.
+ */
+public class TextureLoader {
+
+    private static final int STAGING_SEGMENT_COUNT = 3;
+    private static final long STAGING_SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final int STORAGE_FLAGS = GL30C.GL_MAP_WRITE_BIT | GL44C.GL_MAP_PERSISTENT_BIT | GL44C.GL_MAP_COHERENT_BIT;
+    private static final float DEFAULT_UPLOAD_TIME_BUDGET = 2F;
+
+    private final ExecutorService decodeExecutor;
+    private final Queue<DecodedImage> decodedImages = new ConcurrentLinkedQueue<>();
+    private final Queue<Upload> uploads = new ArrayDeque<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Runnable onFrameFinishedCallback = this::onFrameFinished;
+    private final boolean stagingSupported;
+    private final FenceSync[] segmentFences = new FenceSync[STAGING_SEGMENT_COUNT];
+    private Buffer stagingBuffer;
+    private long stagingAddress;
+    private int segment;
+    private boolean stagingBufferBound;
+    private float uploadTimeBudget = DEFAULT_UPLOAD_TIME_BUDGET;
+
+    public TextureLoader() {
+        this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+    }
+
+    public TextureLoader(final int decodeThreads) {
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadPoolExecutor decodeExecutor = new ThreadPoolExecutor(decodeThreads, decodeThreads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "ThinGL Texture Loader #" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        decodeExecutor.allowCoreThreadTimeOut(true);
+        this.decodeExecutor = decodeExecutor;
+
+        this.stagingSupported = ThinGL.capabilities().supportsBufferStorage();
+        ThinGL.get().addFrameFinishedCallback(this.onFrameFinishedCallback);
+    }
+
+    public CompletableFuture<Texture2D> load(final byte[] imageBytes) {
+        return this.load(GL11C.GL_RGBA8, imageBytes, false);
+    }
+
+    public CompletableFuture<Texture2D> load(final int internalFormat, final byte[] imageBytes, final boolean generateMipmaps) {
+        return this.submit(() -> imageBytes, internalFormat, generateMipmaps, null);
+    }
+
+    public CompletableFuture<Texture2D> load(final Path path) {
+        return this.load(GL11C.GL_RGBA8, path, false);
+    }
+
+    public CompletableFuture<Texture2D> load(final int internalFormat, final Path path, final boolean generateMipmaps) {
+        return this.submit(() -> {
+            try {
+                return Files.readAllBytes(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, internalFormat, generateMipmaps, null);
+    }
+
+    /**
+     * Creates the texture immediately and fills it with the placeholder color until the image has been uploaded.<br>
+     * Only the image header is parsed on the calling thread. Has to be called on the render thread.
+     *
+     * @param internalFormat The internal format of the texture
+     * @param imageBytes The encoded image
+     * @param generateMipmaps Whether mipmaps should be generated once the upload is complete
+     * @param placeholderColor The color the texture is cleared to
+     * @return The placeholder texture and the future which is completed once the upload is complete
+     */
+    public PendingTexture loadWithPlaceholder(final int internalFormat, final byte[] imageBytes, final boolean generateMipmaps, final Color placeholderColor) {
+        ThinGL.get().assertOnRenderThread();
+        final ByteBuffer imageBuffer = MemoryUtil.memAlloc(imageBytes.length).put(imageBytes).flip();
+        final int[] width = new int[1];
+        final int[] height = new int[1];
+        try {
+            if (!STBImage.stbi_info_from_memory(imageBuffer, width, height, new int[1])) {
+                throw new IllegalArgumentException("Failed to read image: " + STBImage.stbi_failure_reason());
+            }
+        } finally {
+            BufferUtil.memFree(imageBuffer);
+        }
+
+        final Texture2D texture = createTexture(internalFormat, width[0], height[0], generateMipmaps);
+        texture.clear(placeholderColor);
+        return new PendingTexture(texture, this.submit(() -> imageBytes, internalFormat, generateMipmaps, texture));
+    }
+
+    public int getPendingCount() {
+        return this.pendingCount.get();
+    }
+
+    public boolean isStagingSupported() {
+        return this.stagingSupported;
+    }
+
+    public float getUploadTimeBudget() {
+        return this.uploadTimeBudget;
+    }
+
+    /**
+     * Sets the time the render thread may spend on uploads per frame. At least one row stripe is uploaded every frame regardless of the budget.
+     *
+     * @param uploadTimeBudget The budget in milliseconds
+     */
+    public void setUploadTimeBudget(final float uploadTimeBudget) {
+        if (uploadTimeBudget < 0) {
+            throw new IllegalArgumentException("Upload time budget must be positive");
+        }
+        this.uploadTimeBudget = uploadTimeBudget;
+    }
+
+    public void free() {
+        this.decodeExecutor.shutdownNow();
+        ThinGL.get().removeFrameFinishedCallback(this.onFrameFinishedCallback);
+        DecodedImage decodedImage;
+        while ((decodedImage = this.decodedImages.poll()) != null) {
+            this.uploads.add(new Upload(decodedImage, decodedImage.placeholder));
+        }
+        for (Upload upload : this.uploads) {
+            STBImage.stbi_image_free(upload.pixels);
+            if (upload.texture != upload.placeholder) {
+                upload.texture.free();
+            }
+            upload.future.cancel(false);
+        }
+        this.uploads.clear();
+        for (int i = 0; i < STAGING_SEGMENT_COUNT; i++) {
+            if (this.segmentFences[i] != null) {
+                this.segmentFences[i].free();
+                this.segmentFences[i] = null;
+            }
+        }
+        if (this.stagingBuffer != null) {
+            this.stagingBuffer.free();
+            this.stagingBuffer = null;
+        }
+    }
+
+    private CompletableFuture<Texture2D> submit(final Supplier<byte[]> imageBytesSupplier, final int internalFormat, final boolean generateMipmaps, final Texture2D placeholder) {
+        final CompletableFuture<Texture2D> future = new CompletableFuture<>();
+        this.pendingCount.incrementAndGet();
+        try {
+            this.decodeExecutor.execute(() -> {
+                if (future.isDone()) {
+                    this.pendingCount.decrementAndGet();
+                    return;
+                }
+                try {
+                    final byte[] imageBytes = imageBytesSupplier.get();
+                    final ByteBuffer imageBuffer = MemoryUtil.memAlloc(imageBytes.length).put(imageBytes).flip();
+                    final int[] width = new int[1];
+                    final int[] height = new int[1];
+                    final ByteBuffer pixels;
+                    try {
+                        pixels = STBImage.stbi_load_from_memory(imageBuffer, width, height, new int[1], 4);
+                    } finally {
+                        BufferUtil.memFree(imageBuffer);
+                    }
+                    if (pixels == null) {
+                        throw new IllegalArgumentException("Failed to read image: " + STBImage.stbi_failure_reason());
+                    }
+                    this.decodedImages.add(new DecodedImage(future, pixels, width[0], height[0], internalFormat, generateMipmaps, placeholder));
+                } catch (Throwable e) {
+                    this.pendingCount.decrementAndGet();
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.pendingCount.decrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void onFrameFinished() {
+        DecodedImage decodedImage;
+        while ((decodedImage = this.decodedImages.poll()) != null) {
+            if (decodedImage.future.isDone()) {
+                STBImage.stbi_image_free(decodedImage.pixels);
+                this.pendingCount.decrementAndGet();
+                continue;
+            }
+            if (decodedImage.placeholder != null && (decodedImage.placeholder.getWidth() != decodedImage.width || decodedImage.placeholder.getHeight() != decodedImage.height)) {
+                STBImage.stbi_image_free(decodedImage.pixels);
+                this.pendingCount.decrementAndGet();
+                decodedImage.future.completeExceptionally(new IllegalStateException("Decoded image size does not match the placeholder texture"));
+                continue;
+            }
+            final Texture2D texture = decodedImage.placeholder != null ? decodedImage.placeholder : createTexture(decodedImage.internalFormat, decodedImage.width, decodedImage.height, decodedImage.generateMipmaps);
+            this.uploads.add(new Upload(decodedImage, texture));
+        }
+        if (this.uploads.isEmpty()) {
+            return;
+        }
+
+        final long startTime = System.nanoTime();
+        final long budget = (long) (this.uploadTimeBudget * 1_000_000L);
+        ThinGL.glStateStack().pushPixelStore();
+        ThinGL.glStateStack().pixelStore(GL11C.GL_UNPACK_ALIGNMENT, 4);
+        ThinGL.glStateStack().pixelStore(GL11C.GL_UNPACK_SKIP_PIXELS, 0);
+        ThinGL.glStateStack().pixelStore(GL11C.GL_UNPACK_SKIP_ROWS, 0);
+        ThinGL.glStateStack().pixelStore(GL11C.GL_UNPACK_ROW_LENGTH, 0);
+        try {
+            do {
+                final Upload upload = this.uploads.peek();
+                if (upload.future.isDone()) {
+                    this.finishUpload(this.uploads.poll(), false);
+                } else if (!this.uploadStripe(upload)) {
+                    break;
+                } else if (upload.uploadedRows == upload.height) {
+                    this.finishUpload(this.uploads.poll(), true);
+                }
+            } while (!this.uploads.isEmpty() && System.nanoTime() - startTime < budget);
+        } finally {
+            this.unbindStagingBuffer();
+            ThinGL.glStateStack().popPixelStore();
+        }
+    }
+
+    /**
+     * Uploads the next stripe of rows which fits into one staging segment.
+     *
+     * @return false if no staging segment is free yet
+     */
+    private boolean uploadStripe(final Upload upload) {
+        final int rowSize = upload.width * 4;
+        final int rows = (int) Math.max(1, Math.min(upload.height - upload.uploadedRows, STAGING_SEGMENT_SIZE / rowSize));
+        final int stripeOffset = upload.uploadedRows * rowSize;
+        final int stripeSize = rows * rowSize;
+        if (this.stagingSupported && stripeSize <= STAGING_SEGMENT_SIZE) {
+            if (this.stagingBuffer == null) { // Allocated on the first upload, so applications which never load textures don't pay for the staging ring
+                this.stagingBuffer = new ImmutableBuffer(STAGING_SEGMENT_SIZE * STAGING_SEGMENT_COUNT, STORAGE_FLAGS);
+                this.stagingBuffer.setDebugName("Texture Loader Staging Buffer");
+                this.stagingAddress = MemoryUtil.memAddress(this.stagingBuffer.mapFullRange(STORAGE_FLAGS));
+            }
+            final FenceSync fenceSync = this.segmentFences[this.segment];
+            if (fenceSync != null) {
+                if (!fenceSync.isSignaled()) {
+                    return false;
+                }
+                fenceSync.free();
+                this.segmentFences[this.segment] = null;
+            }
+            final long segmentOffset = this.segment * STAGING_SEGMENT_SIZE;
+            MemoryUtil.memCopy(MemoryUtil.memAddress(upload.pixels) + stripeOffset, this.stagingAddress + segmentOffset, stripeSize);
+            if (!this.stagingBufferBound) {
+                de.florianmichael.thingl.GlCommands.get().glBindBuffer(GL21C.GL_PIXEL_UNPACK_BUFFER, this.stagingBuffer.getGlId());
+                this.stagingBufferBound = true;
+            }
+            de.florianmichael.thingl.GlCommands.get().glTextureSubImage2D(upload.texture.getGlId(), 0, 0, upload.uploadedRows, upload.width, rows, GL11C.GL_RGBA, GL11C.GL_UNSIGNED_BYTE, segmentOffset);
+            this.segmentFences[this.segment] = new FenceSync();
+            this.segment = (this.segment + 1) % STAGING_SEGMENT_COUNT;
+        } else {
+            this.unbindStagingBuffer();
+            de.florianmichael.thingl.GlCommands.get().glTextureSubImage2D(upload.texture.getGlId(), 0, 0, upload.uploadedRows, upload.width, rows, GL11C.GL_RGBA, GL11C.GL_UNSIGNED_BYTE, upload.pixels.slice(stripeOffset, stripeSize));
+        }
+        upload.uploadedRows += rows;
+        return true;
+    }
+
+    /**
+     * Restores the pixel unpack buffer binding. No buffer is bound outside of the loader, since ThinGL uploads all other pixel data from client memory.
+     */
+    private void unbindStagingBuffer() {
+        if (this.stagingBufferBound) {
+            de.florianmichael.thingl.GlCommands.get().glBindBuffer(GL21C.GL_PIXEL_UNPACK_BUFFER, 0);
+            this.stagingBufferBound = false;
+        }
+    }
+
+    private void finishUpload(final Upload upload, final boolean completed) {
+        STBImage.stbi_image_free(upload.pixels);
+        this.pendingCount.decrementAndGet();
+        if (completed) {
+            if (upload.generateMipmaps) {
+                upload.texture.generateMipmaps();
+            }
+            upload.future.complete(upload.texture);
+        } else if (upload.texture != upload.placeholder) {
+            upload.texture.free();
+        }
+    }
+
+    private static Texture2D createTexture(final int internalFormat, final int width, final int height, final boolean generateMipmaps) {
+        final int mipMapLevels = generateMipmaps ? 32 - Integer.numberOfLeadingZeros(Math.max(width, height)) : 1;
+        return new Texture2D(internalFormat, width, height, mipMapLevels);
+    }
+
+    public record PendingTexture(Texture2D texture, CompletableFuture<Texture2D> future) {
+    }
+
+    private record DecodedImage(CompletableFuture<Texture2D> future, ByteBuffer pixels, int width, int height, int internalFormat, boolean generateMipmaps, Texture2D placeholder) {
+    }
+
+    private static final class Upload {
+
+        private final CompletableFuture<Texture2D> future;
+        private final ByteBuffer pixels;
+        private final int width;
+        private final int height;
+        private final boolean generateMipmaps;
+        private final Texture2D placeholder;
+        private final Texture2D texture;
+        private int uploadedRows;
+
+        private Upload(final DecodedImage decodedImage, final Texture2D texture) {
+            this.future = decodedImage.future;
+            this.pixels = decodedImage.pixels;
+            this.width = decodedImage.width;
+            this.height = decodedImage.height;
+            this.generateMipmaps = decodedImage.generateMipmaps;
+            this.placeholder = decodedImage.placeholder;
+            this.texture = texture;
+        }
+
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.util;
+
+import jdk.incubator.vector.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * SIMD implementations of the {@link ImageUtil} pixel conversions using the incubating Vector API.<br>
+ * Every method produces bit-exact the same output as the scalar implementation. Only loaded if the jdk.incubator.vector module is present.
+ */
+final class VectorImageUtil {
+
+    private static final VectorSpecies<Byte> BYTE_SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final ByteVector MONOCHROME_BIT_MASKS = ByteVector.fromArray(BYTE_SPECIES, createMonochromeBitMasks(), 0);
+    private static final VectorShuffle<Byte> MONOCHROME_SHUFFLE = VectorShuffle.fromOp(BYTE_SPECIES, i -> i / 8);
+
+    static void convertMonochromeToGrayscale(final ByteBuffer source, final ByteBuffer destination, final int width, final int height) {
+        final int bytesPerRow = (width + 7) / 8;
+        final int laneCount = BYTE_SPECIES.length();
+        final ByteVector zero = ByteVector.zero(BYTE_SPECIES);
+        for (int y = 0; y < height; y++) {
+            final int sourceRowOffset = y * bytesPerRow;
+            final int destinationRowOffset = y * width;
+            int x = 0;
+            for (; x + laneCount <= width && sourceRowOffset + x / 8 + laneCount <= source.limit(); x += laneCount) {
+                final ByteVector bits = ByteVector.fromByteBuffer(BYTE_SPECIES, source, sourceRowOffset + x / 8, ByteOrder.nativeOrder()).rearrange(MONOCHROME_SHUFFLE).and(MONOCHROME_BIT_MASKS);
+                zero.blend((byte) 255, bits.compare(VectorOperators.NE, 0)).intoByteBuffer(destination, destinationRowOffset + x, ByteOrder.nativeOrder());
+            }
+            for (; x < width; x++) {
+                final byte value = source.get(sourceRowOffset + x / 8);
+                destination.put(destinationRowOffset + x, (byte) (((value >> (7 - (x & 7))) & 1) * 255));
+            }
+        }
+    }
+
+    static void convertGrayscaleToColor(final ByteBuffer source, final ByteBuffer destination, final int pixelCount, final int destinationChannel) {
+        final int shift = destinationChannel * Byte.SIZE;
+        final int base = ~(0xFF << shift);
+        final int laneCount = BYTE_SPECIES.length();
+        final int partCount = laneCount / INT_SPECIES.length();
+        int i = 0;
+        for (; i + laneCount <= pixelCount; i += laneCount) {
+            final ByteVector grayValues = ByteVector.fromByteBuffer(BYTE_SPECIES, source, i, ByteOrder.nativeOrder());
+            for (int part = 0; part < partCount; part++) {
+                final IntVector pixels = ((IntVector) grayValues.convertShape(VectorOperators.B2I, INT_SPECIES, part)).and(0xFF).lanewise(VectorOperators.LSHL, shift).or(base);
+                pixels.intoByteBuffer(destination, (i + part * INT_SPECIES.length()) * Integer.BYTES, ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        for (; i < pixelCount; i++) {
+            destination.putInt(i * Integer.BYTES, 0xFFFFFFFF);
+            destination.put(i * Integer.BYTES + destinationChannel, source.get(i));
+        }
+    }
+
+    static void convertColorToGrayscale(final ByteBuffer source, final ByteBuffer destination, final int pixelCount, final int sourceChannel) {
+        final int shift = sourceChannel * Byte.SIZE;
+        final int laneCount = BYTE_SPECIES.length();
+        final int partCount = laneCount / INT_SPECIES.length();
+        int i = 0;
+        for (; i + laneCount <= pixelCount; i += laneCount) {
+            ByteVector grayValues = ByteVector.zero(BYTE_SPECIES);
+            for (int part = 0; part < partCount; part++) {
+                final IntVector pixels = IntVector.fromByteBuffer(INT_SPECIES, source, (i + part * INT_SPECIES.length()) * Integer.BYTES, ByteOrder.LITTLE_ENDIAN);
+                grayValues = grayValues.or((ByteVector) pixels.lanewise(VectorOperators.LSHR, shift).and(0xFF).convertShape(VectorOperators.I2B, BYTE_SPECIES, -part));
+            }
+            grayValues.intoByteBuffer(destination, i, ByteOrder.nativeOrder());
+        }
+        for (; i < pixelCount; i++) {
+            destination.put(i, source.get(i * Integer.BYTES + sourceChannel));
+        }
+    }
+
+    static void revertPreMultipliedAlphaBGRA(final ByteBuffer source, final ByteBuffer destination, final int pixelCount) {
+        final int laneCount = INT_SPECIES.length();
+        int i = 0;
+        for (; i + laneCount <= pixelCount; i += laneCount) {
+            final IntVector pixels = IntVector.fromByteBuffer(INT_SPECIES, source, i * Integer.BYTES, ByteOrder.LITTLE_ENDIAN);
+            final IntVector a = pixels.lanewise(VectorOperators.LSHR, 24);
+            final IntVector b = unpremultiply(pixels.and(0xFF), a);
+            final IntVector g = unpremultiply(pixels.lanewise(VectorOperators.LSHR, 8).and(0xFF), a);
+            final IntVector r = unpremultiply(pixels.lanewise(VectorOperators.LSHR, 16).and(0xFF), a);
+            final IntVector result = b.or(g.lanewise(VectorOperators.LSHL, 8)).or(r.lanewise(VectorOperators.LSHL, 16)).or(a.lanewise(VectorOperators.LSHL, 24));
+            result.blend(0, a.compare(VectorOperators.EQ, 0)).intoByteBuffer(destination, i * Integer.BYTES, ByteOrder.LITTLE_ENDIAN);
+        }
+        for (; i < pixelCount; i++) {
+            final int index = i * Integer.BYTES;
+            final int b = source.get(index) & 0xFF;
+            final int g = source.get(index + 1) & 0xFF;
+            final int r = source.get(index + 2) & 0xFF;
+            final int a = source.get(index + 3) & 0xFF;
+            if (a == 0) {
+                destination.putInt(index, 0);
+            } else {
+                destination.put(index, (byte) Math.min((b * 255) / a, 255));
+                destination.put(index + 1, (byte) Math.min((g * 255) / a, 255));
+                destination.put(index + 2, (byte) Math.min((r * 255) / a, 255));
+                destination.put(index + 3, (byte) a);
+            }
+        }
+    }
+
+    static void thresholdGrayscale(final ByteBuffer source, final ByteBuffer destination, final int alphaThreshold) {
+        final int length = source.limit();
+        final int laneCount = BYTE_SPECIES.length();
+        final ByteVector zero = ByteVector.zero(BYTE_SPECIES);
+        int i = 0;
+        if (alphaThreshold > 0 && alphaThreshold <= 255) {
+            // Flip the sign bit to compare the unsigned gray values with a signed comparison
+            final byte signedThreshold = (byte) (alphaThreshold ^ 0x80);
+            for (; i + laneCount <= length; i += laneCount) {
+                final ByteVector grayValues = ByteVector.fromByteBuffer(BYTE_SPECIES, source, i, ByteOrder.nativeOrder()).lanewise(VectorOperators.XOR, (byte) 0x80);
+                zero.blend((byte) 255, grayValues.compare(VectorOperators.GE, signedThreshold)).intoByteBuffer(destination, i, ByteOrder.nativeOrder());
+            }
+        }
+        for (; i < length; i++) {
+            destination.put(i, (byte) ((source.get(i) & 0xFF) >= alphaThreshold ? 255 : 0));
+        }
+    }
+
+    private static IntVector unpremultiply(final IntVector color, final IntVector alpha) {
+        // The dividend is at most 65025 and the divisor at least 1, so the error of the float quotient is smaller than the distance to the next integer
+        final FloatVector quotient = ((FloatVector) color.mul(255).convert(VectorOperators.I2F, 0)).div((FloatVector) alpha.convert(VectorOperators.I2F, 0));
+        return ((IntVector) quotient.convert(VectorOperators.F2I, 0)).min(255);
+    }
+
+    private static byte[] createMonochromeBitMasks() {
+        final byte[] bitMasks = new byte[BYTE_SPECIES.length()];
+        for (int i = 0; i < bitMasks.length; i++) {
+            bitMasks[i] = (byte) (1 << (7 - (i & 7)));
+        }
+        return bitMasks;
+    }
+
+}
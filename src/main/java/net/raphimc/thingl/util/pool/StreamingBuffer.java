@@ -0,0 +1,224 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.util.pool;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import net.lenni0451.commons.math.MathUtils;
+import net.raphimc.thingl.ThinGL;
+import net.raphimc.thingl.drawbuilder.builder.BuiltBuffer;
+import net.raphimc.thingl.drawbuilder.vertex.VertexDataLayout;
+import net.raphimc.thingl.resource.buffer.Buffer;
+import net.raphimc.thingl.resource.buffer.ImmutableBuffer;
+import net.raphimc.thingl.resource.sync.FenceSync;
+import net.raphimc.thingl.resource.vertexarray.VertexArray;
+import org.lwjgl.opengl.GL30C;
+import org.lwjgl.opengl.GL32C;
+import org.lwjgl.opengl.GL44C;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Persistently mapped ring buffer for streaming per-frame vertex and index data.<br>
+ * The buffer is split into {@value #SEGMENT_COUNT} segments which are used round-robin, one per frame. Every segment is fenced at the end of its frame and only reused once the GPU has finished reading from it.<br>
+ * Not supported on the Apple command encoder (OpenGL 4.1 has no buffer storage), callers have to fall back to regular buffer uploads in that case.
+ */
+public class StreamingBuffer {
+
+    private static final int SEGMENT_COUNT = 3;
+    private static final long INITIAL_SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final long MAX_SEGMENT_SIZE = 256 * 1024 * 1024;
+    private static final long MIN_RESIZE_AMOUNT = 1024 * 1024;
+    private static final int STORAGE_FLAGS = GL30C.GL_MAP_WRITE_BIT | GL44C.GL_MAP_PERSISTENT_BIT | GL44C.GL_MAP_COHERENT_BIT;
+
+    private final boolean supported;
+    private final Object2ObjectMap<VertexArrayCacheKey, VertexArray> vertexArrayCache = new Object2ObjectOpenHashMap<>();
+    private final FenceSync[] segmentFences = new FenceSync[SEGMENT_COUNT];
+    private Buffer buffer;
+    private long mappedAddress;
+    private long segmentSize;
+    private int segment;
+    private boolean segmentAcquired;
+    private long cursor;
+    private long requiredSegmentSize;
+
+    public StreamingBuffer() {
+        this.supported = ThinGL.capabilities().supportsBufferStorage();
+        if (this.supported) {
+            this.allocate(INITIAL_SEGMENT_SIZE);
+            ThinGL.get().addFrameFinishedCallback(this::onFrameFinished);
+        }
+    }
+
+    /**
+     * Checks if the current segment has enough space left for the given amount of bytes.<br>
+     * If not, the segment will be enlarged at the end of the frame.
+     *
+     * @param size The amount of bytes which are going to be written
+     * @return true if the data fits into the current segment
+     */
+    public boolean ensureHasEnoughSpace(final long size) {
+        ThinGL.get().assertOnRenderThread();
+        if (!this.supported) {
+            return false;
+        }
+
+        if (this.cursor + size > this.segmentSize) {
+            this.requiredSegmentSize = Math.max(this.requiredSegmentSize, this.cursor + size);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Copies the data into the mapped memory of the current segment.
+     *
+     * @param data The data to copy
+     * @param alignment The alignment of the data in bytes (Does not have to be a power of two)
+     * @return The offset of the data inside the buffer or -1 if the segment is full
+     */
+    public long write(final ByteBuffer data, final int alignment) {
+        ThinGL.get().assertOnRenderThread();
+        if (!this.supported) {
+            return -1;
+        }
+
+        final long segmentStart = this.segment * this.segmentSize;
+        final long alignedCursor = ((segmentStart + this.cursor + alignment - 1) / alignment) * alignment - segmentStart;
+        final long size = data.remaining();
+        if (alignedCursor + size > this.segmentSize) {
+            this.requiredSegmentSize = Math.max(this.requiredSegmentSize, alignedCursor + size);
+            return -1;
+        }
+
+        if (!this.segmentAcquired) {
+            this.acquireSegment();
+        }
+        final long offset = segmentStart + alignedCursor;
+        MemoryUtil.memCopy(MemoryUtil.memAddress(data), this.mappedAddress + offset, size);
+        this.cursor = alignedCursor + size;
+        return offset;
+    }
+
+    public VertexArray getVertexArray(final VertexDataLayout vertexDataLayout, final VertexDataLayout instanceVertexDataLayout) {
+        ThinGL.get().assertOnRenderThread();
+        return this.vertexArrayCache.computeIfAbsent(new VertexArrayCacheKey(vertexDataLayout, instanceVertexDataLayout), this::createVertexArray);
+    }
+
+    public boolean isStreamed(final BuiltBuffer builtBuffer) {
+        return this.supported && builtBuffer.vertexArray().getVertexBuffers().get(0) == this.buffer;
+    }
+
+    public boolean isSupported() {
+        return this.supported;
+    }
+
+    public Buffer getBuffer() {
+        return this.buffer;
+    }
+
+    public long getSegmentSize() {
+        return this.segmentSize;
+    }
+
+    public long getUsedSize() {
+        return this.cursor;
+    }
+
+    public void free() {
+        for (VertexArray vertexArray : this.vertexArrayCache.values()) {
+            vertexArray.free();
+        }
+        this.vertexArrayCache.clear();
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            if (this.segmentFences[i] != null) {
+                this.segmentFences[i].free();
+                this.segmentFences[i] = null;
+            }
+        }
+        if (this.buffer != null) {
+            this.buffer.free();
+            this.buffer = null;
+        }
+    }
+
+    private void onFrameFinished() {
+        if (this.segmentAcquired) {
+            this.segmentFences[this.segment] = new FenceSync();
+        }
+
+        if (this.requiredSegmentSize > this.segmentSize && this.requiredSegmentSize <= MAX_SEGMENT_SIZE) {
+            final Buffer oldBuffer = this.buffer;
+            final FenceSync oldBufferFence = new FenceSync();
+            ThinGL.syncManager().runWhenFenceSyncSignaled(oldBufferFence, fenceSync -> {
+                oldBuffer.free();
+                fenceSync.free();
+            });
+            for (int i = 0; i < SEGMENT_COUNT; i++) {
+                if (this.segmentFences[i] != null) {
+                    this.segmentFences[i].free();
+                    this.segmentFences[i] = null;
+                }
+            }
+            this.allocate(Math.min(MathUtils.align(this.requiredSegmentSize + this.requiredSegmentSize / 2, MIN_RESIZE_AMOUNT), MAX_SEGMENT_SIZE));
+            for (Object2ObjectMap.Entry<VertexArrayCacheKey, VertexArray> entry : this.vertexArrayCache.object2ObjectEntrySet()) {
+                entry.getValue().setVertexBuffer(0, this.buffer, 0, entry.getKey().vertexDataLayout().getSize());
+            }
+        }
+        this.requiredSegmentSize = 0;
+
+        this.segment = (this.segment + 1) % SEGMENT_COUNT;
+        this.segmentAcquired = false;
+        this.cursor = 0;
+    }
+
+    private void acquireSegment() {
+        final FenceSync fenceSync = this.segmentFences[this.segment];
+        if (fenceSync != null) {
+            if (!fenceSync.isSignaled()) {
+                fenceSync.clientWait(GL32C.GL_SYNC_FLUSH_COMMANDS_BIT, Long.MAX_VALUE);
+            }
+            fenceSync.free();
+            this.segmentFences[this.segment] = null;
+        }
+        this.segmentAcquired = true;
+    }
+
+    private void allocate(final long segmentSize) {
+        this.segmentSize = segmentSize;
+        this.buffer = new ImmutableBuffer(segmentSize * SEGMENT_COUNT, STORAGE_FLAGS);
+        this.buffer.setDebugName("Streaming Buffer");
+        this.mappedAddress = MemoryUtil.memAddress(this.buffer.mapFullRange(STORAGE_FLAGS));
+    }
+
+    private VertexArray createVertexArray(final VertexArrayCacheKey vertexArrayCacheKey) {
+        final VertexArray vertexArray = new VertexArray();
+        vertexArray.setDebugName("Streaming Vertex Array " + vertexArray.getGlId());
+        vertexArray.setVertexBuffer(0, this.buffer, 0, vertexArrayCacheKey.vertexDataLayout().getSize());
+        vertexArray.configureVertexDataLayout(0, 0, vertexArrayCacheKey.vertexDataLayout(), 0);
+        if (vertexArrayCacheKey.instanceVertexDataLayout() != null) {
+            vertexArray.configureVertexDataLayout(1, vertexArrayCacheKey.vertexDataLayout().getElements().length, vertexArrayCacheKey.instanceVertexDataLayout(), 1);
+        }
+        return vertexArray;
+    }
+
+    private record VertexArrayCacheKey(VertexDataLayout vertexDataLayout, VertexDataLayout instanceVertexDataLayout) {
+    }
+
+}
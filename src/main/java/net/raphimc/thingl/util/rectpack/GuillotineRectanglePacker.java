@@ -0,0 +1,159 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.util.rectpack;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guillotine rectangle packer which supports freeing slots again.<br>
+ * Freed rectangles are merged with adjacent free rectangles of the same width or height to keep the free list from fragmenting.
+ */
+public class GuillotineRectanglePacker {
+
+    private final int width;
+    private final int height;
+    private final List<FreeRectangle> freeRectangles = new ArrayList<>();
+    private long usedArea;
+
+    public GuillotineRectanglePacker(final int width, final int height) {
+        this.width = width;
+        this.height = height;
+        this.freeRectangles.add(new FreeRectangle(0, 0, width, height));
+    }
+
+    public Slot pack(final int rectWidth, final int rectHeight) {
+        final int paddedWidth = rectWidth + 1;
+        final int paddedHeight = rectHeight + 1;
+
+        int bestIndex = -1;
+        long bestAreaFit = Long.MAX_VALUE;
+        int bestShortSideFit = Integer.MAX_VALUE;
+        for (int i = 0; i < this.freeRectangles.size(); i++) {
+            final FreeRectangle freeRectangle = this.freeRectangles.get(i);
+            if (paddedWidth > freeRectangle.width || paddedHeight > freeRectangle.height) {
+                continue;
+            }
+            final long areaFit = (long) freeRectangle.width * freeRectangle.height - (long) paddedWidth * paddedHeight;
+            final int shortSideFit = Math.min(freeRectangle.width - paddedWidth, freeRectangle.height - paddedHeight);
+            if (areaFit < bestAreaFit || (areaFit == bestAreaFit && shortSideFit < bestShortSideFit)) {
+                bestIndex = i;
+                bestAreaFit = areaFit;
+                bestShortSideFit = shortSideFit;
+            }
+        }
+        if (bestIndex == -1) {
+            return null;
+        }
+
+        final FreeRectangle freeRectangle = this.freeRectangles.remove(bestIndex);
+        final int leftoverWidth = freeRectangle.width - paddedWidth;
+        final int leftoverHeight = freeRectangle.height - paddedHeight;
+        if (leftoverWidth < leftoverHeight) { // Split along the shorter leftover axis
+            this.addFreeRectangle(freeRectangle.x + paddedWidth, freeRectangle.y, leftoverWidth, paddedHeight);
+            this.addFreeRectangle(freeRectangle.x, freeRectangle.y + paddedHeight, freeRectangle.width, leftoverHeight);
+        } else {
+            this.addFreeRectangle(freeRectangle.x + paddedWidth, freeRectangle.y, leftoverWidth, freeRectangle.height);
+            this.addFreeRectangle(freeRectangle.x, freeRectangle.y + paddedHeight, paddedWidth, leftoverHeight);
+        }
+        this.usedArea += (long) paddedWidth * paddedHeight;
+
+        final int x = freeRectangle.x;
+        final int y = freeRectangle.y;
+        final float u1 = x / (float) this.width;
+        final float v1 = y / (float) this.height;
+        final float u2 = (x + rectWidth) / (float) this.width;
+        final float v2 = (y + rectHeight) / (float) this.height;
+        return new Slot(x, y, rectWidth, rectHeight, u1, v1, u2, v2);
+    }
+
+    public void free(final Slot slot) {
+        final int paddedWidth = slot.width() + 1;
+        final int paddedHeight = slot.height() + 1;
+        this.usedArea -= (long) paddedWidth * paddedHeight;
+
+        FreeRectangle freeRectangle = new FreeRectangle(slot.x(), slot.y(), paddedWidth, paddedHeight);
+        boolean merged;
+        do {
+            merged = false;
+            for (int i = 0; i < this.freeRectangles.size(); i++) {
+                final FreeRectangle other = this.freeRectangles.get(i);
+                final FreeRectangle mergedRectangle = freeRectangle.tryMerge(other);
+                if (mergedRectangle != null) {
+                    this.freeRectangles.set(i, this.freeRectangles.get(this.freeRectangles.size() - 1));
+                    this.freeRectangles.remove(this.freeRectangles.size() - 1);
+                    freeRectangle = mergedRectangle;
+                    merged = true;
+                    break;
+                }
+            }
+        } while (merged);
+        this.freeRectangles.add(freeRectangle);
+    }
+
+    public void clear() {
+        this.freeRectangles.clear();
+        this.freeRectangles.add(new FreeRectangle(0, 0, this.width, this.height));
+        this.usedArea = 0;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public long getUsedArea() {
+        return this.usedArea;
+    }
+
+    public int getFreeRectangleCount() {
+        return this.freeRectangles.size();
+    }
+
+    private void addFreeRectangle(final int x, final int y, final int width, final int height) {
+        if (width > 0 && height > 0) {
+            this.freeRectangles.add(new FreeRectangle(x, y, width, height));
+        }
+    }
+
+    private record FreeRectangle(int x, int y, int width, int height) {
+
+        private FreeRectangle tryMerge(final FreeRectangle other) {
+            if (this.x == other.x && this.width == other.width) {
+                if (this.y + this.height == other.y) {
+                    return new FreeRectangle(this.x, this.y, this.width, this.height + other.height);
+                } else if (other.y + other.height == this.y) {
+                    return new FreeRectangle(this.x, other.y, this.width, this.height + other.height);
+                }
+            }
+            if (this.y == other.y && this.height == other.height) {
+                if (this.x + this.width == other.x) {
+                    return new FreeRectangle(this.x, this.y, this.width + other.width, this.height);
+                } else if (other.x + other.width == this.x) {
+                    return new FreeRectangle(other.x, this.y, this.width + other.width, this.height);
+                }
+            }
+            return null;
+        }
+
+    }
+
+}
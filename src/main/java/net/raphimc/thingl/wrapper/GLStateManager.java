@@ -27,7 +27,7 @@ import org.lwjgl.opengl.GL30C;
 public class GLStateManager {
 
     public boolean getCapability(final int capability) {
-        return GL11C.glIsEnabled(capability);
+        return de.florianmichael.thingl.GlCommands.get().glIsEnabled(capability);
     }
 
     public void enable(final int capability) {
@@ -40,18 +40,18 @@ public class GLStateManager {
 
     public void setCapability(final int capability, final boolean state) {
         if (state) {
-            GL11C.glEnable(capability);
+            de.florianmichael.thingl.GlCommands.get().glEnable(capability);
         } else {
-            GL11C.glDisable(capability);
+            de.florianmichael.thingl.GlCommands.get().glDisable(capability);
         }
     }
 
     public BlendFunc getBlendFunc() {
         return new BlendFunc(
-                GL11C.glGetInteger(GL14C.GL_BLEND_SRC_RGB),
-                GL11C.glGetInteger(GL14C.GL_BLEND_DST_RGB),
-                GL11C.glGetInteger(GL14C.GL_BLEND_SRC_ALPHA),
-                GL11C.glGetInteger(GL14C.GL_BLEND_DST_ALPHA)
+                de.florianmichael.thingl.GlCommands.get().glGetInteger(GL14C.GL_BLEND_SRC_RGB),
+                de.florianmichael.thingl.GlCommands.get().glGetInteger(GL14C.GL_BLEND_DST_RGB),
+                de.florianmichael.thingl.GlCommands.get().glGetInteger(GL14C.GL_BLEND_SRC_ALPHA),
+                de.florianmichael.thingl.GlCommands.get().glGetInteger(GL14C.GL_BLEND_DST_ALPHA)
         );
     }
 
@@ -65,31 +65,31 @@ public class GLStateManager {
 
     public void setBlendFunc(final int srcRGB, final int dstRGB, final int srcAlpha, final int dstAlpha) {
         if (srcRGB == srcAlpha && dstRGB == dstAlpha) {
-            GL11C.glBlendFunc(srcRGB, dstRGB);
+            de.florianmichael.thingl.GlCommands.get().glBlendFunc(srcRGB, dstRGB);
         } else {
-            GL14C.glBlendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha);
+            de.florianmichael.thingl.GlCommands.get().glBlendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha);
         }
     }
 
     public int getDepthFunc() {
-        return GL11C.glGetInteger(GL11C.GL_DEPTH_FUNC);
+        return de.florianmichael.thingl.GlCommands.get().glGetInteger(GL11C.GL_DEPTH_FUNC);
     }
 
     public void setDepthFunc(final int func) {
-        GL11C.glDepthFunc(func);
+        de.florianmichael.thingl.GlCommands.get().glDepthFunc(func);
     }
 
     public int getBlendEquation() {
-        return GL11C.glGetInteger(GL14C.GL_BLEND_EQUATION);
+        return de.florianmichael.thingl.GlCommands.get().glGetInteger(GL14C.GL_BLEND_EQUATION);
     }
 
     public void setBlendEquation(final int mode) {
-        GL14C.glBlendEquation(mode);
+        de.florianmichael.thingl.GlCommands.get().glBlendEquation(mode);
     }
 
     public ColorMask getColorMask() {
         final int[] colorMask = new int[4];
-        GL11C.glGetIntegerv(GL11C.GL_COLOR_WRITEMASK, colorMask);
+        de.florianmichael.thingl.GlCommands.get().glGetIntegerv(GL11C.GL_COLOR_WRITEMASK, colorMask);
         return new ColorMask(colorMask[0] != GL11C.GL_FALSE,
                 colorMask[1] != GL11C.GL_FALSE,
                 colorMask[2] != GL11C.GL_FALSE,
@@ -101,21 +101,21 @@ public class GLStateManager {
     }
 
     public void setColorMask(final boolean red, final boolean green, final boolean blue, final boolean alpha) {
-        GL11C.glColorMask(red, green, blue, alpha);
+        de.florianmichael.thingl.GlCommands.get().glColorMask(red, green, blue, alpha);
     }
 
     public boolean getDepthMask() {
-        return GL11C.glGetBoolean(GL11C.GL_DEPTH_WRITEMASK);
+        return de.florianmichael.thingl.GlCommands.get().glGetBoolean(GL11C.GL_DEPTH_WRITEMASK);
     }
 
     public void setDepthMask(final boolean state) {
-        GL11C.glDepthMask(state);
+        de.florianmichael.thingl.GlCommands.get().glDepthMask(state);
     }
 
     public StencilMask getStencilMask() {
         return new StencilMask(
-                GL11C.glGetInteger(GL11C.GL_STENCIL_WRITEMASK),
-                GL11C.glGetInteger(GL20C.GL_STENCIL_BACK_WRITEMASK)
+                de.florianmichael.thingl.GlCommands.get().glGetInteger(GL11C.GL_STENCIL_WRITEMASK),
+                de.florianmichael.thingl.GlCommands.get().glGetInteger(GL20C.GL_STENCIL_BACK_WRITEMASK)
         );
     }
 
@@ -129,16 +129,16 @@ public class GLStateManager {
 
     public void setStencilMask(final int front, final int back) {
         if (front == back) {
-            GL11C.glStencilMask(front);
+            de.florianmichael.thingl.GlCommands.get().glStencilMask(front);
         } else {
-            GL20C.glStencilMaskSeparate(GL11C.GL_FRONT, front);
-            GL20C.glStencilMaskSeparate(GL11C.GL_BACK, back);
+            de.florianmichael.thingl.GlCommands.get().glStencilMaskSeparate(GL11C.GL_FRONT, front);
+            de.florianmichael.thingl.GlCommands.get().glStencilMaskSeparate(GL11C.GL_BACK, back);
         }
     }
 
     public Scissor getScissor() {
         final int[] scissor = new int[4];
-        GL11C.glGetIntegerv(GL11C.GL_SCISSOR_BOX, scissor);
+        de.florianmichael.thingl.GlCommands.get().glGetIntegerv(GL11C.GL_SCISSOR_BOX, scissor);
         return new Scissor(scissor);
     }
 
@@ -151,12 +151,12 @@ public class GLStateManager {
     }
 
     public void setScissor(final int x, final int y, final int width, final int height) {
-        GL11C.glScissor(x, y, width, height);
+        de.florianmichael.thingl.GlCommands.get().glScissor(x, y, width, height);
     }
 
     public Viewport getViewport() {
         final int[] viewport = new int[4];
-        GL11C.glGetIntegerv(GL11C.GL_VIEWPORT, viewport);
+        de.florianmichael.thingl.GlCommands.get().glGetIntegerv(GL11C.GL_VIEWPORT, viewport);
         return new Viewport(viewport);
     }
 
@@ -169,37 +169,37 @@ public class GLStateManager {
     }
 
     public void setViewport(final int x, final int y, final int width, final int height) {
-        GL11C.glViewport(x, y, width, height);
+        de.florianmichael.thingl.GlCommands.get().glViewport(x, y, width, height);
     }
 
     public int getCullFace() {
-        return GL11C.glGetInteger(GL11C.GL_CULL_FACE_MODE);
+        return de.florianmichael.thingl.GlCommands.get().glGetInteger(GL11C.GL_CULL_FACE_MODE);
     }
 
     public void setCullFace(final int mode) {
-        GL11C.glCullFace(mode);
+        de.florianmichael.thingl.GlCommands.get().glCullFace(mode);
     }
 
     public int getFrontFace() {
-        return GL11C.glGetInteger(GL11C.GL_FRONT_FACE);
+        return de.florianmichael.thingl.GlCommands.get().glGetInteger(GL11C.GL_FRONT_FACE);
     }
 
     public void setFrontFace(final int dir) {
-        GL11C.glFrontFace(dir);
+        de.florianmichael.thingl.GlCommands.get().glFrontFace(dir);
     }
 
     public int getLogicOp() {
-        return GL11C.glGetInteger(GL11C.GL_LOGIC_OP_MODE);
+        return de.florianmichael.thingl.GlCommands.get().glGetInteger(GL11C.GL_LOGIC_OP_MODE);
     }
 
     public void setLogicOp(final int op) {
-        GL11C.glLogicOp(op);
+        de.florianmichael.thingl.GlCommands.get().glLogicOp(op);
     }
 
     public PolygonOffset getPolygonOffset() {
         return new PolygonOffset(
-                GL11C.glGetFloat(GL11C.GL_POLYGON_OFFSET_FACTOR),
-                GL11C.glGetFloat(GL11C.GL_POLYGON_OFFSET_UNITS)
+                de.florianmichael.thingl.GlCommands.get().glGetFloat(GL11C.GL_POLYGON_OFFSET_FACTOR),
+                de.florianmichael.thingl.GlCommands.get().glGetFloat(GL11C.GL_POLYGON_OFFSET_UNITS)
         );
     }
 
@@ -208,39 +208,51 @@ public class GLStateManager {
     }
 
     public void setPolygonOffset(final float factor, final float units) {
-        GL11C.glPolygonOffset(factor, units);
+        de.florianmichael.thingl.GlCommands.get().glPolygonOffset(factor, units);
     }
 
     public int getPixelStore(final int parameter) {
-        return GL11C.glGetInteger(parameter);
+        return de.florianmichael.thingl.GlCommands.get().glGetInteger(parameter);
     }
 
     public void setPixelStore(final int parameter, final int value) {
-        GL11C.glPixelStorei(parameter, value);
+        de.florianmichael.thingl.GlCommands.get().glPixelStorei(parameter, value);
     }
 
     public int getProgram() {
-        return GL11C.glGetInteger(GL20C.GL_CURRENT_PROGRAM);
+        return de.florianmichael.thingl.GlCommands.get().glGetInteger(GL20C.GL_CURRENT_PROGRAM);
     }
 
     public void setProgram(final int program) {
-        GL20C.glUseProgram(program);
+        de.florianmichael.thingl.GlCommands.get().glUseProgram(program);
     }
 
     public int getVertexArray() {
-        return GL11C.glGetInteger(GL30C.GL_VERTEX_ARRAY_BINDING);
+        return de.florianmichael.thingl.GlCommands.get().glGetInteger(GL30C.GL_VERTEX_ARRAY_BINDING);
     }
 
     public void setVertexArray(final int vertexArray) {
-        GL30C.glBindVertexArray(vertexArray);
+        de.florianmichael.thingl.GlCommands.get().glBindVertexArray(vertexArray);
+        // FlorianMichael - add macOS support
+        final de.florianmichael.thingl.encoder.AppleCommandEncoder appleEncoder = de.florianmichael.thingl.GlCommands.getApple();
+        if (appleEncoder != null) {
+            appleEncoder.notifyVertexArrayBound(vertexArray);
+        }
+        // FlorianMichael - add macOS support
     }
 
     public Framebuffer getDrawFramebuffer() {
-        return Framebuffer.fromGlIdUnsafe(GL11C.glGetInteger(GL30C.GL_DRAW_FRAMEBUFFER_BINDING));
+        return Framebuffer.fromGlIdUnsafe(de.florianmichael.thingl.GlCommands.get().glGetInteger(GL30C.GL_DRAW_FRAMEBUFFER_BINDING));
     }
 
     public void setDrawFramebuffer(final Framebuffer framebuffer) {
-        GL30C.glBindFramebuffer(GL30C.GL_DRAW_FRAMEBUFFER, framebuffer.getGlId());
+        de.florianmichael.thingl.GlCommands.get().glBindFramebuffer(GL30C.GL_DRAW_FRAMEBUFFER, framebuffer.getGlId());
+        // FlorianMichael - add macOS support
+        final de.florianmichael.thingl.encoder.AppleCommandEncoder appleEncoder = de.florianmichael.thingl.GlCommands.getApple();
+        if (appleEncoder != null) {
+            appleEncoder.notifyDrawFramebufferBound(framebuffer.getGlId());
+        }
+        // FlorianMichael - add macOS support
     }
 
     public record BlendFunc(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
@@ -17,109 +17,66 @@
  */
 package net.raphimc.thingl.wrapper;
 
-import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
-import it.unimi.dsi.fastutil.booleans.BooleanStack;
-import it.unimi.dsi.fastutil.ints.*;
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import net.raphimc.thingl.ThinGL;
 import net.raphimc.thingl.resource.framebuffer.Framebuffer;
 
-import java.util.Stack;
+import java.util.Arrays;
 
 public class GLStateStack {
 
-    private final Stack<Int2BooleanMap> capabilitiesStack = new Stack<>();
-    private final Stack<GLStateManager.BlendFunc> blendFuncStack = new Stack<>();
-    private final IntStack depthFuncStack = new IntArrayList();
-    private final IntStack blendEquationStack = new IntArrayList();
-    private final Stack<GLStateManager.ColorMask> colorMaskStack = new Stack<>();
-    private final BooleanStack depthMaskStack = new BooleanArrayList();
-    private final Stack<GLStateManager.StencilMask> stencilMaskStack = new Stack<>();
-    private final Stack<GLStateManager.Scissor> scissorStack = new Stack<>();
-    private final Stack<GLStateManager.Viewport> viewportStack = new Stack<>();
-    private final IntStack cullFaceStack = new IntArrayList();
-    private final IntStack frontFaceStack = new IntArrayList();
-    private final IntStack logicOpStack = new IntArrayList();
-    private final Stack<GLStateManager.PolygonOffset> polygonOffsetStack = new Stack<>();
-    private final Stack<Int2IntMap> pixelStoresStack = new Stack<>();
-    private final Stack<Framebuffer> framebufferStack = new Stack<>();
-    private final IntStack programStack = new IntArrayList();
-    private final IntStack vertexArrayStack = new IntArrayList();
+    // FlorianMichael - packed state stack
+    private static final int INITIAL_DEPTH = 16;
+    private static final int CAPABILITY_WORDS = 2;
+    private static final int MAX_CAPABILITIES = CAPABILITY_WORDS * Long.SIZE;
+    private static final int MAX_PIXEL_STORES = Long.SIZE;
+
+    private final Int2IntMap capabilitySlots = createSlotMap();
+    private final int[] slotCapabilities = new int[MAX_CAPABILITIES];
+    private final Int2IntMap pixelStoreSlots = createSlotMap();
+    private final int[] slotPixelStores = new int[MAX_PIXEL_STORES];
+
+    private final Slab capabilitiesStack = new Slab("capabilities", CAPABILITY_WORDS * 2, 0, false, this::pop);
+    private final Slab blendFuncStack = new Slab("blend func", 0, 4, false, this::popBlendFunc);
+    private final Slab depthFuncStack = new Slab("depth func", 0, 1, false, this::popDepthFunc);
+    private final Slab blendEquationStack = new Slab("blend equation", 0, 1, false, this::popBlendEquation);
+    private final Slab colorMaskStack = new Slab("color mask", 0, 1, false, this::popColorMask);
+    private final Slab depthMaskStack = new Slab("depth mask", 0, 1, false, this::popDepthMask);
+    private final Slab stencilMaskStack = new Slab("stencil mask", 0, 2, false, this::popStencilMask);
+    private final Slab scissorStack = new Slab("scissor", 0, 4, false, this::popScissor);
+    private final Slab viewportStack = new Slab("viewport", 0, 4, false, this::popViewport);
+    private final Slab cullFaceStack = new Slab("cull face", 0, 1, false, this::popCullFace);
+    private final Slab frontFaceStack = new Slab("front face", 0, 1, false, this::popFrontFace);
+    private final Slab logicOpStack = new Slab("logic op", 0, 1, false, this::popLogicOp);
+    private final Slab polygonOffsetStack = new Slab("polygon offset", 0, 2, false, this::popPolygonOffset);
+    private final Slab pixelStoresStack = new Slab("pixel stores", 1, MAX_PIXEL_STORES, false, this::popPixelStore);
+    private final Slab framebufferStack = new Slab("framebuffer", 0, 0, true, this::popFramebuffer);
+    private final Slab programStack = new Slab("program", 0, 1, false, this::popProgram);
+    private final Slab vertexArrayStack = new Slab("vertex array", 0, 1, false, this::popVertexArray);
+    private final Slab[] stacks = new Slab[]{
+            this.capabilitiesStack, this.blendFuncStack, this.depthFuncStack, this.blendEquationStack, this.colorMaskStack, this.depthMaskStack,
+            this.stencilMaskStack, this.scissorStack, this.viewportStack, this.cullFaceStack, this.frontFaceStack, this.logicOpStack,
+            this.polygonOffsetStack, this.pixelStoresStack, this.framebufferStack, this.programStack, this.vertexArrayStack
+    };
+    private int totalDepth;
 
     public GLStateStack() {
         ThinGL.get().addFrameFinishedCallback(() -> {
-            if (!this.capabilitiesStack.isEmpty()) {
-                while (!this.capabilitiesStack.isEmpty()) this.pop();
-                ThinGL.LOGGER.warn("GLStateStack capabilities stack was not empty at the end of the frame!");
-            }
-            if (!this.blendFuncStack.isEmpty()) {
-                while (!this.blendFuncStack.isEmpty()) this.popBlendFunc();
-                ThinGL.LOGGER.warn("GLStateStack blend func stack was not empty at the end of the frame!");
-            }
-            if (!this.depthFuncStack.isEmpty()) {
-                while (!this.depthFuncStack.isEmpty()) this.popDepthFunc();
-                ThinGL.LOGGER.warn("GLStateStack depth func stack was not empty at the end of the frame!");
-            }
-            if (!this.blendEquationStack.isEmpty()) {
-                while (!this.blendEquationStack.isEmpty()) this.popBlendEquation();
-                ThinGL.LOGGER.warn("GLStateStack blend equation stack was not empty at the end of the frame!");
-            }
-            if (!this.colorMaskStack.isEmpty()) {
-                while (!this.colorMaskStack.isEmpty()) this.popColorMask();
-                ThinGL.LOGGER.warn("GLStateStack color mask stack was not empty at the end of the frame!");
-            }
-            if (!this.depthMaskStack.isEmpty()) {
-                while (!this.depthMaskStack.isEmpty()) this.popDepthMask();
-                ThinGL.LOGGER.warn("GLStateStack depth mask stack was not empty at the end of the frame!");
-            }
-            if (!this.stencilMaskStack.isEmpty()) {
-                while (!this.stencilMaskStack.isEmpty()) this.popStencilMask();
-                ThinGL.LOGGER.warn("GLStateStack stencil mask stack was not empty at the end of the frame!");
-            }
-            if (!this.scissorStack.isEmpty()) {
-                while (!this.scissorStack.isEmpty()) this.popScissor();
-                ThinGL.LOGGER.warn("GLStateStack scissor stack was not empty at the end of the frame!");
-            }
-            if (!this.viewportStack.isEmpty()) {
-                while (!this.viewportStack.isEmpty()) this.popViewport();
-                ThinGL.LOGGER.warn("GLStateStack viewport stack was not empty at the end of the frame!");
-            }
-            if (!this.cullFaceStack.isEmpty()) {
-                while (!this.cullFaceStack.isEmpty()) this.popCullFace();
-                ThinGL.LOGGER.warn("GLStateStack cull face stack was not empty at the end of the frame!");
-            }
-            if (!this.frontFaceStack.isEmpty()) {
-                while (!this.frontFaceStack.isEmpty()) this.popFrontFace();
-                ThinGL.LOGGER.warn("GLStateStack front face stack was not empty at the end of the frame!");
-            }
-            if (!this.logicOpStack.isEmpty()) {
-                while (!this.logicOpStack.isEmpty()) this.popLogicOp();
-                ThinGL.LOGGER.warn("GLStateStack logic op stack was not empty at the end of the frame!");
-            }
-            if (!this.polygonOffsetStack.isEmpty()) {
-                while (!this.polygonOffsetStack.isEmpty()) this.popPolygonOffset();
-                ThinGL.LOGGER.warn("GLStateStack polygon offset stack was not empty at the end of the frame!");
-            }
-            if (!this.pixelStoresStack.isEmpty()) {
-                while (!this.pixelStoresStack.isEmpty()) this.popPixelStore();
-                ThinGL.LOGGER.warn("GLStateStack pixel stores stack was not empty at the end of the frame!");
-            }
-            if (!this.framebufferStack.isEmpty()) {
-                while (!this.framebufferStack.isEmpty()) this.popFramebuffer();
-                ThinGL.LOGGER.warn("GLStateStack framebuffer stack was not empty at the end of the frame!");
-            }
-            if (!this.programStack.isEmpty()) {
-                while (!this.programStack.isEmpty()) this.popProgram();
-                ThinGL.LOGGER.warn("GLStateStack program stack was not empty at the end of the frame!");
-            }
-            if (!this.vertexArrayStack.isEmpty()) {
-                while (!this.vertexArrayStack.isEmpty()) this.popVertexArray();
-                ThinGL.LOGGER.warn("GLStateStack vertex array stack was not empty at the end of the frame!");
+            if (this.totalDepth == 0) return;
+
+            for (Slab stack : this.stacks) {
+                if (stack.depth != 0) {
+                    while (stack.depth != 0) stack.popAction.run();
+                    ThinGL.LOGGER.warn("GLStateStack " + stack.name + " stack was not empty at the end of the frame!");
+                }
             }
         });
     }
 
     public void push() {
-        this.capabilitiesStack.push(new Int2BooleanOpenHashMap(6));
+        final int offset = this.capabilitiesStack.push() * this.capabilitiesStack.longStride;
+        Arrays.fill(this.capabilitiesStack.longs, offset, offset + CAPABILITY_WORDS, 0L);
     }
 
     public void enable(final int capability) {
@@ -133,139 +90,203 @@ public class GLStateStack {
     private void set(final int capability, final boolean state) {
         final boolean currentState = ThinGL.glStateManager().getCapability(capability);
         if (currentState != state) {
-            this.capabilitiesStack.peek().put(capability, currentState);
+            final int slot = this.getCapabilitySlot(capability);
+            final int word = this.capabilitiesStack.peek() * this.capabilitiesStack.longStride + (slot >>> 6);
+            final long bit = 1L << slot;
+            final long[] longs = this.capabilitiesStack.longs;
+            if ((longs[word] & bit) == 0) { // Only the state before the first change has to be restored
+                longs[word] |= bit;
+                if (currentState) {
+                    longs[word + CAPABILITY_WORDS] |= bit;
+                } else {
+                    longs[word + CAPABILITY_WORDS] &= ~bit;
+                }
+            }
             ThinGL.glStateManager().setCapability(capability, state);
         }
     }
 
     public void pop() {
-        final Int2BooleanMap capabilities = this.capabilitiesStack.pop();
-        for (Int2BooleanMap.Entry entry : capabilities.int2BooleanEntrySet()) {
-            ThinGL.glStateManager().setCapability(entry.getIntKey(), entry.getBooleanValue());
+        final int offset = this.capabilitiesStack.pop() * this.capabilitiesStack.longStride;
+        final long[] longs = this.capabilitiesStack.longs;
+        for (int i = 0; i < CAPABILITY_WORDS; i++) {
+            long changed = longs[offset + i];
+            final long values = longs[offset + CAPABILITY_WORDS + i];
+            while (changed != 0) {
+                final int bitIndex = Long.numberOfTrailingZeros(changed);
+                changed &= changed - 1;
+                ThinGL.glStateManager().setCapability(this.slotCapabilities[(i << 6) | bitIndex], (values & (1L << bitIndex)) != 0);
+            }
         }
     }
 
     public void pushBlendFunc() {
-        this.blendFuncStack.push(ThinGL.glStateManager().getBlendFunc());
+        final GLStateManager.BlendFunc blendFunc = ThinGL.glStateManager().getBlendFunc();
+        final int offset = this.blendFuncStack.push() * this.blendFuncStack.intStride;
+        final int[] ints = this.blendFuncStack.ints;
+        ints[offset] = blendFunc.srcRGB();
+        ints[offset + 1] = blendFunc.dstRGB();
+        ints[offset + 2] = blendFunc.srcAlpha();
+        ints[offset + 3] = blendFunc.dstAlpha();
     }
 
     public void popBlendFunc() {
-        ThinGL.glStateManager().setBlendFunc(this.blendFuncStack.pop());
+        final int offset = this.blendFuncStack.pop() * this.blendFuncStack.intStride;
+        final int[] ints = this.blendFuncStack.ints;
+        ThinGL.glStateManager().setBlendFunc(ints[offset], ints[offset + 1], ints[offset + 2], ints[offset + 3]);
     }
 
     public void pushDepthFunc() {
-        this.depthFuncStack.push(ThinGL.glStateManager().getDepthFunc());
+        this.depthFuncStack.ints[this.depthFuncStack.push()] = ThinGL.glStateManager().getDepthFunc();
     }
 
     public void popDepthFunc() {
-        ThinGL.glStateManager().setDepthFunc(this.depthFuncStack.popInt());
+        ThinGL.glStateManager().setDepthFunc(this.depthFuncStack.ints[this.depthFuncStack.pop()]);
     }
 
     public void pushBlendEquation() {
-        this.blendEquationStack.push(ThinGL.glStateManager().getBlendEquation());
+        this.blendEquationStack.ints[this.blendEquationStack.push()] = ThinGL.glStateManager().getBlendEquation();
     }
 
     public void popBlendEquation() {
-        ThinGL.glStateManager().setBlendEquation(this.blendEquationStack.popInt());
+        ThinGL.glStateManager().setBlendEquation(this.blendEquationStack.ints[this.blendEquationStack.pop()]);
     }
 
     public void pushColorMask() {
-        this.colorMaskStack.push(ThinGL.glStateManager().getColorMask());
+        final GLStateManager.ColorMask colorMask = ThinGL.glStateManager().getColorMask();
+        this.colorMaskStack.ints[this.colorMaskStack.push()] = (colorMask.red() ? 1 : 0) | (colorMask.green() ? 2 : 0) | (colorMask.blue() ? 4 : 0) | (colorMask.alpha() ? 8 : 0);
     }
 
     public void popColorMask() {
-        ThinGL.glStateManager().setColorMask(this.colorMaskStack.pop());
+        final int colorMask = this.colorMaskStack.ints[this.colorMaskStack.pop()];
+        ThinGL.glStateManager().setColorMask((colorMask & 1) != 0, (colorMask & 2) != 0, (colorMask & 4) != 0, (colorMask & 8) != 0);
     }
 
     public void pushDepthMask() {
-        this.depthMaskStack.push(ThinGL.glStateManager().getDepthMask());
+        this.depthMaskStack.ints[this.depthMaskStack.push()] = ThinGL.glStateManager().getDepthMask() ? 1 : 0;
     }
 
     public void popDepthMask() {
-        ThinGL.glStateManager().setDepthMask(this.depthMaskStack.popBoolean());
+        ThinGL.glStateManager().setDepthMask(this.depthMaskStack.ints[this.depthMaskStack.pop()] != 0);
     }
 
     public void pushStencilMask() {
-        this.stencilMaskStack.push(ThinGL.glStateManager().getStencilMask());
+        final GLStateManager.StencilMask stencilMask = ThinGL.glStateManager().getStencilMask();
+        final int offset = this.stencilMaskStack.push() * this.stencilMaskStack.intStride;
+        this.stencilMaskStack.ints[offset] = stencilMask.front();
+        this.stencilMaskStack.ints[offset + 1] = stencilMask.back();
     }
 
     public void popStencilMask() {
-        ThinGL.glStateManager().setStencilMask(this.stencilMaskStack.pop());
+        final int offset = this.stencilMaskStack.pop() * this.stencilMaskStack.intStride;
+        ThinGL.glStateManager().setStencilMask(this.stencilMaskStack.ints[offset], this.stencilMaskStack.ints[offset + 1]);
     }
 
     public void pushScissor() {
-        this.scissorStack.push(ThinGL.glStateManager().getScissor());
+        final GLStateManager.Scissor scissor = ThinGL.glStateManager().getScissor();
+        final int offset = this.scissorStack.push() * this.scissorStack.intStride;
+        final int[] ints = this.scissorStack.ints;
+        ints[offset] = scissor.x();
+        ints[offset + 1] = scissor.y();
+        ints[offset + 2] = scissor.width();
+        ints[offset + 3] = scissor.height();
     }
 
     public void popScissor() {
-        ThinGL.glStateManager().setScissor(this.scissorStack.pop());
+        final int offset = this.scissorStack.pop() * this.scissorStack.intStride;
+        final int[] ints = this.scissorStack.ints;
+        ThinGL.glStateManager().setScissor(ints[offset], ints[offset + 1], ints[offset + 2], ints[offset + 3]);
     }
 
     public void pushViewport() {
-        this.viewportStack.push(ThinGL.glStateManager().getViewport());
+        final GLStateManager.Viewport viewport = ThinGL.glStateManager().getViewport();
+        final int offset = this.viewportStack.push() * this.viewportStack.intStride;
+        final int[] ints = this.viewportStack.ints;
+        ints[offset] = viewport.x();
+        ints[offset + 1] = viewport.y();
+        ints[offset + 2] = viewport.width();
+        ints[offset + 3] = viewport.height();
     }
 
     public void popViewport() {
-        ThinGL.glStateManager().setViewport(this.viewportStack.pop());
+        final int offset = this.viewportStack.pop() * this.viewportStack.intStride;
+        final int[] ints = this.viewportStack.ints;
+        ThinGL.glStateManager().setViewport(ints[offset], ints[offset + 1], ints[offset + 2], ints[offset + 3]);
     }
 
     public void pushCullFace() {
-        this.cullFaceStack.push(ThinGL.glStateManager().getCullFace());
+        this.cullFaceStack.ints[this.cullFaceStack.push()] = ThinGL.glStateManager().getCullFace();
     }
 
     public void popCullFace() {
-        ThinGL.glStateManager().setCullFace(this.cullFaceStack.popInt());
+        ThinGL.glStateManager().setCullFace(this.cullFaceStack.ints[this.cullFaceStack.pop()]);
     }
 
     public void pushFrontFace() {
-        this.frontFaceStack.push(ThinGL.glStateManager().getFrontFace());
+        this.frontFaceStack.ints[this.frontFaceStack.push()] = ThinGL.glStateManager().getFrontFace();
     }
 
     public void popFrontFace() {
-        ThinGL.glStateManager().setFrontFace(this.frontFaceStack.popInt());
+        ThinGL.glStateManager().setFrontFace(this.frontFaceStack.ints[this.frontFaceStack.pop()]);
     }
 
     public void pushLogicOp() {
-        this.logicOpStack.push(ThinGL.glStateManager().getLogicOp());
+        this.logicOpStack.ints[this.logicOpStack.push()] = ThinGL.glStateManager().getLogicOp();
     }
 
     public void popLogicOp() {
-        ThinGL.glStateManager().setLogicOp(this.logicOpStack.popInt());
+        ThinGL.glStateManager().setLogicOp(this.logicOpStack.ints[this.logicOpStack.pop()]);
     }
 
     public void pushPolygonOffset() {
-        this.polygonOffsetStack.push(ThinGL.glStateManager().getPolygonOffset());
+        final GLStateManager.PolygonOffset polygonOffset = ThinGL.glStateManager().getPolygonOffset();
+        final int offset = this.polygonOffsetStack.push() * this.polygonOffsetStack.intStride;
+        this.polygonOffsetStack.ints[offset] = Float.floatToRawIntBits(polygonOffset.factor());
+        this.polygonOffsetStack.ints[offset + 1] = Float.floatToRawIntBits(polygonOffset.units());
     }
 
     public void popPolygonOffset() {
-        ThinGL.glStateManager().setPolygonOffset(this.polygonOffsetStack.pop());
+        final int offset = this.polygonOffsetStack.pop() * this.polygonOffsetStack.intStride;
+        ThinGL.glStateManager().setPolygonOffset(Float.intBitsToFloat(this.polygonOffsetStack.ints[offset]), Float.intBitsToFloat(this.polygonOffsetStack.ints[offset + 1]));
     }
 
     public void pushPixelStore() {
-        this.pixelStoresStack.push(new Int2IntOpenHashMap(6));
+        this.pixelStoresStack.longs[this.pixelStoresStack.push()] = 0L;
     }
 
     public void pixelStore(final int parameter, final int value) {
         final int currentValue = ThinGL.glStateManager().getPixelStore(parameter);
         if (currentValue != value) {
-            this.pixelStoresStack.peek().put(parameter, currentValue);
+            final int slot = this.getPixelStoreSlot(parameter);
+            final int depth = this.pixelStoresStack.peek();
+            final long bit = 1L << slot;
+            if ((this.pixelStoresStack.longs[depth] & bit) == 0) { // Only the value before the first change has to be restored
+                this.pixelStoresStack.longs[depth] |= bit;
+                this.pixelStoresStack.ints[depth * this.pixelStoresStack.intStride + slot] = currentValue;
+            }
             ThinGL.glStateManager().setPixelStore(parameter, value);
         }
     }
 
     public void popPixelStore() {
-        final Int2IntMap pixelStores = this.pixelStoresStack.pop();
-        for (Int2IntMap.Entry entry : pixelStores.int2IntEntrySet()) {
-            ThinGL.glStateManager().setPixelStore(entry.getIntKey(), entry.getIntValue());
+        final int depth = this.pixelStoresStack.pop();
+        final int offset = depth * this.pixelStoresStack.intStride;
+        long changed = this.pixelStoresStack.longs[depth];
+        while (changed != 0) {
+            final int slot = Long.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+            ThinGL.glStateManager().setPixelStore(this.slotPixelStores[slot], this.pixelStoresStack.ints[offset + slot]);
         }
     }
 
     public void pushFramebuffer() {
-        this.framebufferStack.push(ThinGL.glStateManager().getDrawFramebuffer());
+        this.framebufferStack.objects[this.framebufferStack.push()] = ThinGL.glStateManager().getDrawFramebuffer();
     }
 
     public void popFramebuffer() {
-        final Framebuffer framebuffer = this.framebufferStack.pop();
+        final int depth = this.framebufferStack.pop();
+        final Framebuffer framebuffer = (Framebuffer) this.framebufferStack.objects[depth];
+        this.framebufferStack.objects[depth] = null;
         if (framebuffer.isAllocated()) {
             framebuffer.bind();
         } else {
@@ -274,19 +295,107 @@ public class GLStateStack {
     }
 
     public void pushProgram() {
-        this.programStack.push(ThinGL.glStateManager().getProgram());
+        this.programStack.ints[this.programStack.push()] = ThinGL.glStateManager().getProgram();
     }
 
     public void popProgram() {
-        ThinGL.glStateManager().setProgram(this.programStack.popInt());
+        ThinGL.glStateManager().setProgram(this.programStack.ints[this.programStack.pop()]);
     }
 
     public void pushVertexArray() {
-        this.vertexArrayStack.push(ThinGL.glStateManager().getVertexArray());
+        this.vertexArrayStack.ints[this.vertexArrayStack.push()] = ThinGL.glStateManager().getVertexArray();
     }
 
     public void popVertexArray() {
-        ThinGL.glStateManager().setVertexArray(this.vertexArrayStack.popInt());
+        ThinGL.glStateManager().setVertexArray(this.vertexArrayStack.ints[this.vertexArrayStack.pop()]);
+    }
+
+    private int getCapabilitySlot(final int capability) {
+        int slot = this.capabilitySlots.get(capability);
+        if (slot == -1) {
+            slot = this.capabilitySlots.size();
+            if (slot >= MAX_CAPABILITIES) {
+                throw new IllegalStateException("Too many different capabilities (max " + MAX_CAPABILITIES + ")");
+            }
+            this.capabilitySlots.put(capability, slot);
+            this.slotCapabilities[slot] = capability;
+        }
+        return slot;
+    }
+
+    private int getPixelStoreSlot(final int parameter) {
+        int slot = this.pixelStoreSlots.get(parameter);
+        if (slot == -1) {
+            slot = this.pixelStoreSlots.size();
+            if (slot >= MAX_PIXEL_STORES) {
+                throw new IllegalStateException("Too many different pixel store parameters (max " + MAX_PIXEL_STORES + ")");
+            }
+            this.pixelStoreSlots.put(parameter, slot);
+            this.slotPixelStores[slot] = parameter;
+        }
+        return slot;
+    }
+
+    private static Int2IntMap createSlotMap() {
+        final Int2IntMap slotMap = new Int2IntOpenHashMap();
+        slotMap.defaultReturnValue(-1);
+        return slotMap;
+    }
+
+    /**
+     * Preallocated depth indexed storage for one kind of state.<br>
+     * Each stack level occupies a fixed number of longs, ints and/or objects, so pushing and popping never allocates (Except when the slab has to grow).
+     */
+    private final class Slab {
+
+        private final String name;
+        private final int longStride;
+        private final int intStride;
+        private final Runnable popAction;
+        private long[] longs;
+        private int[] ints;
+        private Object[] objects;
+        private int depth;
+
+        private Slab(final String name, final int longStride, final int intStride, final boolean objects, final Runnable popAction) {
+            this.name = name;
+            this.longStride = longStride;
+            this.intStride = intStride;
+            this.popAction = popAction;
+            this.longs = new long[longStride * INITIAL_DEPTH];
+            this.ints = new int[intStride * INITIAL_DEPTH];
+            this.objects = objects ? new Object[INITIAL_DEPTH] : null;
+        }
+
+        private int push() {
+            if (this.depth * this.longStride == this.longs.length && this.longStride != 0) {
+                this.longs = Arrays.copyOf(this.longs, this.longs.length * 2);
+            }
+            if (this.depth * this.intStride == this.ints.length && this.intStride != 0) {
+                this.ints = Arrays.copyOf(this.ints, this.ints.length * 2);
+            }
+            if (this.objects != null && this.depth == this.objects.length) {
+                this.objects = Arrays.copyOf(this.objects, this.objects.length * 2);
+            }
+            GLStateStack.this.totalDepth++;
+            return this.depth++;
+        }
+
+        private int peek() {
+            if (this.depth == 0) {
+                throw new IllegalStateException("GLStateStack " + this.name + " stack is empty");
+            }
+            return this.depth - 1;
+        }
+
+        private int pop() {
+            final int depth = this.peek();
+            this.depth = depth;
+            GLStateStack.this.totalDepth--;
+            return depth;
+        }
+
     }
+    // FlorianMichael - packed state stack
 
 }
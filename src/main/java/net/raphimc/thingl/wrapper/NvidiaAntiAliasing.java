@@ -36,8 +36,8 @@ public class NvidiaAntiAliasing {
         ThinGL.glStateStack().disable(GL11C.GL_STENCIL_TEST);
         ThinGL.glStateStack().enable(NVFramebufferMixedSamples.GL_RASTER_MULTISAMPLE_EXT);
         ThinGL.glStateStack().enable(NVFramebufferMixedSamples.GL_COVERAGE_MODULATION_TABLE_NV);
-        NVFramebufferMixedSamples.glCoverageModulationNV(GL11C.GL_ALPHA);
-        NVFramebufferMixedSamples.glRasterSamplesEXT(Math.clamp(samples, 2, ThinGL.capabilities().getNVFramebufferMixedSamplesMaxRasterSamples()), true);
+        de.florianmichael.thingl.GlCommands.get().glCoverageModulationNV(GL11C.GL_ALPHA);
+        de.florianmichael.thingl.GlCommands.get().glRasterSamplesEXT(Math.clamp(samples, 2, ThinGL.capabilities().getNVFramebufferMixedSamplesMaxRasterSamples()), true);
     }
 
     public static void end() {
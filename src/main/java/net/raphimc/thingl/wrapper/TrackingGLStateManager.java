@@ -23,70 +23,154 @@ import it.unimi.dsi.fastutil.ints.Int2IntMap;
 import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import net.raphimc.thingl.resource.framebuffer.Framebuffer;
 
+import java.util.Arrays;
+
 public class TrackingGLStateManager extends GLStateManager {
 
-    private final Int2BooleanMap capabilities = new Int2BooleanOpenHashMap();
-    private BlendFunc blendFunc;
-    private Integer depthFunc;
-    private Integer blendEquation;
-    private ColorMask colorMask;
-    private Boolean depthMask;
-    private StencilMask stencilMask;
-    private Scissor scissor;
-    private Viewport viewport;
-    private Integer cullFace;
-    private Integer frontFace;
-    private Integer logicOp;
-    private PolygonOffset polygonOffset;
+    // FlorianMichael - primitive state tracking
+    /**
+     * All capability enums defined by OpenGL are below this value, so they can be tracked in a directly indexed bitset.
+     */
+    private static final int CAPABILITY_BITSET_SIZE = 0x10000;
+    private static final StateCategory[] STATE_CATEGORIES = StateCategory.values();
+
+    private final long[] knownCapabilities = new long[CAPABILITY_BITSET_SIZE >>> 6];
+    private final long[] enabledCapabilities = new long[CAPABILITY_BITSET_SIZE >>> 6];
+    private final Int2BooleanMap otherCapabilities = new Int2BooleanOpenHashMap();
+    private long knownStates;
+    private int blendSrcRGB;
+    private int blendDstRGB;
+    private int blendSrcAlpha;
+    private int blendDstAlpha;
+    private int depthFunc;
+    private int blendEquation;
+    private boolean colorMaskRed;
+    private boolean colorMaskGreen;
+    private boolean colorMaskBlue;
+    private boolean colorMaskAlpha;
+    private boolean depthMask;
+    private int stencilMaskFront;
+    private int stencilMaskBack;
+    private int scissorX;
+    private int scissorY;
+    private int scissorWidth;
+    private int scissorHeight;
+    private int viewportX;
+    private int viewportY;
+    private int viewportWidth;
+    private int viewportHeight;
+    private int cullFace;
+    private int frontFace;
+    private int logicOp;
+    private float polygonOffsetFactor;
+    private float polygonOffsetUnits;
     private final Int2IntMap pixelStores = new Int2IntOpenHashMap();
-    private Integer program;
-    private Integer vertexArray;
+    private int program;
+    private int vertexArray;
     private Framebuffer drawFramebuffer;
 
+    private BlendFunc blendFuncRecord;
+    private ColorMask colorMaskRecord;
+    private StencilMask stencilMaskRecord;
+    private Scissor scissorRecord;
+    private Viewport viewportRecord;
+    private PolygonOffset polygonOffsetRecord;
+
+    private final int[] redundantChanges = new int[STATE_CATEGORIES.length];
+    private final int[] effectiveChanges = new int[STATE_CATEGORIES.length];
+    private final int[] lastFrameRedundantChanges = new int[STATE_CATEGORIES.length];
+    private final int[] lastFrameEffectiveChanges = new int[STATE_CATEGORIES.length];
+
     @Override
     public boolean getCapability(final int capability) {
-        if (!this.capabilities.containsKey(capability)) {
-            this.capabilities.put(capability, super.getCapability(capability));
+        if (capability >= 0 && capability < CAPABILITY_BITSET_SIZE) {
+            final int word = capability >>> 6;
+            final long bit = 1L << capability;
+            if ((this.knownCapabilities[word] & bit) == 0) {
+                this.knownCapabilities[word] |= bit;
+                if (super.getCapability(capability)) {
+                    this.enabledCapabilities[word] |= bit;
+                } else {
+                    this.enabledCapabilities[word] &= ~bit;
+                }
+            }
+            return (this.enabledCapabilities[word] & bit) != 0;
+        } else {
+            if (!this.otherCapabilities.containsKey(capability)) {
+                this.otherCapabilities.put(capability, super.getCapability(capability));
+            }
+            return this.otherCapabilities.get(capability);
         }
-        return this.capabilities.get(capability);
     }
 
     @Override
     public void setCapability(final int capability, final boolean state) {
         if (this.getCapability(capability) != state) {
-            this.capabilities.put(capability, state);
+            if (capability >= 0 && capability < CAPABILITY_BITSET_SIZE) {
+                if (state) {
+                    this.enabledCapabilities[capability >>> 6] |= 1L << capability;
+                } else {
+                    this.enabledCapabilities[capability >>> 6] &= ~(1L << capability);
+                }
+            } else {
+                this.otherCapabilities.put(capability, state);
+            }
+            this.effectiveChanges[StateCategory.CAPABILITY.ordinal()]++;
             super.setCapability(capability, state);
+        } else {
+            this.redundantChanges[StateCategory.CAPABILITY.ordinal()]++;
         }
     }
 
     public void clearCapabilitiesCache() {
-        this.capabilities.clear();
+        Arrays.fill(this.knownCapabilities, 0L);
+        this.otherCapabilities.clear();
     }
 
     @Override
     public BlendFunc getBlendFunc() {
-        if (this.blendFunc == null) {
-            this.blendFunc = super.getBlendFunc();
+        this.loadBlendFunc();
+        if (this.blendFuncRecord == null) {
+            this.blendFuncRecord = new BlendFunc(this.blendSrcRGB, this.blendDstRGB, this.blendSrcAlpha, this.blendDstAlpha);
         }
-        return this.blendFunc;
+        return this.blendFuncRecord;
     }
 
     @Override
     public void setBlendFunc(final int srcRGB, final int dstRGB, final int srcAlpha, final int dstAlpha) {
-        final BlendFunc currentBlendFunc = this.getBlendFunc();
-        if (currentBlendFunc.srcRGB() != srcRGB || currentBlendFunc.dstRGB() != dstRGB || currentBlendFunc.srcAlpha() != srcAlpha || currentBlendFunc.dstAlpha() != dstAlpha) {
-            this.blendFunc = new BlendFunc(srcRGB, dstRGB, srcAlpha, dstAlpha);
+        this.loadBlendFunc();
+        if (this.blendSrcRGB != srcRGB || this.blendDstRGB != dstRGB || this.blendSrcAlpha != srcAlpha || this.blendDstAlpha != dstAlpha) {
+            this.blendSrcRGB = srcRGB;
+            this.blendDstRGB = dstRGB;
+            this.blendSrcAlpha = srcAlpha;
+            this.blendDstAlpha = dstAlpha;
+            this.blendFuncRecord = null;
+            this.effectiveChanges[StateCategory.BLEND_FUNC.ordinal()]++;
             super.setBlendFunc(srcRGB, dstRGB, srcAlpha, dstAlpha);
+        } else {
+            this.redundantChanges[StateCategory.BLEND_FUNC.ordinal()]++;
         }
     }
 
     public void clearBlendFuncCache() {
-        this.blendFunc = null;
+        this.clearKnown(StateCategory.BLEND_FUNC);
+        this.blendFuncRecord = null;
+    }
+
+    private void loadBlendFunc() {
+        if (this.markKnown(StateCategory.BLEND_FUNC)) {
+            final BlendFunc blendFunc = super.getBlendFunc();
+            this.blendSrcRGB = blendFunc.srcRGB();
+            this.blendDstRGB = blendFunc.dstRGB();
+            this.blendSrcAlpha = blendFunc.srcAlpha();
+            this.blendDstAlpha = blendFunc.dstAlpha();
+            this.blendFuncRecord = blendFunc;
+        }
     }
 
     @Override
     public int getDepthFunc() {
-        if (this.depthFunc == null) {
+        if (this.markKnown(StateCategory.DEPTH_FUNC)) {
             this.depthFunc = super.getDepthFunc();
         }
         return this.depthFunc;
@@ -96,17 +180,20 @@ public class TrackingGLStateManager extends GLStateManager {
     public void setDepthFunc(final int depthFunc) {
         if (this.getDepthFunc() != depthFunc) {
             this.depthFunc = depthFunc;
+            this.effectiveChanges[StateCategory.DEPTH_FUNC.ordinal()]++;
             super.setDepthFunc(depthFunc);
+        } else {
+            this.redundantChanges[StateCategory.DEPTH_FUNC.ordinal()]++;
         }
     }
 
     public void clearDepthFuncCache() {
-        this.depthFunc = null;
+        this.clearKnown(StateCategory.DEPTH_FUNC);
     }
 
     @Override
     public int getBlendEquation() {
-        if (this.blendEquation == null) {
+        if (this.markKnown(StateCategory.BLEND_EQUATION)) {
             this.blendEquation = super.getBlendEquation();
         }
         return this.blendEquation;
@@ -116,38 +203,61 @@ public class TrackingGLStateManager extends GLStateManager {
     public void setBlendEquation(final int mode) {
         if (this.getBlendEquation() != mode) {
             this.blendEquation = mode;
+            this.effectiveChanges[StateCategory.BLEND_EQUATION.ordinal()]++;
             super.setBlendEquation(mode);
+        } else {
+            this.redundantChanges[StateCategory.BLEND_EQUATION.ordinal()]++;
         }
     }
 
     public void clearBlendEquationCache() {
-        this.blendEquation = null;
+        this.clearKnown(StateCategory.BLEND_EQUATION);
     }
 
     @Override
     public ColorMask getColorMask() {
-        if (this.colorMask == null) {
-            this.colorMask = super.getColorMask();
+        this.loadColorMask();
+        if (this.colorMaskRecord == null) {
+            this.colorMaskRecord = new ColorMask(this.colorMaskRed, this.colorMaskGreen, this.colorMaskBlue, this.colorMaskAlpha);
         }
-        return this.colorMask;
+        return this.colorMaskRecord;
     }
 
     @Override
     public void setColorMask(final boolean red, final boolean green, final boolean blue, final boolean alpha) {
-        final ColorMask currentColorMask = this.getColorMask();
-        if (currentColorMask.red() != red || currentColorMask.green() != green || currentColorMask.blue() != blue || currentColorMask.alpha() != alpha) {
-            this.colorMask = new ColorMask(red, green, blue, alpha);
+        this.loadColorMask();
+        if (this.colorMaskRed != red || this.colorMaskGreen != green || this.colorMaskBlue != blue || this.colorMaskAlpha != alpha) {
+            this.colorMaskRed = red;
+            this.colorMaskGreen = green;
+            this.colorMaskBlue = blue;
+            this.colorMaskAlpha = alpha;
+            this.colorMaskRecord = null;
+            this.effectiveChanges[StateCategory.COLOR_MASK.ordinal()]++;
             super.setColorMask(red, green, blue, alpha);
+        } else {
+            this.redundantChanges[StateCategory.COLOR_MASK.ordinal()]++;
         }
     }
 
     public void clearColorMaskCache() {
-        this.colorMask = null;
+        this.clearKnown(StateCategory.COLOR_MASK);
+        this.colorMaskRecord = null;
+    }
+
+    private void loadColorMask() {
+        if (this.markKnown(StateCategory.COLOR_MASK)) {
+            final ColorMask colorMask = super.getColorMask();
+            this.colorMaskRed = colorMask.red();
+            this.colorMaskGreen = colorMask.green();
+            this.colorMaskBlue = colorMask.blue();
+            this.colorMaskAlpha = colorMask.alpha();
+            this.colorMaskRecord = colorMask;
+        }
     }
 
     @Override
     public boolean getDepthMask() {
-        if (this.depthMask == null) {
+        if (this.markKnown(StateCategory.DEPTH_MASK)) {
             this.depthMask = super.getDepthMask();
         }
         return this.depthMask;
@@ -157,80 +267,139 @@ public class TrackingGLStateManager extends GLStateManager {
     public void setDepthMask(final boolean state) {
         if (this.getDepthMask() != state) {
             this.depthMask = state;
+            this.effectiveChanges[StateCategory.DEPTH_MASK.ordinal()]++;
             super.setDepthMask(state);
+        } else {
+            this.redundantChanges[StateCategory.DEPTH_MASK.ordinal()]++;
         }
     }
 
     public void clearDepthMaskCache() {
-        this.depthMask = null;
+        this.clearKnown(StateCategory.DEPTH_MASK);
     }
 
     @Override
     public StencilMask getStencilMask() {
-        if (this.stencilMask == null) {
-            this.stencilMask = super.getStencilMask();
+        this.loadStencilMask();
+        if (this.stencilMaskRecord == null) {
+            this.stencilMaskRecord = new StencilMask(this.stencilMaskFront, this.stencilMaskBack);
         }
-        return this.stencilMask;
+        return this.stencilMaskRecord;
     }
 
     @Override
     public void setStencilMask(final int front, final int back) {
-        final StencilMask currentStencilMask = this.getStencilMask();
-        if (currentStencilMask.front() != front || currentStencilMask.back() != back) {
-            this.stencilMask = new StencilMask(front, back);
+        this.loadStencilMask();
+        if (this.stencilMaskFront != front || this.stencilMaskBack != back) {
+            this.stencilMaskFront = front;
+            this.stencilMaskBack = back;
+            this.stencilMaskRecord = null;
+            this.effectiveChanges[StateCategory.STENCIL_MASK.ordinal()]++;
             super.setStencilMask(front, back);
+        } else {
+            this.redundantChanges[StateCategory.STENCIL_MASK.ordinal()]++;
         }
     }
 
     public void clearStencilMaskCache() {
-        this.stencilMask = null;
+        this.clearKnown(StateCategory.STENCIL_MASK);
+        this.stencilMaskRecord = null;
+    }
+
+    private void loadStencilMask() {
+        if (this.markKnown(StateCategory.STENCIL_MASK)) {
+            final StencilMask stencilMask = super.getStencilMask();
+            this.stencilMaskFront = stencilMask.front();
+            this.stencilMaskBack = stencilMask.back();
+            this.stencilMaskRecord = stencilMask;
+        }
     }
 
     @Override
     public Scissor getScissor() {
-        if (this.scissor == null) {
-            this.scissor = super.getScissor();
+        this.loadScissor();
+        if (this.scissorRecord == null) {
+            this.scissorRecord = new Scissor(this.scissorX, this.scissorY, this.scissorWidth, this.scissorHeight);
         }
-        return this.scissor;
+        return this.scissorRecord;
     }
 
     @Override
     public void setScissor(final int x, final int y, final int width, final int height) {
-        final Scissor currentScissor = this.getScissor();
-        if (currentScissor.x() != x || currentScissor.y() != y || currentScissor.width() != width || currentScissor.height() != height) {
-            this.scissor = new Scissor(x, y, width, height);
+        this.loadScissor();
+        if (this.scissorX != x || this.scissorY != y || this.scissorWidth != width || this.scissorHeight != height) {
+            this.scissorX = x;
+            this.scissorY = y;
+            this.scissorWidth = width;
+            this.scissorHeight = height;
+            this.scissorRecord = null;
+            this.effectiveChanges[StateCategory.SCISSOR.ordinal()]++;
             super.setScissor(x, y, width, height);
+        } else {
+            this.redundantChanges[StateCategory.SCISSOR.ordinal()]++;
         }
     }
 
     public void clearScissorCache() {
-        this.scissor = null;
+        this.clearKnown(StateCategory.SCISSOR);
+        this.scissorRecord = null;
+    }
+
+    private void loadScissor() {
+        if (this.markKnown(StateCategory.SCISSOR)) {
+            final Scissor scissor = super.getScissor();
+            this.scissorX = scissor.x();
+            this.scissorY = scissor.y();
+            this.scissorWidth = scissor.width();
+            this.scissorHeight = scissor.height();
+            this.scissorRecord = scissor;
+        }
     }
 
     @Override
     public Viewport getViewport() {
-        if (this.viewport == null) {
-            this.viewport = super.getViewport();
+        this.loadViewport();
+        if (this.viewportRecord == null) {
+            this.viewportRecord = new Viewport(this.viewportX, this.viewportY, this.viewportWidth, this.viewportHeight);
         }
-        return this.viewport;
+        return this.viewportRecord;
     }
 
     @Override
     public void setViewport(final int x, final int y, final int width, final int height) {
-        final Viewport currentViewport = this.getViewport();
-        if (currentViewport.x() != x || currentViewport.y() != y || currentViewport.width() != width || currentViewport.height() != height) {
-            this.viewport = new Viewport(x, y, width, height);
+        this.loadViewport();
+        if (this.viewportX != x || this.viewportY != y || this.viewportWidth != width || this.viewportHeight != height) {
+            this.viewportX = x;
+            this.viewportY = y;
+            this.viewportWidth = width;
+            this.viewportHeight = height;
+            this.viewportRecord = null;
+            this.effectiveChanges[StateCategory.VIEWPORT.ordinal()]++;
             super.setViewport(x, y, width, height);
+        } else {
+            this.redundantChanges[StateCategory.VIEWPORT.ordinal()]++;
         }
     }
 
     public void clearViewportCache() {
-        this.viewport = null;
+        this.clearKnown(StateCategory.VIEWPORT);
+        this.viewportRecord = null;
+    }
+
+    private void loadViewport() {
+        if (this.markKnown(StateCategory.VIEWPORT)) {
+            final Viewport viewport = super.getViewport();
+            this.viewportX = viewport.x();
+            this.viewportY = viewport.y();
+            this.viewportWidth = viewport.width();
+            this.viewportHeight = viewport.height();
+            this.viewportRecord = viewport;
+        }
     }
 
     @Override
     public int getCullFace() {
-        if (this.cullFace == null) {
+        if (this.markKnown(StateCategory.CULL_FACE)) {
             this.cullFace = super.getCullFace();
         }
         return this.cullFace;
@@ -240,17 +409,20 @@ public class TrackingGLStateManager extends GLStateManager {
     public void setCullFace(final int mode) {
         if (this.getCullFace() != mode) {
             this.cullFace = mode;
+            this.effectiveChanges[StateCategory.CULL_FACE.ordinal()]++;
             super.setCullFace(mode);
+        } else {
+            this.redundantChanges[StateCategory.CULL_FACE.ordinal()]++;
         }
     }
 
     public void clearCullFaceCache() {
-        this.cullFace = null;
+        this.clearKnown(StateCategory.CULL_FACE);
     }
 
     @Override
     public int getFrontFace() {
-        if (this.frontFace == null) {
+        if (this.markKnown(StateCategory.FRONT_FACE)) {
             this.frontFace = super.getFrontFace();
         }
         return this.frontFace;
@@ -260,17 +432,20 @@ public class TrackingGLStateManager extends GLStateManager {
     public void setFrontFace(final int dir) {
         if (this.getFrontFace() != dir) {
             this.frontFace = dir;
+            this.effectiveChanges[StateCategory.FRONT_FACE.ordinal()]++;
             super.setFrontFace(dir);
+        } else {
+            this.redundantChanges[StateCategory.FRONT_FACE.ordinal()]++;
         }
     }
 
     public void clearFrontFaceCache() {
-        this.frontFace = null;
+        this.clearKnown(StateCategory.FRONT_FACE);
     }
 
     @Override
     public int getLogicOp() {
-        if (this.logicOp == null) {
+        if (this.markKnown(StateCategory.LOGIC_OP)) {
             this.logicOp = super.getLogicOp();
         }
         return this.logicOp;
@@ -280,33 +455,52 @@ public class TrackingGLStateManager extends GLStateManager {
     public void setLogicOp(final int op) {
         if (this.getLogicOp() != op) {
             this.logicOp = op;
+            this.effectiveChanges[StateCategory.LOGIC_OP.ordinal()]++;
             super.setLogicOp(op);
+        } else {
+            this.redundantChanges[StateCategory.LOGIC_OP.ordinal()]++;
         }
     }
 
     public void clearLogicOpCache() {
-        this.logicOp = null;
+        this.clearKnown(StateCategory.LOGIC_OP);
     }
 
     @Override
     public PolygonOffset getPolygonOffset() {
-        if (this.polygonOffset == null) {
-            this.polygonOffset = super.getPolygonOffset();
+        this.loadPolygonOffset();
+        if (this.polygonOffsetRecord == null) {
+            this.polygonOffsetRecord = new PolygonOffset(this.polygonOffsetFactor, this.polygonOffsetUnits);
         }
-        return this.polygonOffset;
+        return this.polygonOffsetRecord;
     }
 
     @Override
     public void setPolygonOffset(final float factor, final float units) {
-        final PolygonOffset currentPolygonOffset = this.getPolygonOffset();
-        if (currentPolygonOffset.factor() != factor || currentPolygonOffset.units() != units) {
-            this.polygonOffset = new PolygonOffset(factor, units);
+        this.loadPolygonOffset();
+        if (this.polygonOffsetFactor != factor || this.polygonOffsetUnits != units) {
+            this.polygonOffsetFactor = factor;
+            this.polygonOffsetUnits = units;
+            this.polygonOffsetRecord = null;
+            this.effectiveChanges[StateCategory.POLYGON_OFFSET.ordinal()]++;
             super.setPolygonOffset(factor, units);
+        } else {
+            this.redundantChanges[StateCategory.POLYGON_OFFSET.ordinal()]++;
         }
     }
 
     public void clearPolygonOffsetCache() {
-        this.polygonOffset = null;
+        this.clearKnown(StateCategory.POLYGON_OFFSET);
+        this.polygonOffsetRecord = null;
+    }
+
+    private void loadPolygonOffset() {
+        if (this.markKnown(StateCategory.POLYGON_OFFSET)) {
+            final PolygonOffset polygonOffset = super.getPolygonOffset();
+            this.polygonOffsetFactor = polygonOffset.factor();
+            this.polygonOffsetUnits = polygonOffset.units();
+            this.polygonOffsetRecord = polygonOffset;
+        }
     }
 
     @Override
@@ -321,7 +515,10 @@ public class TrackingGLStateManager extends GLStateManager {
     public void setPixelStore(final int parameter, final int value) {
         if (this.getPixelStore(parameter) != value) {
             this.pixelStores.put(parameter, value);
+            this.effectiveChanges[StateCategory.PIXEL_STORE.ordinal()]++;
             super.setPixelStore(parameter, value);
+        } else {
+            this.redundantChanges[StateCategory.PIXEL_STORE.ordinal()]++;
         }
     }
 
@@ -331,7 +528,7 @@ public class TrackingGLStateManager extends GLStateManager {
 
     @Override
     public int getProgram() {
-        if (this.program == null) {
+        if (this.markKnown(StateCategory.PROGRAM)) {
             this.program = super.getProgram();
         }
         return this.program;
@@ -341,17 +538,20 @@ public class TrackingGLStateManager extends GLStateManager {
     public void setProgram(final int program) {
         if (this.getProgram() != program) {
             this.program = program;
+            this.effectiveChanges[StateCategory.PROGRAM.ordinal()]++;
             super.setProgram(program);
+        } else {
+            this.redundantChanges[StateCategory.PROGRAM.ordinal()]++;
         }
     }
 
     public void clearProgramCache() {
-        this.program = null;
+        this.clearKnown(StateCategory.PROGRAM);
     }
 
     @Override
     public int getVertexArray() {
-        if (this.vertexArray == null) {
+        if (this.markKnown(StateCategory.VERTEX_ARRAY)) {
             this.vertexArray = super.getVertexArray();
         }
         return this.vertexArray;
@@ -361,12 +561,15 @@ public class TrackingGLStateManager extends GLStateManager {
     public void setVertexArray(final int vertexArray) {
         if (this.getVertexArray() != vertexArray) {
             this.vertexArray = vertexArray;
+            this.effectiveChanges[StateCategory.VERTEX_ARRAY.ordinal()]++;
             super.setVertexArray(vertexArray);
+        } else {
+            this.redundantChanges[StateCategory.VERTEX_ARRAY.ordinal()]++;
         }
     }
 
     public void clearVertexArrayCache() {
-        this.vertexArray = null;
+        this.clearKnown(StateCategory.VERTEX_ARRAY);
     }
 
     @Override
@@ -381,7 +584,10 @@ public class TrackingGLStateManager extends GLStateManager {
     public void setDrawFramebuffer(final Framebuffer framebuffer) {
         if (this.getDrawFramebuffer() != framebuffer) {
             this.drawFramebuffer = framebuffer;
+            this.effectiveChanges[StateCategory.DRAW_FRAMEBUFFER.ordinal()]++;
             super.setDrawFramebuffer(framebuffer);
+        } else {
+            this.redundantChanges[StateCategory.DRAW_FRAMEBUFFER.ordinal()]++;
         }
     }
 
@@ -389,4 +595,83 @@ public class TrackingGLStateManager extends GLStateManager {
         this.drawFramebuffer = null;
     }
 
+    /**
+     * Moves the state change counters of the current frame into the last frame counters and resets them.<br>
+     * Called by ThinGL when a frame is finished.
+     */
+    public void onFrameFinished() {
+        System.arraycopy(this.redundantChanges, 0, this.lastFrameRedundantChanges, 0, this.redundantChanges.length);
+        System.arraycopy(this.effectiveChanges, 0, this.lastFrameEffectiveChanges, 0, this.effectiveChanges.length);
+        Arrays.fill(this.redundantChanges, 0);
+        Arrays.fill(this.effectiveChanges, 0);
+    }
+
+    /**
+     * @param category The state category
+     * @return The number of state changes in the last frame which were skipped because the state was already set
+     */
+    public int getRedundantChanges(final StateCategory category) {
+        return this.lastFrameRedundantChanges[category.ordinal()];
+    }
+
+    /**
+     * @param category The state category
+     * @return The number of state changes in the last frame which were sent to the driver
+     */
+    public int getEffectiveChanges(final StateCategory category) {
+        return this.lastFrameEffectiveChanges[category.ordinal()];
+    }
+
+    public int getRedundantChanges() {
+        int total = 0;
+        for (int count : this.lastFrameRedundantChanges) {
+            total += count;
+        }
+        return total;
+    }
+
+    public int getEffectiveChanges() {
+        int total = 0;
+        for (int count : this.lastFrameEffectiveChanges) {
+            total += count;
+        }
+        return total;
+    }
+
+    private boolean markKnown(final StateCategory category) {
+        final long bit = 1L << category.ordinal();
+        if ((this.knownStates & bit) == 0) {
+            this.knownStates |= bit;
+            return true;
+        }
+        return false;
+    }
+
+    private void clearKnown(final StateCategory category) {
+        this.knownStates &= ~(1L << category.ordinal());
+    }
+
+    public enum StateCategory {
+
+        CAPABILITY,
+        BLEND_FUNC,
+        DEPTH_FUNC,
+        BLEND_EQUATION,
+        COLOR_MASK,
+        DEPTH_MASK,
+        STENCIL_MASK,
+        SCISSOR,
+        VIEWPORT,
+        CULL_FACE,
+        FRONT_FACE,
+        LOGIC_OP,
+        POLYGON_OFFSET,
+        PIXEL_STORE,
+        PROGRAM,
+        VERTEX_ARRAY,
+        DRAW_FRAMEBUFFER,
+
+    }
+    // FlorianMichael - primitive state tracking
+
 }
@@ -0,0 +1,9 @@
+#pragma once
+#define LUMINOSITY_WEIGHTS vec3(0.2126, 0.7152, 0.0722)
+
+vec4 colorize(vec4 textureColor, vec4 color) {
+    vec3 grayScale = vec3(dot(textureColor.rgb, LUMINOSITY_WEIGHTS));
+    float colorAverage = (color.r + color.g + color.b) / 3;
+    vec3 colorPow = vec3(1 + colorAverage) - color.rgb;
+    return vec4(pow(grayScale, colorPow), textureColor.a * color.a);
+}
@@ -1,14 +1,18 @@
 #version 430 core
 #extension GL_ARB_shader_draw_parameters: require
 
-uniform mat4 u_ProjectionMatrix;
-uniform mat4 u_ViewMatrix;
-uniform mat4 u_ModelMatrix;
+#include "/include/matrices.glsl"
 
 layout (std430) restrict readonly buffer ssbo_DrawData {
     vec3 positionOffsets[];
 };
 
+// FlorianMichael - add frustum culling
+layout (std430) restrict readonly buffer ssbo_DrawSlots {
+    uint drawSlots[];
+};
+// FlorianMichael - add frustum culling
+
 layout (location = 0) in vec3 a_Position;
 layout (location = 1) in vec4 a_Color;
 layout (location = 2) in float a_LineWidth;
@@ -19,7 +23,7 @@ void main() {
     if (positionOffsets.length() == 0) {
         gl_Position = u_ProjectionMatrix * u_ViewMatrix * u_ModelMatrix * vec4(a_Position, 1);
     } else {
-        gl_Position = u_ProjectionMatrix * u_ViewMatrix * u_ModelMatrix * vec4(a_Position + positionOffsets[gl_DrawIDARB], 1);
+        gl_Position = u_ProjectionMatrix * u_ViewMatrix * u_ModelMatrix * vec4(a_Position + positionOffsets[drawSlots[gl_DrawIDARB]], 1); // FlorianMichael - add frustum culling
     }
 
     v_Color = a_Color;
@@ -1,4 +1,5 @@
 #version 410 core
+#pragma variant samples 4 2 8 16
 
 uniform sampler2DMS u_Input;
 
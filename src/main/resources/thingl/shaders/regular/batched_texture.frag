@@ -0,0 +1,32 @@
+#version 400 core
+#ifdef BINDLESS
+#extension GL_ARB_bindless_texture : require
+#endif
+#pragma variant COLORIZED
+#include "/include/colorize.glsl"
+
+uniform vec4 u_ColorModifier;
+#ifndef BINDLESS
+uniform sampler2D u_Textures[SAMPLER_COUNT];
+#endif
+
+in vec4 v_Color;
+in vec2 v_TexCoord;
+flat in uvec2 v_Texture;
+out vec4 o_Color;
+
+void main() {
+#ifdef BINDLESS
+    vec4 textureColor = texture(sampler2D(v_Texture), v_TexCoord);
+#else
+    vec4 textureColor = texture(u_Textures[v_Texture.x], v_TexCoord);
+#endif
+#ifdef COLORIZED
+    o_Color = colorize(textureColor, v_Color) * u_ColorModifier;
+#else
+    o_Color = textureColor * v_Color * u_ColorModifier;
+#endif
+    if (o_Color.a == 0) {
+        discard;
+    }
+}
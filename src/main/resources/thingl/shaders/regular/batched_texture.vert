@@ -0,0 +1,19 @@
+#version 400 core
+
+#include "/include/matrices.glsl"
+
+layout (location = 0) in vec3 a_Position;
+layout (location = 1) in vec4 a_Color;
+layout (location = 2) in vec2 a_TexCoord;
+layout (location = 3) in uvec2 a_Texture;
+out vec4 v_Color;
+out vec2 v_TexCoord;
+flat out uvec2 v_Texture;
+
+void main() {
+    gl_Position = u_ProjectionMatrix * u_ViewMatrix * u_ModelMatrix * vec4(a_Position, 1);
+
+    v_Color = a_Color;
+    v_TexCoord = a_TexCoord;
+    v_Texture = a_Texture;
+}
@@ -7,9 +7,7 @@ struct GlyphData {
     uint textureAndTextIndex;
 };
 
-uniform mat4 u_ProjectionMatrix;
-uniform mat4 u_ViewMatrix;
-uniform mat4 u_ModelMatrix;
+#include "/include/matrices.glsl"
 
 layout (std430) restrict readonly buffer ssbo_TextData {
     TextData textDatas[];
@@ -1,8 +1,6 @@
 #version 330 core
 
-uniform mat4 u_ProjectionMatrix;
-uniform mat4 u_ViewMatrix;
-uniform mat4 u_ModelMatrix;
+#include "/include/matrices.glsl"
 
 layout (location = 0) in vec3 a_Position;
 layout (location = 1) in vec4 a_Color;
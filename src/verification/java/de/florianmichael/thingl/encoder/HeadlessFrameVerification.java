@@ -0,0 +1,115 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.florianmichael.thingl.encoder;
+
+import de.florianmichael.thingl.GlCommands;
+import net.lenni0451.commons.color.Color;
+import net.raphimc.thingl.ThinGL;
+import net.raphimc.thingl.implementation.window.HeadlessWindowInterface;
+import org.joml.Matrix4f;
+import org.lwjgl.opengl.GL20C;
+import org.lwjgl.opengl.GL30C;
+
+/**
+ * Renders frames without a GL context through the headless {@link RecordingCommandEncoder} and checks the recorded command log.<br>
+ * Run it with {@code ./gradlew verifyHeadlessFrame}.
+ */
+public class HeadlessFrameVerification {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    public static void main(final String[] args) {
+        final RecordingCommandEncoder recorder = GlCommands.getRecorder();
+        if (recorder == null || !recorder.isHeadless()) {
+            throw new IllegalStateException("Headless command recording is not enabled (run with -D" + GlCommands.RECORDING_PROPERTY + "=headless)");
+        }
+
+        final HeadlessWindowInterface windowInterface = new HeadlessWindowInterface(WIDTH, HEIGHT);
+        final ThinGL thinGL = new ThinGL(windowInterface);
+        try {
+            int[] initialBindings = recordFrame(thinGL, recorder);
+            check(recorder.getDrawCallCount() == 1, "Expected 1 draw call in the first frame, got " + recorder.getDrawCallCount());
+            check(recorder.getDrawnElementCount() > 0, "The first frame didn't draw any vertices");
+            check(recorder.getCallCount(RecordingCommandEncoder.Command.COMPILE_SHADER) > 0, "The first frame didn't compile the color program");
+            check(recorder.getCallCount(RecordingCommandEncoder.Command.LINK_PROGRAM) > 0, "The first frame didn't link the color program");
+            checkDrawState(recorder, initialBindings);
+            final long firstFrameUniformCount = recorder.getCallCount(RecordingCommandEncoder.Command.PROGRAM_UNIFORM) + recorder.getCallCount(RecordingCommandEncoder.Command.PROGRAM_UNIFORM_MATRIX);
+
+            initialBindings = recordFrame(thinGL, recorder);
+            check(recorder.getDrawCallCount() == 1, "Expected 1 draw call in the second frame, got " + recorder.getDrawCallCount());
+            check(recorder.getCallCount(RecordingCommandEncoder.Command.COMPILE_SHADER) == 0, "The second frame compiled shaders again");
+            check(recorder.getCallCount(RecordingCommandEncoder.Command.LINK_PROGRAM) == 0, "The second frame linked programs again");
+            checkDrawState(recorder, initialBindings);
+            final long secondFrameUniformCount = recorder.getCallCount(RecordingCommandEncoder.Command.PROGRAM_UNIFORM) + recorder.getCallCount(RecordingCommandEncoder.Command.PROGRAM_UNIFORM_MATRIX);
+            check(secondFrameUniformCount <= firstFrameUniformCount, "The second frame uploaded more uniforms (" + secondFrameUniformCount + ") than the first frame (" + firstFrameUniformCount + ")");
+
+            System.out.println("Verified headless frames (" + recorder.getLogSize() + " commands in the last frame)");
+        } catch (Throwable e) {
+            System.err.println(recorder.dumpLog());
+            throw e;
+        } finally {
+            thinGL.free();
+            windowInterface.free();
+        }
+    }
+
+    /**
+     * @return The program and vertex array bound before the frame was recorded
+     */
+    private static int[] recordFrame(final ThinGL thinGL, final RecordingCommandEncoder recorder) {
+        final int[] initialBindings = {recorder.glGetInteger(GL20C.GL_CURRENT_PROGRAM), recorder.glGetInteger(GL30C.GL_VERTEX_ARRAY_BINDING)};
+        recorder.resetCounters();
+        recorder.clearLog();
+        thinGL.onFrameBegin();
+        thinGL.onFrameStart();
+        ThinGL.renderer2D().filledRectangle(new Matrix4f(), 10, 10, 110, 60, Color.fromRGBA(255, 0, 0, 255));
+        thinGL.onFrameFinished();
+        thinGL.onFrameEnd();
+        return initialBindings;
+    }
+
+    /**
+     * Checks that a program and a vertex array are bound when the draw command is recorded.
+     */
+    private static void checkDrawState(final RecordingCommandEncoder recorder, final int[] initialBindings) {
+        long program = initialBindings[0];
+        long vertexArray = initialBindings[1];
+        for (int i = 0; i < recorder.getLogSize(); i++) {
+            switch (recorder.getLogCommand(i)) {
+                case USE_PROGRAM -> program = recorder.getLogArgument(i, 0);
+                case BIND_VERTEX_ARRAY -> vertexArray = recorder.getLogArgument(i, 0);
+                case DRAW_ARRAYS, DRAW_ELEMENTS -> {
+                    check(program != 0, "Draw command " + i + " was recorded without a bound program");
+                    check(vertexArray != 0, "Draw command " + i + " was recorded without a bound vertex array");
+                    return;
+                }
+                default -> {
+                }
+            }
+        }
+        throw new IllegalStateException("No draw command was recorded");
+    }
+
+    private static void check(final boolean condition, final String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.drawbuilder.drawbatchdataholder;
+
+import net.raphimc.thingl.drawbuilder.builder.BufferBuilder;
+
+/**
+ * Checks which combinations of vertex and instance data {@link DrawBatchDataHolder#append(DrawBatchDataHolder)} accepts.<br>
+ * Instance data can only be appended if at most one side contains vertex data. Run it with {@code ./gradlew verifyDrawBatchDataHolder}.
+ */
+public class DrawBatchDataHolderVerification {
+
+    public static void main(final String[] args) {
+        verify("vertices + vertices", false, true, false, true, true);
+        verify("instances + instances", true, true, true, true, false);
+        verify("instances + vertices", true, true, false, true, false);
+        verify("vertices + instances", false, true, true, true, false);
+        verify("instances + instances without vertices", true, true, true, false, true);
+        verify("instances without vertices + vertices", true, false, false, true, true);
+
+        System.out.println("Verified draw batch data appending");
+    }
+
+    private static void verify(final String name, final boolean instanced, final boolean withVertices, final boolean otherInstanced, final boolean otherWithVertices, final boolean expectAppendable) {
+        final DrawBatchDataHolder holder = create(instanced, withVertices);
+        final DrawBatchDataHolder other = create(otherInstanced, otherWithVertices);
+        try {
+            holder.append(other);
+            if (!expectAppendable) {
+                throw new IllegalStateException(name + " was appended, but should have been rejected");
+            }
+        } catch (UnsupportedOperationException e) {
+            if (expectAppendable) {
+                throw new IllegalStateException(name + " was rejected, but should have been appended", e);
+            }
+        } finally {
+            holder.free();
+            other.free();
+        }
+    }
+
+    private static DrawBatchDataHolder create(final boolean instanced, final boolean withVertices) {
+        final DrawBatchDataHolder holder = new DrawBatchDataHolder(BufferBuilder::new, BufferBuilder::free);
+        if (withVertices) {
+            holder.getVertexDataHolder().putByte((byte) 0).endVertex();
+        }
+        if (instanced) {
+            holder.getInstanceVertexDataHolder().putByte((byte) 0).endVertex();
+        }
+        return holder;
+    }
+
+}
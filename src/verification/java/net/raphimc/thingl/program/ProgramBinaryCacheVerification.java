@@ -0,0 +1,125 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.program;
+
+import de.florianmichael.thingl.GlCommands;
+import de.florianmichael.thingl.encoder.RecordingCommandEncoder;
+import net.raphimc.thingl.ThinGL;
+import net.raphimc.thingl.implementation.window.HeadlessWindowInterface;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the color program through the headless {@link RecordingCommandEncoder} and checks which GL commands the {@link ProgramBinaryCache} issues on a miss, a hit and a rejected binary.<br>
+ * Run it with {@code ./gradlew verifyProgramBinaryCache}.
+ */
+public class ProgramBinaryCacheVerification {
+
+    private static final int BINARY_FORMAT_OFFSET = Integer.BYTES * 2 + 32; // Magic, file version, key
+
+    public static void main(final String[] args) throws IOException {
+        final RecordingCommandEncoder recorder = GlCommands.getRecorder();
+        if (recorder == null || !recorder.isHeadless()) {
+            throw new IllegalStateException("Headless command recording is not enabled (run with -D" + GlCommands.RECORDING_PROPERTY + "=headless)");
+        }
+
+        final Path directory = Files.createTempDirectory("thingl-program-binaries");
+        try {
+            Result result = createColorProgram(recorder, directory);
+            check(result.missCount == 1 && result.hitCount == 0, "Expected a cache miss for the first program, got " + result);
+            check(result.compileCount == 2 && result.linkCount == 1, "Expected both shaders to be compiled and linked on a miss, got " + result);
+            check(recorder.getCallCount(RecordingCommandEncoder.Command.GET_PROGRAM_BINARY) == 1, "The program binary wasn't retrieved after linking");
+            final List<Path> files = listBinaries(directory);
+            check(files.size() == 1, "Expected 1 cached program binary, got " + files.size());
+
+            result = createColorProgram(recorder, directory);
+            check(result.hitCount == 1 && result.missCount == 0, "Expected a cache hit for the second program, got " + result);
+            check(result.createShaderCount == 0 && result.compileCount == 0 && result.linkCount == 0, "Shaders were created, compiled or linked on a cache hit: " + result);
+            check(result.loadCount == 1, "Expected the binary to be loaded once, got " + result);
+
+            final byte[] data = Files.readAllBytes(files.get(0));
+            final ByteBuffer header = ByteBuffer.wrap(data);
+            header.putInt(BINARY_FORMAT_OFFSET, ~header.getInt(BINARY_FORMAT_OFFSET));
+            Files.write(files.get(0), data);
+            result = createColorProgram(recorder, directory);
+            check(result.missCount == 1 && result.loadCount == 1, "Expected a rejected binary to be loaded and counted as a miss, got " + result);
+            check(result.compileCount == 2 && result.linkCount == 1, "Expected the shaders to be compiled and linked after the binary was rejected, got " + result);
+
+            result = createColorProgram(recorder, directory);
+            check(result.hitCount == 1 && result.compileCount == 0, "The binary stored after the rejection wasn't loaded: " + result);
+
+            System.out.println("Verified program binary cache");
+        } catch (Throwable e) {
+            System.err.println(recorder.dumpLog());
+            throw e;
+        } finally {
+            for (Path file : listBinaries(directory)) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static Result createColorProgram(final RecordingCommandEncoder recorder, final Path directory) {
+        final HeadlessWindowInterface windowInterface = new HeadlessWindowInterface(640, 480);
+        final ThinGL thinGL = new ThinGL(windowInterface);
+        try {
+            ThinGL.config().setProgramBinaryCacheDirectory(directory);
+            recorder.resetCounters();
+            recorder.clearLog();
+            ThinGL.programs().getColor();
+            return new Result(
+                    recorder.getCallCount(RecordingCommandEncoder.Command.CREATE_SHADER),
+                    recorder.getCallCount(RecordingCommandEncoder.Command.COMPILE_SHADER),
+                    recorder.getCallCount(RecordingCommandEncoder.Command.LINK_PROGRAM),
+                    recorder.getCallCount(RecordingCommandEncoder.Command.PROGRAM_BINARY),
+                    ThinGL.programBinaryCache().getHitCount(),
+                    ThinGL.programBinaryCache().getMissCount()
+            );
+        } finally {
+            thinGL.free();
+            windowInterface.free();
+        }
+    }
+
+    private static List<Path> listBinaries(final Path directory) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private static void check(final boolean condition, final String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private record Result(long createShaderCount, long compileCount, long linkCount, long loadCount, int hitCount, int missCount) {
+    }
+
+}
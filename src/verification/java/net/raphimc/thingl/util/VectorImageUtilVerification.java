@@ -0,0 +1,84 @@
+/*
+ * This file is part of ThinGL - https://github.com/RaphiMC/ThinGL
+ * Copyright (C) 2024-2025 RK_01/RaphiMC and contributors
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.raphimc.thingl.util;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Checks that the SIMD pixel conversions of {@link VectorImageUtil} produce bit-exact the same output as the scalar {@link ImageUtil} implementations.<br>
+ * Runs on random buffers of every size up to a few vector lengths, so the scalar tail loops are covered as well. Run it with {@code ./gradlew verifyVectorImageUtil}.
+ */
+public class VectorImageUtilVerification {
+
+    private static final int MAX_SIZE = 259;
+    private static final int[] HEIGHTS = {1, 2, 3, 7};
+    private static final int[] ALPHA_THRESHOLDS = {-1, 0, 1, 127, 128, 129, 254, 255, 256};
+
+    private static int checkCount;
+
+    public static void main(final String[] args) {
+        if (!ImageUtil.isVectorized()) {
+            throw new IllegalStateException("The SIMD implementations are not available (run with --add-modules jdk.incubator.vector)");
+        }
+
+        final SplittableRandom random = new SplittableRandom(1337);
+        for (int width = 1; width <= MAX_SIZE; width++) {
+            for (int height : HEIGHTS) {
+                final int w = width;
+                final int h = height;
+                final ByteBuffer monochromePixels = randomPixels(random, (w + 7) / 8 * h);
+                final ByteBuffer grayscalePixels = randomPixels(random, w * h);
+                final ByteBuffer colorPixels = randomPixels(random, w * h * Integer.BYTES);
+
+                verify("convertMonochromeToGrayscale", w, h, () -> ImageUtil.convertMonochromeToGrayscale(monochromePixels, w, h, false, false));
+                for (int channel = 0; channel < 4; channel++) {
+                    final int c = channel;
+                    verify("convertGrayscaleToColor[" + c + "]", w, h, () -> ImageUtil.convertGrayscaleToColor(grayscalePixels, w, h, c, false, false));
+                    verify("convertColorToGrayscale[" + c + "]", w, h, () -> ImageUtil.convertColorToGrayscale(colorPixels, w, h, c, false, false));
+                }
+                verify("revertPreMultipliedAlphaBGRA", w, h, () -> ImageUtil.revertPreMultipliedAlphaBGRA(colorPixels, false, false));
+                for (int alphaThreshold : ALPHA_THRESHOLDS) {
+                    verify("thresholdGrayscale[" + alphaThreshold + "]", w, h, () -> ImageUtil.thresholdGrayscale(grayscalePixels, alphaThreshold, false, false));
+                }
+            }
+        }
+
+        System.out.println("Verified " + checkCount + " vectorized pixel conversions");
+    }
+
+    private static void verify(final String name, final int width, final int height, final Supplier<ByteBuffer> conversion) {
+        ImageUtil.setVectorized(false);
+        final ByteBuffer expected = conversion.get();
+        ImageUtil.setVectorized(true);
+        final ByteBuffer actual = conversion.get();
+        final int mismatch = expected.mismatch(actual);
+        if (mismatch != -1) {
+            throw new IllegalStateException(name + " differs from the scalar implementation at byte " + mismatch + " (" + width + "x" + height + ")");
+        }
+        checkCount++;
+    }
+
+    private static ByteBuffer randomPixels(final SplittableRandom random, final int size) {
+        final byte[] pixels = new byte[size];
+        random.nextBytes(pixels);
+        return ByteBuffer.wrap(pixels);
+    }
+
+}